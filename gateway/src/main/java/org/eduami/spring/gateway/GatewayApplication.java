@@ -1,11 +1,16 @@
 package org.eduami.spring.gateway;
 
+import org.eduami.spring.gateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@LoadBalancerClient(name = "RESTAPI", configuration = LatencyAwareLoadBalancerConfiguration.class)
+@ImportRuntimeHints(GatewayRuntimeHints.class)
 public class GatewayApplication {
 
     public static void main(String[] args) {
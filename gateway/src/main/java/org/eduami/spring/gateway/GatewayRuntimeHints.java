@@ -0,0 +1,20 @@
+package org.eduami.spring.gateway;
+
+import org.eduami.spring.gateway.resilience.AdaptiveRetryGatewayFilterFactory;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Metadados para a imagem nativa que o processamento AOT não descobre sozinho: as classes de
+ * configuração dos filtros de rota são preenchidas por reflexão a partir dos {@code args} do YAML.
+ */
+class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(AdaptiveRetryGatewayFilterFactory.Config.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+    }
+}
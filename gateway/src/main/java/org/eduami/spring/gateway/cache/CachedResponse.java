@@ -0,0 +1,57 @@
+package org.eduami.spring.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Instant;
+
+/**
+ * Resposta do backend armazenada no cache, com o instante em que deixa de ser fresca.
+ */
+public class CachedResponse {
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final Instant storedAt;
+    private volatile Instant expiresAt;
+
+    public CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, Instant storedAt, Instant expiresAt) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.storedAt = storedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isFresh(Instant now) {
+        return now.isBefore(expiresAt);
+    }
+
+    /**
+     * Estende a validade após uma revalidação bem-sucedida (304 do backend).
+     */
+    public void refresh(Instant newExpiresAt) {
+        this.expiresAt = newExpiresAt;
+    }
+
+    public String getETag() {
+        return headers.getETag();
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public Instant getStoredAt() {
+        return storedAt;
+    }
+}
@@ -0,0 +1,41 @@
+package org.eduami.spring.gateway.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Armazenamento LRU limitado em número de entradas.
+ * As operações são curtas (sem I/O), então um único monitor é suficiente.
+ */
+public class ResponseCache {
+
+    private final Map<String, CachedResponse> entries;
+
+    public ResponseCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, CachedResponse response) {
+        entries.put(key, response);
+    }
+
+    /**
+     * Remove todas as entradas cujo caminho começa com o prefixo informado.
+     */
+    public synchronized void invalidatePrefix(String pathPrefix) {
+        entries.keySet().removeIf(key -> key.startsWith(pathPrefix));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
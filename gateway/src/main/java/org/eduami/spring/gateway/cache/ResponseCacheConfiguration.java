@@ -0,0 +1,20 @@
+package org.eduami.spring.gateway.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "gateway.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfiguration {
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(properties, meterRegistry, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,341 @@
+package org.eduami.spring.gateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eduami.spring.gateway.logging.RequestIdFilter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache de respostas para GETs idempotentes roteados para o restapi.
+ * <ul>
+ *     <li>Chave: caminho + query + Accept.</li>
+ *     <li>Respeita Cache-Control (no-store, private, no-cache, max-age, s-maxage) e ETag do backend.</li>
+ *     <li>Entradas vencidas com ETag são revalidadas com If-None-Match.</li>
+ *     <li>Misses simultâneos para a mesma chave geram uma única chamada ao backend (coalescing).</li>
+ *     <li>Escritas (POST/PUT/PATCH/DELETE) invalidam as entradas do mesmo recurso e dos recursos que dependem
+ *     dele ({@code invalidates}); uma resposta lida antes de uma escrita terminar não é armazenada.</li>
+ * </ul>
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final Pattern S_MAX_AGE = Pattern.compile("s-maxage\\s*=\\s*(\\d+)");
+    private static final Pattern MAX_AGE = Pattern.compile("(?<![-\\w])max-age\\s*=\\s*(\\d+)");
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCache cache;
+    private final Clock clock;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    // Contador de invalidações por raiz de recurso
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter revalidated;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.cache = new ResponseCache(properties.getMaxEntries());
+        this.clock = clock;
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        this.revalidated = requestCounter(meterRegistry, "revalidated");
+        Gauge.builder("gateway.cache.entries", cache, ResponseCache::size).register(meterRegistry);
+        Gauge.builder("gateway.cache.hit.ratio", this, ResponseCacheFilter::hitRatio).register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.cache.requests").tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * Fração das requisições elegíveis atendidas sem ir ao backend (hits, coalescidas e revalidadas com 304).
+     */
+    double hitRatio() {
+        double served = hits.count() + coalesced.count() + revalidated.count();
+        double total = served + misses.count();
+        return total == 0 ? 0.0 : served / total;
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes do NettyWriteResponseFilter, para que ele escreva na resposta decorada
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            if (HttpMethod.HEAD.equals(request.getMethod()) || HttpMethod.OPTIONS.equals(request.getMethod())) {
+                return chain.filter(exchange);
+            }
+            // Escrita: invalida o recurso depois que o backend responder
+            return chain.filter(exchange).doFinally(signal -> invalidate(resourceRoot(path)));
+        }
+        if (!isCacheable(request, path)) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(request);
+        Instant now = clock.instant();
+        CachedResponse cached = cache.get(key);
+        if (cached != null && cached.isFresh(now)) {
+            hits.increment();
+            return writeCached(exchange, cached, "HIT");
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            // Já existe uma chamada ao backend para esta chave: aguarda o resultado dela
+            return leader.asMono()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(result -> {
+                        if (result.isPresent()) {
+                            coalesced.increment();
+                            return writeCached(exchange, result.get(), "COALESCED");
+                        }
+                        misses.increment();
+                        return chain.filter(exchange);
+                    });
+        }
+
+        ServerHttpRequest upstreamRequest = request;
+        boolean revalidating = cached != null && cached.getETag() != null
+                && request.getHeaders().getIfNoneMatch().isEmpty();
+        if (revalidating) {
+            upstreamRequest = request.mutate().header(HttpHeaders.IF_NONE_MATCH, cached.getETag()).build();
+        }
+
+        String root = resourceRoot(path);
+        CachingResponseDecorator decorator = new CachingResponseDecorator(exchange.getResponse(), key, root,
+                generation(root).get(), revalidating ? cached : null, sink);
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(decorator).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty(); // Sem efeito se a resposta já foi publicada
+                });
+    }
+
+    private void invalidate(String root) {
+        List<String> roots = new ArrayList<>(List.of(root));
+        roots.addAll(properties.getInvalidates().getOrDefault(root, List.of()));
+        for (String invalidated : roots) {
+            generation(invalidated).incrementAndGet(); // antes de remover: respostas em curso não voltam ao cache
+            cache.invalidatePrefix(invalidated);
+        }
+    }
+
+    private AtomicLong generation(String root) {
+        return generations.computeIfAbsent(root, ignored -> new AtomicLong());
+    }
+
+    private boolean isCacheable(ServerHttpRequest request, String path) {
+        HttpHeaders headers = request.getHeaders();
+        if (headers.containsKey(HttpHeaders.AUTHORIZATION)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("no-cache"))) {
+            return false;
+        }
+        return properties.getPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    static String cacheKey(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        // O restapi comprime com gzip quando o cliente aceita; a versão comprimida não pode ser servida a quem não aceita.
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        return request.getPath().value() + (query != null ? "?" + query : "") + "|" + (accept != null ? accept : "")
+                + (gzip ? "|gzip" : "");
+    }
+
+    /**
+     * Raiz do recurso usada na invalidação, ex.: /restapi/api/partners/3 -> /restapi/api/partners.
+     */
+    static String resourceRoot(String path) {
+        String[] segments = path.split("/");
+        StringBuilder root = new StringBuilder();
+        for (int i = 1; i < segments.length && i <= 3; i++) {
+            root.append('/').append(segments[i]);
+        }
+        return root.length() == 0 ? "/" : root.toString();
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        String etag = cached.getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(etag);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.getStatus());
+        response.getHeaders().putAll(cached.getHeaders());
+        response.getHeaders().set(HttpHeaders.AGE,
+                String.valueOf(Duration.between(cached.getStoredAt(), clock.instant()).toSeconds()));
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    /**
+     * Repassa o corpo do backend ao cliente sem bufferizar, copiando-o em paralelo para o cache
+     * enquanto ele couber em {@code maxEntryBytes}.
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final String root;
+        private final long generation;
+        private final CachedResponse revalidating;
+        private final Sinks.One<CachedResponse> sink;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, String key, String root, long generation,
+                                 CachedResponse revalidating, Sinks.One<CachedResponse> sink) {
+            super(delegate);
+            this.key = key;
+            this.root = root;
+            this.generation = generation;
+            this.revalidating = revalidating;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getDelegate().getHeaders();
+
+            if (revalidating != null && getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                // O backend confirmou que a cópia ainda é válida: devolve o corpo armazenado
+                revalidated.increment();
+                revalidating.refresh(expiresAt(headers));
+                sink.tryEmitValue(revalidating);
+                Flux.from(body).subscribe(DataBufferUtils::release);
+                setStatusCode(revalidating.getStatus());
+                headers.putAll(revalidating.getHeaders());
+                headers.set(CACHE_STATUS_HEADER, "REVALIDATED");
+                return getDelegate().writeWith(Mono.fromSupplier(() -> bufferFactory().wrap(revalidating.getBody())));
+            }
+
+            misses.increment();
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+            if (!isStorable(headers)) {
+                return getDelegate().writeWith(body);
+            }
+
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean overflow = new AtomicBoolean();
+            Flux<DataBuffer> tee = Flux.from(body)
+                    .map(buffer -> (DataBuffer) buffer)
+                    .doOnNext(buffer -> {
+                        if (overflow.get()) {
+                            return;
+                        }
+                        if (copy.size() + buffer.readableByteCount() > properties.getMaxEntryBytes()) {
+                            overflow.set(true); // Corpo grande demais: segue só para o cliente
+                            copy.reset();
+                            return;
+                        }
+                        int position = buffer.readPosition();
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        buffer.readPosition(position);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (overflow.get()) {
+                            return;
+                        }
+                        Instant now = clock.instant();
+                        CachedResponse stored = new CachedResponse(getStatusCode(), withoutHopHeaders(headers),
+                                copy.toByteArray(), now, expiresAt(headers));
+                        if (generation(root).get() == generation) {
+                            cache.put(key, stored);
+                        }
+                        sink.tryEmitValue(stored);
+                    });
+            return getDelegate().writeWith(tee);
+        }
+
+        private boolean isStorable(HttpHeaders headers) {
+            if (getStatusCode() != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            long contentLength = headers.getContentLength();
+            if (contentLength > properties.getMaxEntryBytes()) {
+                return false;
+            }
+            String cacheControl = headers.getCacheControl();
+            return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")
+                    || cacheControl.contains("no-cache") || cacheControl.contains("max-age=0"));
+        }
+    }
+
+    private Instant expiresAt(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        Duration ttl = properties.getDefaultTtl();
+        if (cacheControl != null) {
+            // s-maxage (caches compartilhados) tem precedência sobre max-age
+            Matcher matcher = S_MAX_AGE.matcher(cacheControl);
+            if (!matcher.find()) {
+                matcher = MAX_AGE.matcher(cacheControl);
+                if (!matcher.find()) {
+                    return clock.instant().plus(ttl);
+                }
+            }
+            ttl = Duration.ofSeconds(Long.parseLong(matcher.group(1)));
+        }
+        return clock.instant().plus(ttl);
+    }
+
+    private static HttpHeaders withoutHopHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        copy.remove(HttpHeaders.CONNECTION);
+        copy.remove(CACHE_STATUS_HEADER);
+        copy.remove("X-RateLimit-Remaining");
+        copy.remove(RequestIdFilter.REQUEST_ID_HEADER); // cada resposta, inclusive do cache, leva o ID da própria requisição
+        return copy;
+    }
+}
@@ -0,0 +1,95 @@
+package org.eduami.spring.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuração do cache de respostas GET do gateway.
+ */
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Número máximo de respostas mantidas em memória (política LRU).
+     */
+    private int maxEntries = 1000;
+
+    /**
+     * Respostas maiores que este tamanho não são armazenadas.
+     */
+    private int maxEntryBytes = 512 * 1024;
+
+    /**
+     * Validade usada quando o backend não envia max-age/s-maxage.
+     */
+    private Duration defaultTtl = Duration.ofSeconds(5);
+
+    /**
+     * Caminhos (padrão Ant) elegíveis para cache.
+     */
+    private List<String> paths = new ArrayList<>(List.of(
+            "/restapi/api/partners", "/restapi/api/partners/**",
+            "/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**"));
+
+    /**
+     * Raízes de recurso cujas escritas também invalidam outras raízes. Aprovar ou cancelar um pedido muda o
+     * crédito do parceiro, então escritas em /restapi/api/orders invalidam /restapi/api/partners.
+     */
+    private Map<String, List<String>> invalidates = new LinkedHashMap<>(Map.of(
+            "/restapi/api/orders", List.of("/restapi/api/partners")));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public Map<String, List<String>> getInvalidates() {
+        return invalidates;
+    }
+
+    public void setInvalidates(Map<String, List<String>> invalidates) {
+        this.invalidates = invalidates;
+    }
+}
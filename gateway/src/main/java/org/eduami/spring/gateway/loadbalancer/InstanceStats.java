@@ -0,0 +1,110 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import org.eduami.spring.gateway.resilience.InstanceCircuitBreaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estatísticas de uma instância do backend: EWMA de latência, requisições em andamento,
+ * falhas consecutivas, estado de ejeção e circuit breaker. Todas as atualizações são sem locks.
+ */
+public class InstanceStats {
+
+    private final InstanceCircuitBreaker circuitBreaker;
+
+    private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+    private volatile long ejectedUntilNanos;
+
+    public InstanceStats(InstanceCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Registra a latência (em nanos) de uma resposta e se ela foi uma falha.
+     */
+    public void record(long latencyNanos, boolean failure, double alpha) {
+        samples.incrementAndGet();
+        recordLatency(latencyNanos, alpha);
+        if (failure) {
+            consecutiveFailures.incrementAndGet();
+        } else {
+            consecutiveFailures.set(0);
+        }
+        circuitBreaker.onResult(failure, System.nanoTime());
+    }
+
+    /**
+     * Registra apenas a latência, sem contar sucesso ou falha. Usado quando a requisição é
+     * cancelada (ex.: retentativa especulativa) antes de a instância responder.
+     */
+    public void recordLatency(long latencyNanos, double alpha) {
+        while (true) {
+            long bits = ewmaBits.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = current == 0.0 ? latencyNanos : current + alpha * (latencyNanos - current);
+            if (ewmaBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ejeta a instância por {@code baseNanos} multiplicado pelo número de ejeções anteriores (até 10x).
+     */
+    public void eject(long nowNanos, long baseNanos) {
+        int times = Math.min(ejections.incrementAndGet(), 10);
+        ejectedUntilNanos = nowNanos + baseNanos * times;
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * Ao voltar da ejeção, a instância recebe uma EWMA neutra para voltar a ser escolhida.
+     */
+    public void readmit(double neutralEwmaNanos) {
+        ejectedUntilNanos = 0;
+        ewmaBits.set(Double.doubleToLongBits(neutralEwmaNanos));
+    }
+
+    public boolean isEjected(long nowNanos) {
+        long until = ejectedUntilNanos;
+        return until != 0 && nowNanos - until < 0;
+    }
+
+    public boolean ejectionExpired(long nowNanos) {
+        long until = ejectedUntilNanos;
+        return until != 0 && nowNanos - until >= 0;
+    }
+
+    public double ewmaNanos() {
+        return Double.longBitsToDouble(ewmaBits.get());
+    }
+
+    public long samples() {
+        return samples.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int consecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public InstanceCircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+}
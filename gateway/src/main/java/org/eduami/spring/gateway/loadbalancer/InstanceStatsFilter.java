@@ -0,0 +1,72 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Mede cada requisição encaminhada à instância escolhida pelo balanceador: incrementa as
+ * requisições em andamento, registra a latência até os headers da resposta (ou até o erro)
+ * e conta 5xx/erros de conexão como falhas. Se a requisição for cancelada antes da resposta
+ * (retentativa especulativa do AdaptiveRetry), o tempo decorrido entra só na EWMA.
+ * Roda logo após o ReactiveLoadBalancerClientFilter.
+ */
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry registry;
+    private final LoadBalancerStatsProperties properties;
+
+    public InstanceStatsFilter(InstanceStatsRegistry registry, LoadBalancerStatsProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+        InstanceStats stats = registry.get(lbResponse.getServer());
+        long start = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean();
+        stats.requestStarted();
+
+        // O chain termina com os headers da instância (o corpo é escrito depois, pelo NettyWriteResponseFilter):
+        // cada tentativa do AdaptiveRetry é registrada com o seu status, inclusive o 503 que foi retentado
+        return chain.filter(exchange)
+                .doOnSuccess(ignored -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        stats.record(System.nanoTime() - start, status != null && status.is5xxServerError(), properties.getEwmaAlpha());
+                    }
+                })
+                .doOnError(error -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        stats.record(System.nanoTime() - start, true, properties.getEwmaAlpha());
+                    }
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL && recorded.compareAndSet(false, true)) {
+                        stats.recordLatency(System.nanoTime() - start, properties.getEwmaAlpha());
+                    }
+                    stats.requestFinished();
+                });
+    }
+}
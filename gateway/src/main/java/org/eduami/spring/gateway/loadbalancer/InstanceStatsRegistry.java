@@ -0,0 +1,62 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eduami.spring.gateway.resilience.CircuitBreakerProperties;
+import org.eduami.spring.gateway.resilience.InstanceCircuitBreaker;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estatísticas compartilhadas entre o balanceador (que escolhe) e o filtro que mede as respostas.
+ */
+public class InstanceStatsRegistry {
+
+    private final ConcurrentMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerProperties circuitBreakerProperties;
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry) {
+        this(meterRegistry, new CircuitBreakerProperties());
+    }
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry, CircuitBreakerProperties circuitBreakerProperties) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakerProperties = circuitBreakerProperties;
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> {
+            InstanceStats created = new InstanceStats(
+                    new InstanceCircuitBreaker(circuitBreakerProperties, (from, to) -> transitioned(key, from, to)));
+            if (meterRegistry != null) {
+                Gauge.builder("gateway.loadbalancer.latency.ewma", created, s -> s.ewmaNanos() / 1_000_000.0)
+                        .tag("instance", key).baseUnit("milliseconds").register(meterRegistry);
+                Gauge.builder("gateway.loadbalancer.inflight", created, InstanceStats::inFlight)
+                        .tag("instance", key).register(meterRegistry);
+                Gauge.builder("gateway.resilience.breaker.state", created, s -> s.circuitBreaker().getState().ordinal())
+                        .tag("instance", key).description("0=fechado, 1=aberto, 2=meio-aberto").register(meterRegistry);
+            }
+            return created;
+        });
+    }
+
+    public void ejected(ServiceInstance instance, String reason) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.loadbalancer.ejections", "instance", key(instance), "reason", reason).increment();
+        }
+    }
+
+    private void transitioned(String key, InstanceCircuitBreaker.State from, InstanceCircuitBreaker.State to) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.resilience.breaker.transitions",
+                    "instance", key, "from", from.name(), "to", to.name()).increment();
+        }
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,149 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Balanceador "power of two choices": sorteia duas instâncias elegíveis e escolhe a de menor
+ * custo, onde custo = EWMA de latência x (requisições em andamento + 1).
+ * Instâncias com falhas consecutivas ou latência muito acima da mediana são ejetadas por um tempo,
+ * e instâncias com o circuit breaker aberto não são escolhidas.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    // Custo mínimo de uma instância sem amostras, para que ela não atraia todo o tráfego de uma vez
+    private static final double MIN_EWMA_NANOS = 1_000_000.0;
+
+    private final Supplier<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+    private final LoadBalancerStatsProperties properties;
+
+    public LatencyAwareLoadBalancer(Supplier<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                    InstanceStatsRegistry registry, LoadBalancerStatsProperties properties) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.get();
+        if (supplier == null) {
+            return Mono.just(new EmptyResponse());
+        }
+        return supplier.get(request).next().map(instances -> choose(instances, System.nanoTime()));
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances, long now) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> eligible = eligible(instances, now);
+        ServiceInstance chosen;
+        if (eligible.size() == 1) {
+            chosen = eligible.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(eligible.size());
+            int second = random.nextInt(eligible.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            ServiceInstance a = eligible.get(first);
+            ServiceInstance b = eligible.get(second);
+            chosen = cost(a) <= cost(b) ? a : b;
+        }
+        registry.get(chosen).circuitBreaker().onDispatched();
+        return new DefaultResponse(chosen);
+    }
+
+    private double cost(ServiceInstance instance) {
+        InstanceStats stats = registry.get(instance);
+        return Math.max(stats.ewmaNanos(), MIN_EWMA_NANOS) * (stats.inFlight() + 1);
+    }
+
+    /**
+     * Aplica as regras de ejeção e retorna as instâncias que podem receber tráfego.
+     * Nunca retorna uma lista vazia: se todas estiverem ejetadas ou com o circuito aberto, usa todas.
+     */
+    private List<ServiceInstance> eligible(List<ServiceInstance> instances, long now) {
+        double median = medianEwma(instances, null);
+        int maxEjected = Math.max(0, instances.size() * properties.getMaxEjectionPercent() / 100);
+        int ejected = 0;
+        for (ServiceInstance instance : instances) {
+            InstanceStats stats = registry.get(instance);
+            if (stats.ejectionExpired(now)) {
+                stats.readmit(median);
+            }
+            if (stats.isEjected(now)) {
+                ejected++;
+            }
+        }
+
+        List<ServiceInstance> eligible = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            InstanceStats stats = registry.get(instance);
+            if (stats.isEjected(now) || !stats.circuitBreaker().isCallPermitted(now)) {
+                continue;
+            }
+            String reason = outlierReason(stats, medianEwma(instances, instance));
+            if (reason != null && ejected < maxEjected) {
+                stats.eject(now, properties.getBaseEjectionTime().toNanos());
+                registry.ejected(instance, reason);
+                ejected++;
+                continue;
+            }
+            eligible.add(instance);
+        }
+        return eligible.isEmpty() ? instances : eligible;
+    }
+
+    /**
+     * @param othersMedian mediana da EWMA das demais instâncias (a própria instância não entra na referência).
+     */
+    private String outlierReason(InstanceStats stats, double othersMedian) {
+        if (stats.consecutiveFailures() >= properties.getConsecutiveFailures()) {
+            return "failures";
+        }
+        double ewma = stats.ewmaNanos();
+        if (othersMedian > 0 && stats.samples() >= properties.getMinSamples()
+                && ewma > properties.getMinOutlierLatency().toNanos()
+                && ewma > othersMedian * properties.getLatencyOutlierFactor()) {
+            return "latency";
+        }
+        return null;
+    }
+
+    private double medianEwma(List<ServiceInstance> instances, ServiceInstance excluded) {
+        double[] values = instances.stream()
+                .filter(instance -> instance != excluded)
+                .map(registry::get)
+                .filter(stats -> stats.samples() >= properties.getMinSamples())
+                .mapToDouble(InstanceStats::ewmaNanos)
+                .sorted()
+                .toArray();
+        if (values.length == 0) {
+            return 0.0;
+        }
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,26 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuração do cliente de balanceamento (contexto filho do Spring Cloud LoadBalancer).
+ * Não é anotada com @Configuration para não ser registrada no contexto principal pelo component scan;
+ * é referenciada por {@code @LoadBalancerClient} em {@link org.eduami.spring.gateway.GatewayApplication}.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                         InstanceStatsRegistry instanceStatsRegistry,
+                                                                         LoadBalancerStatsProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        var supplierProvider = loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        return new LatencyAwareLoadBalancer(supplierProvider::getIfAvailable, serviceId, instanceStatsRegistry, properties);
+    }
+}
@@ -0,0 +1,24 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eduami.spring.gateway.resilience.CircuitBreakerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({LoadBalancerStatsProperties.class, CircuitBreakerProperties.class})
+public class LoadBalancerStatsConfiguration {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(MeterRegistry meterRegistry,
+                                                       CircuitBreakerProperties circuitBreakerProperties) {
+        return new InstanceStatsRegistry(meterRegistry, circuitBreakerProperties);
+    }
+
+    @Bean
+    public InstanceStatsFilter instanceStatsFilter(InstanceStatsRegistry instanceStatsRegistry,
+                                                   LoadBalancerStatsProperties properties) {
+        return new InstanceStatsFilter(instanceStatsRegistry, properties);
+    }
+}
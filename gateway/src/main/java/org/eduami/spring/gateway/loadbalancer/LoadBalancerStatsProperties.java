@@ -0,0 +1,103 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Parâmetros do balanceamento por latência e da ejeção de instâncias anômalas.
+ */
+@ConfigurationProperties(prefix = "gateway.loadbalancer")
+public class LoadBalancerStatsProperties {
+
+    /**
+     * Peso da amostra mais recente na média móvel exponencial (EWMA) de latência.
+     */
+    private double ewmaAlpha = 0.3;
+
+    /**
+     * Falhas consecutivas (5xx ou erro de conexão) que ejetam a instância.
+     */
+    private int consecutiveFailures = 5;
+
+    /**
+     * Instância com EWMA acima de {@code latencyOutlierFactor} vezes a mediana é ejetada.
+     */
+    private double latencyOutlierFactor = 3.0;
+
+    /**
+     * Latência mínima para considerar uma instância lenta, evitando ejeções por diferenças irrelevantes.
+     */
+    private Duration minOutlierLatency = Duration.ofMillis(100);
+
+    /**
+     * Amostras mínimas antes de a instância entrar no cálculo de anomalia de latência.
+     */
+    private int minSamples = 20;
+
+    /**
+     * Tempo base de ejeção; cresce a cada nova ejeção da mesma instância (até 10x).
+     */
+    private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+    /**
+     * Percentual máximo de instâncias ejetadas ao mesmo tempo.
+     */
+    private int maxEjectionPercent = 50;
+
+    public double getEwmaAlpha() {
+        return ewmaAlpha;
+    }
+
+    public void setEwmaAlpha(double ewmaAlpha) {
+        this.ewmaAlpha = ewmaAlpha;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public double getLatencyOutlierFactor() {
+        return latencyOutlierFactor;
+    }
+
+    public void setLatencyOutlierFactor(double latencyOutlierFactor) {
+        this.latencyOutlierFactor = latencyOutlierFactor;
+    }
+
+    public Duration getMinOutlierLatency() {
+        return minOutlierLatency;
+    }
+
+    public void setMinOutlierLatency(Duration minOutlierLatency) {
+        this.minOutlierLatency = minOutlierLatency;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public Duration getBaseEjectionTime() {
+        return baseEjectionTime;
+    }
+
+    public void setBaseEjectionTime(Duration baseEjectionTime) {
+        this.baseEjectionTime = baseEjectionTime;
+    }
+
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public void setMaxEjectionPercent(int maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+}
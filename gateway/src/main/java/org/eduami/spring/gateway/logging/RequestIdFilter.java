@@ -0,0 +1,39 @@
+package org.eduami.spring.gateway.logging;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Garante um {@code X-Request-Id} em toda requisição encaminhada ao restapi (gerado aqui se o cliente
+ * não enviar) e o devolve na resposta, para correlacionar os logs do cliente, do gateway e do restapi.
+ */
+public class RequestIdFilter implements GlobalFilter, Ordered {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String requestId = exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isEmpty() || requestId.length() > 64) {
+            String generated = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            ServerHttpRequest request = exchange.getRequest().mutate()
+                    .headers(headers -> headers.set(REQUEST_ID_HEADER, generated))
+                    .build();
+            exchange = exchange.mutate().request(request).build();
+            requestId = generated;
+        }
+        exchange.getResponse().getHeaders().set(REQUEST_ID_HEADER, requestId);
+        return chain.filter(exchange);
+    }
+}
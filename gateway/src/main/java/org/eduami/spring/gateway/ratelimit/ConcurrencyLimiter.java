@@ -0,0 +1,31 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas, sem locks.
+ */
+public final class ConcurrencyLimiter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public boolean tryAcquire(int limit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,166 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Limita taxa e concorrência por parceiro antes de a requisição chegar ao restapi.
+ * Escritas (POST /api/orders, PATCH de status/cancelamento, etc.) e leituras têm orçamentos separados.
+ * Todo o estado por parceiro é atualizado com CAS; o único ponto serializado é a limpeza de
+ * parceiros ociosos, que roda em uma thread por vez e só quando o mapa passa do limite.
+ */
+public class PartnerRateLimitFilter implements GlobalFilter, Ordered {
+
+    static final String ANONYMOUS_WRITES = "anonymous-writes";
+
+    private static final Pattern PARTNER_PATH = Pattern.compile("/api/partners/(\\d+)");
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final PeerQuotaScaler peerQuotaScaler;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, PartnerQuota> quotas = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public PartnerRateLimitFilter(RateLimitProperties properties, PeerQuotaScaler peerQuotaScaler,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.peerQuotaScaler = peerQuotaScaler;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("gateway.ratelimit.partners", List.of(), quotas);
+    }
+
+    @Override
+    public int getOrder() {
+        // Depois do cache de respostas: hits não consomem o orçamento do parceiro
+        return 0;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean write = isWrite(request.getMethod());
+        String partnerKey = partnerKey(request, write);
+        if (partnerKey == null) {
+            return chain.filter(exchange);
+        }
+        boolean anonymousWrite = ANONYMOUS_WRITES.equals(partnerKey);
+        RateLimitProperties.Budget budget = anonymousWrite ? properties.getAnonymousWrite()
+                : write ? properties.getWrite() : properties.getRead();
+        String budgetName = anonymousWrite ? "anonymous-write" : write ? "write" : "read";
+        long now = System.nanoTime();
+        PartnerQuota quota = quotas.computeIfAbsent(partnerKey, key -> new PartnerQuota(now));
+        quota.lastSeenNanos = now;
+        if (quotas.size() > properties.getMaxTrackedPartners()) {
+            evictIdle(now);
+        }
+
+        int peers = peerQuotaScaler.peers(now);
+        // Com N gateways, cada um aplica 1/N da taxa e da concorrência configuradas
+        long emissionInterval = NANOS_PER_SECOND * peers / Math.max(1, budget.getReplenishRate());
+        int burst = Math.max(1, budget.getBurstCapacity() / peers);
+        int maxConcurrent = Math.max(1, budget.getMaxConcurrent() / peers);
+
+        TokenBucket bucket = write ? quota.writeBucket : quota.readBucket;
+        long waitNanos = bucket.tryAcquire(now, emissionInterval, burst);
+        if (waitNanos > 0) {
+            return reject(exchange, budgetName, "rate", waitNanos);
+        }
+        ConcurrencyLimiter limiter = write ? quota.writeConcurrency : quota.readConcurrency;
+        if (!limiter.tryAcquire(maxConcurrent)) {
+            return reject(exchange, budgetName, "concurrency", NANOS_PER_SECOND);
+        }
+        exchange.getResponse().getHeaders().set("X-RateLimit-Remaining",
+                String.valueOf(bucket.available(now, emissionInterval, burst)));
+        return chain.filter(exchange).doFinally(signal -> limiter.release());
+    }
+
+    static boolean isWrite(HttpMethod method) {
+        return !(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method));
+    }
+
+    /**
+     * Identifica o parceiro da requisição, ou retorna null se ela não deve ser limitada. Sem parceiro identificado,
+     * escritas (com {@code limit-anonymous-writes}, o padrão) caem todas no balde {@link #ANONYMOUS_WRITES} e,
+     * com {@code limit-anonymous}, as demais requisições são limitadas pelo endereço do cliente.
+     */
+    String partnerKey(ServerHttpRequest request, boolean write) {
+        String header = request.getHeaders().getFirst(properties.getPartnerHeader());
+        if (header != null && !header.isBlank()) {
+            return "partner:" + header.trim();
+        }
+        Matcher matcher = PARTNER_PATH.matcher(request.getPath().value());
+        if (matcher.find()) {
+            return "partner:" + matcher.group(1);
+        }
+        String partnerId = request.getQueryParams().getFirst("partnerId");
+        if (partnerId != null && !partnerId.isBlank()) {
+            return "partner:" + partnerId.trim();
+        }
+        if (write && properties.isLimitAnonymousWrites()) {
+            return ANONYMOUS_WRITES;
+        }
+        if (!properties.isLimitAnonymous()) {
+            return null;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return "client:" + (remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "unknown");
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String budget, String reason, long waitNanos) {
+        meterRegistry.counter("gateway.ratelimit.rejected", "budget", budget, "reason", reason).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + NANOS_PER_SECOND - 1))));
+        response.getHeaders().set("X-RateLimit-Remaining", "0");
+        return response.setComplete();
+    }
+
+    private void evictIdle(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long idleNanos = properties.getIdleTimeout().toNanos();
+            quotas.entrySet().removeIf(entry -> now - entry.getValue().lastSeenNanos > idleNanos
+                    && entry.getValue().readConcurrency.inFlight() == 0
+                    && entry.getValue().writeConcurrency.inFlight() == 0);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Estado de um parceiro: um balde e um limite de concorrência para leituras e outro par para escritas.
+     */
+    static final class PartnerQuota {
+        final TokenBucket readBucket;
+        final TokenBucket writeBucket;
+        final ConcurrencyLimiter readConcurrency = new ConcurrencyLimiter();
+        final ConcurrencyLimiter writeConcurrency = new ConcurrencyLimiter();
+        volatile long lastSeenNanos;
+
+        PartnerQuota(long now) {
+            this.readBucket = new TokenBucket(now);
+            this.writeBucket = new TokenBucket(now);
+            this.lastSeenNanos = now;
+        }
+    }
+}
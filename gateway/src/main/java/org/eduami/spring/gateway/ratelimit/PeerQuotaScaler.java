@@ -0,0 +1,38 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcula quantas instâncias do gateway dividem o orçamento, a partir do registro local do Eureka.
+ * A consulta é feita no caminho da requisição, no máximo uma vez por {@code refreshInterval},
+ * e só pela thread que vencer o CAS; as demais usam o último valor.
+ */
+public class PeerQuotaScaler {
+
+    private final DiscoveryClient discoveryClient;
+    private final RateLimitProperties.PeerSharing properties;
+    private final AtomicLong nextRefreshNanos = new AtomicLong(System.nanoTime());
+    private volatile int peers = 1;
+
+    public PeerQuotaScaler(DiscoveryClient discoveryClient, RateLimitProperties.PeerSharing properties) {
+        this.discoveryClient = discoveryClient;
+        this.properties = properties;
+    }
+
+    public int peers(long nowNanos) {
+        if (discoveryClient == null || !properties.isEnabled()) {
+            return 1;
+        }
+        long next = nextRefreshNanos.get();
+        if (nowNanos - next >= 0 && nextRefreshNanos.compareAndSet(next, nowNanos + properties.getRefreshInterval().toNanos())) {
+            try {
+                peers = Math.max(1, discoveryClient.getInstances(properties.getServiceId()).size());
+            } catch (RuntimeException e) {
+                // Mantém o último valor conhecido se o registro estiver indisponível
+            }
+        }
+        return peers;
+    }
+}
@@ -0,0 +1,26 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "gateway.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+    @Bean
+    public PeerQuotaScaler peerQuotaScaler(ObjectProvider<DiscoveryClient> discoveryClient, RateLimitProperties properties) {
+        return new PeerQuotaScaler(discoveryClient.getIfAvailable(), properties.getPeerSharing());
+    }
+
+    @Bean
+    public PartnerRateLimitFilter partnerRateLimitFilter(RateLimitProperties properties, PeerQuotaScaler peerQuotaScaler,
+                                                         MeterRegistry meterRegistry) {
+        return new PartnerRateLimitFilter(properties, peerQuotaScaler, meterRegistry);
+    }
+}
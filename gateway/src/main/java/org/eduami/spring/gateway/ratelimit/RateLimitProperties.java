@@ -0,0 +1,204 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Orçamentos de taxa e de concorrência por parceiro.
+ * Os valores são totais do cluster quando {@code peer-sharing.enabled=true}; caso contrário, por instância do gateway.
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header que identifica o parceiro. Sem ele, usa o ID do caminho /api/partners/{id}
+     * ou o parâmetro partnerId. O POST /api/orders leva o parceiro só no corpo: sem o header, cai no
+     * orçamento compartilhado {@link #anonymousWrite}.
+     */
+    private String partnerHeader = "X-Partner-Id";
+
+    /**
+     * Quando true, requisições sem parceiro identificado são limitadas pelo endereço do cliente.
+     */
+    private boolean limitAnonymous = false;
+
+    /**
+     * Quando true, todas as escritas sem parceiro identificado dividem um único orçamento, {@link #anonymousWrite}:
+     * omitir o header não escapa do limite. O parceiro vem de dados do cliente, então o orçamento não é por
+     * endereço (clientes atrás de um NAT ou proxy não ficam presos a um balde só deles) nem infinito.
+     */
+    private boolean limitAnonymousWrites = true;
+
+    private Budget read = new Budget(200, 400, 100);
+
+    private Budget write = new Budget(50, 100, 20);
+
+    /**
+     * Orçamento compartilhado pelas escritas sem parceiro identificado (somadas, não por cliente).
+     */
+    private Budget anonymousWrite = new Budget(100, 200, 40);
+
+    /**
+     * Acima deste número de parceiros rastreados, entradas ociosas são descartadas.
+     */
+    private int maxTrackedPartners = 10_000;
+
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private PeerSharing peerSharing = new PeerSharing();
+
+    public static class Budget {
+        private int replenishRate;   // fichas por segundo
+        private int burstCapacity;
+        private int maxConcurrent;
+
+        public Budget() {
+        }
+
+        public Budget(int replenishRate, int burstCapacity, int maxConcurrent) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    /**
+     * Divide os orçamentos entre as instâncias do gateway registradas no Eureka.
+     */
+    public static class PeerSharing {
+        private boolean enabled = false;
+        private String serviceId = "GATEWAY";
+        private Duration refreshInterval = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPartnerHeader() {
+        return partnerHeader;
+    }
+
+    public void setPartnerHeader(String partnerHeader) {
+        this.partnerHeader = partnerHeader;
+    }
+
+    public boolean isLimitAnonymous() {
+        return limitAnonymous;
+    }
+
+    public void setLimitAnonymous(boolean limitAnonymous) {
+        this.limitAnonymous = limitAnonymous;
+    }
+
+    public boolean isLimitAnonymousWrites() {
+        return limitAnonymousWrites;
+    }
+
+    public void setLimitAnonymousWrites(boolean limitAnonymousWrites) {
+        this.limitAnonymousWrites = limitAnonymousWrites;
+    }
+
+    public Budget getRead() {
+        return read;
+    }
+
+    public void setRead(Budget read) {
+        this.read = read;
+    }
+
+    public Budget getWrite() {
+        return write;
+    }
+
+    public void setWrite(Budget write) {
+        this.write = write;
+    }
+
+    public Budget getAnonymousWrite() {
+        return anonymousWrite;
+    }
+
+    public void setAnonymousWrite(Budget anonymousWrite) {
+        this.anonymousWrite = anonymousWrite;
+    }
+
+    public int getMaxTrackedPartners() {
+        return maxTrackedPartners;
+    }
+
+    public void setMaxTrackedPartners(int maxTrackedPartners) {
+        this.maxTrackedPartners = maxTrackedPartners;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public PeerSharing getPeerSharing() {
+        return peerSharing;
+    }
+
+    public void setPeerSharing(PeerSharing peerSharing) {
+        this.peerSharing = peerSharing;
+    }
+}
@@ -0,0 +1,52 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem locks, implementado como GCRA (generic cell rate algorithm):
+ * todo o estado é um único instante teórico de chegada (TAT), atualizado por CAS.
+ * Equivale a um balde que repõe uma ficha a cada {@code emissionInterval} e guarda até {@code burst} fichas.
+ */
+public final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Tenta consumir uma ficha.
+     *
+     * @param nowNanos         instante atual (System.nanoTime()).
+     * @param emissionInterval intervalo de reposição de uma ficha, em nanos.
+     * @param burst            capacidade do balde.
+     * @return 0 se a ficha foi consumida, ou quantos nanos faltam para a próxima ficha.
+     */
+    public long tryAcquire(long nowNanos, long emissionInterval, int burst) {
+        long capacity = emissionInterval * burst;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, nowNanos) + emissionInterval;
+            long excess = newTat - nowNanos - capacity;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Fichas disponíveis no instante informado (aproximado, apenas informativo).
+     */
+    public long available(long nowNanos, long emissionInterval, int burst) {
+        long backlog = Math.max(0, theoreticalArrival.get() - nowNanos);
+        return Math.max(0, burst - (backlog + emissionInterval - 1) / emissionInterval);
+    }
+
+    long theoreticalArrival() {
+        return theoreticalArrival.get();
+    }
+}
@@ -0,0 +1,280 @@
+package org.eduami.spring.gateway.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.reset;
+
+/**
+ * Retentativas do hop gateway -> restapi com backoff exponencial e jitter.
+ * <ul>
+ *   <li>GET/HEAD: retentados em erro de conexão, timeout, IOException e nos status configurados;
+ *   com {@code hedgeAfter}, a primeira tentativa que não responde a tempo é cancelada e
+ *   reenviada (o balanceador tende a escolher outra instância, pois a lenta recebe a latência).</li>
+ *   <li>Demais métodos: só com o header de idempotência e apenas quando a requisição comprovadamente
+ *   não chegou ao backend (falha de conexão ou nenhuma instância disponível). Sem o header,
+ *   um POST /api/orders nunca é repetido.</li>
+ * </ul>
+ * Todas as retentativas consomem um {@link RetryBudget} por rota.
+ * Deve ser declarado depois do StripPrefix, pois a retentativa reexecuta apenas os filtros seguintes.
+ */
+public class AdaptiveRetryGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveRetryGatewayFilterFactory.Config> {
+
+    enum Policy { NONE, IDEMPOTENT, KEYED }
+
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveRetryGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        RetryBudget budget = new RetryBudget(config.getBudgetPercent(), config.getRetries());
+        boolean hedging = config.getHedgeAfter() != null && config.getRetries() > 0;
+
+        return (exchange, chain) -> {
+            budget.onRequest();
+            Policy policy = policy(exchange.getRequest(), config);
+            if (policy == Policy.NONE || config.getRetries() <= 0) {
+                return chain.filter(exchange);
+            }
+            AtomicInteger attempt = new AtomicInteger();
+            Mono<Void> call = Mono.defer(() -> {
+                int current = attempt.getAndIncrement();
+                if (current > 0) {
+                    prepareRetry(exchange);
+                }
+                Mono<Void> forwarded = chain.filter(exchange);
+                if (hedging && current == 0 && policy == Policy.IDEMPOTENT) {
+                    // O timeout só dispara se houver orçamento; sem ele a tentativa original segue sem corte
+                    forwarded = forwarded.timeout(Mono.delay(config.getHedgeAfter())
+                            .flatMap(tick -> budget.tryWithdraw() ? Mono.just(tick) : Mono.never()),
+                            Mono.error(SpeculativeRetryException::new));
+                }
+                return forwarded.then(Mono.defer(() -> checkStatus(exchange, policy, config)));
+            });
+
+            return call.retryWhen(Retry.backoff(config.getRetries(), config.getFirstBackoff())
+                            .maxBackoff(config.getMaxBackoff())
+                            .jitter(config.getJitter())
+                            .filter(error -> shouldRetry(error, exchange, policy, budget, route))
+                            .doBeforeRetry(signal -> retried(route, signal.failure()))
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    // Último status retentável: deixa a resposta do backend seguir para o cliente
+                    .onErrorResume(RetryableStatusException.class, error -> Mono.empty());
+        };
+    }
+
+    static Policy policy(ServerHttpRequest request, Config config) {
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) {
+            return Policy.IDEMPOTENT;
+        }
+        if (config.getIdempotencyKeyHeader() != null
+                && request.getHeaders().containsKey(config.getIdempotencyKeyHeader())) {
+            return Policy.KEYED;
+        }
+        return Policy.NONE;
+    }
+
+    private Mono<Void> checkStatus(ServerWebExchange exchange, Policy policy, Config config) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (policy == Policy.IDEMPOTENT && status != null && config.getStatuses().contains(status.value())
+                && !exchange.getResponse().isCommitted()) {
+            return Mono.error(new RetryableStatusException(status));
+        }
+        return Mono.empty();
+    }
+
+    private boolean shouldRetry(Throwable error, ServerWebExchange exchange, Policy policy, RetryBudget budget, String route) {
+        if (exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        if (error instanceof SpeculativeRetryException) {
+            return true; // orçamento já consumido quando o timeout disparou
+        }
+        boolean retryable = notSent(error)
+                || (policy == Policy.IDEMPOTENT && (error instanceof RetryableStatusException
+                || hasCause(error, TimeoutException.class) || hasCause(error, IOException.class)));
+        if (!retryable) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            meterRegistry.counter("gateway.resilience.retry.budget.exhausted", "route", route).increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Erros em que a requisição não chegou a ser enviada ao backend.
+     */
+    private static boolean notSent(Throwable error) {
+        return error instanceof NotFoundException || hasCause(error, ConnectException.class);
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (type.isInstance(current)) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private void retried(String route, Throwable failure) {
+        String reason;
+        if (failure instanceof SpeculativeRetryException) {
+            meterRegistry.counter("gateway.resilience.hedges", "route", route).increment();
+            reason = "hedge";
+        } else if (failure instanceof RetryableStatusException statusError) {
+            reason = String.valueOf(statusError.status.value());
+        } else if (notSent(failure)) {
+            reason = "connect";
+        } else if (hasCause(failure, TimeoutException.class)) {
+            reason = "timeout";
+        } else {
+            reason = "io";
+        }
+        meterRegistry.counter("gateway.resilience.retries", "route", route, "reason", reason).increment();
+    }
+
+    /**
+     * Descarta a resposta da tentativa anterior antes de reenviar a requisição.
+     */
+    private static void prepareRetry(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+            exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR);
+        }
+        reset(exchange);
+    }
+
+    static class RetryableStatusException extends RuntimeException {
+        private final HttpStatusCode status;
+
+        RetryableStatusException(HttpStatusCode status) {
+            super("Status retentável: " + status.value(), null, false, false);
+            this.status = status;
+        }
+    }
+
+    static class SpeculativeRetryException extends RuntimeException {
+        SpeculativeRetryException() {
+            super("Tentativa sem resposta dentro de hedgeAfter", null, false, false);
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int retries = 2;
+        private Duration firstBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double jitter = 0.5;
+        private List<Integer> statuses = List.of(502, 503, 504);
+        private String idempotencyKeyHeader = "Idempotency-Key";
+        private int budgetPercent = 20;
+        private Duration hedgeAfter;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public Duration getFirstBackoff() {
+            return firstBackoff;
+        }
+
+        public void setFirstBackoff(Duration firstBackoff) {
+            this.firstBackoff = firstBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+
+        public List<Integer> getStatuses() {
+            return statuses;
+        }
+
+        public void setStatuses(List<Integer> statuses) {
+            this.statuses = statuses;
+        }
+
+        public String getIdempotencyKeyHeader() {
+            return idempotencyKeyHeader;
+        }
+
+        public void setIdempotencyKeyHeader(String idempotencyKeyHeader) {
+            this.idempotencyKeyHeader = idempotencyKeyHeader;
+        }
+
+        public int getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(int budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public Duration getHedgeAfter() {
+            return hedgeAfter;
+        }
+
+        public void setHedgeAfter(Duration hedgeAfter) {
+            this.hedgeAfter = hedgeAfter;
+        }
+    }
+}
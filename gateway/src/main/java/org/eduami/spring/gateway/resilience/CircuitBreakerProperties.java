@@ -0,0 +1,64 @@
+package org.eduami.spring.gateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuração do circuit breaker aplicado a cada instância do backend.
+ */
+@ConfigurationProperties(prefix = "gateway.resilience.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    /**
+     * Janela (em chamadas) na qual a taxa de falhas é avaliada.
+     */
+    private int windowSize = 20;
+
+    /**
+     * Percentual de falhas na janela que abre o circuito.
+     */
+    private int failureRateThreshold = 50;
+
+    /**
+     * Tempo em que o circuito fica aberto antes de liberar chamadas de teste.
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * Chamadas de teste no estado meio-aberto; se todas tiverem sucesso, o circuito fecha.
+     */
+    private int halfOpenPermits = 3;
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenPermits() {
+        return halfOpenPermits;
+    }
+
+    public void setHalfOpenPermits(int halfOpenPermits) {
+        this.halfOpenPermits = halfOpenPermits;
+    }
+}
@@ -0,0 +1,115 @@
+package org.eduami.spring.gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker de uma instância: FECHADO -> ABERTO quando a taxa de falhas de uma janela
+ * passa do limite; ABERTO -> MEIO_ABERTO após {@code openDuration}; MEIO_ABERTO -> FECHADO quando
+ * as chamadas de teste têm sucesso, ou de volta a ABERTO na primeira falha.
+ * A janela é contada em um único AtomicLong (chamadas nos 32 bits altos, falhas nos baixos).
+ */
+public class InstanceCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface TransitionListener {
+        void onTransition(State from, State to);
+    }
+
+    private final CircuitBreakerProperties properties;
+    private final TransitionListener listener;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+    private volatile long openUntilNanos;
+    private volatile long halfOpenSinceNanos;
+
+    public InstanceCircuitBreaker(CircuitBreakerProperties properties, TransitionListener listener) {
+        this.properties = properties;
+        this.listener = listener != null ? listener : (from, to) -> { };
+    }
+
+    /**
+     * Indica se a instância pode receber uma chamada agora. Pode mover ABERTO -> MEIO_ABERTO.
+     */
+    public boolean isCallPermitted(long nowNanos) {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (nowNanos - openUntilNanos < 0) {
+                return false;
+            }
+            startHalfOpen(nowNanos);
+            transition(State.OPEN, State.HALF_OPEN);
+        } else if (halfOpenPermits.get() <= 0 && nowNanos - halfOpenSinceNanos >= properties.getOpenDuration().toNanos()) {
+            // Chamadas de teste canceladas não trazem resultado; libera uma nova rodada para não travar no meio-aberto
+            startHalfOpen(nowNanos);
+        }
+        return state.get() != State.OPEN && halfOpenPermits.get() > 0;
+    }
+
+    /**
+     * Chamado quando a instância é efetivamente escolhida; consome uma chamada de teste no estado meio-aberto.
+     */
+    public void onDispatched() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.decrementAndGet();
+        }
+    }
+
+    public void onResult(boolean failure, long nowNanos) {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            if (failure) {
+                open(State.HALF_OPEN, nowNanos);
+            } else if (halfOpenSuccesses.incrementAndGet() >= properties.getHalfOpenPermits()) {
+                window.set(0);
+                transition(State.HALF_OPEN, State.CLOSED);
+            }
+            return;
+        }
+        if (current == State.OPEN) {
+            return;
+        }
+        while (true) {
+            long packed = window.get();
+            long calls = (packed >>> 32) + 1;
+            long failures = (packed & 0xFFFFFFFFL) + (failure ? 1 : 0);
+            boolean windowComplete = calls >= properties.getWindowSize();
+            long next = windowComplete ? 0 : (calls << 32) | failures;
+            if (window.compareAndSet(packed, next)) {
+                if (windowComplete && failures * 100 >= (long) properties.getFailureRateThreshold() * calls) {
+                    open(State.CLOSED, nowNanos);
+                }
+                return;
+            }
+        }
+    }
+
+    private void startHalfOpen(long nowNanos) {
+        halfOpenSinceNanos = nowNanos;
+        halfOpenSuccesses.set(0);
+        halfOpenPermits.set(properties.getHalfOpenPermits());
+    }
+
+    private void open(State from, long nowNanos) {
+        openUntilNanos = nowNanos + properties.getOpenDuration().toNanos();
+        transition(from, State.OPEN);
+    }
+
+    private void transition(State from, State to) {
+        if (state.compareAndSet(from, to)) {
+            listener.onTransition(from, to);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+}
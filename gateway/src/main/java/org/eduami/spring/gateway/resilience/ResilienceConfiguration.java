@@ -0,0 +1,14 @@
+package org.eduami.spring.gateway.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfiguration {
+
+    @Bean
+    public AdaptiveRetryGatewayFilterFactory adaptiveRetryGatewayFilterFactory(MeterRegistry meterRegistry) {
+        return new AdaptiveRetryGatewayFilterFactory(meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package org.eduami.spring.gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orçamento de retentativas: cada requisição deposita {@code percent}% de uma ficha e cada
+ * retentativa retira uma ficha inteira. Assim as retentativas nunca passam de ~{@code percent}% do
+ * tráfego, evitando tempestades de retry quando o backend inteiro está lento.
+ * O saldo é guardado em milésimos de ficha em um AtomicLong.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(int percent, int minRetries) {
+        this.depositPerRequest = SCALE * percent / 100;
+        this.maxBalance = SCALE * Math.max(minRetries, 1) * 10L;
+        // Saldo inicial permite algumas retentativas logo após a inicialização (ex.: durante o start_period)
+        this.balance = new AtomicLong(SCALE * minRetries);
+    }
+
+    public void onRequest() {
+        balance.getAndUpdate(current -> Math.min(maxBalance, current + depositPerRequest));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.eduami.spring.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o ResponseCacheFilter.
+ */
+class ResponseCacheFilterTest {
+
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ResponseCacheFilter(new ResponseCacheProperties(), new SimpleMeterRegistry(), Clock.systemUTC());
+        upstreamCalls = new AtomicInteger();
+    }
+
+    private GatewayFilterChain backend(String body, String cacheControl) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            if (cacheControl != null) {
+                exchange.getResponse().getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+        };
+    }
+
+    private MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).accept(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void filter_ShouldServeSecondRequestFromCache() {
+        GatewayFilterChain chain = backend("[{\"id\":1}]", null);
+
+        MockServerWebExchange first = get("/restapi/api/partners");
+        filter.filter(first, chain).block();
+        MockServerWebExchange second = get("/restapi/api/partners");
+        filter.filter(second, chain).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("[{\"id\":1}]", second.getResponse().getBodyAsString().block());
+        assertEquals(0.5, filter.hitRatio());
+    }
+
+    @Test
+    void filter_ShouldNotStore_WhenBackendSendsNoStore() {
+        GatewayFilterChain chain = backend("[]", "no-store");
+
+        filter.filter(get("/restapi/api/partners"), chain).block();
+        filter.filter(get("/restapi/api/partners"), chain).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldBypassCache_ForPathsNotConfigured() {
+        GatewayFilterChain chain = backend("[]", null);
+
+        filter.filter(get("/restapi/api/orders"), chain).block();
+        filter.filter(get("/restapi/api/orders"), chain).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldInvalidateResource_AfterWrite() {
+        GatewayFilterChain chain = backend("[]", null);
+        filter.filter(get("/restapi/api/partners"), chain).block();
+
+        ServerWebExchange put = MockServerWebExchange.from(MockServerHttpRequest.put("/restapi/api/partners/1"));
+        filter.filter(put, exchange -> Mono.empty()).block();
+        filter.filter(get("/restapi/api/partners"), chain).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldInvalidatePartners_AfterOrderWrite() {
+        // Aprovar/cancelar um pedido muda o currentCredit do parceiro
+        GatewayFilterChain chain = backend("{\"id\":1,\"currentCredit\":1000.00}", null);
+        filter.filter(get("/restapi/api/partners/1"), chain).block();
+
+        ServerWebExchange approve = MockServerWebExchange.from(
+                MockServerHttpRequest.patch("/restapi/api/orders/10/status?newStatus=APROVADO"));
+        filter.filter(approve, exchange -> Mono.empty()).block();
+        MockServerWebExchange afterApproval = get("/restapi/api/partners/1");
+        filter.filter(afterApproval, chain).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("MISS", afterApproval.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void filter_ShouldNotStore_ResponseReadBeforeAWriteCompleted() {
+        Sinks.Empty<Void> backendGate = Sinks.empty();
+        GatewayFilterChain slowChain = exchange -> backendGate.asMono().then(backend("[]", null).filter(exchange));
+
+        CompletableFuture<Void> read = filter.filter(get("/restapi/api/partners"), slowChain).toFuture();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/restapi/api/orders")),
+                exchange -> Mono.empty()).block();
+        backendGate.tryEmitEmpty();
+        read.join();
+        filter.filter(get("/restapi/api/partners"), backend("[]", null)).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldCoalesceConcurrentMisses_IntoOneUpstreamCall() throws Exception {
+        Sinks.Empty<Void> backendGate = Sinks.empty();
+        GatewayFilterChain slowChain = exchange -> backendGate.asMono().then(backend("[{\"id\":1}]", null).filter(exchange));
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = get("/restapi/api/partners");
+            exchanges.add(exchange);
+            requests.add(filter.filter(exchange, slowChain));
+        }
+
+        // Todas chegam enquanto a primeira ainda espera o backend
+        CompletableFuture<Void> all = Mono.when(requests).toFuture();
+        backendGate.tryEmitEmpty();
+        all.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("MISS", exchanges.get(0).getResponse().getHeaders().getFirst("X-Cache"));
+        for (MockServerWebExchange follower : exchanges.subList(1, exchanges.size())) {
+            assertEquals("COALESCED", follower.getResponse().getHeaders().getFirst("X-Cache"));
+            assertEquals("[{\"id\":1}]", follower.getResponse().getBodyAsString().block());
+        }
+    }
+
+    @Test
+    void resourceRoot_ShouldKeepFirstThreeSegments() {
+        assertEquals("/restapi/api/partners", ResponseCacheFilter.resourceRoot("/restapi/api/partners/3"));
+        assertEquals("/swagger-ui", ResponseCacheFilter.resourceRoot("/swagger-ui"));
+    }
+
+    @Test
+    void cacheKey_ShouldSeparateGzipFromIdentityResponses() {
+        String plain = ResponseCacheFilter.cacheKey(MockServerHttpRequest.get("/restapi/api/partners").build());
+        String gzip = ResponseCacheFilter.cacheKey(MockServerHttpRequest.get("/restapi/api/partners")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br").build());
+
+        assertNotEquals(plain, gzip);
+    }
+}
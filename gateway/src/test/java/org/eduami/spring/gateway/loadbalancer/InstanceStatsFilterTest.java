@@ -0,0 +1,90 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eduami.spring.gateway.resilience.AdaptiveRetryGatewayFilterFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Testes unitários para o InstanceStatsFilter, sozinho e atrás do AdaptiveRetry.
+ */
+class InstanceStatsFilterTest {
+
+    private final ServiceInstance first = new DefaultServiceInstance("restapi-1", "RESTAPI", "localhost", 9091, false);
+    private final ServiceInstance second = new DefaultServiceInstance("restapi-2", "RESTAPI", "localhost", 9092, false);
+
+    private InstanceStatsRegistry registry;
+    private InstanceStatsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InstanceStatsRegistry(null);
+        filter = new InstanceStatsFilter(registry, new LoadBalancerStatsProperties());
+    }
+
+    /**
+     * Faz o papel do ReactiveLoadBalancerClientFilter (uma instância por tentativa) seguido deste filtro
+     * e do backend, que responde com os status em ordem.
+     */
+    private GatewayFilterChain balanced(List<ServiceInstance> instances, List<HttpStatus> statuses) {
+        Iterator<ServiceInstance> chosen = instances.iterator();
+        Iterator<HttpStatus> responses = statuses.iterator();
+        GatewayFilterChain backend = exchange -> {
+            exchange.getResponse().setStatusCode(responses.next());
+            return Mono.empty();
+        };
+        return exchange -> {
+            exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(chosen.next()));
+            return filter.filter(exchange, backend);
+        };
+    }
+
+    @Test
+    void filter_ShouldRecordFailureOnFirstInstance_WhenRetried503IsFollowedBy200() {
+        AdaptiveRetryGatewayFilterFactory.Config config = new AdaptiveRetryGatewayFilterFactory.Config();
+        config.setFirstBackoff(Duration.ofMillis(1));
+        config.setMaxBackoff(Duration.ofMillis(1));
+        GatewayFilter retry = new AdaptiveRetryGatewayFilterFactory(new SimpleMeterRegistry()).apply(config);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/restapi/api/orders"));
+
+        // setComplete faz o commit da resposta, como o NettyWriteResponseFilter depois do chain
+        retry.filter(exchange, balanced(List.of(first, second), List.of(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK)))
+                .then(Mono.defer(() -> exchange.getResponse().setComplete()))
+                .block();
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        InstanceStats failed = registry.get(first);
+        assertEquals(1, failed.samples());
+        assertEquals(1, failed.consecutiveFailures());
+        InstanceStats succeeded = registry.get(second);
+        assertEquals(1, succeeded.samples());
+        assertEquals(0, succeeded.consecutiveFailures());
+    }
+
+    @Test
+    void filter_ShouldRecordSuccess_WhenInstanceAnswers200() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/restapi/api/orders"));
+
+        balanced(List.of(first), List.of(HttpStatus.OK)).filter(exchange).block();
+
+        assertEquals(1, registry.get(first).samples());
+        assertEquals(0, registry.get(first).consecutiveFailures());
+        assertEquals(0, registry.get(first).inFlight());
+    }
+}
@@ -0,0 +1,115 @@
+package org.eduami.spring.gateway.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o LatencyAwareLoadBalancer com duas instâncias estáticas.
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ServiceInstance fast = new DefaultServiceInstance("restapi-1", "RESTAPI", "localhost", 9091, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("restapi-2", "RESTAPI", "localhost", 9092, false);
+    private final List<ServiceInstance> instances = List.of(fast, slow);
+
+    private InstanceStatsRegistry registry;
+    private LoadBalancerStatsProperties properties;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InstanceStatsRegistry(null);
+        properties = new LoadBalancerStatsProperties();
+        loadBalancer = new LatencyAwareLoadBalancer(() -> null, "RESTAPI", registry, properties);
+    }
+
+    private void warmUp(ServiceInstance instance, long latencyNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            registry.get(instance).record(latencyNanos, false, properties.getEwmaAlpha());
+        }
+    }
+
+    @Test
+    void choose_ShouldPreferFasterInstance() {
+        properties.setLatencyOutlierFactor(1000); // Isola a escolha por custo, sem ejeção
+        warmUp(fast, 10 * MILLIS, 30);
+        warmUp(slow, 80 * MILLIS, 30);
+
+        for (int i = 0; i < 100; i++) {
+            Response<ServiceInstance> response = loadBalancer.choose(instances, System.nanoTime());
+            assertEquals(fast, response.getServer());
+        }
+    }
+
+    @Test
+    void choose_ShouldAccountForInFlightRequests() {
+        properties.setLatencyOutlierFactor(1000);
+        warmUp(fast, 10 * MILLIS, 30);
+        warmUp(slow, 20 * MILLIS, 30);
+        for (int i = 0; i < 5; i++) {
+            registry.get(fast).requestStarted(); // 10ms x 6 > 20ms x 1
+        }
+
+        assertEquals(slow, loadBalancer.choose(instances, System.nanoTime()).getServer());
+    }
+
+    @Test
+    void choose_ShouldEjectLatencyOutlier() {
+        warmUp(fast, 10 * MILLIS, 30);
+        warmUp(slow, 500 * MILLIS, 30);
+        long now = System.nanoTime();
+
+        loadBalancer.choose(instances, now);
+
+        assertTrue(registry.get(slow).isEjected(now));
+        assertFalse(registry.get(fast).isEjected(now));
+    }
+
+    @Test
+    void choose_ShouldEjectAfterConsecutiveFailures_AndReadmitLater() {
+        warmUp(fast, 10 * MILLIS, 30);
+        for (int i = 0; i < properties.getConsecutiveFailures(); i++) {
+            registry.get(slow).record(10 * MILLIS, true, properties.getEwmaAlpha());
+        }
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(fast, loadBalancer.choose(instances, now).getServer());
+        }
+
+        long later = now + properties.getBaseEjectionTime().toNanos() + 1;
+        loadBalancer.choose(instances, later);
+        assertFalse(registry.get(slow).isEjected(later));
+    }
+
+    @Test
+    void choose_ShouldUseAllInstances_WhenEveryInstanceIsEjected() {
+        long now = System.nanoTime();
+        registry.get(fast).eject(now, properties.getBaseEjectionTime().toNanos());
+        registry.get(slow).eject(now, properties.getBaseEjectionTime().toNanos());
+
+        assertTrue(loadBalancer.choose(instances, now).hasServer());
+    }
+
+    @Test
+    void choose_ShouldSkipInstanceWithOpenCircuit() {
+        long now = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            registry.get(fast).circuitBreaker().onResult(true, now);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(slow, loadBalancer.choose(instances, now).getServer());
+        }
+    }
+}
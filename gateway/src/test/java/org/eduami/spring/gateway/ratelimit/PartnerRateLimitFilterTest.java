@@ -0,0 +1,161 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários do PartnerRateLimitFilter.
+ */
+class PartnerRateLimitFilterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final PartnerRateLimitFilter filter = new PartnerRateLimitFilter(properties,
+            new PeerQuotaScaler(null, properties.getPeerSharing()), new SimpleMeterRegistry());
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final GatewayFilterChain backend = exchange -> {
+        upstreamCalls.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private static MockServerWebExchange write(String partnerId) {
+        return MockServerWebExchange.from(MockServerHttpRequest.patch("/api/orders/1/status?newStatus=APROVADO")
+                .header("X-Partner-Id", partnerId).build());
+    }
+
+    private static MockServerWebExchange read(String partnerId) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1")
+                .header("X-Partner-Id", partnerId).build());
+    }
+
+    @Test
+    void partnerKey_ShouldUseHeaderPathOrQueryParameter() {
+        assertEquals("partner:7", filter.partnerKey(MockServerHttpRequest.post("/api/orders")
+                .header("X-Partner-Id", "7").build(), true));
+        assertEquals("partner:3", filter.partnerKey(MockServerHttpRequest.get("/api/partners/3").build(), false));
+        assertEquals("partner:5", filter.partnerKey(MockServerHttpRequest.get("/api/orders?partnerId=5").build(), false));
+    }
+
+    @Test
+    void partnerKey_ShouldPutUnidentifiedWritesInOneSharedBucket_ByDefault() {
+        // Sem o header o parceiro do POST /api/orders está só no corpo; o PATCH de status não o leva em lugar nenhum
+        assertEquals(PartnerRateLimitFilter.ANONYMOUS_WRITES, filter.partnerKey(MockServerHttpRequest.post("/api/orders")
+                .remoteAddress(new InetSocketAddress("10.0.0.9", 40000))
+                .body("{\"partnerId\": 7}"), true));
+        assertEquals(PartnerRateLimitFilter.ANONYMOUS_WRITES, filter.partnerKey(MockServerHttpRequest
+                .patch("/api/orders/1/status?newStatus=APROVADO")
+                .remoteAddress(new InetSocketAddress("10.0.0.10", 40000)).build(), true));
+    }
+
+    @Test
+    void partnerKey_ShouldNotLimitAnonymousReads_ByDefault() {
+        assertNull(filter.partnerKey(MockServerHttpRequest.get("/api/orders").build(), false));
+    }
+
+    @Test
+    void partnerKey_ShouldNotLimitAnonymousWrites_WhenDisabled() {
+        properties.setLimitAnonymousWrites(false);
+
+        assertNull(filter.partnerKey(MockServerHttpRequest.post("/api/orders").build(), true));
+    }
+
+    @Test
+    void filter_ShouldLimitWritesWithoutPartnerHeader_WithTheSharedAnonymousBudget() {
+        properties.setAnonymousWrite(new RateLimitProperties.Budget(1, 1, 10));
+
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest
+                .patch("/api/orders/1/status?newStatus=APROVADO")
+                .remoteAddress(new InetSocketAddress("10.0.0.9", 40000)).build());
+        filter.filter(first, backend).block();
+        MockServerWebExchange fromOtherClient = MockServerWebExchange.from(MockServerHttpRequest
+                .patch("/api/orders/2/status?newStatus=APROVADO")
+                .remoteAddress(new InetSocketAddress("10.0.0.10", 40000)).build());
+        filter.filter(fromOtherClient, backend).block();
+        MockServerWebExchange identified = write("7");
+        filter.filter(identified, backend).block();
+
+        assertNull(first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, fromOtherClient.getResponse().getStatusCode());
+        assertNull(identified.getResponse().getStatusCode());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldRejectWith429AndRetryAfter_WhenWriteBudgetIsExhausted() {
+        properties.setWrite(new RateLimitProperties.Budget(1, 1, 10));
+
+        MockServerWebExchange first = write("7");
+        filter.filter(first, backend).block();
+        MockServerWebExchange second = write("7");
+        filter.filter(second, backend).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertNull(first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+        assertEquals("1", second.getResponse().getHeaders().getFirst("Retry-After"));
+        assertEquals("0", second.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+    }
+
+    @Test
+    void filter_ShouldKeepReadAndWriteBudgetsSeparate() {
+        properties.setWrite(new RateLimitProperties.Budget(1, 1, 10));
+
+        filter.filter(write("7"), backend).block();
+        MockServerWebExchange rejectedWrite = write("7");
+        filter.filter(rejectedWrite, backend).block();
+        MockServerWebExchange read = read("7");
+        filter.filter(read, backend).block();
+        MockServerWebExchange otherPartner = write("8");
+        filter.filter(otherPartner, backend).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejectedWrite.getResponse().getStatusCode());
+        assertNull(read.getResponse().getStatusCode());
+        assertNull(otherPartner.getResponse().getStatusCode());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldReleaseConcurrencyPermit_WhenRequestCompletes() {
+        properties.setWrite(new RateLimitProperties.Budget(1000, 1000, 1));
+        Sinks.Empty<Void> inFlight = Sinks.empty();
+        GatewayFilterChain slowBackend = exchange -> {
+            upstreamCalls.incrementAndGet();
+            return inFlight.asMono();
+        };
+
+        Mono<Void> first = filter.filter(write("7"), slowBackend);
+        first.subscribe();
+        MockServerWebExchange whileBusy = write("7");
+        filter.filter(whileBusy, backend).block();
+        inFlight.tryEmitEmpty();
+        MockServerWebExchange afterRelease = write("7");
+        filter.filter(afterRelease, backend).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, whileBusy.getResponse().getStatusCode());
+        assertNull(afterRelease.getResponse().getStatusCode());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldReleaseConcurrencyPermit_WhenBackendFails() {
+        properties.setWrite(new RateLimitProperties.Budget(1000, 1000, 1));
+
+        assertThrows(IllegalStateException.class, () -> filter.filter(write("7"),
+                exchange -> Mono.error(new IllegalStateException("restapi indisponível"))).block());
+        MockServerWebExchange next = write("7");
+        filter.filter(next, backend).block();
+
+        assertNull(next.getResponse().getStatusCode());
+        assertEquals(1, upstreamCalls.get());
+    }
+}
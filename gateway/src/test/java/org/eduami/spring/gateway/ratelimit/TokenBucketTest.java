@@ -0,0 +1,79 @@
+package org.eduami.spring.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o TokenBucket (GCRA).
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenReject() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(now);
+        long interval = SECOND / 10; // 10 fichas por segundo
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now, interval, 5), "ficha " + i + " deveria ser concedida");
+        }
+        long wait = bucket.tryAcquire(now, interval, 5);
+        assertEquals(interval, wait); // A próxima ficha chega em 100ms
+    }
+
+    @Test
+    void tryAcquire_ShouldReplenishOverTime() {
+        TokenBucket bucket = new TokenBucket(0);
+        long interval = SECOND / 10;
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0, interval, 5);
+        }
+
+        assertEquals(0, bucket.tryAcquire(interval, interval, 5));
+        assertTrue(bucket.tryAcquire(interval, interval, 5) > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldNeverGrantMoreThanBurst_UnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0);
+        long interval = SECOND; // Sem reposição relevante durante o teste
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(0, interval, 50) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void concurrencyLimiter_ShouldRespectLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+        assertTrue(limiter.tryAcquire(2));
+        assertTrue(limiter.tryAcquire(2));
+        assertFalse(limiter.tryAcquire(2));
+        limiter.release();
+        assertTrue(limiter.tryAcquire(2));
+    }
+}
@@ -0,0 +1,100 @@
+package org.eduami.spring.gateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o InstanceCircuitBreaker e o RetryBudget, com relógio controlado.
+ */
+class InstanceCircuitBreakerTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final List<String> transitions = new ArrayList<>();
+    private InstanceCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setWindowSize(10);
+        properties.setFailureRateThreshold(50);
+        properties.setOpenDuration(Duration.ofSeconds(5));
+        properties.setHalfOpenPermits(2);
+        breaker = new InstanceCircuitBreaker(properties, (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    private void record(int successes, int failures) {
+        for (int i = 0; i < successes; i++) {
+            breaker.onResult(false, 0);
+        }
+        for (int i = 0; i < failures; i++) {
+            breaker.onResult(true, 0);
+        }
+    }
+
+    @Test
+    void onResult_ShouldStayClosed_WhenFailureRateBelowThreshold() {
+        record(6, 4);
+
+        assertEquals(InstanceCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.isCallPermitted(0));
+    }
+
+    @Test
+    void onResult_ShouldOpen_WhenFailureRateReachesThreshold() {
+        record(5, 5);
+
+        assertEquals(InstanceCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted(4 * SECOND));
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    void halfOpen_ShouldClose_AfterSuccessfulProbes() {
+        record(0, 10);
+
+        assertTrue(breaker.isCallPermitted(5 * SECOND));
+        assertEquals(InstanceCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onDispatched();
+        breaker.onDispatched();
+        assertFalse(breaker.isCallPermitted(5 * SECOND)); // Chamadas de teste esgotadas
+
+        breaker.onResult(false, 5 * SECOND);
+        breaker.onResult(false, 5 * SECOND);
+
+        assertEquals(InstanceCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void halfOpen_ShouldReopen_OnFailedProbe() {
+        record(0, 10);
+        assertTrue(breaker.isCallPermitted(5 * SECOND));
+        breaker.onDispatched();
+
+        breaker.onResult(true, 6 * SECOND);
+
+        assertEquals(InstanceCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted(10 * SECOND));
+        assertTrue(breaker.isCallPermitted(11 * SECOND));
+    }
+
+    @Test
+    void retryBudget_ShouldLimitRetriesToPercentOfTraffic() {
+        RetryBudget budget = new RetryBudget(20, 0);
+        int granted = 0;
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+            if (budget.tryWithdraw()) {
+                granted++;
+            }
+        }
+        assertEquals(20, granted);
+    }
+}
@@ -3,9 +3,11 @@ package org.eduami.spring.registry;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
 @EnableEurekaServer
+@ImportRuntimeHints(RegistryRuntimeHints.class)
 public class RegistryApplication {
 
     public static void main(String[] args) {
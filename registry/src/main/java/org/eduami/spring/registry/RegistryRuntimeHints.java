@@ -0,0 +1,72 @@
+package org.eduami.spring.registry;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Metadados para a imagem nativa do Eureka Server que não vêm do repositório de reachability metadata:
+ * recursos JAX-RS do servidor, modelos serializados (Jackson/XStream) e o dashboard.
+ */
+class RegistryRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> REFLECTIVE_TYPES = List.of(
+            // Recursos JAX-RS instanciados pelo Jersey
+            "com.netflix.eureka.resources.ApplicationsResource",
+            "com.netflix.eureka.resources.ApplicationResource",
+            "com.netflix.eureka.resources.InstancesResource",
+            "com.netflix.eureka.resources.InstanceResource",
+            "com.netflix.eureka.resources.PeerReplicationResource",
+            "com.netflix.eureka.resources.ServerInfoResource",
+            "com.netflix.eureka.resources.StatusResource",
+            "com.netflix.eureka.resources.VIPResource",
+            "com.netflix.eureka.resources.SecureVIPResource",
+            "com.netflix.eureka.resources.ASGResource",
+            // Modelos trafegados entre clientes e servidor
+            "com.netflix.appinfo.InstanceInfo",
+            "com.netflix.appinfo.InstanceInfo$InstanceStatus",
+            "com.netflix.appinfo.InstanceInfo$PortType",
+            "com.netflix.appinfo.InstanceInfo$ActionType",
+            "com.netflix.appinfo.LeaseInfo",
+            "com.netflix.appinfo.DataCenterInfo",
+            "com.netflix.appinfo.DataCenterInfo$Name",
+            "com.netflix.appinfo.MyDataCenterInfo",
+            "com.netflix.appinfo.AmazonInfo",
+            "com.netflix.discovery.shared.Application",
+            "com.netflix.discovery.shared.Applications",
+            "com.netflix.eureka.cluster.protocol.ReplicationInstance",
+            "com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse",
+            "com.netflix.eureka.cluster.protocol.ReplicationList",
+            "com.netflix.eureka.cluster.protocol.ReplicationListResponse",
+            // Conversores XML (XStream) e JSON
+            "com.netflix.discovery.converters.Converters$ApplicationConverter",
+            "com.netflix.discovery.converters.Converters$ApplicationsConverter",
+            "com.netflix.discovery.converters.Converters$DataCenterInfoConverter",
+            "com.netflix.discovery.converters.Converters$InstanceInfoConverter",
+            "com.netflix.discovery.converters.Converters$LeaseInfoConverter",
+            "com.netflix.discovery.converters.Converters$MetadataConverter",
+            "com.netflix.discovery.converters.jackson.EurekaJsonJacksonCodec",
+            "com.netflix.discovery.converters.jackson.EurekaXmlJacksonCodec",
+            "com.netflix.discovery.converters.wrappers.CodecWrappers$JacksonJson",
+            "com.netflix.discovery.converters.wrappers.CodecWrappers$JacksonXml",
+            "com.netflix.discovery.converters.wrappers.CodecWrappers$LegacyJacksonJson",
+            "com.netflix.discovery.converters.wrappers.CodecWrappers$XStreamJson",
+            "com.netflix.discovery.converters.wrappers.CodecWrappers$XStreamXml");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : REFLECTIVE_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type, builder -> builder.withMembers(
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS));
+        }
+        // Dashboard (templates FreeMarker e estáticos) e arquivos de configuração do Eureka
+        hints.resources()
+                .registerPattern("templates/eureka/*")
+                .registerPattern("static/eureka/**")
+                .registerPattern("eureka-server.properties")
+                .registerPattern("eureka-client.properties");
+    }
+}
@@ -0,0 +1,17 @@
+package com.edivaldo.pedidos.query;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+
+/**
+ * API de leitura reativa dos pedidos (WebFlux + R2DBC): mesmo contrato de busca de {@code /api/orders} do restapi,
+ * servido a partir de order_views e orders_archive. As escritas continuam no restapi (JPA).
+ */
+@SpringBootApplication
+@EnableDiscoveryClient
+public class QueryApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(QueryApplication.class, args);
+    }
+}
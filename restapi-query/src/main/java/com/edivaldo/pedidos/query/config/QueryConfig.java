@@ -0,0 +1,20 @@
+package com.edivaldo.pedidos.query.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Propriedades das consultas reativas ({@code app.query}). As consultas leem um único banco, então o serviço
+ * não sobe com {@code app.sharding.enabled=true}: só veria os pedidos do shard 0.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryProperties.class)
+public class QueryConfig {
+
+    public QueryConfig(Environment environment) {
+        if (environment.getProperty("app.sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("restapi-query não suporta app.sharding.enabled: leria só o shard 0");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.edivaldo.pedidos.query.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração das consultas reativas.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.query")
+public class QueryProperties {
+
+    /**
+     * Linhas pedidas ao Postgres por vez. O driver só pede o próximo lote quando o cliente HTTP consome o
+     * anterior, então a memória por consulta não depende do tamanho do resultado.
+     */
+    private int fetchSize = 250;
+}
@@ -0,0 +1,44 @@
+package com.edivaldo.pedidos.query.controller;
+
+import com.edivaldo.pedidos.query.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.query.enums.OrderStatus;
+import com.edivaldo.pedidos.query.service.OrderQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leituras de {@code /api/orders} com o mesmo contrato do OrderController do restapi. A busca é devolvida em
+ * stream: {@code application/json} como um array escrito à medida que as linhas chegam, ou
+ * {@code application/x-ndjson} com um pedido por linha. Nenhuma thread fica presa enquanto a consulta roda.
+ */
+@RestController
+@RequestMapping(value = "/api/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+@RequiredArgsConstructor
+public class OrderQueryController {
+
+    private final OrderQueryService orderQueryService;
+
+    @GetMapping("/{id}")
+    public Mono<OrderResponseDTO> getOrderById(@PathVariable Long id) {
+        return orderQueryService.getOrderById(id);
+    }
+
+    @GetMapping
+    public Flux<OrderResponseDTO> searchOrders(
+            @RequestParam(required = false) Long partnerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) OrderStatus status) {
+        return orderQueryService.searchOrders(partnerId, startDate, endDate, status);
+    }
+}
@@ -0,0 +1,16 @@
+package com.edivaldo.pedidos.query.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDTO {
+    private String product;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,27 @@
+package com.edivaldo.pedidos.query.dto;
+
+import com.edivaldo.pedidos.query.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mesmo formato do OrderResponseDTO do restapi e dos documentos de order_views/orders_archive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponseDTO {
+    private Long id;
+    private Long partnerId;
+    private String partnerName;
+    private List<OrderItemDTO> items;
+    private BigDecimal totalValue;
+    private OrderStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,14 @@
+package com.edivaldo.pedidos.query.enums;
+
+/**
+ * Enum para representar os diferentes status de um pedido (mesmos valores do restapi).
+ */
+public enum OrderStatus {
+    PENDENTE,
+    APROVADO,
+    EM_PROCESSAMENTO,
+    ENVIADO,
+    ENTREGUE,
+    CANCELADO,
+    COMPLETO
+}
@@ -0,0 +1,85 @@
+package com.edivaldo.pedidos.query.repository;
+
+import com.edivaldo.pedidos.query.config.QueryProperties;
+import com.edivaldo.pedidos.query.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.query.enums.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Lê os documentos JSONB dos pedidos gravados pelo restapi: order_views (pedidos nas tabelas quentes) e
+ * orders_archive (arquivados). As duas tabelas têm as mesmas colunas de filtro e o mesmo documento.
+ * <p>
+ * As listagens pedem {@code app.query.fetch-size} linhas por vez ao Postgres; o próximo lote só é pedido
+ * quando o assinante (a resposta HTTP) consome o anterior.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderDocumentRepository {
+
+    public enum Source {
+        LIVE("order_views"),
+        ARCHIVE("orders_archive");
+
+        private final String table;
+
+        Source(String table) {
+            this.table = table;
+        }
+    }
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+    private final QueryProperties properties;
+
+    public Mono<OrderResponseDTO> findById(Source source, long orderId) {
+        return databaseClient.sql("SELECT document::text FROM " + source.table + " WHERE order_id = :id")
+                .bind("id", orderId)
+                .map(row -> read(row.get(0, String.class)))
+                .one();
+    }
+
+    public Flux<OrderResponseDTO> findAll(Source source) {
+        return stream(source, "", Map.of());
+    }
+
+    public Flux<OrderResponseDTO> findByPartnerId(Source source, long partnerId) {
+        return stream(source, "WHERE partner_id = :partnerId", Map.of("partnerId", partnerId));
+    }
+
+    public Flux<OrderResponseDTO> findByStatus(Source source, OrderStatus status) {
+        return stream(source, "WHERE status = :status", Map.of("status", status.name()));
+    }
+
+    public Flux<OrderResponseDTO> findByCreatedAtBetween(Source source, LocalDateTime startDate, LocalDateTime endDate) {
+        return stream(source, "WHERE created_at BETWEEN :startDate AND :endDate",
+                Map.of("startDate", startDate, "endDate", endDate));
+    }
+
+    private Flux<OrderResponseDTO> stream(Source source, String where, Map<String, Object> params) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("SELECT document::text FROM " + source.table + " " + where + " ORDER BY order_id")
+                .filter(statement -> statement.fetchSize(properties.getFetchSize()));
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(row -> read(row.get(0, String.class))).all();
+    }
+
+    private OrderResponseDTO read(String document) {
+        try {
+            return objectMapper.readValue(document, OrderResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new DataRetrievalFailureException("Documento de pedido inválido", e);
+        }
+    }
+}
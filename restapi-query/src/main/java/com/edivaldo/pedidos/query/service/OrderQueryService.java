@@ -0,0 +1,59 @@
+package com.edivaldo.pedidos.query.service;
+
+import com.edivaldo.pedidos.query.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.query.enums.OrderStatus;
+import com.edivaldo.pedidos.query.repository.OrderDocumentRepository;
+import com.edivaldo.pedidos.query.repository.OrderDocumentRepository.Source;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Consultas de pedidos com a mesma semântica do OrderService do restapi: busca por ID nas tabelas quentes e
+ * depois no arquivo; listagens com a precedência parceiro, período, status, todos, com os arquivados primeiro.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    /** Só pedidos nesses status são arquivados; consultas por outros status não tocam o arquivo. */
+    static final Set<OrderStatus> ARCHIVED_STATUSES = EnumSet.of(OrderStatus.ENTREGUE, OrderStatus.CANCELADO);
+
+    private final OrderDocumentRepository orderDocumentRepository;
+
+    public Mono<OrderResponseDTO> getOrderById(Long id) {
+        return orderDocumentRepository.findById(Source.LIVE, id)
+                .switchIfEmpty(Mono.defer(() -> orderDocumentRepository.findById(Source.ARCHIVE, id)))
+                .switchIfEmpty(Mono.error(() ->
+                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado com ID: " + id)));
+    }
+
+    public Flux<OrderResponseDTO> searchOrders(Long partnerId, LocalDateTime startDate, LocalDateTime endDate,
+                                               OrderStatus status) {
+        // concat assina a segunda consulta só quando a primeira termina: uma conexão por requisição de cada vez
+        return Flux.concat(search(Source.ARCHIVE, partnerId, startDate, endDate, status),
+                search(Source.LIVE, partnerId, startDate, endDate, status));
+    }
+
+    private Flux<OrderResponseDTO> search(Source source, Long partnerId, LocalDateTime startDate, LocalDateTime endDate,
+                                          OrderStatus status) {
+        if (partnerId != null) {
+            return orderDocumentRepository.findByPartnerId(source, partnerId);
+        } else if (startDate != null && endDate != null) {
+            return orderDocumentRepository.findByCreatedAtBetween(source, startDate, endDate);
+        } else if (status != null) {
+            if (source == Source.ARCHIVE && !ARCHIVED_STATUSES.contains(status)) {
+                return Flux.empty();
+            }
+            return orderDocumentRepository.findByStatus(source, status);
+        }
+        return orderDocumentRepository.findAll(source);
+    }
+}
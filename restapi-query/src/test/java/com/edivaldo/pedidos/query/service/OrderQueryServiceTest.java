@@ -0,0 +1,88 @@
+package com.edivaldo.pedidos.query.service;
+
+import com.edivaldo.pedidos.query.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.query.enums.OrderStatus;
+import com.edivaldo.pedidos.query.repository.OrderDocumentRepository;
+import com.edivaldo.pedidos.query.repository.OrderDocumentRepository.Source;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o OrderQueryService.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderQueryServiceTest {
+
+    @Mock
+    private OrderDocumentRepository orderDocumentRepository;
+
+    @InjectMocks
+    private OrderQueryService orderQueryService;
+
+    private static OrderResponseDTO order(long id, OrderStatus status) {
+        return new OrderResponseDTO(id, 1L, "Parceiro", List.of(), BigDecimal.TEN, status,
+                LocalDateTime.of(2024, 5, 1, 10, 0), LocalDateTime.of(2024, 5, 1, 10, 0));
+    }
+
+    @Test
+    void searchOrders_ShouldEmitArchivedOrdersBeforeLiveOnes() {
+        when(orderDocumentRepository.findByPartnerId(Source.ARCHIVE, 1L)).thenReturn(Flux.just(order(1, OrderStatus.ENTREGUE)));
+        when(orderDocumentRepository.findByPartnerId(Source.LIVE, 1L)).thenReturn(Flux.just(order(7, OrderStatus.PENDENTE),
+                order(8, OrderStatus.APROVADO)));
+
+        StepVerifier.create(orderQueryService.searchOrders(1L, null, null, null).map(OrderResponseDTO::getId))
+                .expectNext(1L, 7L, 8L)
+                .verifyComplete();
+    }
+
+    @Test
+    void searchOrders_ShouldHonorBackpressure() {
+        when(orderDocumentRepository.findAll(Source.ARCHIVE)).thenReturn(Flux.empty());
+        when(orderDocumentRepository.findAll(Source.LIVE)).thenReturn(Flux.range(1, 1000).map(i -> order(i, OrderStatus.PENDENTE)));
+
+        StepVerifier.create(orderQueryService.searchOrders(null, null, null, null), 2)
+                .expectNextCount(2)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void searchOrders_ShouldSkipArchive_ForStatusesThatAreNeverArchived() {
+        when(orderDocumentRepository.findByStatus(Source.LIVE, OrderStatus.PENDENTE)).thenReturn(Flux.empty());
+
+        StepVerifier.create(orderQueryService.searchOrders(null, null, null, OrderStatus.PENDENTE)).verifyComplete();
+
+        verify(orderDocumentRepository, never()).findByStatus(Source.ARCHIVE, OrderStatus.PENDENTE);
+    }
+
+    @Test
+    void getOrderById_ShouldFallBackToArchive_AndFailWith404WhenMissing() {
+        when(orderDocumentRepository.findById(any(), anyLong())).thenReturn(Mono.empty());
+
+        StepVerifier.create(orderQueryService.getOrderById(99L))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException r && r.getStatusCode() == HttpStatus.NOT_FOUND)
+                .verify();
+
+        verify(orderDocumentRepository).findById(Source.ARCHIVE, 99L);
+    }
+}
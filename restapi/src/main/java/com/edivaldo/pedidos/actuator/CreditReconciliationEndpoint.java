@@ -0,0 +1,37 @@
+package com.edivaldo.pedidos.actuator;
+
+import com.edivaldo.pedidos.dto.CreditReconciliationReportDTO;
+import com.edivaldo.pedidos.service.CreditReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciliação do crédito dos parceiros com os pedidos:
+ * <ul>
+ *   <li>{@code GET /actuator/reconciliation}: relata os parceiros divergentes, sem alterar nada;</li>
+ *   <li>{@code POST /actuator/reconciliation}: relata e corrige o crédito dos divergentes.</li>
+ * </ul>
+ * Não existe com {@code app.sharding.enabled=true}: a reconciliação só leria os parceiros do shard 0.
+ */
+@Component
+@Endpoint(id = "reconciliation")
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CreditReconciliationEndpoint {
+
+    private final CreditReconciliationService creditReconciliationService;
+
+    @ReadOperation
+    public CreditReconciliationReportDTO check() {
+        return creditReconciliationService.reconcile(false);
+    }
+
+    @WriteOperation
+    public CreditReconciliationReportDTO repair() {
+        return creditReconciliationService.reconcile(true);
+    }
+}
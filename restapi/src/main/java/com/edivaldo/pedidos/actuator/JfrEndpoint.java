@@ -0,0 +1,53 @@
+package com.edivaldo.pedidos.actuator;
+
+import com.edivaldo.pedidos.diagnostics.JfrRecorder;
+import com.edivaldo.pedidos.dto.JfrRecordingDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gravação do JDK Flight Recorder com os eventos de pedido:
+ * <ul>
+ *   <li>{@code GET /actuator/jfr}: estado da gravação atual ou da última;</li>
+ *   <li>{@code POST /actuator/jfr/start}: inicia uma gravação com {@code app.jfr.profile};</li>
+ *   <li>{@code POST /actuator/jfr/start/profile}: inicia uma gravação com uma configuração da JVM
+ *   ({@code default} ou {@code profile}; arquivos .jfc só pela configuração);</li>
+ *   <li>{@code POST /actuator/jfr/dump}: grava o conteúdo até agora em {@code app.jfr.dump-dir}, sem parar;</li>
+ *   <li>{@code POST /actuator/jfr/stop}: para a gravação e grava o arquivo.</li>
+ * </ul>
+ * Fora da exposição web padrão ({@code management.endpoints.web.exposure}): grava arquivos no servidor.
+ */
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private final JfrRecorder jfrRecorder;
+
+    @ReadOperation
+    public JfrRecordingDTO status() {
+        return jfrRecorder.status();
+    }
+
+    @WriteOperation
+    public JfrRecordingDTO control(@Selector String action) {
+        return switch (action) {
+            case "start" -> jfrRecorder.start();
+            case "dump" -> jfrRecorder.dump();
+            case "stop" -> jfrRecorder.stop();
+            default -> throw new IllegalArgumentException("Ação desconhecida: " + action + " (start, dump ou stop)");
+        };
+    }
+
+    @WriteOperation
+    public JfrRecordingDTO start(@Selector String action, @Selector String profile) {
+        if (!"start".equals(action)) {
+            throw new IllegalArgumentException("Ação desconhecida: " + action + "/" + profile + " (start/<profile>)");
+        }
+        return jfrRecorder.start(profile);
+    }
+}
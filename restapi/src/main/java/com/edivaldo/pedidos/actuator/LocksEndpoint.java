@@ -0,0 +1,28 @@
+package com.edivaldo.pedidos.actuator;
+
+import com.edivaldo.pedidos.dto.LockContentionReportDTO;
+import com.edivaldo.pedidos.service.LockContentionSampler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Disputa por bloqueios no banco ({@code GET /actuator/locks}): sessões esperando agora, com o parceiro
+ * quando a espera é pela linha de um parceiro, as sessões que iniciam cada cadeia de bloqueio e os parceiros
+ * mais disputados em {@code app.locks.sampler.window}. Cada chamada faz uma amostra nova.
+ */
+@Component
+@Endpoint(id = "locks")
+@ConditionalOnProperty(prefix = "app.locks.sampler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocksEndpoint {
+
+    private final LockContentionSampler lockContentionSampler;
+
+    @ReadOperation
+    public LockContentionReportDTO report() {
+        return lockContentionSampler.sample();
+    }
+}
@@ -0,0 +1,38 @@
+package com.edivaldo.pedidos.actuator;
+
+import com.edivaldo.pedidos.dto.OrderViewRebuildDTO;
+import com.edivaldo.pedidos.dto.OrderViewReportDTO;
+import com.edivaldo.pedidos.service.OrderViewService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Administração do modelo de leitura dos pedidos:
+ * <ul>
+ *   <li>{@code GET /actuator/orderviews}: compara order_views com as tabelas normalizadas;</li>
+ *   <li>{@code POST /actuator/orderviews}: regrava os documentos divergentes ou ausentes.</li>
+ * </ul>
+ * Não existe com {@code app.sharding.enabled=true}: a comparação só leria os pedidos do shard 0.
+ */
+@Component
+@Endpoint(id = "orderviews")
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OrderViewsEndpoint {
+
+    private final OrderViewService orderViewService;
+
+    @ReadOperation
+    public OrderViewReportDTO check() {
+        return orderViewService.check();
+    }
+
+    @WriteOperation
+    public OrderViewRebuildDTO rebuild() {
+        return orderViewService.rebuild();
+    }
+}
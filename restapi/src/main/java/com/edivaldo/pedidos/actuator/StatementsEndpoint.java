@@ -0,0 +1,47 @@
+package com.edivaldo.pedidos.actuator;
+
+import com.edivaldo.pedidos.dto.StatementProgressDTO;
+import com.edivaldo.pedidos.service.StatementJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Extratos mensais de parceiros:
+ * <ul>
+ *   <li>{@code GET /actuator/statements}: progresso e vazão da geração atual ou da última;</li>
+ *   <li>{@code POST /actuator/statements/2024-05}: inicia a geração do período;</li>
+ *   <li>{@code POST /actuator/statements}: inicia a geração do mês anterior.</li>
+ * </ul>
+ * O período vai no caminho: um parâmetro do corpo só seria opcional com o {@code @Nullable} do Spring.
+ * Não existe com {@code app.sharding.enabled=true}: a geração só leria os parceiros do shard 0.
+ */
+@Component
+@Endpoint(id = "statements")
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class StatementsEndpoint {
+
+    private final StatementJob statementJob;
+
+    @ReadOperation
+    public StatementProgressDTO progress() {
+        return statementJob.progress();
+    }
+
+    @WriteOperation
+    public StatementProgressDTO startPreviousMonth() {
+        return statementJob.start(YearMonth.now().minusMonths(1));
+    }
+
+    @WriteOperation
+    public StatementProgressDTO start(@Selector String period) {
+        return statementJob.start(YearMonth.parse(period));
+    }
+}
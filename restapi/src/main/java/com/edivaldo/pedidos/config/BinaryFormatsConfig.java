@@ -0,0 +1,81 @@
+package com.edivaldo.pedidos.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos binários para consumidores serviço-a-serviço, negociados pelo header Accept
+ * (e Content-Type no envio) nos controllers de pedidos e parceiros:
+ * <ul>
+ *   <li>{@code application/cbor}: com referências a strings já escritas (STRINGREF), de modo que nomes
+ *   de campo e valores repetidos, como {@code partnerName} e {@code status}, saem uma vez só;</li>
+ *   <li>{@code application/x-jackson-smile}: com nomes e valores compartilhados (back-references).</li>
+ * </ul>
+ * Datas saem como números em vez de strings ISO. Os mappers partem do builder do Spring Boot, herdando
+ * os módulos e configurações do JSON; não são registrados como beans para não substituir o ObjectMapper padrão.
+ */
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public BinaryFormatsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    /**
+     * Substitui, na mesma posição, os conversores CBOR e Smile padrão que o Spring Boot registra quando os
+     * módulos estão no classpath. Acrescentados ao fim da lista, os nossos nunca seriam escolhidos: a negociação
+     * usa o primeiro conversor que atende o tipo de mídia.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        replaceOrAdd(converters, MappingJackson2CborHttpMessageConverter.class,
+                new MappingJackson2CborHttpMessageConverter(cborMapper(builders.getObject())));
+        replaceOrAdd(converters, MappingJackson2SmileHttpMessageConverter.class,
+                new MappingJackson2SmileHttpMessageConverter(smileMapper(builders.getObject())));
+    }
+
+    private static void replaceOrAdd(List<HttpMessageConverter<?>> converters,
+                                     Class<? extends HttpMessageConverter<?>> type, HttpMessageConverter<?> converter) {
+        if (converters.stream().noneMatch(type::isInstance)) {
+            converters.add(converter);
+            return;
+        }
+        converters.replaceAll(existing -> type.isInstance(existing) ? converter : existing);
+    }
+
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build();
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
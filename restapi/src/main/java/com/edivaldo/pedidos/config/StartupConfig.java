@@ -0,0 +1,36 @@
+package com.edivaldo.pedidos.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Marca como lazy os beans do springdoc/swagger, que só são usados quando alguém abre a documentação.
+ * Ativado com {@code app.startup.lazy-springdoc=true} (perfil prod).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "app.startup", name = "lazy-springdoc", havingValue = "true")
+public class StartupConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Bean
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String className = definition.getBeanClassName();
+                // Beans declarados em métodos @Bean não têm classe; usa a classe de configuração que os declara
+                if (className == null && definition.getFactoryBeanName() != null
+                        && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+                    className = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+                }
+                if (className != null && className.startsWith(SPRINGDOC_PACKAGE)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.edivaldo.pedidos.config.analytics;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Rollup de vendas por produto: job incremental agendado (ProductSalesRollupJob) e consultas
+ * top-N em /api/analytics/products.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AnalyticsProperties.class)
+public class AnalyticsConfig {
+}
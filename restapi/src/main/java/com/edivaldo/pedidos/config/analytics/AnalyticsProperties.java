@@ -0,0 +1,41 @@
+package com.edivaldo.pedidos.config.analytics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuração do rollup de vendas por produto e do endpoint /api/analytics/products.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.analytics")
+public class AnalyticsProperties {
+
+    private Rollup rollup = new Rollup();
+
+    /**
+     * Maior quantidade de produtos por bucket aceita no parâmetro {@code limit}.
+     */
+    private int maxLimit = 100;
+
+    @Data
+    public static class Rollup {
+
+        /**
+         * Liga o job incremental (em todas as réplicas; só uma roda por vez, via advisory lock).
+         */
+        private boolean enabled = true;
+
+        /**
+         * Intervalo entre execuções do job.
+         */
+        private long intervalMs = 60_000;
+
+        /**
+         * Quanto voltar antes da marca d'água a cada execução, para pegar transações confirmadas depois
+         * de uma execução mas com updated_at anterior a ela (transações longas, relógios das réplicas).
+         */
+        private Duration overlap = Duration.ofMinutes(5);
+    }
+}
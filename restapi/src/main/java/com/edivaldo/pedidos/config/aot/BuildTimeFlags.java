@@ -0,0 +1,84 @@
+package com.edivaldo.pedidos.config.aot;
+
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Propriedades que decidem, por {@code @ConditionalOnProperty}, se beans do restapi existem. Com Spring AOT
+ * (imagem restapi/Dockerfile) essas condições são avaliadas no build e o valor da execução é ignorado: o
+ * {@link BuildTimeFlagsAotProcessor} grava os valores do build em {@link #RESOURCE} e o {@link BuildTimeFlagsGuard}
+ * impede a inicialização se algum deles mudou.
+ * Uma nova condição por propriedade em {@code com.edivaldo.pedidos} entra em {@link #FLAGS}.
+ */
+public final class BuildTimeFlags {
+
+    static final String RESOURCE = "META-INF/build-time-flags.properties";
+
+    /**
+     * Propriedade e o valor que a condição assume quando ela não está definida ({@code matchIfMissing}).
+     */
+    static final SortedMap<String, Boolean> FLAGS = Collections.unmodifiableSortedMap(new TreeMap<>(Map.of(
+            "app.startup.lazy-springdoc", false,
+            "app.datasource.replica.enabled", false,
+            "app.sharding.enabled", false,
+            "app.health.probe-server.enabled", true,
+            "app.archive.enabled", true,
+            "app.analytics.rollup.enabled", true,
+            "app.stale-orders.enabled", false,
+            "app.locks.sampler.enabled", true)));
+
+    private BuildTimeFlags() {
+    }
+
+    /**
+     * Valor de cada propriedade de {@link #FLAGS} como as condições o comparam (sem diferenciar maiúsculas).
+     */
+    static Map<String, String> resolve(Environment environment) {
+        Map<String, String> values = new LinkedHashMap<>();
+        FLAGS.forEach((key, missing) ->
+                values.put(key, environment.getProperty(key, String.valueOf(missing)).trim().toLowerCase(Locale.ROOT)));
+        return values;
+    }
+
+    /**
+     * Valores gravados no build AOT, ou null se o recurso não existe (jar construído sem o processador).
+     */
+    static Properties load(ClassLoader classLoader) {
+        try (InputStream in = classLoader.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Propriedades cujo valor na execução difere do build, no formato "chave (build: x, execução: y)".
+     */
+    static List<String> changed(Properties buildTime, Map<String, String> runtime) {
+        List<String> changed = new ArrayList<>();
+        runtime.forEach((key, value) -> {
+            String built = buildTime.getProperty(key);
+            if (built != null && !built.equals(value)) {
+                changed.add(key + " (build: " + built + ", execução: " + value + ")");
+            }
+        });
+        return changed;
+    }
+}
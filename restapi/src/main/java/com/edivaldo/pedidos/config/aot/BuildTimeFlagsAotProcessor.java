@@ -0,0 +1,24 @@
+package com.edivaldo.pedidos.config.aot;
+
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Durante o process-aot, grava em {@link BuildTimeFlags#RESOURCE} o valor que cada propriedade de
+ * {@link BuildTimeFlags#FLAGS} tinha quando as condições foram avaliadas. Registrado em META-INF/spring/aot.factories.
+ */
+class BuildTimeFlagsAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Map<String, String> values = BuildTimeFlags.resolve(beanFactory.getBean(Environment.class));
+        StringBuilder content = new StringBuilder("# Propriedades avaliadas no build AOT (BuildTimeFlags)\n");
+        values.forEach((key, value) -> content.append(key).append('=').append(value).append('\n'));
+        return (generationContext, code) ->
+                generationContext.getGeneratedFiles().addResourceFile(BuildTimeFlags.RESOURCE, content);
+    }
+}
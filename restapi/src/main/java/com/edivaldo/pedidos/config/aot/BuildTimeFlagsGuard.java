@@ -0,0 +1,48 @@
+package com.edivaldo.pedidos.config.aot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Com {@code -Dspring.aot.enabled=true}, recusa subir se alguma propriedade de {@link BuildTimeFlags#FLAGS} tem
+ * na execução um valor diferente do build: a mudança seria ignorada em silêncio (ex.: {@code app.sharding.enabled=true}
+ * numa imagem construída sem sharding continuaria num banco só). Sem AOT não faz nada.
+ */
+@Slf4j
+@Component
+public class BuildTimeFlagsGuard implements InitializingBean {
+
+    private final Environment environment;
+
+    public BuildTimeFlagsGuard(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        Properties buildTime = BuildTimeFlags.load(getClass().getClassLoader());
+        if (buildTime == null) {
+            log.warn("{} ausente: não dá para verificar as propriedades fixadas no build AOT", BuildTimeFlags.RESOURCE);
+            return;
+        }
+        check(buildTime);
+    }
+
+    void check(Properties buildTime) {
+        List<String> changed = BuildTimeFlags.changed(buildTime, BuildTimeFlags.resolve(environment));
+        if (!changed.isEmpty()) {
+            throw new IllegalStateException("Propriedades fixadas no build AOT com outro valor nesta execução: "
+                    + String.join(", ", changed) + ". Reconstrua a imagem com esses valores (mvn -Paot com as "
+                    + "propriedades no ambiente) ou suba sem -Dspring.aot.enabled=true.");
+        }
+    }
+}
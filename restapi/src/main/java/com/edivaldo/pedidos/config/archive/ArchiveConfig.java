@@ -0,0 +1,15 @@
+package com.edivaldo.pedidos.config.archive;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Arquivamento de pedidos em status final: OrderArchiveJob (agendado) e leituras com fallback
+ * para orders_archive no OrderService.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+}
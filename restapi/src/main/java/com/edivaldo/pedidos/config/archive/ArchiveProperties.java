@@ -0,0 +1,36 @@
+package com.edivaldo.pedidos.config.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuração do arquivamento de pedidos em status final (orders_archive).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    /**
+     * Liga o job de arquivamento. As leituras consultam o arquivo de qualquer forma.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Pedidos ENTREGUE ou CANCELADO sem alteração há mais tempo que isso são arquivados.
+     */
+    private Duration retention = Duration.ofDays(90);
+
+    /**
+     * Pedidos movidos por comando (e por transação).
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Limite de lotes por execução, para não ocupar o banco por muito tempo de uma vez.
+     */
+    private int maxBatchesPerRun = 100;
+
+    private long intervalMs = 300_000;
+}
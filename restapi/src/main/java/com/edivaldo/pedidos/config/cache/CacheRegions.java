@@ -0,0 +1,21 @@
+package com.edivaldo.pedidos.config.cache;
+
+import java.util.List;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate. Os nomes são os dos caches em application.conf (Caffeine);
+ * com {@code missing_cache_strategy: fail}, uma região sem cache configurado impede a inicialização.
+ */
+public final class CacheRegions {
+
+    /** Entidades OrderItem, imutáveis depois da criação do pedido. */
+    public static final String ORDER_ITEMS = "order-items";
+
+    /** Coleção Order.items: IDs dos itens de cada pedido. */
+    public static final String ORDER_ITEMS_BY_ORDER = "order-items-by-order";
+
+    public static final List<String> ALL = List.of(ORDER_ITEMS, ORDER_ITEMS_BY_ORDER);
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.edivaldo.pedidos.config.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Taxa de acerto de cada região do cache de segundo nível ({@code app.cache.l2.hit.ratio{region}}), calculada
+ * desde a inicialização a partir das estatísticas do Hibernate. Os contadores brutos (acertos, faltas, inserções)
+ * já são publicados pelo hibernate-micrometer como {@code hibernate.second.level.cache.*}.
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : CacheRegions.ALL) {
+            Gauge.builder("app.cache.l2.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                    .description("Acertos / consultas na região do cache de segundo nível")
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics;
+        try {
+            regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        } catch (IllegalArgumentException e) {
+            return Double.NaN; // cache de segundo nível desligado
+        }
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long hits = regionStatistics.getHitCount();
+        long requests = hits + regionStatistics.getMissCount();
+        return requests == 0 ? Double.NaN : (double) hits / requests;
+    }
+}
@@ -0,0 +1,63 @@
+package com.edivaldo.pedidos.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Verifica periodicamente o atraso de replicação de cada réplica e a retira do pool
+ * de leitura quando o atraso passa de {@code app.datasource.replica.max-lag} ou a consulta falha.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Em uma réplica em streaming, o atraso é zero quando tudo o que foi recebido já foi aplicado.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END
+            """;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaRoutingProperties properties;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, ReplicaRoutingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+        routingDataSource.getReplicas().forEach(replica ->
+                Gauge.builder("app.datasource.replica.lag", replica,
+                                r -> r.getLag() == null ? Double.NaN : r.getLag().toMillis() / 1000.0)
+                        .tag("replica", replica.getName())
+                        .baseUnit("seconds")
+                        .register(meterRegistry));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+                jdbcTemplate.setQueryTimeout((int) Math.max(1, properties.getCheckTimeout().toSeconds()));
+                BigDecimal lagSeconds = jdbcTemplate.queryForObject(LAG_QUERY, BigDecimal.class);
+                if (lagSeconds == null) {
+                    // A réplica ainda não aplicou nenhuma transação desde que subiu
+                    replica.update(false, null);
+                    continue;
+                }
+                Duration lag = Duration.ofMillis(lagSeconds.movePointRight(3).longValue());
+                replica.update(lag.compareTo(properties.getMaxLag()) <= 0, lag);
+            } catch (Exception e) {
+                log.debug("Falha ao verificar a réplica {}: {}", replica.getName(), e.getMessage());
+                replica.update(false, null);
+            }
+        }
+    }
+}
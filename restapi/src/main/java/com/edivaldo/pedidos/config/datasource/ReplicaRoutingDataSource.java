@@ -0,0 +1,95 @@
+package com.edivaldo.pedidos.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envia transações {@code @Transactional(readOnly = true)} para uma réplica saudável
+ * e todo o resto (escritas, bloqueios de crédito, Flyway) para o primário.
+ * Se nenhuma réplica estiver saudável, a leitura volta para o primário.
+ * Deve ser envolvido por um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * pois a flag readOnly só é conhecida depois que a transação começa.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY; // Nenhuma réplica disponível: fallback para o primário
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> {
+            if (replica.getDataSource() instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+
+    /**
+     * Uma réplica de leitura e o seu último estado de atraso conhecido.
+     * Começa como não saudável até a primeira verificação do {@link ReplicaLagMonitor}.
+     */
+    @Getter
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile Duration lag;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void update(boolean healthy, Duration lag) {
+            if (this.healthy != healthy) {
+                log.warn("Réplica {} agora está {} (atraso: {})", name, healthy ? "DISPONÍVEL" : "INDISPONÍVEL", lag);
+            }
+            this.healthy = healthy;
+            this.lag = lag;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.edivaldo.pedidos.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuração do roteamento de transações somente leitura para réplicas do PostgreSQL.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Habilita o roteamento. Quando desabilitado, o DataSource padrão do Spring Boot é utilizado.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Atraso máximo de replicação tolerado antes de a réplica ser retirada do pool de leitura.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Intervalo entre as verificações de atraso de cada réplica.
+     */
+    private long checkIntervalMs = 5000;
+
+    /**
+     * Tempo limite da consulta de verificação de atraso.
+     */
+    private Duration checkTimeout = Duration.ofSeconds(2);
+
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username; // Quando nulo, usa o usuário do primário
+        private String password; // Quando nulo, usa a senha do primário
+        private int maximumPoolSize = 20;
+        private int minimumIdle = 2;
+    }
+}
@@ -0,0 +1,59 @@
+package com.edivaldo.pedidos.config.discovery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Abre e valida {@code minimum-idle} conexões do pool antes de a aplicação ficar pronta, para que
+ * as primeiras requisições roteadas pelo gateway não paguem o custo de abrir conexões.
+ * Roda como ApplicationRunner, ou seja, antes do ReadinessState ACCEPTING_TRAFFIC.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPoolWarmer implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final int connections;
+
+    public ConnectionPoolWarmer(DataSource dataSource,
+                                @Value("${spring.datasource.hikari.minimum-idle:5}") int connections) {
+        this.dataSource = dataSource;
+        this.connections = connections;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        List<Connection> opened = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                connection.isValid(2);
+            }
+        } catch (Exception e) {
+            // Não impede a inicialização: o pool abre as conexões sob demanda
+            log.warn("Falha ao aquecer o pool de conexões: {}", e.getMessage());
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (Exception ignored) {
+                    // conexão devolvida ao pool
+                }
+            }
+        }
+        log.info("Pool de conexões aquecido com {} conexões em {} ms", opened.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
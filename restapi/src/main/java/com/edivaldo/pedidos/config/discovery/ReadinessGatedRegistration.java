@@ -0,0 +1,40 @@
+package com.edivaldo.pedidos.config.discovery;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * A instância se registra no Eureka como STARTING ({@code eureka.instance.initial-status}) e só
+ * passa a UP quando o Spring Boot a declara pronta (Flyway, JPA e o pool de conexões já aquecidos).
+ * A mudança de status dispara uma atualização imediata no registry, sem esperar o próximo heartbeat.
+ * Se a aplicação deixar de aceitar tráfego, a instância vai para OUT_OF_SERVICE.
+ */
+@Slf4j
+@Component
+public class ReadinessGatedRegistration {
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    public ReadinessGatedRegistration(ObjectProvider<ApplicationInfoManager> applicationInfoManager) {
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        ApplicationInfoManager manager = applicationInfoManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        InstanceStatus status = event.getState() == ReadinessState.ACCEPTING_TRAFFIC
+                ? InstanceStatus.UP
+                : InstanceStatus.OUT_OF_SERVICE;
+        log.info("Readiness {}: status no Eureka {}", event.getState(), status);
+        manager.setInstanceStatus(status);
+    }
+}
@@ -0,0 +1,82 @@
+package com.edivaldo.pedidos.config.health;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HealthIndicator cuja verificação roda em segundo plano, em thread própria, a cada {@code check-interval}.
+ * {@link #health()} apenas devolve o último resultado: a resposta tem custo constante e uma verificação
+ * travada (ex.: banco sob pressão) não segura a requisição de health, apenas torna o resultado obsoleto (DOWN).
+ */
+@Slf4j
+public abstract class CachedHealthIndicator implements HealthIndicator, InitializingBean, DisposableBean {
+
+    private final HealthProbeProperties properties;
+    private final ScheduledExecutorService executor;
+    private volatile Health lastHealth = Health.unknown().withDetail("reason", "ainda não verificado").build();
+    private volatile long lastCheckNanos = System.nanoTime();
+
+    protected CachedHealthIndicator(String name, HealthProbeProperties properties) {
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long intervalMs = properties.getCheckInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::refresh, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executa a verificação real; chamado apenas pela thread de verificação.
+     */
+    protected abstract Health check() throws Exception;
+
+    private void refresh() {
+        Health health;
+        try {
+            health = check();
+        } catch (Exception e) {
+            health = Health.down().withDetail("error", e.getClass().getSimpleName() + ": " + e.getMessage()).build();
+        }
+        if (!health.getStatus().equals(lastHealth.getStatus())) {
+            log.info("{}: {} -> {}", getClass().getSimpleName(), lastHealth.getStatus(), health.getStatus());
+        }
+        lastHealth = health;
+        lastCheckNanos = System.nanoTime();
+    }
+
+    @Override
+    public Health health() {
+        long ageMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastCheckNanos);
+        if (ageMs > properties.getStaleAfter().toMillis()) {
+            return Health.down().withDetail("reason", "verificação sem resposta há " + ageMs + " ms").build();
+        }
+        return lastHealth;
+    }
+
+    public boolean isUp() {
+        return Status.UP.equals(health().getStatus());
+    }
+
+    protected HealthProbeProperties getProperties() {
+        return properties;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
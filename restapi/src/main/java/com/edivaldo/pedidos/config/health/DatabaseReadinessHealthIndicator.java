@@ -0,0 +1,32 @@
+package com.edivaldo.pedidos.config.health;
+
+import org.springframework.boot.actuate.health.Health;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Valida periodicamente uma conexão do pool. Substitui o indicador "db" do Spring Boot,
+ * que consultava o banco a cada chamada de /actuator/health.
+ */
+public class DatabaseReadinessHealthIndicator extends CachedHealthIndicator {
+
+    private final DataSource dataSource;
+
+    public DatabaseReadinessHealthIndicator(DataSource dataSource, HealthProbeProperties properties) {
+        super("db", properties);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected Health check() throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            int timeoutSeconds = (int) Math.max(1, getProperties().getCheckTimeout().toSeconds());
+            if (!connection.isValid(timeoutSeconds)) {
+                return Health.down().withDetail("reason", "conexão inválida").build();
+            }
+        }
+        return Health.up().withDetail("validationMs", (System.nanoTime() - start) / 1_000_000).build();
+    }
+}
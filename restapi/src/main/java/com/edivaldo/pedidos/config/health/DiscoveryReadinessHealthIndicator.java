@@ -0,0 +1,39 @@
+package com.edivaldo.pedidos.config.health;
+
+import com.netflix.discovery.DiscoveryClient;
+import com.netflix.discovery.EurekaClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * Verifica periodicamente se o cliente Eureka conversa com o registry (última busca do registro ou
+ * último heartbeat recentes). Usa apenas o estado em memória do cliente, sem chamadas de rede.
+ */
+public class DiscoveryReadinessHealthIndicator extends CachedHealthIndicator {
+
+    private final ObjectProvider<EurekaClient> eurekaClient;
+
+    public DiscoveryReadinessHealthIndicator(ObjectProvider<EurekaClient> eurekaClient, HealthProbeProperties properties) {
+        super("discovery", properties);
+        this.eurekaClient = eurekaClient;
+    }
+
+    @Override
+    protected Health check() {
+        EurekaClient client = eurekaClient.getIfAvailable();
+        if (client == null) {
+            return Health.up().withDetail("eureka", "desabilitado").build();
+        }
+        if (!(client instanceof DiscoveryClient discoveryClient)) {
+            return Health.up().build();
+        }
+        long fetchAgeMs = discoveryClient.getLastSuccessfulRegistryFetchTimePeriod();
+        long heartbeatAgeMs = discoveryClient.getLastSuccessfulHeartbeatTimePeriod();
+        long limitMs = getProperties().getStaleAfter().toMillis() * 3;
+        boolean recent = (fetchAgeMs >= 0 && fetchAgeMs < limitMs) || (heartbeatAgeMs >= 0 && heartbeatAgeMs < limitMs);
+        return (recent ? Health.up() : Health.down())
+                .withDetail("lastRegistryFetchMs", fetchAgeMs)
+                .withDetail("lastHeartbeatMs", heartbeatAgeMs)
+                .build();
+    }
+}
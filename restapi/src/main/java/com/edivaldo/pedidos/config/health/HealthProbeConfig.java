@@ -0,0 +1,40 @@
+package com.edivaldo.pedidos.config.health;
+
+import com.netflix.discovery.EurekaClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Verificações de prontidão em cache (grupo "readiness" do actuator) e servidor de probes leve.
+ * Os nomes dos beans definem os nomes dos componentes no /actuator/health: databaseReadiness e discoveryReadiness.
+ */
+@Configuration
+@EnableConfigurationProperties(HealthProbeProperties.class)
+public class HealthProbeConfig {
+
+    @Bean
+    public DatabaseReadinessHealthIndicator databaseReadinessHealthIndicator(DataSource dataSource,
+                                                                             HealthProbeProperties properties) {
+        return new DatabaseReadinessHealthIndicator(dataSource, properties);
+    }
+
+    @Bean
+    public DiscoveryReadinessHealthIndicator discoveryReadinessHealthIndicator(ObjectProvider<EurekaClient> eurekaClient,
+                                                                               HealthProbeProperties properties) {
+        return new DiscoveryReadinessHealthIndicator(eurekaClient, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.health.probe-server", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ProbeServer probeServer(HealthProbeProperties properties, ApplicationAvailability availability,
+                                   List<CachedHealthIndicator> readinessChecks) {
+        return new ProbeServer(properties.getProbeServer().getPort(), availability, readinessChecks);
+    }
+}
@@ -0,0 +1,42 @@
+package com.edivaldo.pedidos.config.health;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuração das verificações de prontidão em segundo plano e do servidor de probes.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.health")
+public class HealthProbeProperties {
+
+    /**
+     * Intervalo entre as verificações de banco e Eureka.
+     */
+    private Duration checkInterval = Duration.ofSeconds(5);
+
+    /**
+     * Tempo limite da validação da conexão com o banco.
+     */
+    private Duration checkTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Resultado mais antigo que isso (verificação travada) é tratado como DOWN.
+     */
+    private Duration staleAfter = Duration.ofSeconds(30);
+
+    private ProbeServer probeServer = new ProbeServer();
+
+    @Data
+    public static class ProbeServer {
+
+        /**
+         * Sobe o servidor HTTP mínimo com /livez e /readyz, fora do Tomcat e do Spring MVC.
+         */
+        private boolean enabled = true;
+
+        private int port = 8081;
+    }
+}
@@ -0,0 +1,96 @@
+package com.edivaldo.pedidos.config.health;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP mínimo (JDK HttpServer, uma thread) para os probes do orquestrador:
+ * <ul>
+ *   <li>{@code GET /livez}: 200 enquanto o LivenessState for CORRECT;</li>
+ *   <li>{@code GET /readyz}: 200 quando a aplicação aceita tráfego e as verificações em cache (banco, Eureka) estão UP.</li>
+ * </ul>
+ * Não passa pelo Tomcat, filtros nem Spring MVC e só lê estado em memória: os probes continuam respondendo
+ * em tempo constante mesmo com o pool de threads do Tomcat ou o banco saturados.
+ */
+@Slf4j
+public class ProbeServer implements SmartLifecycle {
+
+    private static final byte[] UP = "UP".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DOWN = "DOWN".getBytes(StandardCharsets.US_ASCII);
+
+    private final int port;
+    private final ApplicationAvailability availability;
+    private final List<CachedHealthIndicator> readinessChecks;
+    private HttpServer server;
+
+    public ProbeServer(int port, ApplicationAvailability availability, List<CachedHealthIndicator> readinessChecks) {
+        this.port = port;
+        this.availability = availability;
+        this.readinessChecks = readinessChecks;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 16);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível abrir a porta de probes " + port, e);
+        }
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "probe-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/livez", exchange -> respond(exchange,
+                availability.getLivenessState() == LivenessState.CORRECT));
+        server.createContext("/readyz", exchange -> respond(exchange, isReady()));
+        server.start();
+        log.info("Probes /livez e /readyz na porta {}", port);
+    }
+
+    boolean isReady() {
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return false;
+        }
+        for (CachedHealthIndicator check : readinessChecks) {
+            if (!check.isUp()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void respond(HttpExchange exchange, boolean ok) throws IOException {
+        byte[] body = ok ? UP : DOWN;
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(ok ? 200 : 503, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.edivaldo.pedidos.config.holds;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Retenções de crédito de pedidos PENDENTE: CreditHoldService (roda de expiração em memória e varredura
+ * periódica de órfãs) e o uso no OrderService.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(CreditHoldProperties.class)
+public class CreditHoldConfig {
+}
@@ -0,0 +1,50 @@
+package com.edivaldo.pedidos.config.holds;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuração das retenções de crédito de pedidos PENDENTE (credit_holds).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.credit-holds")
+public class CreditHoldProperties {
+
+    /**
+     * Reserva o crédito na criação do pedido. Só controla novas retenções: as existentes continuam expirando
+     * e sendo consumidas na aprovação/cancelamento.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Tempo até a retenção de um pedido não aprovado expirar e o crédito voltar ao parceiro.
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+
+    /**
+     * Resolução da roda de expiração (posição do nível 0).
+     */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * Posições por nível da roda.
+     */
+    private int wheelSize = 512;
+
+    /**
+     * Retenções liberadas por transação.
+     */
+    private int releaseBatchSize = 1000;
+
+    /**
+     * Intervalo da varredura de retenções que nenhuma instância liberou (ex.: a instância que as criou caiu).
+     */
+    private long orphanSweepIntervalMs = 300_000;
+
+    /**
+     * Só são consideradas órfãs as retenções expiradas há mais que isso.
+     */
+    private Duration orphanGrace = Duration.ofMinutes(1);
+}
@@ -0,0 +1,12 @@
+package com.edivaldo.pedidos.config.jfr;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gravações do JDK Flight Recorder sob demanda: JfrRecorder e JfrEndpoint.
+ */
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+public class JfrConfig {
+}
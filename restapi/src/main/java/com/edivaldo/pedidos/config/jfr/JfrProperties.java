@@ -0,0 +1,43 @@
+package com.edivaldo.pedidos.config.jfr;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuração das gravações do JDK Flight Recorder iniciadas pelo JfrEndpoint.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.jfr")
+public class JfrProperties {
+
+    /**
+     * Configuração de eventos da JVM usada quando o POST não informa outra: {@code default} (sobrecarga ~1%),
+     * {@code profile} (mais detalhada, ~2%) ou o caminho de um arquivo .jfc (o POST só aceita as duas primeiras).
+     */
+    private String profile = "default";
+
+    /**
+     * Diretório dos arquivos gerados por dump e stop.
+     */
+    private String dumpDir = "/tmp/jfr";
+
+    /**
+     * Limites do buffer em disco da gravação; os eventos mais antigos são descartados primeiro.
+     */
+    private Duration maxAge = Duration.ofMinutes(30);
+
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    /**
+     * Eventos de pedido (criação, transição, espera de bloqueio) mais curtos que isso não são gravados.
+     */
+    private Duration threshold = Duration.ZERO;
+
+    /**
+     * Grava também a conversão de cada pedido em DTO; as listagens geram um evento por pedido.
+     */
+    private boolean dtoMapping = false;
+}
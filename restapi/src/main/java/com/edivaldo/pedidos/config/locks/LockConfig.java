@@ -0,0 +1,14 @@
+package com.edivaldo.pedidos.config.locks;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Disputa por bloqueios: LockContentionSampler (agendado), LocksEndpoint e OperationTimeouts.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(LockProperties.class)
+public class LockConfig {
+}
@@ -0,0 +1,56 @@
+package com.edivaldo.pedidos.config.locks;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diagnóstico de disputa por bloqueios no Postgres (LockContentionSampler) e limites de espera por operação
+ * (OperationTimeouts).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.locks")
+public class LockProperties {
+
+    private Sampler sampler = new Sampler();
+
+    /**
+     * {@code lock_timeout}/{@code statement_timeout} por operação (create-order, update-order-status, cancel-order,
+     * update-partner); a entrada {@code default} vale para o que a operação não definir.
+     */
+    private Map<String, Timeouts> timeouts = new HashMap<>();
+
+    @Data
+    public static class Sampler {
+
+        private boolean enabled = true;
+
+        private long intervalMs = 5_000;
+
+        /**
+         * Tempo máximo de cada consulta do sampler.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * Período considerado no ranking dos parceiros mais disputados.
+         */
+        private Duration window = Duration.ofMinutes(5);
+
+        private int top = 10;
+    }
+
+    @Data
+    public static class Timeouts {
+
+        /**
+         * Espera máxima por um bloqueio; {@code 0} desliga, ausente mantém o valor do banco.
+         */
+        private Duration lockTimeout;
+
+        private Duration statementTimeout;
+    }
+}
@@ -0,0 +1,73 @@
+package com.edivaldo.pedidos.config.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Coloca no MDC o ID da requisição (header {@code X-Request-Id}, propagado pelo gateway, ou gerado aqui)
+ * e os IDs de pedido/parceiro presentes na URL, para que todos os logs da requisição saiam correlacionados.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final String ORDERS_PATH = "/api/orders/";
+    private static final String PARTNERS_PATH = "/api/partners/";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isEmpty() || requestId.length() > 64) {
+            requestId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        MDC.put(LogContext.REQUEST_ID, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        String uri = request.getRequestURI();
+        String orderId = idAfter(uri, ORDERS_PATH);
+        if (orderId != null) {
+            MDC.put(LogContext.ORDER_ID, orderId);
+        }
+        String partnerId = idAfter(uri, PARTNERS_PATH);
+        if (partnerId == null) {
+            partnerId = request.getParameter("partnerId");
+        }
+        if (partnerId != null) {
+            MDC.put(LogContext.PARTNER_ID, partnerId);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LogContext.clear();
+        }
+    }
+
+    /**
+     * Retorna o segmento numérico logo após {@code prefix} (ex.: "/api/orders/42/status" -> "42").
+     */
+    static String idAfter(String uri, String prefix) {
+        int start = uri.indexOf(prefix);
+        if (start < 0) {
+            return null;
+        }
+        start += prefix.length();
+        int end = start;
+        while (end < uri.length() && Character.isDigit(uri.charAt(end))) {
+            end++;
+        }
+        return end > start ? uri.substring(start, end) : null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.edivaldo.pedidos.config.logging;
+
+import org.slf4j.MDC;
+
+/**
+ * Chaves do MDC usadas para correlacionar os logs de uma requisição (saem como campos do JSON).
+ * O {@link CorrelationIdFilter} limpa todas ao final da requisição; fora dele (jobs agendados, testes),
+ * quem coloca uma chave pelo {@link #orderId}/{@link #partnerId} fecha o {@link Scope} devolvido, em
+ * try-with-resources, para que o valor não fique na thread.
+ */
+public final class LogContext {
+
+    public static final String REQUEST_ID = "requestId";
+    public static final String ORDER_ID = "orderId";
+    public static final String PARTNER_ID = "partnerId";
+
+    private static final Scope NOOP = () -> {
+    };
+
+    private LogContext() {
+    }
+
+    public static Scope orderId(Long orderId) {
+        return put(ORDER_ID, orderId);
+    }
+
+    public static Scope partnerId(Long partnerId) {
+        return put(PARTNER_ID, partnerId);
+    }
+
+    /**
+     * Coloca {@code id} na chave e devolve o escopo que restaura o valor anterior (o que o filtro tirou da URL,
+     * por exemplo) ou remove a chave se não havia nenhum.
+     */
+    private static Scope put(String key, Long id) {
+        if (id == null) {
+            return NOOP;
+        }
+        String previous = MDC.get(key);
+        MDC.put(key, id.toString());
+        return () -> {
+            if (previous == null) {
+                MDC.remove(key);
+            } else {
+                MDC.put(key, previous);
+            }
+        };
+    }
+
+    static void clear() {
+        MDC.remove(REQUEST_ID);
+        MDC.remove(ORDER_ID);
+        MDC.remove(PARTNER_ID);
+    }
+
+    /**
+     * Escopo de uma chave do MDC; {@link #close()} não lança exceção verificada.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
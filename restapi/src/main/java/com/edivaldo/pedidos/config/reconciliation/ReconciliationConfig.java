@@ -0,0 +1,15 @@
+package com.edivaldo.pedidos.config.reconciliation;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Reconciliação de crédito: CreditReconciliationService, acionado pelo cron {@code app.reconciliation.cron}
+ * ou por {@code GET/POST /actuator/reconciliation}.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReconciliationProperties.class)
+public class ReconciliationConfig {
+}
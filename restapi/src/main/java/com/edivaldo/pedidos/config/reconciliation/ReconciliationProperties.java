@@ -0,0 +1,37 @@
+package com.edivaldo.pedidos.config.reconciliation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração da reconciliação do crédito dos parceiros com os pedidos.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reconciliation")
+public class ReconciliationProperties {
+
+    /**
+     * Faixas de parceiros verificadas ao mesmo tempo; cada uma ocupa uma conexão do pool.
+     */
+    private int parallelism = 4;
+
+    /**
+     * IDs de parceiro por faixa. Cada faixa é verificada com uma única consulta.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Máximo de parceiros divergentes listados no relatório (a contagem é sempre completa).
+     */
+    private int sampleSize = 100;
+
+    /**
+     * Expressão cron da reconciliação automática; "-" desliga (só pelo actuator).
+     */
+    private String cron = "-";
+
+    /**
+     * Se a execução agendada também corrige o crédito divergente, em vez de só relatar.
+     */
+    private boolean repairOnSchedule = false;
+}
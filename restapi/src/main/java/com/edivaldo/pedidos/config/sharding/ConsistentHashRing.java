@@ -0,0 +1,49 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anel de hash consistente dos shards: cada shard ocupa {@code virtualNodes} pontos e a chave vai para o
+ * primeiro ponto depois do seu hash. Acrescentar o shard n move só as chaves que caem nos novos pontos, cerca
+ * de 1/(n+1) do total, todas para o shard novo. O hash é o finalizador do MurmurHash3 (fmix64), determinístico
+ * entre JVMs e versões, ao contrário de {@code hashCode}.
+ */
+public final class ConsistentHashRing {
+
+    private static final long KEY_SEED = 0x9E3779B97F4A7C15L;
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+    private final int shards;
+
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("O anel precisa de ao menos um shard e um ponto por shard");
+        }
+        this.shards = shards;
+        for (int shard = 0; shard < shards; shard++) {
+            for (int point = 0; point < virtualNodes; point++) {
+                ring.putIfAbsent(mix(mix(shard) + point), shard);
+            }
+        }
+    }
+
+    public int shardFor(long key) {
+        if (shards == 1) {
+            return 0;
+        }
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(mix(key ^ KEY_SEED));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,33 @@
+package com.edivaldo.pedidos.config.sharding;
+
+/**
+ * Faixas de IDs de pedido por shard: os bits acima de {@link #SHARD_SHIFT} guardam o shard, e cada shard gera
+ * os seus IDs com a própria orders_id_seq, limitada à sua faixa (ver ShardSchemaInitializer). Assim um ID
+ * basta para achar o banco do pedido, sem tabela de localização. Os IDs de order_items usam as mesmas faixas,
+ * o que os mantém únicos entre shards no cache de segundo nível. O shard 0 começa em 1, o que mantém válidos
+ * os IDs de uma base criada antes do particionamento. Os IDs ficam abaixo de 2^53 e continuam exatos como
+ * número em JSON.
+ */
+public final class OrderIdLayout {
+
+    static final int SHARD_SHIFT = 44;
+    public static final int MAX_SHARDS = 1 << (53 - SHARD_SHIFT);
+
+    private OrderIdLayout() {
+    }
+
+    public static int shardOf(long orderId) {
+        if (orderId <= 0) {
+            throw new IllegalArgumentException("ID de pedido inválido: " + orderId);
+        }
+        return (int) (orderId >>> SHARD_SHIFT);
+    }
+
+    public static long firstId(int shard) {
+        return shard == 0 ? 1 : (long) shard << SHARD_SHIFT;
+    }
+
+    public static long lastId(int shard) {
+        return ((long) (shard + 1) << SHARD_SHIFT) - 1;
+    }
+}
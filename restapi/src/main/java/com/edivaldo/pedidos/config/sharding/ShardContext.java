@@ -0,0 +1,25 @@
+package com.edivaldo.pedidos.config.sharding;
+
+/**
+ * Shard da thread atual, lido pelo {@link ShardRoutingDataSource} quando a transação pede a conexão.
+ * Definido pelo ShardRouter; sem shard definido, a conexão vem do shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
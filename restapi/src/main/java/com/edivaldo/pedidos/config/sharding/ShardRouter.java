@@ -0,0 +1,321 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ponto de entrada dos serviços no particionamento (ver ShardRoutingDataSourceConfig). Com
+ * {@code app.sharding.enabled=false} todos os métodos de bind são no-op e {@link #isEnabled()} é falso.
+ * <ul>
+ *   <li>{@link #bindPartner}/{@link #bindOrder}: fixam o shard da transação atual; precisam vir antes do primeiro
+ *   comando SQL da transação, que é quando a conexão é obtida;</li>
+ *   <li>{@link #scatterStream}: a mesma consulta em todos os shards em paralelo, cada um na sua transação somente
+ *   leitura, com os cursores intercalados pela ordem pedida à medida que são lidos (listagens em stream);</li>
+ *   <li>{@link #scatterGather}: o mesmo, juntando o resultado numa lista.</li>
+ * </ul>
+ */
+@Component
+public class ShardRouter implements DisposableBean {
+
+    /** Itens lidos de cada shard à frente da intercalação; um cliente lento segura as leituras nesse ponto. */
+    static final int CURSOR_BUFFER = 256;
+
+    private final ShardRoutingDataSource routing;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration scatterTimeout;
+    private final ExecutorService scatterExecutor;
+    private final Semaphore scatterPermits;
+
+    public ShardRouter(ObjectProvider<ShardRoutingDataSource> routing, ObjectProvider<ShardingProperties> properties,
+                       PlatformTransactionManager transactionManager, DataSource dataSource) {
+        this.routing = routing.getIfAvailable();
+        this.transactionManager = transactionManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        ShardingProperties sharding = properties.getIfAvailable(ShardingProperties::new);
+        this.scatterTimeout = sharding.getScatterTimeout();
+        // Uma thread (e uma conexão) por shard enquanto a consulta durar. As permissões são tomadas de uma vez
+        // por consulta, para que duas consultas nunca fiquem cada uma com parte dos shards esperando a outra.
+        this.scatterExecutor = this.routing != null ? Executors.newCachedThreadPool(threadFactory()) : null;
+        this.scatterPermits = new Semaphore(Math.max(sharding.getScatterThreads(), shardCount()), true);
+    }
+
+    public boolean isEnabled() {
+        return routing != null;
+    }
+
+    public int shardCount() {
+        return isEnabled() ? routing.shardCount() : 1;
+    }
+
+    public int shardForPartner(long partnerId) {
+        return isEnabled() ? routing.shardForPartner(partnerId) : 0;
+    }
+
+    /**
+     * Fixa a transação atual no shard do parceiro.
+     * @throws IllegalStateException fora de uma transação, ou se a transação já estiver em outro shard.
+     */
+    public void bindPartner(Long partnerId) {
+        if (isEnabled() && partnerId != null) {
+            bind(routing.shardForPartner(partnerId));
+        }
+    }
+
+    /**
+     * Fixa a transação atual no shard codificado no ID do pedido (ver {@link OrderIdLayout}). IDs que não
+     * correspondem a nenhum shard vão para o shard 0, onde a busca simplesmente não encontra o pedido.
+     */
+    public void bindOrder(Long orderId) {
+        if (isEnabled() && orderId != null) {
+            int shard = orderId > 0 ? OrderIdLayout.shardOf(orderId) : 0;
+            bind(shard < routing.shardCount() ? shard : 0);
+        }
+    }
+
+    private void bind(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("O shard só pode ser fixado dentro de uma transação");
+        }
+        Integer current = ShardContext.current();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("A transação já está no shard " + current + "; operação no shard " + shard
+                        + " exigiria uma transação distribuída");
+            }
+            return;
+        }
+        ShardContext.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ShardContext.set(null);
+            }
+        });
+    }
+
+    /**
+     * Executa {@code query} em todos os shards ao mesmo tempo, cada um numa thread e na sua transação somente
+     * leitura, e entrega os itens ao {@code sink} na thread atual, intercalados pela ordem {@code order} (k-way
+     * merge sobre o cursor de cada shard). Cada shard precisa entregar os seus itens já nessa ordem. Cada cursor
+     * fica no máximo {@link #CURSOR_BUFFER} itens à frente do {@code sink}, então a memória não cresce com o
+     * resultado. Uma falha em qualquer shard, ou no {@code sink}, interrompe a leitura dos demais.
+     * @throws QueryTimeoutException se não houver threads livres, ou se um shard ficar mais que
+     * {@code app.sharding.scatter-timeout} sem entregar o próximo item.
+     */
+    public <T> void scatterStream(Consumer<Consumer<T>> query, Comparator<? super T> order, Consumer<? super T> sink) {
+        int shards = shardCount();
+        long timeoutNanos = scatterTimeout.toNanos();
+        acquire(shards, timeoutNanos);
+        List<ShardCursor<T>> cursors = new ArrayList<>(shards);
+        List<Future<?>> readers = new ArrayList<>(shards);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                ShardCursor<T> cursor = new ShardCursor<>(shard);
+                cursors.add(cursor);
+                readers.add(submit(cursor, query));
+            }
+            PriorityQueue<ShardCursor<T>> heads = new PriorityQueue<>((a, b) -> {
+                int byOrder = order.compare(a.head, b.head);
+                return byOrder != 0 ? byOrder : Integer.compare(a.shard, b.shard);
+            });
+            for (ShardCursor<T> cursor : cursors) {
+                if (cursor.advance(timeoutNanos, scatterTimeout)) {
+                    heads.add(cursor);
+                }
+            }
+            while (!heads.isEmpty()) {
+                ShardCursor<T> cursor = heads.poll();
+                sink.accept(cursor.head);
+                if (cursor.advance(timeoutNanos, scatterTimeout)) {
+                    heads.add(cursor);
+                }
+            }
+        } finally {
+            readers.forEach(reader -> reader.cancel(true));
+            scatterPermits.release(shards - readers.size()); // as leituras iniciadas devolvem a sua ao terminar
+        }
+    }
+
+    /**
+     * {@link #scatterStream} com o resultado numa lista; cada shard ordena a sua parte antes da intercalação.
+     */
+    public <T> List<T> scatterGather(Supplier<? extends List<T>> query, Comparator<? super T> order) {
+        List<T> result = new ArrayList<>();
+        this.<T>scatterStream(shard -> {
+            List<T> part = new ArrayList<>(query.get());
+            part.sort(order);
+            part.forEach(shard);
+        }, order, result::add);
+        return result;
+    }
+
+    private void acquire(int permits, long timeoutNanos) {
+        try {
+            if (!scatterPermits.tryAcquire(permits, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new QueryTimeoutException("Sem threads livres para consultar os shards em " + scatterTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta nos shards interrompida", e);
+        }
+    }
+
+    private <T> Future<?> submit(ShardCursor<T> cursor, Consumer<Consumer<T>> query) {
+        try {
+            return scatterExecutor.submit(() -> {
+                try {
+                    cursor.read(() -> onShard(cursor.shard, true, () -> {
+                        query.accept(cursor::put);
+                        return null;
+                    }));
+                } finally {
+                    scatterPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Consulta nos shards recusada: aplicação encerrando", e);
+        }
+    }
+
+    /**
+     * Reserva um ID de parceiro na partners_id_seq do shard 0, que numera os parceiros de todos os shards: o shard
+     * de um parceiro sai do seu ID, que portanto precisa existir antes do INSERT.
+     */
+    public long allocatePartnerId() {
+        return onShard(0, false, () ->
+                jdbcTemplate.queryForObject("SELECT nextval(pg_get_serial_sequence('partners', 'id'))", Long.class));
+    }
+
+    private <T> T onShard(int shard, boolean readOnly, Supplier<T> work) {
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transaction.setReadOnly(readOnly);
+            return transaction.execute(status -> work.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Cursor de um shard: a thread de leitura enche a fila e a intercalação consome um item por vez. O fim da
+     * leitura, ou a falha dela, vai para a fila como o último elemento.
+     */
+    private static final class ShardCursor<T> {
+
+        private static final Object END = new Object();
+
+        private record Failure(Throwable error) {
+        }
+
+        final int shard;
+        private final BlockingQueue<Object> items = new ArrayBlockingQueue<>(CURSOR_BUFFER);
+        T head;
+
+        ShardCursor(int shard) {
+            this.shard = shard;
+        }
+
+        void put(T item) {
+            try {
+                items.put(item);
+            } catch (InterruptedException e) {
+                // A intercalação desistiu (falha em outro shard ou cliente desconectou): encerra a consulta
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Leitura do shard " + shard + " cancelada", e);
+            }
+        }
+
+        void read(Runnable query) {
+            Object last = END;
+            try {
+                query.run();
+            } catch (Throwable e) {
+                last = new Failure(e);
+            }
+            try {
+                items.put(last);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // ninguém mais lê a fila
+            }
+        }
+
+        /**
+         * Avança para o próximo item do shard.
+         * @return false no fim da leitura.
+         */
+        @SuppressWarnings("unchecked")
+        boolean advance(long timeoutNanos, Duration timeout) {
+            Object next;
+            try {
+                next = items.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Consulta nos shards interrompida", e);
+            }
+            if (next == null) {
+                throw new QueryTimeoutException("Shard " + shard + " não respondeu em " + timeout);
+            }
+            if (next == END) {
+                return false;
+            }
+            if (next instanceof Failure failure) {
+                if (failure.error() instanceof RuntimeException error) {
+                    throw error;
+                }
+                if (failure.error() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Falha na consulta no shard " + shard, failure.error());
+            }
+            head = (T) next;
+            return true;
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource que entrega a conexão do shard definido em {@link ShardContext} (shard 0 quando nenhum foi
+ * definido, como no Flyway e nos jobs). Deve ser envolvido por um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: o shard de uma operação só é
+ * conhecido depois que a transação começa, quando o serviço vê o ID do parceiro ou do pedido.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final List<DataSource> shards;
+    private final ConsistentHashRing ring;
+
+    public ShardRoutingDataSource(List<DataSource> shards, int virtualNodes) {
+        if (shards.size() > OrderIdLayout.MAX_SHARDS) {
+            throw new IllegalArgumentException("No máximo " + OrderIdLayout.MAX_SHARDS + " shards");
+        }
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing(this.shards.size(), virtualNodes);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            targets.put(i, this.shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.shards.get(0));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : 0;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int shardForPartner(long partnerId) {
+        return ring.shardFor(partnerId);
+    }
+
+    @Override
+    public void destroy() {
+        // O shard 0 é um bean próprio e o Spring o fecha
+        shards.stream().skip(1).forEach(shard -> {
+            if (shard instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+}
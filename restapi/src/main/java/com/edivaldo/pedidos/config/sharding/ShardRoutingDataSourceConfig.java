@@ -0,0 +1,108 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configura o particionamento por parceiro quando {@code app.sharding.enabled=true}. O shard 0 continua sendo
+ * configurado pelas propriedades {@code spring.datasource.*}; os demais vêm de {@code app.sharding.nodes}.
+ * As migrações do Flyway rodam em todos os shards, seguidas do ShardSchemaInitializer.
+ * <p>
+ * Não combina com o roteamento para réplicas (os dois substituem o DataSource principal) nem com o que só conhece
+ * o shard 0: as retenções de crédito (roda de expiração), o arquivamento, o rollup de vendas, o cancelamento de
+ * pedidos abandonados, a amostragem de bloqueios e as execuções agendadas de extratos e reconciliação. Qualquer
+ * um deles ligado impede a subida; os endpoints de extratos, reconciliação e order_views não são registrados.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardRoutingDataSourceConfig {
+
+    public ShardRoutingDataSourceConfig(Environment environment) {
+        rejectEnabled(environment, "app.datasource.replica.enabled", false);
+        rejectEnabled(environment, "app.credit-holds.enabled", false);
+        rejectEnabled(environment, "app.archive.enabled", true);
+        rejectEnabled(environment, "app.analytics.rollup.enabled", true);
+        rejectEnabled(environment, "app.stale-orders.enabled", false);
+        rejectEnabled(environment, "app.locks.sampler.enabled", true);
+        rejectScheduled(environment, "app.statements.cron");
+        rejectScheduled(environment, "app.reconciliation.cron");
+    }
+
+    private static void rejectEnabled(Environment environment, String property, boolean defaultValue) {
+        if (environment.getProperty(property, Boolean.class, defaultValue)) {
+            throw new IllegalStateException("app.sharding.enabled e " + property + " não podem ser usados juntos");
+        }
+    }
+
+    private static void rejectScheduled(Environment environment, String property) {
+        if (!Scheduled.CRON_DISABLED.equals(environment.getProperty(property, Scheduled.CRON_DISABLED))) {
+            throw new IllegalStateException("Com app.sharding.enabled, " + property + " precisa ser \"-\"");
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryShardDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource primaryShardDataSource,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties properties) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(primaryShardDataSource);
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ShardingProperties.Node node = properties.getNodes().get(i);
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setJdbcUrl(node.getUrl());
+            shard.setUsername(node.getUsername() != null ? node.getUsername() : dataSourceProperties.determineUsername());
+            shard.setPassword(node.getPassword() != null ? node.getPassword() : dataSourceProperties.determinePassword());
+            shard.setMaximumPoolSize(node.getMaximumPoolSize());
+            shard.setMinimumIdle(node.getMinimumIdle());
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards, properties.getVirtualNodes());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // Adia a obtenção da conexão física até o primeiro comando SQL, quando o shard da transação já foi fixado
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource,
+                                                          ShardingProperties properties) {
+        ShardSchemaInitializer initializer = new ShardSchemaInitializer(shardRoutingDataSource,
+                properties.isPruneMisplacedRows());
+        return flyway -> {
+            for (int shard = 0; shard < shardRoutingDataSource.shardCount(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardRoutingDataSource.getShard(shard))
+                        .load()
+                        .migrate();
+                initializer.initialize(shard);
+            }
+        };
+    }
+}
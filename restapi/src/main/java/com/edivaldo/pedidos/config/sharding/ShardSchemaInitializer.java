@@ -0,0 +1,111 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Preparação de cada shard depois das migrações: limita as sequências de orders e order_items à faixa do shard
+ * (ver {@link OrderIdLayout}) e, com {@code app.sharding.prune-misplaced-rows}, apaga as linhas que pertencem a
+ * outro shard. Roda sob um advisory lock, já que as instâncias do restapi sobem ao mesmo tempo.
+ */
+@Slf4j
+class ShardSchemaInitializer {
+
+    private static final long ADVISORY_LOCK_KEY = 0x5348415244L; // "SHARD"
+
+    private final ShardRoutingDataSource routing;
+    private final boolean pruneMisplacedRows;
+
+    ShardSchemaInitializer(ShardRoutingDataSource routing, boolean pruneMisplacedRows) {
+        this.routing = routing;
+        this.pruneMisplacedRows = pruneMisplacedRows;
+    }
+
+    void initialize(int shard) {
+        DataSource dataSource = routing.getShard(shard);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbc.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, ADVISORY_LOCK_KEY);
+            if (pruneMisplacedRows) {
+                pruneMisplacedRows(jdbc, shard);
+            }
+            restrictSequence(jdbc, shard, "orders");
+            restrictSequence(jdbc, shard, "order_items");
+        });
+    }
+
+    /**
+     * Limita a sequência do ID de {@code table} à faixa do shard. Vale também para order_items: os itens ficam no
+     * cache de segundo nível por ID, e IDs repetidos entre shards trariam os itens de um pedido de outro banco.
+     */
+    private void restrictSequence(JdbcTemplate jdbc, int shard, String table) {
+        long first = OrderIdLayout.firstId(shard);
+        long last = OrderIdLayout.lastId(shard);
+        String sequence = jdbc.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        long lastValue = jdbc.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+        if (lastValue > last) {
+            throw new IllegalStateException("A sequência " + sequence + " do shard " + shard + " já passou da faixa do shard ("
+                    + lastValue + " > " + last + ")");
+        }
+        // Identificadores e limites vêm do catálogo e do OrderIdLayout; ALTER SEQUENCE não aceita parâmetros.
+        // START também muda: o Postgres recusa um START (1, o original) abaixo do MINVALUE.
+        String alter = "ALTER SEQUENCE " + sequence + " MINVALUE " + first + " MAXVALUE " + last + " START WITH " + first;
+        if (lastValue < first) {
+            alter += " RESTART WITH " + first; // shard novo: a sequência ainda não entrou na faixa
+            log.info("Sequência {} do shard {} reiniciada em {}", sequence, shard, first);
+        }
+        jdbc.execute(alter);
+        Long outOfRange = jdbc.queryForObject("SELECT count(*) FROM " + table + " WHERE id NOT BETWEEN ? AND ?",
+                Long.class, first, last);
+        if (outOfRange != null && outOfRange > 0) {
+            log.warn("Shard {} tem {} linhas de {} com ID fora da faixa [{}, {}]", shard, outOfRange, table, first, last);
+        }
+    }
+
+    private void pruneMisplacedRows(JdbcTemplate jdbc, int shard) {
+        long first = OrderIdLayout.firstId(shard);
+        long last = OrderIdLayout.lastId(shard);
+        Long[] partners = jdbc.queryForList("SELECT id FROM partners", Long.class).stream()
+                .filter(partnerId -> routing.shardForPartner(partnerId) != shard)
+                .toArray(Long[]::new);
+        Long[] orders = jdbc.query(con -> prepare(con, "SELECT id FROM orders WHERE partner_id = ANY(?) OR id NOT BETWEEN ? AND ?",
+                        partners, first, last), (rs, rowNum) -> rs.getLong(1))
+                .toArray(Long[]::new);
+        // Dependentes primeiro, por causa das chaves estrangeiras
+        update(jdbc, "DELETE FROM credit_holds WHERE order_id = ANY(?) OR partner_id = ANY(?)", orders, partners);
+        update(jdbc, "DELETE FROM order_views WHERE order_id = ANY(?)", (Object) orders);
+        update(jdbc, "DELETE FROM order_items WHERE order_id = ANY(?)", (Object) orders);
+        update(jdbc, "DELETE FROM orders WHERE id = ANY(?)", (Object) orders);
+        int archived = update(jdbc, "DELETE FROM orders_archive WHERE partner_id = ANY(?) OR order_id NOT BETWEEN ? AND ?",
+                partners, first, last);
+        update(jdbc, "DELETE FROM product_sales_rollup WHERE partner_id = ANY(?)", (Object) partners);
+        update(jdbc, "DELETE FROM partners WHERE id = ANY(?)", (Object) partners);
+        if (partners.length > 0 || orders.length > 0 || archived > 0) {
+            log.warn("Shard {}: removidos {} parceiros de outros shards, {} pedidos e {} pedidos arquivados",
+                    shard, partners.length, orders.length, archived);
+        }
+    }
+
+    private static int update(JdbcTemplate jdbc, String sql, Object... args) {
+        return jdbc.update(con -> prepare(con, sql, args));
+    }
+
+    private static PreparedStatement prepare(Connection con, String sql, Object... args) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Long[] ids) {
+                ps.setArray(i + 1, con.createArrayOf("int8", ids));
+            } else {
+                ps.setObject(i + 1, args[i]);
+            }
+        }
+        return ps;
+    }
+}
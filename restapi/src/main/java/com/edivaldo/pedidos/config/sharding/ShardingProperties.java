@@ -0,0 +1,58 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Particionamento horizontal de parceiros e pedidos por {@code partner_id}. O shard 0 é o banco de
+ * {@code spring.datasource.*}; cada item de {@code nodes} acrescenta um shard (1, 2, ...), na ordem da lista.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    /**
+     * Habilita o roteamento por parceiro. Desabilitado, tudo vai para o banco de {@code spring.datasource.*}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Pontos de cada shard no anel de hash consistente; mais pontos, distribuição mais uniforme.
+     * Alterar este valor (ou a ordem dos nodes) muda o shard de parceiros existentes.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * Threads das consultas espalhadas por todos os shards, somadas entre as consultas simultâneas: cada consulta
+     * ocupa uma por shard, e cada uma ocupa uma conexão.
+     */
+    private int scatterThreads = 8;
+
+    /**
+     * Tempo máximo de espera pelas threads de uma consulta espalhada e pelo próximo item de cada shard; passado o
+     * limite a requisição falha com 503.
+     */
+    private Duration scatterTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Na inicialização, apaga de cada shard os parceiros que pertencem a outro shard (com seus pedidos) e os
+     * pedidos com ID fora da faixa do shard. Serve para bancos recém-criados, em que o V2 insere os mesmos dados
+     * iniciais em todos os shards; nunca habilitar sobre dados reais sem antes movê-los.
+     */
+    private boolean pruneMisplacedRows = false;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username; // Quando nulo, usa o usuário do shard 0
+        private String password; // Quando nulo, usa a senha do shard 0
+        private int maximumPoolSize = 20;
+        private int minimumIdle = 2;
+    }
+}
@@ -0,0 +1,15 @@
+package com.edivaldo.pedidos.config.statements;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Extratos mensais de parceiros: StatementJob, acionado pelo cron {@code app.statements.cron} ou por
+ * {@code POST /actuator/statements}, com o progresso em {@code GET /actuator/statements}.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StatementProperties.class)
+public class StatementConfig {
+}
@@ -0,0 +1,43 @@
+package com.edivaldo.pedidos.config.statements;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuração da geração dos extratos mensais de parceiros.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.statements")
+public class StatementProperties {
+
+    /**
+     * Diretório onde cada execução cria a pasta do período (ex.: /data/statements/2024-05).
+     */
+    private String outputDir = "/tmp/statements";
+
+    /**
+     * Threads do ForkJoinPool da geração; cada uma ocupa uma conexão do pool durante a leitura de um parceiro.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Parceiros por tarefa folha; faixas maiores são divididas ao meio.
+     */
+    private int partnersPerTask = 25;
+
+    /**
+     * Pedidos lidos por ida ao banco (cursor) ao percorrer os pedidos de um parceiro.
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * Buffer de escrita de cada thread; junto com o fetch size, é o que limita a memória usada por parceiro.
+     */
+    private DataSize bufferSize = DataSize.ofKilobytes(256);
+
+    /**
+     * Expressão cron da geração automática do mês anterior; "-" desliga (geração só pelo actuator).
+     */
+    private String cron = "-";
+}
@@ -0,0 +1,14 @@
+package com.edivaldo.pedidos.config.sweeper;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Cancelamento automático de pedidos PENDENTE abandonados: StaleOrderSweeper (agendado).
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StaleOrderProperties.class)
+public class StaleOrderConfig {
+}
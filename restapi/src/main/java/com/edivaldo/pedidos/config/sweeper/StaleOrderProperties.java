@@ -0,0 +1,51 @@
+package com.edivaldo.pedidos.config.sweeper;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cancelamento automático de pedidos PENDENTE abandonados (StaleOrderSweeper).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.stale-orders")
+public class StaleOrderProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Pedidos PENDENTE criados há mais tempo que isso são cancelados.
+     */
+    private Duration maxAge = Duration.ofDays(7);
+
+    /**
+     * Tamanho máximo (e inicial) do lote; o tamanho efetivo se ajusta à duração dos lotes.
+     */
+    private int batchSize = 500;
+
+    private int minBatchSize = 50;
+
+    /**
+     * Lotes mais lentos que isso reduzem o próximo lote pela metade; mais rápidos o aumentam aos poucos.
+     */
+    private Duration targetBatchDuration = Duration.ofMillis(200);
+
+    /**
+     * Fração do tempo ocupada com lotes: depois de cada lote o job espera proporcionalmente à duração dele
+     * (0,5 espera o mesmo tempo que o lote levou; 1 não espera).
+     */
+    private double dutyCycle = 0.5;
+
+    /**
+     * Com mais sessões ativas que isso no banco a execução para e tenta de novo no próximo intervalo.
+     */
+    private int maxActiveSessions = 20;
+
+    /**
+     * Limite de lotes por execução. As pausas ocupam a thread de agendamento, compartilhada com os outros jobs.
+     */
+    private int maxBatchesPerRun = 20;
+
+    private long intervalMs = 60_000;
+}
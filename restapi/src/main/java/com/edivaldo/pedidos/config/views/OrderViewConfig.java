@@ -0,0 +1,13 @@
+package com.edivaldo.pedidos.config.views;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Modelo de leitura dos pedidos: documentos JSONB em order_views, mantidos pelo OrderViewService e
+ * administrados pelo endpoint /actuator/orderviews (verificação e rebuild).
+ */
+@Configuration
+@EnableConfigurationProperties(OrderViewProperties.class)
+public class OrderViewConfig {
+}
@@ -0,0 +1,28 @@
+package com.edivaldo.pedidos.config.views;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração do modelo de leitura dos pedidos (tabela order_views).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.order-views")
+public class OrderViewProperties {
+
+    /**
+     * Serve os GETs de pedidos a partir de order_views. Com false as leituras voltam às tabelas normalizadas;
+     * a tabela continua sendo mantida pelas escritas.
+     */
+    private boolean readEnabled = true;
+
+    /**
+     * Faixa de IDs de pedido processada por comando no rebuild e na verificação de consistência.
+     */
+    private int batchSize = 10_000;
+
+    /**
+     * Quantidade máxima de IDs divergentes listados no relatório da verificação.
+     */
+    private int sampleSize = 50;
+}
@@ -0,0 +1,72 @@
+package com.edivaldo.pedidos.controller;
+
+import com.edivaldo.pedidos.dto.ProductSalesDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.enums.ProductSalesMetric;
+import com.edivaldo.pedidos.enums.RollupGranularity;
+import com.edivaldo.pedidos.service.ProductAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para as consultas analíticas de vendas.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analytics", description = "Vendas por produto, a partir do rollup por hora e por dia")
+public class AnalyticsController {
+
+    private final ProductAnalyticsService productAnalyticsService;
+
+    /**
+     * Consulta os produtos mais vendidos em cada hora ou dia do período.
+     * Os dados vêm do rollup incremental e podem estar atrasados em até um intervalo do job
+     * ({@code app.analytics.rollup.interval-ms}).
+     * @param granularity HOUR ou DAY.
+     * @param startDate (Opcional) Início do período, inclusive.
+     * @param endDate (Opcional) Fim do período, exclusive.
+     * @param partnerId (Opcional) ID do parceiro; sem ele considera todos.
+     * @param status (Opcional) Status dos pedidos; sem ele considera todos menos CANCELADO.
+     * @param metric QUANTITY ou REVENUE, métrica do ranking.
+     * @param limit Quantidade de produtos por bucket.
+     * @return ResponseEntity com os produtos de cada bucket em ordem de posição e status HTTP 200.
+     */
+    @Operation(summary = "Produtos mais vendidos por hora ou por dia, por quantidade ou receita")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ranking consultado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Parâmetros de consulta inválidos")
+    })
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductSalesDTO>> topProducts(
+            @Parameter(description = "Granularidade dos buckets")
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @Parameter(description = "Início do período (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "Fim do período, exclusive (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "ID do parceiro para filtrar")
+            @RequestParam(required = false) Long partnerId,
+            @Parameter(description = "Status dos pedidos para filtrar")
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "Métrica do ranking")
+            @RequestParam(defaultValue = "QUANTITY") ProductSalesMetric metric,
+            @Parameter(description = "Produtos por bucket")
+            @RequestParam(defaultValue = "10") int limit) {
+
+        return ResponseEntity.ok(productAnalyticsService.topProducts(granularity, startDate, endDate, partnerId, status, metric, limit));
+    }
+}
@@ -9,25 +9,23 @@ import java.net.UnknownHostException;
 
 @RestController
 public class IsAlive {
-    @Value("${server.port}")
-    private String serverPort;
 
-    @GetMapping("/isAlive")
-    public String isAlive() {
+    // O hostname não muda durante a vida do processo: resolvido uma única vez (a resolução pode bloquear em DNS)
+    private final String response;
 
+    public IsAlive(@Value("${server.port}") String serverPort) {
         String hostname;
         try {
             hostname = InetAddress.getLocalHost().getHostName();
         } catch (UnknownHostException e) {
             hostname = "unknown-host";
         }
-        System.out.println("=================   Is Alive  ==========================");
-        System.out.println("=================   Is Alive  ==========================");
-        System.out.println("UP - Host: " + hostname +" --- ON in port: " + serverPort);
-        System.out.println("=================   Is Alive  ==========================");
-        System.out.println("=================   Is Alive  ==========================");
-        return "UP - Host: " + hostname +" --- ON in port: " + serverPort;
+        this.response = "UP - Host: " + hostname + " --- ON in port: " + serverPort;
+    }
 
+    @GetMapping("/isAlive")
+    public String isAlive() {
+        return response;
     }
 
 }
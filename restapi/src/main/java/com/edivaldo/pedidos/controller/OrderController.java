@@ -1,31 +1,39 @@
 package com.edivaldo.pedidos.controller;
 
+import com.edivaldo.pedidos.config.BinaryFormatsConfig;
 import com.edivaldo.pedidos.dto.OrderRequestDTO;
 import com.edivaldo.pedidos.dto.OrderResponseDTO;
 import com.edivaldo.pedidos.enums.OrderStatus;
 import com.edivaldo.pedidos.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @RestController
-@RequestMapping("/api/orders")
+@RequestMapping(value = "/api/orders",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormatsConfig.APPLICATION_SMILE_VALUE})
 @RequiredArgsConstructor
 @Tag(name = "Pedidos", description = "API para gerenciamento de pedidos B2B")
 public class OrderController {
 
     private final OrderService orderService;
+    private final StreamingResponseWriter streamingResponseWriter;
 
     /**
      * Cadastra um novo pedido.
@@ -66,15 +74,17 @@ public class OrderController {
      * @param startDate (Opcional) Data de início para filtrar pedidos por período de criação (formato yyyy-MM-dd'T'HH:mm:ss).
      * @param endDate (Opcional) Data de fim para filtrar pedidos por período de criação (formato yyyy-MM-dd'T'HH:mm:ss).
      * @param status (Opcional) Status do pedido para filtrar.
-     * @return ResponseEntity com uma lista de OrderResponseDTOs e status HTTP 200.
+     * @return ResponseEntity com a lista de OrderResponseDTOs, escrita em stream à medida que os pedidos
+     * são lidos do banco, e status HTTP 200.
      */
     @Operation(summary = "Consulta pedidos por ID do parceiro, período de criação ou status")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Pedidos consultados com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Pedidos consultados com sucesso",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderResponseDTO.class)))),
             @ApiResponse(responseCode = "400", description = "Parâmetros de consulta inválidos")
     })
     @GetMapping
-    public ResponseEntity<List<OrderResponseDTO>> searchOrders(
+    public ResponseEntity<StreamingResponseBody> searchOrders(
             @Parameter(description = "ID do parceiro para filtrar pedidos")
             @RequestParam(required = false) Long partnerId,
             @Parameter(description = "Data de início para filtrar por período de criação (yyyy-MM-dd'T'HH:mm:ss)")
@@ -82,17 +92,11 @@ public class OrderController {
             @Parameter(description = "Data de fim para filtrar por período de criação (yyyy-MM-dd'T'HH:mm:ss)")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @Parameter(description = "Status do pedido para filtrar")
-            @RequestParam(required = false) OrderStatus status) {
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        if (partnerId != null) {
-            return ResponseEntity.ok(orderService.getOrdersByPartnerId(partnerId));
-        } else if (startDate != null && endDate != null) {
-            return ResponseEntity.ok(orderService.getOrdersByCreationPeriod(startDate, endDate));
-        } else if (status != null) {
-            return ResponseEntity.ok(orderService.getOrdersByStatus(status));
-        } else {
-            return ResponseEntity.ok(orderService.getOrders());
-        }
+        return streamingResponseWriter.stream(accept,
+                sink -> orderService.streamOrders(partnerId, startDate, endDate, status, sink));
     }
 
     /**
@@ -103,8 +107,10 @@ public class OrderController {
      */
     @Operation(summary = "Atualiza o status de um pedido")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Status do pedido atualizado com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Transição de status inválida ou crédito insuficiente"),
+            @ApiResponse(responseCode = "200", description = "Status do pedido atualizado com sucesso. Para CANCELADO, "
+                    + "estorna o crédito de pedidos APROVADO, EM_PROCESSAMENTO ou ENVIADO"),
+            @ApiResponse(responseCode = "400", description = "Transição de status inválida (inclusive cancelar um pedido "
+                    + "ENTREGUE) ou crédito insuficiente"),
             @ApiResponse(responseCode = "404", description = "Pedido não encontrado")
     })
     @PatchMapping("/{id}/status")
@@ -122,8 +128,9 @@ public class OrderController {
      */
     @Operation(summary = "Cancela um pedido")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Pedido cancelado com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Não é possível cancelar o pedido neste status"),
+            @ApiResponse(responseCode = "200", description = "Pedido cancelado com sucesso; estorna o crédito de pedidos "
+                    + "APROVADO, EM_PROCESSAMENTO ou ENVIADO"),
+            @ApiResponse(responseCode = "400", description = "Não é possível cancelar o pedido neste status (ENTREGUE ou CANCELADO)"),
             @ApiResponse(responseCode = "404", description = "Pedido não encontrado")
     })
     @PatchMapping("/{id}/cancel")
@@ -1,29 +1,37 @@
 package com.edivaldo.pedidos.controller;
 
+import com.edivaldo.pedidos.config.BinaryFormatsConfig;
 import com.edivaldo.pedidos.dto.PartnerDTO;
 import com.edivaldo.pedidos.service.PartnerService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador REST para gerenciar operações de parceiros.
  */
 @RestController
-@RequestMapping("/api/partners")
+@RequestMapping(value = "/api/partners",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormatsConfig.APPLICATION_SMILE_VALUE})
 @RequiredArgsConstructor
 @Tag(name = "Parceiros", description = "API para gerenciamento de parceiros comerciais")
 public class PartnerController {
 
     private final PartnerService partnerService;
+    private final StreamingResponseWriter streamingResponseWriter;
 
     /**
      * Cria um novo parceiro.
@@ -59,16 +67,18 @@ public class PartnerController {
 
     /**
      * Busca todos os parceiros.
-     * @return ResponseEntity com uma lista de PartnerDTOs e status HTTP 200.
+     * @return ResponseEntity com a lista de PartnerDTOs, escrita em stream à medida que os parceiros
+     * são lidos do banco, e status HTTP 200.
      */
     @Operation(summary = "Busca todos os parceiros")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de parceiros retornada com sucesso")
+            @ApiResponse(responseCode = "200", description = "Lista de parceiros retornada com sucesso",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = PartnerDTO.class))))
     })
     @GetMapping
-    public ResponseEntity<List<PartnerDTO>> getAllPartners() {
-        List<PartnerDTO> partners = partnerService.getAllPartners();
-        return ResponseEntity.ok(partners);
+    public ResponseEntity<StreamingResponseBody> getAllPartners(
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return streamingResponseWriter.stream(accept, partnerService::streamPartners);
     }
 
     /**
@@ -0,0 +1,107 @@
+package com.edivaldo.pedidos.controller;
+
+import com.edivaldo.pedidos.config.BinaryFormatsConfig;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Escreve listagens grandes como um array serializado item a item, à medida que a consulta os entrega,
+ * em vez de montar a {@code List} inteira e deixar o Jackson bufferizar o corpo. O primeiro byte sai
+ * logo após a primeira leitura do cursor e o heap fica constante com o tamanho do resultado.
+ * <p>
+ * O formato segue o header Accept entre os mesmos tipos dos controllers (JSON, CBOR e Smile, ver
+ * {@link BinaryFormatsConfig}); a compressão gzip fica a cargo do Tomcat ({@code server.compression}).
+ */
+@Component
+public class StreamingResponseWriter {
+
+    /** Itens entre flushes: limita o que fica parado no buffer do gerador antes de ir para o socket. */
+    static final int FLUSH_EVERY = 200;
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    public StreamingResponseWriter(ObjectMapper objectMapper, ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, BinaryFormatsConfig.cborMapper(builders.getObject()));
+        mappers.put(MediaType.valueOf(BinaryFormatsConfig.APPLICATION_SMILE_VALUE), BinaryFormatsConfig.smileMapper(builders.getObject()));
+    }
+
+    /**
+     * Monta a resposta em stream. O {@code source} roda na thread assíncrona do Spring MVC, depois que o
+     * controller retorna, e por isso deve abrir a própria transação (ex.: um método {@code @Transactional}
+     * do serviço que recebe o consumidor).
+     * @param accept Valor do header Accept da requisição (pode ser nulo).
+     * @param source Recebe o consumidor que serializa cada item e o chama para cada linha lida.
+     */
+    public ResponseEntity<StreamingResponseBody> stream(String accept, Consumer<Consumer<Object>> source) {
+        MediaType mediaType = negotiate(accept);
+        ObjectMapper mapper = mappers.get(mediaType);
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+
+        StreamingResponseBody body = out -> {
+            if (logContext != null) {
+                MDC.setContextMap(logContext);
+            }
+            try (JsonGenerator generator = mapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // o container fecha a resposta
+                write(generator, source);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                MDC.clear();
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    static void write(JsonGenerator generator, Consumer<Consumer<Object>> source) throws IOException {
+        int[] written = {0};
+        generator.writeStartArray();
+        source.accept(item -> {
+            try {
+                generator.writeObject(item);
+                if (++written[0] % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // ex.: cliente desconectou; interrompe a leitura do cursor
+            }
+        });
+        generator.writeEndArray();
+    }
+
+    MediaType negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType candidate : accepted) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType producible : mappers.keySet()) {
+                if (candidate.isCompatibleWith(producible)) {
+                    return producible;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,37 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Conversão de um pedido em OrderResponseDTO. Inclui a carga preguiçosa dos itens e do parceiro quando ainda
+ * não estão no contexto JPA. Desligado por padrão: as listagens geram um evento por pedido.
+ */
+@Name(DtoMappingEvent.NAME)
+@Label("Order DTO Mapping")
+@Category({"Pedidos", "Orders"})
+@Description("OrderService.toResponseDTO")
+@StackTrace(false)
+@Enabled(false)
+public final class DtoMappingEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "pedidos.DtoMapping";
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Items")
+    int items;
+
+    public DtoMappingEvent(Long orderId) {
+        this.orderId = orderId != null ? orderId : 0;
+    }
+
+    public void mapped(int items) {
+        this.items = items;
+    }
+}
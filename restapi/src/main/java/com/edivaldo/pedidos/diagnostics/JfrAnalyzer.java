@@ -0,0 +1,245 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumo offline de uma gravação JFR com os eventos de pedido, sem dependências além do JDK:
+ * <pre>
+ * java -cp restapi/target/classes com.edivaldo.pedidos.diagnostics.JfrAnalyzer /tmp/jfr/pedidos-20240501-101500.jfr
+ * </pre>
+ * Para cada operação (criação e cada transição de status) mostra a distribuição da latência e quanto dela, em
+ * média, foi espera de bloqueio e conversão para DTO: eventos LockWait e DtoMapping da mesma thread contidos no
+ * intervalo da operação. O resto é banco, JPA e regras do OrderService.
+ */
+public final class JfrAnalyzer {
+
+    private JfrAnalyzer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: JfrAnalyzer <gravação.jfr> [<gravação.jfr> ...]");
+            System.exit(2);
+        }
+        for (String arg : args) {
+            System.out.println(arg);
+            analyze(Paths.get(arg)).print(System.out);
+            System.out.println();
+        }
+    }
+
+    public static Report analyze(Path file) throws IOException {
+        List<RecordedEvent> operations = new ArrayList<>();
+        Map<Long, List<RecordedEvent>> phasesByThread = new HashMap<>();
+        Report report = new Report();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case OrderCreationEvent.NAME, StatusTransitionEvent.NAME -> operations.add(event);
+                    case LockWaitEvent.NAME -> {
+                        report.lockWaits.computeIfAbsent(event.getString("table"), table -> new Latency())
+                                .add(event.getDuration().toNanos());
+                        addPhase(phasesByThread, event);
+                    }
+                    case DtoMappingEvent.NAME -> addPhase(phasesByThread, event);
+                    default -> {
+                        // eventos da JVM: fora deste resumo
+                    }
+                }
+            }
+        }
+        Comparator<RecordedEvent> byStart = Comparator.comparing(RecordedEvent::getStartTime);
+        phasesByThread.values().forEach(events -> events.sort(byStart));
+        for (RecordedEvent operation : operations) {
+            Breakdown breakdown = report.operations.computeIfAbsent(operationKey(operation), key -> new Breakdown());
+            breakdown.add(operation.getDuration().toNanos());
+            if (operation.hasField("failure") && operation.getString("failure") != null) {
+                breakdown.failures++;
+            }
+            List<RecordedEvent> phases = phasesByThread.get(threadId(operation));
+            if (phases != null) {
+                attributePhases(operation, phases, breakdown);
+            }
+        }
+        return report;
+    }
+
+    private static void addPhase(Map<Long, List<RecordedEvent>> phasesByThread, RecordedEvent event) {
+        Long thread = threadId(event);
+        if (thread != null) {
+            phasesByThread.computeIfAbsent(thread, id -> new ArrayList<>()).add(event);
+        }
+    }
+
+    /**
+     * Soma as fases contidas em [início, fim] da operação; {@code phases} está ordenado por início.
+     */
+    private static void attributePhases(RecordedEvent operation, List<RecordedEvent> phases, Breakdown breakdown) {
+        Instant start = operation.getStartTime();
+        Instant end = operation.getEndTime();
+        int low = 0;
+        int high = phases.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (phases.get(mid).getStartTime().isBefore(start)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < phases.size() && !phases.get(i).getStartTime().isAfter(end); i++) {
+            RecordedEvent phase = phases.get(i);
+            if (phase.getEndTime().isAfter(end)) {
+                continue;
+            }
+            long nanos = phase.getDuration().toNanos();
+            if (phase.getEventType().getName().equals(LockWaitEvent.NAME)) {
+                breakdown.lockWaitNanos += nanos;
+            } else {
+                breakdown.dtoMappingNanos += nanos;
+            }
+        }
+    }
+
+    private static String operationKey(RecordedEvent event) {
+        if (event.getEventType().getName().equals(OrderCreationEvent.NAME)) {
+            return "criação";
+        }
+        String oldStatus = event.getString("oldStatus");
+        return (oldStatus != null ? oldStatus : "?") + " -> " + event.getString("newStatus");
+    }
+
+    private static Long threadId(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        return thread != null ? thread.getJavaThreadId() : null;
+    }
+
+    /**
+     * Resultado da análise: operações por tipo (criação ou "ANTIGO -> NOVO") e esperas de bloqueio por tabela.
+     */
+    public static final class Report {
+
+        private final Map<String, Breakdown> operations = new TreeMap<>();
+        private final Map<String, Latency> lockWaits = new TreeMap<>();
+
+        public Map<String, Breakdown> operations() {
+            return operations;
+        }
+
+        public Map<String, Latency> lockWaits() {
+            return lockWaits;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%-32s %8s %7s %9s %9s %9s %9s | %10s %10s %10s%n", "Operação", "n", "falhas",
+                    "p50 ms", "p95 ms", "p99 ms", "max ms", "bloqueio", "DTO", "resto");
+            operations.forEach((key, breakdown) -> out.printf("%-32s %8d %7d %9.2f %9.2f %9.2f %9.2f | %10.2f %10.2f %10.2f%n",
+                    key, breakdown.count(), breakdown.failures(), millis(breakdown.percentile(0.50)),
+                    millis(breakdown.percentile(0.95)), millis(breakdown.percentile(0.99)), millis(breakdown.max()),
+                    millis(breakdown.meanLockWaitNanos()), millis(breakdown.meanDtoMappingNanos()),
+                    millis(breakdown.meanOtherNanos())));
+            out.println("(bloqueio, DTO e resto: média por operação)");
+            out.println();
+            out.printf("%-32s %8s %7s %9s %9s %9s %9s%n", "Espera de bloqueio", "n", "",
+                    "p50 ms", "p95 ms", "p99 ms", "max ms");
+            lockWaits.forEach((table, latency) -> out.printf("%-32s %8d %7s %9.2f %9.2f %9.2f %9.2f%n",
+                    table, latency.count(), "", millis(latency.percentile(0.50)), millis(latency.percentile(0.95)),
+                    millis(latency.percentile(0.99)), millis(latency.max())));
+        }
+
+        private static double millis(double nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Durações de um tipo de evento, em nanossegundos.
+     */
+    public static class Latency {
+
+        private long[] nanos = new long[16];
+        private int count;
+        private boolean sorted = true;
+
+        void add(long value) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+            sorted = false;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public long totalNanos() {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += nanos[i];
+            }
+            return total;
+        }
+
+        /**
+         * Percentil pelo método do posto mais próximo; 0 sem eventos.
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(nanos, 0, count);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(quantile * count);
+            return nanos[Math.min(count, Math.max(1, rank)) - 1];
+        }
+
+        public long max() {
+            return percentile(1.0);
+        }
+    }
+
+    /**
+     * Latência de uma operação e as fases medidas dentro dela.
+     */
+    public static final class Breakdown extends Latency {
+
+        private int failures;
+        private long lockWaitNanos;
+        private long dtoMappingNanos;
+
+        public int failures() {
+            return failures;
+        }
+
+        public double meanLockWaitNanos() {
+            return count() > 0 ? (double) lockWaitNanos / count() : 0;
+        }
+
+        public double meanDtoMappingNanos() {
+            return count() > 0 ? (double) dtoMappingNanos / count() : 0;
+        }
+
+        public double meanOtherNanos() {
+            return count() > 0 ? (double) (totalNanos() - lockWaitNanos - dtoMappingNanos) / count() : 0;
+        }
+    }
+}
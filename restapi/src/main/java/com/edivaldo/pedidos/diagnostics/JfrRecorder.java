@@ -0,0 +1,160 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import com.edivaldo.pedidos.config.jfr.JfrProperties;
+import com.edivaldo.pedidos.dto.JfrRecordingDTO;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Uma gravação do JDK Flight Recorder por vez, com a configuração de eventos da JVM escolhida mais os eventos
+ * de pedido do pacote diagnostics. Os arquivos gerados vão para {@code app.jfr.dump-dir} e podem ser lidos com
+ * o JDK Mission Control ou resumidos pelo JfrAnalyzer.
+ */
+@Component
+@Slf4j
+public class JfrRecorder {
+
+    private static final String RECORDING_NAME = "pedidos";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    /**
+     * Configurações que podem ser pedidas numa requisição; um .jfc só pode vir de {@code app.jfr.profile}.
+     */
+    public static final Set<String> BUILT_IN_PROFILES = Set.of("default", "profile");
+
+    private static final List<Class<? extends Event>> ORDER_EVENTS =
+            List.of(OrderCreationEvent.class, StatusTransitionEvent.class, LockWaitEvent.class);
+
+    private final JfrProperties properties;
+    private Recording recording;
+    private String profile;
+    private Path lastDump;
+
+    public JfrRecorder(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Inicia uma gravação com a configuração de {@code app.jfr.profile}, descartando a anterior já parada.
+     * @throws IllegalStateException se já houver uma gravação em andamento.
+     * @throws IllegalArgumentException se a configuração não existir.
+     */
+    public JfrRecordingDTO start() {
+        return record(properties.getProfile());
+    }
+
+    /**
+     * Inicia uma gravação com uma das configurações da JVM, descartando a anterior já parada.
+     * @param profile {@code default} ou {@code profile}.
+     * @throws IllegalStateException se já houver uma gravação em andamento.
+     * @throws IllegalArgumentException se a configuração não for uma de {@link #BUILT_IN_PROFILES}.
+     */
+    public JfrRecordingDTO start(String profile) {
+        if (!BUILT_IN_PROFILES.contains(profile)) {
+            throw new IllegalArgumentException("Configuração JFR desconhecida: " + profile + " (default ou profile)");
+        }
+        return record(profile);
+    }
+
+    private synchronized JfrRecordingDTO record(String selected) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Gravação JFR já em andamento");
+        }
+        Recording next = new Recording(configuration(selected));
+        next.setName(RECORDING_NAME);
+        next.setToDisk(true);
+        next.setMaxAge(properties.getMaxAge());
+        next.setMaxSize(properties.getMaxSize().toBytes());
+        ORDER_EVENTS.forEach(type -> next.enable(type).withThreshold(properties.getThreshold()));
+        if (properties.isDtoMapping()) {
+            next.enable(DtoMappingEvent.class).withThreshold(properties.getThreshold());
+        } else {
+            next.disable(DtoMappingEvent.class);
+        }
+        next.start();
+        if (recording != null) {
+            recording.close();
+        }
+        recording = next;
+        this.profile = selected;
+        log.info("Gravação JFR iniciada com a configuração {}", selected);
+        return status();
+    }
+
+    /**
+     * Grava o conteúdo atual da gravação em andamento num arquivo, sem pará-la.
+     * @throws IllegalStateException se não houver gravação em andamento.
+     */
+    public synchronized JfrRecordingDTO dump() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("Nenhuma gravação JFR em andamento");
+        }
+        writeTo(recording);
+        return status();
+    }
+
+    /**
+     * Para a gravação em andamento e grava o conteúdo num arquivo.
+     * @throws IllegalStateException se não houver gravação em andamento.
+     */
+    public synchronized JfrRecordingDTO stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("Nenhuma gravação JFR em andamento");
+        }
+        recording.stop();
+        writeTo(recording);
+        log.info("Gravação JFR parada");
+        return status();
+    }
+
+    public synchronized JfrRecordingDTO status() {
+        if (recording == null) {
+            return new JfrRecordingDTO("NONE", null, null, 0, 0, null);
+        }
+        Instant startedAt = recording.getStartTime();
+        Instant end = recording.getState() == RecordingState.RUNNING || recording.getStopTime() == null
+                ? Instant.now() : recording.getStopTime();
+        long elapsedMs = startedAt != null ? Duration.between(startedAt, end).toMillis() : 0;
+        return new JfrRecordingDTO(recording.getState() == RecordingState.RUNNING ? "RUNNING" : "STOPPED", profile,
+                startedAt, elapsedMs, recording.getSize(), lastDump != null ? lastDump.toString() : null);
+    }
+
+    private void writeTo(Recording source) {
+        try {
+            Path dir = Paths.get(properties.getDumpDir());
+            Files.createDirectories(dir);
+            Path file = dir.resolve(RECORDING_NAME + "-" + FILE_TIMESTAMP.format(LocalDateTime.now()) + ".jfr");
+            source.dump(file);
+            lastDump = file;
+            log.info("Gravação JFR gravada em {}", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Configuration configuration(String profile) {
+        try {
+            return profile.endsWith(".jfc")
+                    ? Configuration.create(Paths.get(profile))
+                    : Configuration.getConfiguration(profile);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Configuração JFR inválida: " + profile, e);
+        }
+    }
+}
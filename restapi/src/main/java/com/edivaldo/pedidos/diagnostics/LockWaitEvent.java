@@ -0,0 +1,35 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Leitura com bloqueio de linha ({@code SELECT ... FOR UPDATE}) do parceiro ou do pedido: a duração é
+ * praticamente toda espera pelo bloqueio quando há disputa.
+ */
+@Name(LockWaitEvent.NAME)
+@Label("Row Lock Wait")
+@Category({"Pedidos", "Database"})
+@Description("SELECT ... FOR UPDATE em partners ou orders")
+@StackTrace(false)
+public final class LockWaitEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "pedidos.LockWait";
+
+    public static final String PARTNERS = "partners";
+    public static final String ORDERS = "orders";
+
+    @Label("Table")
+    String table;
+
+    @Label("Row Id")
+    long rowId;
+
+    public LockWaitEvent(String table, long rowId) {
+        this.table = table;
+        this.rowId = rowId;
+    }
+}
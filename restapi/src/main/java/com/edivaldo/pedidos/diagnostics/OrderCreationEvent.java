@@ -0,0 +1,44 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.math.BigDecimal;
+
+/**
+ * Criação de um pedido no OrderService, da busca do parceiro até o DTO de resposta (sem o commit).
+ */
+@Name(OrderCreationEvent.NAME)
+@Label("Order Creation")
+@Category({"Pedidos", "Orders"})
+@Description("OrderService.createOrder")
+@StackTrace(false)
+public final class OrderCreationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "pedidos.OrderCreation";
+
+    @Label("Partner Id")
+    long partnerId;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Items")
+    int items;
+
+    @Label("Total Value")
+    double totalValue;
+
+    public OrderCreationEvent(long partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public void created(Long orderId, int items, BigDecimal totalValue) {
+        this.orderId = orderId != null ? orderId : 0;
+        this.items = items;
+        this.totalValue = totalValue != null ? totalValue.doubleValue() : 0;
+    }
+}
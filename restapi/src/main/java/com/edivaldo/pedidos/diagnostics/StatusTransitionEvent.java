@@ -0,0 +1,55 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import com.edivaldo.pedidos.enums.OrderStatus;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Mudança de status de um pedido (updateOrderStatus ou cancelOrder), inclusive as recusadas: {@code failure}
+ * traz a exceção (ex.: CreditLimitExceededException). Não inclui o commit da transação.
+ */
+@Name(StatusTransitionEvent.NAME)
+@Label("Order Status Transition")
+@Category({"Pedidos", "Orders"})
+@Description("OrderService.updateOrderStatus / cancelOrder")
+@StackTrace(false)
+public final class StatusTransitionEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "pedidos.StatusTransition";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Partner Id")
+    long partnerId;
+
+    @Label("Old Status")
+    String oldStatus;
+
+    @Label("New Status")
+    String newStatus;
+
+    @Label("Failure")
+    String failure;
+
+    public StatusTransitionEvent(String operation, long orderId, OrderStatus newStatus) {
+        this.operation = operation;
+        this.orderId = orderId;
+        this.newStatus = newStatus.name();
+    }
+
+    public void loaded(long partnerId, OrderStatus oldStatus) {
+        this.partnerId = partnerId;
+        this.oldStatus = oldStatus.name();
+    }
+
+    public void failed(Throwable error) {
+        this.failure = error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,28 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Parceiro cujo crédito atual difere do calculado a partir dos pedidos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditDriftDTO {
+    private Long partnerId;
+    private String partnerName;
+    private BigDecimal creditLimit;
+    private BigDecimal currentCredit;
+    private BigDecimal expectedCredit; // limite menos o valor dos pedidos que comprometem crédito
+
+    /**
+     * Positivo quando o parceiro tem mais crédito do que deveria.
+     */
+    public BigDecimal getDrift() {
+        return currentCredit.subtract(expectedCredit);
+    }
+}
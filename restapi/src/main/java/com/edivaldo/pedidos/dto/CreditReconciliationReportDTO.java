@@ -0,0 +1,30 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de uma reconciliação do crédito dos parceiros.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditReconciliationReportDTO {
+    private long checkedPartners;
+    private long driftedPartners;
+    private BigDecimal absoluteDrift;  // soma de |crédito atual - esperado|
+    private boolean repair;
+    private long repairedPartners;
+    private long skippedPartners;      // divergentes bloqueados por outra transação, não corrigidos nesta execução
+    private int chunks;
+    private List<CreditDriftDTO> sample;
+    private long durationMs;
+
+    public boolean isConsistent() {
+        return driftedPartners == 0; // antes da correção, quando houver
+    }
+}
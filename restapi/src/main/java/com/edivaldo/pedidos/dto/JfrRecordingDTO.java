@@ -0,0 +1,22 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Estado da gravação JFR do JfrEndpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrRecordingDTO {
+    private String state;          // NONE, RUNNING ou STOPPED
+    private String profile;
+    private Instant startedAt;
+    private long elapsedMs;
+    private long sizeBytes;
+    private String lastDump;       // arquivo gerado pelo último dump ou stop
+}
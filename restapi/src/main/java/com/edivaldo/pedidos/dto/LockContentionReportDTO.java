@@ -0,0 +1,22 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Amostra de disputa por bloqueios no banco e ranking dos parceiros mais disputados na janela.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockContentionReportDTO {
+    private LocalDateTime sampledAt;
+    private List<LockWaitDTO> waiting;
+    private List<LockHolderDTO> blockers;
+    private String window;
+    private List<PartnerContentionDTO> topPartners;
+}
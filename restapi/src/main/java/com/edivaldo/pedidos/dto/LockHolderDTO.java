@@ -0,0 +1,20 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sessão no início de uma cadeia de bloqueio: bloqueia outras sem estar esperando.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockHolderDTO {
+    private int pid;
+    private String state;          // active, idle in transaction...
+    private long transactionMs;
+    private String applicationName;
+    private String query;          // comando atual ou último executado
+    private int blockedSessions;   // sessões esperando por ela, direta ou indiretamente
+}
@@ -0,0 +1,23 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sessão do banco esperando por um bloqueio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockWaitDTO {
+    private int pid;
+    private String relation;       // tabela da linha disputada, quando a espera é por linha
+    private Long partnerId;        // parceiro da linha disputada, quando relation = partners
+    private long waitMs;           // desde o início do comando que está esperando
+    private List<Integer> blockedBy;
+    private String waitEvent;      // tuple, transactionid, relation...
+    private String query;
+}
@@ -0,0 +1,17 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado do rebuild de order_views.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderViewRebuildDTO {
+    private long rewritten; // documentos inseridos ou corrigidos (os que já estavam iguais não são regravados)
+    private int batches;
+    private long durationMs;
+}
@@ -0,0 +1,26 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado da verificação de consistência entre order_views e as tabelas normalizadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderViewReportDTO {
+    private long checkedOrders;
+    private long missing;   // pedido sem documento
+    private long stale;     // documento diferente do que as tabelas normalizadas produzem
+    private long orphaned;  // documento sem pedido
+    private List<Long> sampleOrderIds;
+    private long durationMs;
+
+    public boolean isConsistent() {
+        return missing == 0 && stale == 0 && orphaned == 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Disputa pela linha de um parceiro nas amostras da janela do sampler.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartnerContentionDTO {
+    private long partnerId;
+    private int waiters;           // sessões esperando, somadas em todas as amostras
+    private long maxWaitMs;
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,23 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vendas de um produto num bucket (hora ou dia), com a posição dele no ranking do bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDTO {
+    private LocalDateTime bucketStart;
+    private String product;
+    private long quantity;
+    private BigDecimal revenue;
+    private long orderCount;
+    private int rank;
+}
@@ -0,0 +1,28 @@
+package com.edivaldo.pedidos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progresso e vazão da geração de extratos de um período.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementProgressDTO {
+    private String period;
+    private String state;          // RUNNING, COMPLETED ou FAILED
+    private String outputDir;
+    private int partnersTotal;
+    private int partnersDone;
+    private long ordersWritten;
+    private long bytesWritten;
+    private LocalDateTime startedAt;
+    private long elapsedMs;
+    private double ordersPerSecond;
+    private double partnersPerSecond;
+    private String error;
+}
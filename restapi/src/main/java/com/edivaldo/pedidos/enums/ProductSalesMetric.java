@@ -0,0 +1,9 @@
+package com.edivaldo.pedidos.enums;
+
+/**
+ * Enum para a métrica usada no ranking de produtos.
+ */
+public enum ProductSalesMetric {
+    QUANTITY,
+    REVENUE
+}
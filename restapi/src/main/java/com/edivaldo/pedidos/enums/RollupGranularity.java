@@ -0,0 +1,9 @@
+package com.edivaldo.pedidos.enums;
+
+/**
+ * Enum para a granularidade dos buckets do rollup de vendas por produto.
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY
+}
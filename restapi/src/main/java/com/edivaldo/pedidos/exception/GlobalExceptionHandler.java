@@ -1,5 +1,7 @@
 package com.edivaldo.pedidos.exception;
 
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -27,6 +29,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    // lock_timeout (ver OperationTimeouts) ou deadlock: outra transação está com o pedido ou o parceiro
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handlePessimisticLockingFailure(PessimisticLockingFailureException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), "Registro bloqueado por outra operação; tente novamente", request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    // statement_timeout (ver OperationTimeouts)
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorDetails> handleQueryTimeout(QueryTimeoutException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), "Tempo limite da operação excedido; tente novamente", request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
         Map<String, String> errors = new HashMap<>();
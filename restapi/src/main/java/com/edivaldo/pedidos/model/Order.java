@@ -1,10 +1,13 @@
 package com.edivaldo.pedidos.model;
 
 import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.config.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,6 +29,8 @@ public class Order {
     @JoinColumn(name = "partner_id", nullable = false)
     private Partner partner;
 
+    // Os itens não mudam depois da criação: mudanças de status só tocam a linha de orders
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheRegions.ORDER_ITEMS_BY_ORDER)
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
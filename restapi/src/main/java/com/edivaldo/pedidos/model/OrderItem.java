@@ -1,18 +1,26 @@
 package com.edivaldo.pedidos.model;
 
+import com.edivaldo.pedidos.config.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
-
+/**
+ * Item de pedido. Não é alterado depois da criação do pedido, por isso fica no cache de segundo nível como
+ * READ_ONLY: carregar os itens de um pedido já lido não volta ao banco.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "order_items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheRegions.ORDER_ITEMS)
 public class OrderItem {
 
     @Id
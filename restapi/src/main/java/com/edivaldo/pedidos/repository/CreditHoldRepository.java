@@ -0,0 +1,124 @@
+package com.edivaldo.pedidos.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Acesso a credit_holds: crédito reservado para pedidos PENDENTE até a aprovação, o cancelamento ou a expiração.
+ */
+@Repository
+public class CreditHoldRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    // Bloqueia em ordem de ID, como a reconciliação, para não haver deadlock entre liberações concorrentes
+    private static final String LOCK_PARTNERS = """
+            SELECT id FROM partners
+            WHERE id IN (SELECT partner_id FROM credit_holds WHERE order_id = ANY (?))
+            ORDER BY id
+            FOR UPDATE
+            """;
+
+    /**
+     * Apaga as retenções vencidas do lote e devolve o valor num único UPDATE por parceiro. Retenções já
+     * consumidas (pedido aprovado ou cancelado) ou liberadas por outra instância não estão mais na tabela e
+     * não entram na soma.
+     */
+    private static final String RELEASE = """
+            WITH released AS (
+                DELETE FROM credit_holds
+                WHERE order_id = ANY (?) AND expires_at <= ?
+                RETURNING partner_id, amount
+            ), totals AS (
+                SELECT partner_id, sum(amount) AS amount, count(*) AS holds
+                FROM released
+                GROUP BY partner_id
+            )
+            UPDATE partners p
+               SET current_credit = p.current_credit + t.amount, version = p.version + 1
+              FROM totals t
+             WHERE p.id = t.partner_id
+            RETURNING t.holds
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CreditHoldRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void insert(long orderId, long partnerId, BigDecimal amount, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        jdbcTemplate.update("INSERT INTO credit_holds (order_id, partner_id, amount, created_at, expires_at) VALUES (?, ?, ?, ?, ?)",
+                orderId, partnerId, amount, createdAt, expiresAt);
+    }
+
+    /**
+     * Apaga a retenção do pedido, se ainda existir.
+     * @return Valor que estava retido.
+     */
+    public Optional<BigDecimal> delete(long orderId) {
+        List<BigDecimal> amounts = jdbcTemplate.query("DELETE FROM credit_holds WHERE order_id = ? RETURNING amount",
+                (rs, rowNum) -> rs.getBigDecimal(1), orderId);
+        return amounts.stream().findFirst();
+    }
+
+    /**
+     * Percorre todas as retenções (ID do pedido e expiração) com cursor. Deve rodar dentro de uma transação.
+     */
+    public void forEach(BiConsumer<Long, LocalDateTime> consumer) {
+        jdbcTemplate.query("SELECT order_id, expires_at FROM credit_holds",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()));
+    }
+
+    /**
+     * Pedidos com retenção vencida antes de {@code expiredBefore}.
+     */
+    public List<Long> findExpired(LocalDateTime expiredBefore, int limit) {
+        return jdbcTemplate.queryForList("SELECT order_id FROM credit_holds WHERE expires_at <= ? ORDER BY expires_at LIMIT ?",
+                Long.class, expiredBefore, limit);
+    }
+
+    /**
+     * Bloqueia os parceiros das retenções informadas. Deve rodar na mesma transação de {@link #release}: as
+     * escritas de pedido bloqueiam o parceiro antes de consumir a retenção, então depois do bloqueio cada
+     * retenção ou já foi consumida ou só pode ser liberada aqui.
+     */
+    public void lockPartners(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_PARTNERS);
+            ps.setArray(1, con.createArrayOf("bigint", orderIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> { });
+    }
+
+    /**
+     * Libera as retenções informadas vencidas até {@code now}, devolvendo o crédito aos parceiros.
+     * @return Quantidade de retenções liberadas.
+     */
+    public int release(List<Long> orderIds, LocalDateTime now) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> released = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RELEASE);
+            ps.setArray(1, con.createArrayOf("bigint", orderIds.toArray()));
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+        return released.stream().mapToInt(Integer::intValue).sum();
+    }
+}
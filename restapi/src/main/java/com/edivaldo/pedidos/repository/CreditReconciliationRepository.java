@@ -0,0 +1,150 @@
+package com.edivaldo.pedidos.repository;
+
+import com.edivaldo.pedidos.dto.CreditDriftDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas da reconciliação de crédito. Tudo é feito por faixa de ID de parceiro, num único comando por faixa:
+ * a soma dos pedidos que comprometem crédito (orders e orders_archive) e das retenções de pedidos PENDENTE
+ * (credit_holds) sai de index-only scans em idx_orders_partner_status_value, idx_orders_archive_partner_status_value
+ * e idx_credit_holds_partner_amount.
+ */
+@Repository
+public class CreditReconciliationRepository {
+
+    /**
+     * Status cujo valor foi debitado do crédito na aprovação e não estornado. COMPLETO não entra: a transição
+     * para ele não passa pela regra de crédito do OrderService e pode vir de um pedido nunca aprovado.
+     */
+    public static final Set<OrderStatus> COMMITTED_STATUSES = EnumSet.of(OrderStatus.APROVADO,
+            OrderStatus.EM_PROCESSAMENTO, OrderStatus.ENVIADO, OrderStatus.ENTREGUE);
+
+    private static final String STATUS_LIST = COMMITTED_STATUSES.stream()
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(", "));
+
+    // Parâmetros: faixa de parceiros três vezes (orders, orders_archive, credit_holds)
+    private static final String COMMITTED_BY_PARTNER = """
+            SELECT partner_id, sum(total_value) AS committed
+            FROM (SELECT partner_id, total_value FROM orders
+                   WHERE partner_id BETWEEN ? AND ? AND status IN (%1$s)
+                  UNION ALL
+                  SELECT partner_id, total_value FROM orders_archive
+                   WHERE partner_id BETWEEN ? AND ? AND status IN (%1$s)
+                  UNION ALL
+                  SELECT partner_id, amount FROM credit_holds
+                   WHERE partner_id BETWEEN ? AND ?) c
+            GROUP BY partner_id
+            """.formatted(STATUS_LIST);
+
+    private static final String FIND_DRIFT = """
+            SELECT p.id, p.name, p.credit_limit, p.current_credit,
+                   p.credit_limit - COALESCE(c.committed, 0) AS expected_credit
+            FROM partners p
+            LEFT JOIN (%s) c ON c.partner_id = p.id
+            WHERE p.id BETWEEN ? AND ?
+              AND p.current_credit <> p.credit_limit - COALESCE(c.committed, 0)
+            ORDER BY p.id
+            """.formatted(COMMITTED_BY_PARTNER);
+
+    // Recalcula sob o bloqueio: só grava se a divergência ainda existir com os dados confirmados até aqui
+    private static final String REPAIR = """
+            WITH expected AS (
+                SELECT p.id, p.credit_limit - COALESCE(c.committed, 0) AS credit
+                FROM partners p
+                LEFT JOIN (%s) c ON c.partner_id = p.id
+                WHERE p.id = ANY (?)
+            )
+            UPDATE partners p
+               SET current_credit = e.credit, version = p.version + 1
+              FROM expected e
+             WHERE p.id = e.id AND p.current_credit <> e.credit
+            """.formatted(COMMITTED_BY_PARTNER);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CreditReconciliationRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Menor e maior ID de parceiro, para dividir a reconciliação em faixas.
+     * @return {min, max}, ou {@code null} se não houver parceiros.
+     */
+    public long[] partnerIdBounds() {
+        return jdbcTemplate.query("SELECT min(id), max(id) FROM partners", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    public long countPartners(long fromId, long toId) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM partners WHERE id BETWEEN ? AND ?",
+                Long.class, fromId, toId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Parceiros da faixa cujo crédito atual difere de {@code credit_limit} menos o valor dos pedidos em
+     * {@link #COMMITTED_STATUSES} e das retenções de crédito. Só leitura, sem bloqueio: num snapshot MVCC não espera nem segura as
+     * transações de pedido.
+     */
+    public List<CreditDriftDTO> findDrift(long fromId, long toId) {
+        return jdbcTemplate.query(FIND_DRIFT,
+                (rs, rowNum) -> new CreditDriftDTO(rs.getLong("id"), rs.getString("name"), rs.getBigDecimal("credit_limit"),
+                        rs.getBigDecimal("current_credit"), rs.getBigDecimal("expected_credit")),
+                fromId, toId, fromId, toId, fromId, toId, fromId, toId);
+    }
+
+    /**
+     * Bloqueia os parceiros informados que não estiverem bloqueados por outra transação ({@code SKIP LOCKED}).
+     * Deve rodar na mesma transação de {@link #repair(List)}; as escritas de pedido bloqueiam o parceiro antes
+     * de mexer no crédito, então a soma feita depois do bloqueio enxerga um estado estável.
+     * @return IDs efetivamente bloqueados.
+     */
+    public List<Long> lockPartners(List<Long> partnerIds) {
+        if (partnerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM partners WHERE id = ANY (?) ORDER BY id FOR UPDATE SKIP LOCKED");
+            ps.setArray(1, con.createArrayOf("bigint", partnerIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Grava o crédito esperado nos parceiros informados (já bloqueados) que continuarem divergentes.
+     * Incrementa {@code version}, invalidando entidades Partner carregadas antes da correção.
+     * @return Quantidade de parceiros corrigidos.
+     */
+    public int repair(List<Long> partnerIds) {
+        if (partnerIds.isEmpty()) {
+            return 0;
+        }
+        long fromId = Collections.min(partnerIds);
+        long toId = Collections.max(partnerIds);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(REPAIR);
+            ps.setLong(1, fromId);
+            ps.setLong(2, toId);
+            ps.setLong(3, fromId);
+            ps.setLong(4, toId);
+            ps.setLong(5, fromId);
+            ps.setLong(6, toId);
+            ps.setArray(7, con.createArrayOf("bigint", partnerIds.toArray()));
+            return ps;
+        });
+    }
+}
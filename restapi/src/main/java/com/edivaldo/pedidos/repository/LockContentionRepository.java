@@ -0,0 +1,120 @@
+package com.edivaldo.pedidos.repository;
+
+import com.edivaldo.pedidos.config.locks.LockProperties;
+import com.edivaldo.pedidos.dto.LockHolderDTO;
+import com.edivaldo.pedidos.dto.LockWaitDTO;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Consultas a pg_stat_activity e pg_locks para o LockContentionSampler. Usa uma conexão própria, fora do pool
+ * do Hikari: as pilhas de bloqueio costumam esgotar o pool, que é justamente quando o diagnóstico é necessário.
+ */
+@Repository
+public class LockContentionRepository implements DisposableBean {
+
+    /**
+     * Sessões esperando por bloqueio. Quem espera por uma linha tem um bloqueio de tupla (o primeiro da fila já
+     * o obteve e espera pela transação dona da linha; os demais esperam pela tupla): a posição da tupla é o ctid
+     * da versão da linha ainda visível, o que identifica o parceiro. O Postgres 13 não guarda o início da espera
+     * (pg_locks.waitstart é do 14); a duração conta do início do comando, que bloqueia logo no começo.
+     */
+    private static final String LOCK_WAITS = """
+            SELECT a.pid,
+                   t.relation,
+                   p.id AS partner_id,
+                   (EXTRACT(EPOCH FROM clock_timestamp() - a.query_start) * 1000)::bigint AS wait_ms,
+                   pg_blocking_pids(a.pid) AS blocked_by,
+                   a.wait_event,
+                   left(a.query, 300) AS query
+              FROM pg_stat_activity a
+              LEFT JOIN LATERAL (
+                   SELECT l.relation::regclass::text AS relation, l.page, l.tuple
+                     FROM pg_locks l
+                    WHERE l.pid = a.pid AND l.locktype = 'tuple'
+                    LIMIT 1
+              ) t ON true
+              LEFT JOIN partners p
+                ON p.ctid = CASE WHEN t.relation = 'partners' THEN format('(%s,%s)', t.page, t.tuple)::tid END
+             WHERE a.wait_event_type = 'Lock' AND a.datname = current_database()
+             ORDER BY wait_ms DESC
+            """;
+
+    private static final String SESSIONS = """
+            SELECT pid, state, application_name,
+                   coalesce((EXTRACT(EPOCH FROM clock_timestamp() - xact_start) * 1000)::bigint, 0) AS transaction_ms,
+                   left(query, 300) AS query
+              FROM pg_stat_activity
+             WHERE pid = ANY(?)
+            """;
+
+    private final SingleConnectionDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public LockContentionRepository(DataSourceProperties dataSourceProperties, LockProperties properties) {
+        this.dataSource = new SingleConnectionDataSource(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(), true);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, properties.getSampler().getTimeout().toSeconds()));
+    }
+
+    public synchronized List<LockWaitDTO> findLockWaits() {
+        return withReconnect(() -> jdbcTemplate.query(LOCK_WAITS, (rs, rowNum) -> new LockWaitDTO(
+                rs.getInt("pid"),
+                rs.getString("relation"),
+                rs.getObject("partner_id", Long.class),
+                rs.getLong("wait_ms"),
+                toList(rs.getArray("blocked_by")),
+                rs.getString("wait_event"),
+                rs.getString("query"))));
+    }
+
+    /**
+     * Sessões que bloqueiam outras; {@code blockedSessions} fica para o chamador.
+     */
+    public synchronized List<LockHolderDTO> findSessions(Collection<Integer> pids) {
+        if (pids.isEmpty()) {
+            return List.of();
+        }
+        return withReconnect(() -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SESSIONS);
+            ps.setArray(1, con.createArrayOf("int4", pids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> holder(rs)));
+    }
+
+    private static LockHolderDTO holder(ResultSet rs) throws SQLException {
+        return new LockHolderDTO(rs.getInt("pid"), rs.getString("state"), rs.getLong("transaction_ms"),
+                rs.getString("application_name"), rs.getString("query"), 0);
+    }
+
+    private static List<Integer> toList(Array array) throws SQLException {
+        return array == null ? List.of() : Arrays.asList((Integer[]) array.getArray());
+    }
+
+    private <T> T withReconnect(Supplier<T> query) {
+        try {
+            return query.get();
+        } catch (RuntimeException e) {
+            dataSource.resetConnection(); // a próxima consulta abre uma conexão nova
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        dataSource.destroy();
+    }
+}
@@ -0,0 +1,129 @@
+package com.edivaldo.pedidos.repository;
+
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Acesso a orders_archive: pedidos em status final movidos para fora das tabelas quentes, cada um como o
+ * mesmo documento JSONB de order_views.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Move um lote de pedidos num único comando: escolhe os candidatos com {@code FOR UPDATE SKIP LOCKED}
+     * (várias réplicas arquivam ao mesmo tempo sem disputar as mesmas linhas), grava os documentos e apaga
+     * itens e pedidos. A FK de order_items é verificada no fim do comando, quando os itens já foram apagados;
+     * o documento em order_views sai junto com o pedido (ON DELETE CASCADE).
+     */
+    private static final String ARCHIVE_BATCH = """
+            WITH picked AS (
+                SELECT id FROM orders
+                WHERE status IN ('ENTREGUE', 'CANCELADO') AND updated_at < ?
+                ORDER BY updated_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), archived AS (
+                INSERT INTO orders_archive (order_id, partner_id, status, created_at, total_value, document)
+                SELECT d.order_id, d.partner_id, d.status, d.created_at, (d.document->>'totalValue')::numeric, d.document
+                FROM (""" + OrderViewRepository.ORDER_DOCUMENT + """
+                      JOIN picked ON picked.id = o.id) d
+                ON CONFLICT (order_id) DO NOTHING
+                RETURNING order_id
+            ), deleted_items AS (
+                DELETE FROM order_items i USING picked WHERE i.order_id = picked.id
+            )
+            DELETE FROM orders o USING picked WHERE o.id = picked.id
+            RETURNING o.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OrderArchiveRepository(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Arquiva até {@code limit} pedidos em status final alterados antes de {@code olderThan}.
+     * @return Quantidade de pedidos movidos.
+     */
+    public int archiveBatch(LocalDateTime olderThan, int limit) {
+        return jdbcTemplate.query(ARCHIVE_BATCH, rs -> {
+            int moved = 0;
+            while (rs.next()) {
+                moved++;
+            }
+            return moved;
+        }, olderThan, limit);
+    }
+
+    public Optional<OrderResponseDTO> findById(long orderId) {
+        List<OrderResponseDTO> found = jdbcTemplate.query("SELECT document FROM orders_archive WHERE order_id = ?",
+                (rs, rowNum) -> read(rs.getString(1)), orderId);
+        return found.stream().findFirst();
+    }
+
+    public int renamePartner(long partnerId, String name) {
+        return jdbcTemplate.update(
+                "UPDATE orders_archive SET document = jsonb_set(document, '{partnerName}', to_jsonb(?::text)) WHERE partner_id = ?",
+                name, partnerId);
+    }
+
+    public void streamAll(Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM orders_archive ORDER BY order_id", sink);
+    }
+
+    public void streamByPartnerId(Long partnerId, Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM orders_archive WHERE partner_id = ? ORDER BY order_id", sink, partnerId);
+    }
+
+    public void streamByStatus(OrderStatus status, Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM orders_archive WHERE status = ? ORDER BY order_id", sink, status.name());
+    }
+
+    public void streamByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate, Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM orders_archive WHERE created_at BETWEEN ? AND ? ORDER BY order_id", sink, startDate, endDate);
+    }
+
+    /**
+     * Linhas (estimativa do planner, sem varrer a tabela) e bytes, com índices e TOAST, de orders e orders_archive.
+     */
+    public Map<String, long[]> tableSizes() {
+        return jdbcTemplate.query("""
+                SELECT c.relname, GREATEST(c.reltuples, 0)::bigint, pg_total_relation_size(c.oid)
+                FROM pg_class c
+                WHERE c.relkind = 'r' AND c.relname IN ('orders', 'orders_archive') AND pg_table_is_visible(c.oid)
+                """, rs -> {
+            Map<String, long[]> sizes = new HashMap<>();
+            while (rs.next()) {
+                sizes.put(rs.getString(1), new long[]{rs.getLong(2), rs.getLong(3)});
+            }
+            return sizes;
+        });
+    }
+
+    private void stream(String sql, Consumer<? super OrderResponseDTO> sink, Object... args) {
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> sink.accept(read(rs.getString(1))), args);
+    }
+
+    private OrderResponseDTO read(String document) {
+        return OrderViewRepository.readDocument(objectMapper, document);
+    }
+}
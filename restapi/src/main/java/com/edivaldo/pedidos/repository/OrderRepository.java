@@ -2,15 +2,46 @@ package com.edivaldo.pedidos.repository;
 
 import com.edivaldo.pedidos.enums.OrderStatus;
 import com.edivaldo.pedidos.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    /**
+     * Linhas buscadas por ida ao banco nas consultas em stream. O driver do Postgres só usa cursor
+     * (em vez de carregar o resultado inteiro) com fetch size definido e dentro de uma transação.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * As listagens em stream não leem nem gravam no cache de segundo nível: os itens já vêm no próprio
+     * SELECT, e percorrer milhares de pedidos só expulsaria do cache os itens dos pedidos consultados por ID.
+     */
+    String STREAM_CACHE_MODE = "IGNORE";
+
+    // Parceiro e itens vêm no mesmo SELECT; a ordenação por o.id mantém as linhas de um pedido
+    // contíguas, o que o Hibernate exige para montar a coleção de itens durante o scroll.
+    String STREAM_SELECT = "select o from Order o join fetch o.partner left join fetch o.items ";
+
+    // Busca com bloqueio de escrita (SELECT ... FOR UPDATE) para as mudanças de status: duas transações
+    // alterando o mesmo pedido leem o status uma depois da outra, e não ambas o mesmo PENDENTE.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
     List<Order> findByPartnerId(Long partnerId);
 
     List<Order> findByStatus(OrderStatus status);
@@ -20,4 +51,32 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByPartnerIdAndStatus(Long partnerId, OrderStatus status);
 
     List<Order> findByPartnerIdAndCreatedAtBetween(Long partnerId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Consultas em stream para as listagens grandes: devem ser consumidas dentro de uma transação
+    // e fechadas ao final (try-with-resources).
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = STREAM_CACHE_MODE)})
+    @Query(STREAM_SELECT + "order by o.id")
+    Stream<Order> streamAll();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = STREAM_CACHE_MODE)})
+    @Query(STREAM_SELECT + "where o.partner.id = :partnerId order by o.id")
+    Stream<Order> streamByPartnerId(@Param("partnerId") Long partnerId);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = STREAM_CACHE_MODE)})
+    @Query(STREAM_SELECT + "where o.status = :status order by o.id")
+    Stream<Order> streamByStatus(@Param("status") OrderStatus status);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = STREAM_CACHE_MODE)})
+    @Query(STREAM_SELECT + "where o.createdAt between :startDate and :endDate order by o.id")
+    Stream<Order> streamByCreatedAtBetween(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
 }
@@ -0,0 +1,187 @@
+package com.edivaldo.pedidos.repository;
+
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Acesso à tabela order_views, o modelo de leitura dos pedidos: um documento JSONB por pedido com o
+ * OrderResponseDTO pronto. Os documentos são sempre gerados pelo próprio banco a partir das tabelas
+ * normalizadas ({@link #DOCUMENT_SELECT}), tanto na projeção de cada escrita quanto no rebuild e na
+ * verificação; assim não há diferença de formatação (datas, decimais) entre os caminhos.
+ */
+@Repository
+public class OrderViewRepository {
+
+    /** Linhas por ida ao banco nas listagens; com transação aberta o driver usa cursor. */
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Documento de cada pedido montado a partir de orders, order_items e partners. Mesmo formato do
+     * OrderResponseDTO serializado em JSON. Mantenha igual à carga inicial em V4__create_order_views.sql.
+     * Também usado pelo arquivamento (OrderArchiveRepository), que grava o mesmo documento em orders_archive.
+     */
+    static final String ORDER_DOCUMENT = """
+            SELECT o.id AS order_id, o.partner_id, o.status, o.created_at,
+                   jsonb_build_object(
+                       'id', o.id,
+                       'partnerId', o.partner_id,
+                       'partnerName', p.name,
+                       'items', COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                                                     'product', i.product,
+                                                     'quantity', i.quantity,
+                                                     'unitPrice', i.unit_price) ORDER BY i.id)
+                                          FROM order_items i WHERE i.order_id = o.id), '[]'::jsonb),
+                       'totalValue', o.total_value,
+                       'status', o.status,
+                       'createdAt', o.created_at,
+                       'updatedAt', o.updated_at) AS document
+            FROM orders o
+            JOIN partners p ON p.id = o.partner_id
+            """;
+
+    static final String DOCUMENT_SELECT = ORDER_DOCUMENT + "WHERE o.id BETWEEN ? AND ?\n";
+
+    // Documentos iguais não são regravados: o rebuild só gera escrita (e WAL) para o que mudou.
+    private static final String UPSERT_RANGE = "INSERT INTO order_views (order_id, partner_id, status, created_at, document) "
+            + DOCUMENT_SELECT
+            + """
+            ON CONFLICT (order_id) DO UPDATE
+               SET partner_id = EXCLUDED.partner_id, status = EXCLUDED.status,
+                   created_at = EXCLUDED.created_at, document = EXCLUDED.document
+             WHERE order_views.document IS DISTINCT FROM EXCLUDED.document
+                OR order_views.status IS DISTINCT FROM EXCLUDED.status
+            """;
+
+    private static final String CHECK_RANGE = "SELECT COALESCE(c.order_id, v.order_id) AS order_id, "
+            + "CASE WHEN v.order_id IS NULL THEN 'MISSING' WHEN c.order_id IS NULL THEN 'ORPHANED' ELSE 'STALE' END AS problem "
+            + "FROM (" + DOCUMENT_SELECT + ") c "
+            + """
+            FULL JOIN (SELECT order_id, partner_id, status, created_at, document
+                         FROM order_views WHERE order_id BETWEEN ? AND ?) v ON v.order_id = c.order_id
+            WHERE v.document IS DISTINCT FROM c.document
+               OR v.partner_id IS DISTINCT FROM c.partner_id
+               OR v.status IS DISTINCT FROM c.status
+               OR v.created_at IS DISTINCT FROM c.created_at
+            ORDER BY 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OrderViewRepository(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Regrava os documentos dos pedidos com ID na faixa informada (inclusive).
+     * @return Quantidade de documentos inseridos ou alterados.
+     */
+    public int upsertRange(long fromId, long toId) {
+        return jdbcTemplate.update(UPSERT_RANGE, fromId, toId);
+    }
+
+    /**
+     * Atualiza o nome do parceiro em todos os documentos dele, sem remontá-los.
+     */
+    public int renamePartner(long partnerId, String name) {
+        return jdbcTemplate.update(
+                "UPDATE order_views SET document = jsonb_set(document, '{partnerName}', to_jsonb(?::text)) WHERE partner_id = ?",
+                name, partnerId);
+    }
+
+    public Optional<OrderResponseDTO> findById(long orderId) {
+        List<OrderResponseDTO> found = jdbcTemplate.query("SELECT document FROM order_views WHERE order_id = ?",
+                (rs, rowNum) -> read(rs.getString(1)), orderId);
+        return found.stream().findFirst();
+    }
+
+    public void streamAll(Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM order_views ORDER BY order_id", sink);
+    }
+
+    public void streamByPartnerId(Long partnerId, Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM order_views WHERE partner_id = ? ORDER BY order_id", sink, partnerId);
+    }
+
+    public void streamByStatus(OrderStatus status, Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM order_views WHERE status = ? ORDER BY order_id", sink, status.name());
+    }
+
+    public void streamByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate, Consumer<? super OrderResponseDTO> sink) {
+        stream("SELECT document FROM order_views WHERE created_at BETWEEN ? AND ? ORDER BY order_id", sink, startDate, endDate);
+    }
+
+    /**
+     * Menor e maior ID entre pedidos e documentos, para dividir o rebuild e a verificação em faixas.
+     * @return {min, max}, ou {@code null} se as duas tabelas estiverem vazias.
+     */
+    public long[] idBounds() {
+        return jdbcTemplate.query("""
+                SELECT LEAST((SELECT min(id) FROM orders), (SELECT min(order_id) FROM order_views)),
+                       GREATEST((SELECT max(id) FROM orders), (SELECT max(order_id) FROM order_views))
+                """, rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    public long countOrders(long fromId, long toId) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE id BETWEEN ? AND ?", Long.class, fromId, toId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Compara os documentos da faixa com os gerados a partir das tabelas normalizadas. Cada faixa é
+     * comparada num único comando, sobre o mesmo snapshot; como a projeção é feita na transação da
+     * escrita, um pedido em alteração não aparece como divergente.
+     */
+    public List<Divergence> findDivergences(long fromId, long toId) {
+        return jdbcTemplate.query(CHECK_RANGE,
+                (rs, rowNum) -> new Divergence(rs.getLong("order_id"), Problem.valueOf(rs.getString("problem"))),
+                fromId, toId, fromId, toId);
+    }
+
+    private void stream(String sql, Consumer<? super OrderResponseDTO> sink, Object... args) {
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> sink.accept(read(rs.getString(1))), args);
+    }
+
+    private OrderResponseDTO read(String document) {
+        return readDocument(objectMapper, document);
+    }
+
+    static OrderResponseDTO readDocument(ObjectMapper objectMapper, String document) {
+        try {
+            return objectMapper.readValue(document, OrderResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new DataRetrievalFailureException("Documento de pedido inválido", e);
+        }
+    }
+
+    public enum Problem {
+        MISSING, STALE, ORPHANED
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Divergence {
+        private long orderId;
+        private Problem problem;
+    }
+}
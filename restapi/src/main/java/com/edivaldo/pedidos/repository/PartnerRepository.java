@@ -2,11 +2,19 @@ package com.edivaldo.pedidos.repository;
 
 import com.edivaldo.pedidos.model.Partner;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PartnerRepository extends JpaRepository<Partner, Long> {
@@ -16,5 +24,23 @@ public interface PartnerRepository extends JpaRepository<Partner, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Partner> findById(Long id); // Sobrescreve o findById padrão para aplicar o bloqueio
 
+    // Busca sem bloqueio, para consultas somente leitura (que podem ser atendidas por uma réplica,
+    // onde SELECT ... FOR UPDATE não é permitido).
+    Optional<Partner> findUnlockedById(Long id);
+
     Optional<Partner> findByName(String name);
+
+    // Listagem em stream (cursor do Postgres); consumir dentro de uma transação e fechar ao final.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select p from Partner p order by p.id")
+    Stream<Partner> streamAll();
+
+    // Inserção com ID já reservado (ver ShardRouter.allocatePartnerId): com o particionamento, o shard do parceiro
+    // depende do ID, que por isso não pode vir do IDENTITY do shard.
+    @Modifying
+    @Query(value = "INSERT INTO partners (id, name, credit_limit, current_credit, version) VALUES (:id, :name, :creditLimit, :currentCredit, 0)",
+            nativeQuery = true)
+    void insertWithId(@Param("id") Long id, @Param("name") String name, @Param("creditLimit") BigDecimal creditLimit,
+                      @Param("currentCredit") BigDecimal currentCredit);
 }
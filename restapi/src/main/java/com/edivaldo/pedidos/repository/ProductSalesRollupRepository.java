@@ -0,0 +1,161 @@
+package com.edivaldo.pedidos.repository;
+
+import com.edivaldo.pedidos.dto.ProductSalesDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.enums.ProductSalesMetric;
+import com.edivaldo.pedidos.enums.RollupGranularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acesso à tabela product_sales_rollup e à marca d'água do job incremental.
+ * <p>
+ * Os métodos de manutenção devem rodar numa única transação: {@link #collectAffected(LocalDateTime)} cria a
+ * tabela temporária com os pares (hora, parceiro) afetados, descartada no commit, que os recálculos usam.
+ */
+@Repository
+public class ProductSalesRollupRepository {
+
+    static final String WATERMARK = "product_sales";
+
+    private static final String RECOMPUTE_HOURS = """
+            INSERT INTO product_sales_rollup (granularity, bucket_start, partner_id, product, status, quantity, revenue, order_count)
+            SELECT 'HOUR', a.bucket_start, s.partner_id, s.product, s.status,
+                   sum(s.quantity), sum(s.quantity * s.unit_price), count(DISTINCT s.order_id)
+            FROM rollup_affected a
+            JOIN (SELECT o.id AS order_id, o.partner_id, o.status, o.created_at, i.product, i.quantity, i.unit_price
+                  FROM orders o
+                  JOIN order_items i ON i.order_id = o.id
+                  UNION ALL
+                  SELECT x.order_id, x.partner_id, x.status, x.created_at,
+                         e->>'product', (e->>'quantity')::integer, (e->>'unitPrice')::numeric
+                  FROM orders_archive x
+                  CROSS JOIN LATERAL jsonb_array_elements(x.document->'items') e) s
+              ON s.partner_id = a.partner_id
+             AND s.created_at >= a.bucket_start AND s.created_at < a.bucket_start + INTERVAL '1 hour'
+            GROUP BY a.bucket_start, s.partner_id, s.product, s.status
+            """;
+
+    // O dia é somado a partir das horas já recalculadas, sem voltar a orders/order_items
+    private static final String RECOMPUTE_DAYS = """
+            INSERT INTO product_sales_rollup (granularity, bucket_start, partner_id, product, status, quantity, revenue, order_count)
+            SELECT 'DAY', d.bucket_start, r.partner_id, r.product, r.status,
+                   sum(r.quantity), sum(r.revenue), sum(r.order_count)
+            FROM (SELECT DISTINCT date_trunc('day', bucket_start) AS bucket_start, partner_id FROM rollup_affected) d
+            JOIN product_sales_rollup r ON r.granularity = 'HOUR' AND r.partner_id = d.partner_id
+                                       AND r.bucket_start >= d.bucket_start AND r.bucket_start < d.bucket_start + INTERVAL '1 day'
+            GROUP BY d.bucket_start, r.partner_id, r.product, r.status
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSalesRollupRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Advisory lock da transação: com várias réplicas do restapi, só uma recalcula o rollup por vez.
+     */
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('product_sales_rollup'))", Boolean.class));
+    }
+
+    public LocalDateTime watermark() {
+        return jdbcTemplate.queryForObject("SELECT high_water FROM rollup_watermarks WHERE name = ?",
+                LocalDateTime.class, WATERMARK);
+    }
+
+    public void advanceWatermark(LocalDateTime highWater) {
+        jdbcTemplate.update("UPDATE rollup_watermarks SET high_water = ? WHERE name = ? AND high_water < ?",
+                highWater, WATERMARK, highWater);
+    }
+
+    /**
+     * Registra os pares (hora de criação, parceiro) com pedidos alterados depois de {@code since}.
+     * Usa o índice em orders.updated_at; o histórico anterior não é relido.
+     * @return Quantidade de pares afetados.
+     */
+    public int collectAffected(LocalDateTime since) {
+        jdbcTemplate.execute("CREATE TEMP TABLE rollup_affected (bucket_start TIMESTAMP, partner_id BIGINT, max_updated_at TIMESTAMP) ON COMMIT DROP");
+        return jdbcTemplate.update("""
+                INSERT INTO rollup_affected (bucket_start, partner_id, max_updated_at)
+                SELECT date_trunc('hour', created_at), partner_id, max(updated_at)
+                FROM orders
+                WHERE updated_at > ?
+                GROUP BY 1, 2
+                """, since);
+    }
+
+    /**
+     * Maior updated_at entre os pedidos registrados por {@link #collectAffected(LocalDateTime)}: a nova marca d'água.
+     * Vem da mesma leitura dos pares, e não do relógio, para não pular pedidos gravados entre as duas.
+     */
+    public LocalDateTime maxAffectedUpdatedAt() {
+        return jdbcTemplate.queryForObject("SELECT max(max_updated_at) FROM rollup_affected", LocalDateTime.class);
+    }
+
+    /**
+     * Recalcula por completo as horas afetadas (e os dias que as contêm) de cada parceiro.
+     * Recalcular o bucket inteiro, em vez de somar deltas, trata do mesmo jeito pedidos novos, mudanças de
+     * status e reprocessamentos da janela de sobreposição.
+     * @return {linhas de hora, linhas de dia} gravadas.
+     */
+    public int[] recomputeAffected() {
+        jdbcTemplate.update("""
+                DELETE FROM product_sales_rollup r USING rollup_affected a
+                WHERE r.granularity = 'HOUR' AND r.bucket_start = a.bucket_start AND r.partner_id = a.partner_id
+                """);
+        int hours = jdbcTemplate.update(RECOMPUTE_HOURS);
+        jdbcTemplate.update("""
+                DELETE FROM product_sales_rollup r
+                USING (SELECT DISTINCT date_trunc('day', bucket_start) AS bucket_start, partner_id FROM rollup_affected) d
+                WHERE r.granularity = 'DAY' AND r.bucket_start = d.bucket_start AND r.partner_id = d.partner_id
+                """);
+        int days = jdbcTemplate.update(RECOMPUTE_DAYS);
+        return new int[]{hours, days};
+    }
+
+    /**
+     * Os {@code limit} produtos com maior {@code metric} em cada bucket do período [from, to).
+     * @param partnerId Parceiro (opcional; sem ele soma todos).
+     * @param status Status dos pedidos (opcional; sem ele considera todos menos CANCELADO).
+     */
+    public List<ProductSalesDTO> topProducts(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                             Long partnerId, OrderStatus status, ProductSalesMetric metric, int limit) {
+        List<Object> args = new ArrayList<>(List.of(granularity.name(), from, to));
+        StringBuilder where = new StringBuilder("granularity = ? AND bucket_start >= ? AND bucket_start < ?");
+        if (partnerId != null) {
+            where.append(" AND partner_id = ?");
+            args.add(partnerId);
+        }
+        if (status != null) {
+            where.append(" AND status = ?");
+            args.add(status.name());
+        } else {
+            where.append(" AND status <> 'CANCELADO'");
+        }
+        args.add(limit);
+        String orderBy = metric == ProductSalesMetric.REVENUE ? "sum(revenue)" : "sum(quantity)";
+
+        String sql = "SELECT bucket_start, product, quantity, revenue, order_count, rank FROM ("
+                + " SELECT bucket_start, product, sum(quantity) AS quantity, sum(revenue) AS revenue,"
+                + " sum(order_count) AS order_count,"
+                + " ROW_NUMBER() OVER (PARTITION BY bucket_start ORDER BY " + orderBy + " DESC, product) AS rank"
+                + " FROM product_sales_rollup WHERE " + where
+                + " GROUP BY bucket_start, product) ranked"
+                + " WHERE rank <= ? ORDER BY bucket_start, rank";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ProductSalesDTO(
+                rs.getObject("bucket_start", LocalDateTime.class),
+                rs.getString("product"),
+                rs.getLong("quantity"),
+                rs.getBigDecimal("revenue"),
+                rs.getLong("order_count"),
+                rs.getInt("rank")), args.toArray());
+    }
+}
@@ -0,0 +1,71 @@
+package com.edivaldo.pedidos.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cancelamento em lote de pedidos PENDENTE abandonados, direto em SQL, sem carregar as entidades.
+ */
+@Repository
+public class StaleOrderRepository {
+
+    /**
+     * Um lote num único comando (e transação): escolhe os candidatos pelo índice parcial
+     * idx_orders_pending_created_at com {@code FOR UPDATE SKIP LOCKED} (as duas réplicas do restapi varrem ao mesmo
+     * tempo sem disputar as mesmas linhas, e pedidos em alteração por uma transação de pedido ficam de fora),
+     * cancela todos com um UPDATE e acerta status e updatedAt dos documentos em order_views.
+     * <p>
+     * Pedidos com retenção de crédito (credit_holds) ficam para depois da expiração dela, que devolve o crédito
+     * ao parceiro; cancelar aqui exigiria bloquear os parceiros.
+     */
+    private static final String CANCEL_BATCH = """
+            WITH picked AS (
+                SELECT o.id FROM orders o
+                WHERE o.status = 'PENDENTE' AND o.created_at < ?
+                  AND NOT EXISTS (SELECT 1 FROM credit_holds h WHERE h.order_id = o.id)
+                ORDER BY o.created_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), cancelled AS (
+                UPDATE orders o SET status = 'CANCELADO', updated_at = ?
+                FROM picked WHERE o.id = picked.id
+                RETURNING o.id, o.updated_at
+            ), views AS (
+                UPDATE order_views v
+                   SET status = 'CANCELADO',
+                       document = v.document || jsonb_build_object('status', 'CANCELADO', 'updatedAt', c.updated_at)
+                  FROM cancelled c
+                 WHERE v.order_id = c.id
+            )
+            SELECT id FROM cancelled ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StaleOrderRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Cancela até {@code limit} pedidos PENDENTE criados antes de {@code createdBefore}.
+     * @return IDs dos pedidos cancelados.
+     */
+    public List<Long> cancelBatch(LocalDateTime createdBefore, LocalDateTime updatedAt, int limit) {
+        return jdbcTemplate.queryForList(CANCEL_BATCH, Long.class, createdBefore, limit, updatedAt);
+    }
+
+    /**
+     * Sessões executando comandos no banco agora, sem contar esta; usado como medida de carga.
+     */
+    public int activeSessions() {
+        Integer active = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_stat_activity
+                WHERE state = 'active' AND backend_type = 'client backend' AND pid <> pg_backend_pid()
+                """, Integer.class);
+        return active != null ? active : 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.edivaldo.pedidos.repository;
+
+import com.edivaldo.pedidos.config.statements.StatementProperties;
+import com.edivaldo.pedidos.dto.PartnerDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Leituras da geração de extratos: a lista de parceiros e, para cada um, os pedidos do período
+ * percorridos por cursor (fetch size fixo), sem carregar o resultado inteiro.
+ */
+@Repository
+public class StatementRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StatementRepository(DataSource dataSource, StatementProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+    }
+
+    public List<PartnerDTO> findPartners() {
+        return jdbcTemplate.query("SELECT id, name, credit_limit, current_credit FROM partners ORDER BY id",
+                (rs, rowNum) -> new PartnerDTO(rs.getLong("id"), rs.getString("name"),
+                        rs.getBigDecimal("credit_limit"), rs.getBigDecimal("current_credit")));
+    }
+
+    /**
+     * Percorre os pedidos do parceiro criados em [from, to), em ordem de ID. Colunas: id, created_at,
+     * updated_at, status, items, total_value. Inclui os pedidos já arquivados (orders_archive).
+     * Deve rodar numa transação para o driver usar cursor.
+     */
+    public void streamOrders(long partnerId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query("""
+                SELECT o.id, o.created_at, o.updated_at, o.status, o.total_value,
+                       (SELECT count(*) FROM order_items i WHERE i.order_id = o.id) AS items
+                FROM orders o
+                WHERE o.partner_id = ? AND o.created_at >= ? AND o.created_at < ?
+                UNION ALL
+                SELECT x.order_id, x.created_at, (x.document->>'updatedAt')::timestamp, x.status,
+                       (x.document->>'totalValue')::numeric, jsonb_array_length(x.document->'items')
+                FROM orders_archive x
+                WHERE x.partner_id = ? AND x.created_at >= ? AND x.created_at < ?
+                ORDER BY 1
+                """, handler, partnerId, from, to, partnerId, from, to);
+    }
+}
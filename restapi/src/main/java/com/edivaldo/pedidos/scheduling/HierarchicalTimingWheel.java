@@ -0,0 +1,187 @@
+package com.edivaldo.pedidos.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roda de temporização hierárquica: agenda itens para expirar num instante (epoch em ms) com custo O(1) por
+ * agendamento e por tick, sem fila ordenada e sem consultar o banco por item.
+ * <p>
+ * O nível 0 tem {@code wheelSize} posições de {@code tickMs}; cada nível acima tem posições do tamanho de uma
+ * volta inteira do nível abaixo. Um item é posto no nível mais baixo que alcance o seu prazo e desce de nível
+ * (cascata) quando o tempo chega à faixa da posição em que está. Com tick de 1s e 512 posições, o nível 0 cobre
+ * ~8,5 min, o 1 ~3 dias e o 2 ~4 anos; níveis são criados só quando necessários.
+ * <p>
+ * A precisão é de um tick: o prazo é arredondado para cima até o início de um tick, então um item nunca expira
+ * antes do prazo e expira no máximo um tick depois dele (no primeiro {@link #advance(long)} que alcança esse
+ * tick). Thread-safe: agendamentos podem vir de qualquer thread; {@code advance} normalmente roda numa só.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<ArrayDeque<Timeout<T>>[]> levels = new ArrayList<>();
+    private final ArrayDeque<Timeout<T>> due = new ArrayDeque<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMs Duração de uma posição do nível 0, em ms.
+     * @param wheelSize Posições por nível.
+     * @param startMs Instante inicial (normalmente {@code System.currentTimeMillis()}).
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs deve ser positivo e wheelSize maior que 1");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+        addLevel();
+    }
+
+    /**
+     * Agenda {@code item} para expirar em {@code deadlineMs}. Prazos já vencidos expiram no próximo {@code advance}.
+     * @return Handle para cancelar o agendamento.
+     */
+    public synchronized Timeout<T> schedule(T item, long deadlineMs) {
+        Timeout<T> timeout = new Timeout<>(item, deadlineMs);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Avança a roda até {@code nowMs} e devolve os itens expirados (sem os cancelados), em ordem de tick.
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        drain(due, expired);
+        long targetTick = Math.floorDiv(nowMs, tickMs);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            drain(bucket(0, currentTick), expired);
+            drain(due, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Itens agendados e ainda não processados, inclusive cancelados que ainda não foram descartados.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long tick = Math.floorDiv(timeout.deadlineMs + tickMs - 1, tickMs);
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            due.add(timeout);
+            return;
+        }
+        int level = 0;
+        long span = wheelSize; // ticks cobertos pelos níveis 0..level
+        while (delta >= span) {
+            level++;
+            if (level == levels.size()) {
+                addLevel();
+            }
+            if (span > Long.MAX_VALUE / wheelSize) {
+                break; // prazo além do alcance representável: fica no nível mais alto e desce quando chegar a hora
+            }
+            span *= wheelSize;
+        }
+        bucket(level, tick).add(timeout);
+    }
+
+    /**
+     * Ao entrar numa nova volta de um nível, redistribui a posição correspondente do nível acima; os níveis mais
+     * altos primeiro, para que os itens desçam em cascata até o nível 0 no mesmo tick.
+     */
+    private void cascade() {
+        List<Integer> crossed = new ArrayList<>();
+        long unit = 1;
+        for (int level = 1; level < levels.size(); level++) {
+            if (unit > Long.MAX_VALUE / wheelSize) {
+                break;
+            }
+            unit *= wheelSize;
+            if (currentTick % unit != 0) {
+                break;
+            }
+            crossed.add(level);
+        }
+        for (int i = crossed.size() - 1; i >= 0; i--) {
+            ArrayDeque<Timeout<T>> bucket = bucket(crossed.get(i), currentTick);
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                if (timeout.cancelled) {
+                    size--;
+                } else {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void drain(ArrayDeque<Timeout<T>> bucket, List<T> expired) {
+        Timeout<T> timeout;
+        while ((timeout = bucket.poll()) != null) {
+            size--;
+            if (!timeout.cancelled) {
+                expired.add(timeout.item);
+            }
+        }
+    }
+
+    private ArrayDeque<Timeout<T>> bucket(int level, long tick) {
+        long unit = 1;
+        for (int i = 0; i < level && unit <= Long.MAX_VALUE / wheelSize; i++) {
+            unit *= wheelSize;
+        }
+        return levels.get(level)[(int) ((tick / unit) % wheelSize)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        ArrayDeque<Timeout<T>>[] buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        levels.add(buckets);
+    }
+
+    /**
+     * Agendamento de um item. O cancelamento só marca o item; ele é descartado quando a roda chega à sua posição.
+     */
+    public static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineMs;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineMs) {
+            this.item = item;
+            this.deadlineMs = deadlineMs;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long deadlineMs() {
+            return deadlineMs;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.holds.CreditHoldProperties;
+import com.edivaldo.pedidos.repository.CreditHoldRepository;
+import com.edivaldo.pedidos.scheduling.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retenções de crédito de pedidos PENDENTE (credit_holds): com {@code app.credit-holds.enabled} o valor do pedido
+ * sai do crédito do parceiro na criação e volta sozinho depois de {@code app.credit-holds.ttl} se o pedido não
+ * for aprovado. A aprovação e o cancelamento consomem a retenção na própria transação.
+ * <p>
+ * A expiração roda numa {@link HierarchicalTimingWheel} em memória avançada por uma única thread a cada tick, sem
+ * consultar o banco por retenção. Na inicialização a roda é recarregada de credit_holds; retenções que nenhuma
+ * instância liberou (a que as criou caiu) são pegas por uma varredura periódica. As vencidas de um tick são
+ * liberadas em lotes: um comando por lote, com um único UPDATE de crédito por parceiro. Métricas:
+ * {@code app.credit.holds.pending} (retenções na roda desta instância) e {@code app.credit.holds.released}.
+ */
+@Service
+@Slf4j
+public class CreditHoldService implements SmartLifecycle {
+
+    private static final long RETRY_DELAY_MS = 5_000;
+
+    private final CreditHoldRepository repository;
+    private final CreditHoldProperties properties;
+    private final TransactionTemplate writeTransaction;
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Map<Long, HierarchicalTimingWheel.Timeout<Long>> scheduled = new ConcurrentHashMap<>();
+    private final Counter releasedHolds;
+    private ScheduledExecutorService ticker;
+
+    public CreditHoldService(CreditHoldRepository repository, CreditHoldProperties properties,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        // Criada já aqui: pedidos podem chegar antes de start(), assim que o servidor web sobe
+        this.wheel = new HierarchicalTimingWheel<>(properties.getTick().toMillis(), properties.getWheelSize(),
+                System.currentTimeMillis());
+        Gauge.builder("app.credit.holds.pending", scheduled, Map::size)
+                .description("Retenções de crédito aguardando expiração nesta instância")
+                .register(meterRegistry);
+        this.releasedHolds = Counter.builder("app.credit.holds.released")
+                .description("Retenções de crédito expiradas e devolvidas aos parceiros")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Registra a retenção de {@code amount} para o pedido, já debitado do parceiro pelo chamador (com o parceiro
+     * bloqueado). A expiração só é agendada depois do commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void placeHold(long orderId, long partnerId, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(properties.getTtl());
+        repository.insert(orderId, partnerId, amount, now, expiresAt);
+        afterCommit(() -> schedule(orderId, toEpochMilli(expiresAt)));
+        log.debug("Crédito de {} retido para o pedido ID {} até {}", amount, orderId, expiresAt);
+    }
+
+    /**
+     * Remove a retenção do pedido, se ainda existir. Deve ser chamado com o parceiro bloqueado, na transação
+     * que aprova ou cancela o pedido.
+     * @return Valor retido, que continua debitado do parceiro; vazio se a retenção já expirou ou nunca existiu.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<BigDecimal> consume(long orderId) {
+        Optional<BigDecimal> amount = repository.delete(orderId);
+        if (amount.isPresent()) {
+            afterCommit(() -> {
+                HierarchicalTimingWheel.Timeout<Long> timeout = scheduled.remove(orderId);
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+            });
+        }
+        return amount;
+    }
+
+    /**
+     * Libera as retenções vencidas há mais que {@code app.credit-holds.orphan-grace}: as que estavam na roda de
+     * uma instância que parou antes de liberá-las.
+     */
+    @Scheduled(fixedDelayString = "${app.credit-holds.orphan-sweep-interval-ms:300000}",
+            initialDelayString = "${app.credit-holds.orphan-sweep-interval-ms:300000}")
+    public void sweepOrphans() {
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = Math.max(1, properties.getReleaseBatchSize());
+        long total = 0;
+        List<Long> expired;
+        do {
+            expired = repository.findExpired(now.minus(properties.getOrphanGrace()), batchSize);
+            int released = release(expired, now);
+            total += released;
+            if (released == 0) {
+                break; // consumidas ou liberadas por outra instância entre a consulta e o lote
+            }
+        } while (expired.size() == batchSize);
+        if (total > 0) {
+            log.warn("{} retenções de crédito órfãs liberadas", total);
+        }
+    }
+
+    /**
+     * Avança a roda e libera as retenções vencidas. Roda na thread do ticker; um lote que falha volta para a
+     * roda e é tentado de novo alguns segundos depois.
+     */
+    void tick() {
+        List<Long> expired = wheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        expired.forEach(scheduled::remove);
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = Math.max(1, properties.getReleaseBatchSize());
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                release(batch, now);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao liberar {} retenções de crédito, nova tentativa em {} ms", batch.size(), RETRY_DELAY_MS, e);
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MS;
+                batch.forEach(orderId -> schedule(orderId, retryAt));
+            }
+        }
+    }
+
+    private int release(List<Long> orderIds, LocalDateTime now) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        Integer released = writeTransaction.execute(tx -> {
+            repository.lockPartners(orderIds);
+            return repository.release(orderIds, now);
+        });
+        int count = released != null ? released : 0;
+        releasedHolds.increment(count);
+        log.debug("{} de {} retenções de crédito liberadas", count, orderIds.size());
+        return count;
+    }
+
+    private void schedule(long orderId, long deadlineMs) {
+        HierarchicalTimingWheel.Timeout<Long> previous = scheduled.put(orderId, wheel.schedule(orderId, deadlineMs));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Recarrega a roda com as retenções gravadas e inicia o ticker. Roda mesmo com {@code enabled=false}, para
+     * que retenções criadas antes de desligar a funcionalidade continuem expirando.
+     */
+    @Override
+    public void start() {
+        try {
+            AtomicInteger loaded = new AtomicInteger();
+            writeTransaction.executeWithoutResult(tx -> repository.forEach((orderId, expiresAt) -> {
+                schedule(orderId, toEpochMilli(expiresAt));
+                loaded.incrementAndGet();
+            }));
+            if (loaded.get() > 0) {
+                log.info("{} retenções de crédito recarregadas na roda de expiração", loaded.get());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível recarregar as retenções de crédito; ficam para a varredura de órfãs", e);
+        }
+        long tickMs = properties.getTick().toMillis();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "credit-hold-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Erro no ticker das retenções de crédito", e);
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ticker != null;
+    }
+}
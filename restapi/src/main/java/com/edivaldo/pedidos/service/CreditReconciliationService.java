@@ -0,0 +1,168 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.reconciliation.ReconciliationProperties;
+import com.edivaldo.pedidos.dto.CreditDriftDTO;
+import com.edivaldo.pedidos.dto.CreditReconciliationReportDTO;
+import com.edivaldo.pedidos.repository.CreditReconciliationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reconcilia {@code partners.current_credit}, alterado de forma incremental pelas escritas de pedidos e parceiros,
+ * com o valor esperado: {@code credit_limit} menos a soma dos pedidos em
+ * {@link CreditReconciliationRepository#COMMITTED_STATUSES}, incluindo os arquivados, e das retenções de
+ * pedidos PENDENTE (credit_holds).
+ * <p>
+ * Os parceiros são divididos em faixas de {@code app.reconciliation.chunk-size} IDs, verificadas em paralelo por
+ * {@code app.reconciliation.parallelism} threads. Cada faixa é uma única consulta numa transação somente leitura
+ * (atendida pela réplica quando habilitada), sem bloquear nada. Na correção, os divergentes da faixa são bloqueados
+ * com {@code SKIP LOCKED} numa transação curta no primário e recalculados sob o bloqueio; os que estiverem em uso
+ * por uma transação de pedido ficam para a próxima execução.
+ */
+@Service
+@Slf4j
+public class CreditReconciliationService {
+
+    private final CreditReconciliationRepository repository;
+    private final ReconciliationProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CreditReconciliationService(CreditReconciliationRepository repository, ReconciliationProperties properties,
+                                       PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:-}")
+    public void scheduledReconcile() {
+        reconcile(properties.isRepairOnSchedule());
+    }
+
+    /**
+     * Verifica todos os parceiros e, com {@code repair}, corrige os divergentes.
+     * @throws IllegalStateException se já houver uma reconciliação em andamento.
+     */
+    public CreditReconciliationReportDTO reconcile(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconciliação de crédito já em andamento");
+        }
+        try {
+            return execute(repair);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private CreditReconciliationReportDTO execute(boolean repair) {
+        long start = System.nanoTime();
+        long[] bounds = repository.partnerIdBounds();
+        List<ChunkResult> results = new ArrayList<>();
+        if (bounds != null) {
+            int chunkSize = Math.max(1, properties.getChunkSize());
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()), threadFactory());
+            try {
+                List<Future<ChunkResult>> futures = new ArrayList<>();
+                for (long from = bounds[0]; from <= bounds[1]; from += chunkSize) {
+                    long fromId = from;
+                    long toId = Math.min(from + chunkSize - 1, bounds[1]);
+                    futures.add(executor.submit(() -> reconcileChunk(fromId, toId, repair)));
+                }
+                for (Future<ChunkResult> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliação de crédito interrompida", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        long checked = 0;
+        long drifted = 0;
+        long repaired = 0;
+        long skipped = 0;
+        BigDecimal absoluteDrift = BigDecimal.ZERO;
+        List<CreditDriftDTO> sample = new ArrayList<>();
+        for (ChunkResult result : results) {
+            checked += result.checked;
+            drifted += result.drifts.size();
+            repaired += result.repaired;
+            skipped += result.skipped;
+            for (CreditDriftDTO drift : result.drifts) {
+                absoluteDrift = absoluteDrift.add(drift.getDrift().abs());
+                if (sample.size() < properties.getSampleSize()) {
+                    sample.add(drift);
+                }
+            }
+        }
+        CreditReconciliationReportDTO report = new CreditReconciliationReportDTO(checked, drifted, absoluteDrift, repair,
+                repaired, skipped, results.size(), sample, (System.nanoTime() - start) / 1_000_000);
+        if (report.isConsistent()) {
+            log.info("Reconciliação de crédito: {} parceiros sem divergência ({} faixas, {} ms)", checked,
+                    report.getChunks(), report.getDurationMs());
+        } else {
+            log.warn("Reconciliação de crédito: {} de {} parceiros divergentes (soma {}), {} corrigidos, {} bloqueados ({} ms)",
+                    drifted, checked, absoluteDrift, repaired, skipped, report.getDurationMs());
+        }
+        return report;
+    }
+
+    private ChunkResult reconcileChunk(long fromId, long toId, boolean repair) {
+        ChunkResult result = readOnlyTransaction.execute(tx ->
+                new ChunkResult(repository.countPartners(fromId, toId), repository.findDrift(fromId, toId)));
+        if (repair && !result.drifts.isEmpty()) {
+            List<Long> ids = result.drifts.stream().map(CreditDriftDTO::getPartnerId).toList();
+            writeTransaction.executeWithoutResult(tx -> {
+                List<Long> locked = repository.lockPartners(ids);
+                result.skipped = ids.size() - locked.size();
+                result.repaired = repository.repair(locked);
+            });
+        }
+        return result;
+    }
+
+    private ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "reconciliation-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class ChunkResult {
+
+        final long checked;
+        final List<CreditDriftDTO> drifts;
+        int repaired;
+        int skipped;
+
+        ChunkResult(long checked, List<CreditDriftDTO> drifts) {
+            this.checked = checked;
+            this.drifts = drifts != null ? drifts : Collections.emptyList();
+        }
+    }
+}
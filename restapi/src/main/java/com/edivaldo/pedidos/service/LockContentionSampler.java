@@ -0,0 +1,169 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.locks.LockProperties;
+import com.edivaldo.pedidos.dto.LockContentionReportDTO;
+import com.edivaldo.pedidos.dto.LockHolderDTO;
+import com.edivaldo.pedidos.dto.LockWaitDTO;
+import com.edivaldo.pedidos.dto.PartnerContentionDTO;
+import com.edivaldo.pedidos.repository.LockContentionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Amostra periodicamente as esperas por bloqueio no banco (ver {@link LockContentionRepository}), com foco nas
+ * linhas de partners bloqueadas pelo {@code PartnerRepository.findById} (PESSIMISTIC_WRITE). Cada amostra traz as
+ * sessões esperando, as sessões no início de cada cadeia de bloqueio e o ranking dos parceiros mais disputados em
+ * {@code app.locks.sampler.window}. Vê as sessões de todas as instâncias, não só desta. Métricas (última amostra):
+ * <ul>
+ *   <li>{@code app.locks.waiting}: sessões esperando por qualquer bloqueio;</li>
+ *   <li>{@code app.locks.partners.waiting}: sessões esperando pela linha de um parceiro;</li>
+ *   <li>{@code app.locks.partners.max-wait}: maior espera por parceiro, em segundos.</li>
+ * </ul>
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.locks.sampler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LockContentionSampler {
+
+    private static final String PARTNERS = "partners";
+    private static final int MAX_OBSERVATIONS = 100_000;
+
+    private final LockContentionRepository repository;
+    private final LockProperties properties;
+    private final Deque<Observation> observations = new ArrayDeque<>();
+    private final AtomicLong waiting = new AtomicLong();
+    private final AtomicLong partnersWaiting = new AtomicLong();
+    private final AtomicLong partnersMaxWaitMs = new AtomicLong();
+
+    public LockContentionSampler(LockContentionRepository repository, LockProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        Gauge.builder("app.locks.waiting", waiting, AtomicLong::get)
+                .description("Sessões do banco esperando por um bloqueio")
+                .register(meterRegistry);
+        Gauge.builder("app.locks.partners.waiting", partnersWaiting, AtomicLong::get)
+                .description("Sessões do banco esperando pela linha de um parceiro")
+                .register(meterRegistry);
+        Gauge.builder("app.locks.partners.max-wait", partnersMaxWaitMs, ms -> ms.get() / 1000.0)
+                .description("Maior espera atual pela linha de um parceiro")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.locks.sampler.interval-ms:5000}", initialDelayString = "${app.locks.sampler.interval-ms:5000}")
+    public void scheduledSample() {
+        try {
+            LockContentionReportDTO report = sample();
+            if (!report.getBlockers().isEmpty()) {
+                log.debug("{} sessões esperando por bloqueio; {} cadeias de bloqueio", report.getWaiting().size(),
+                        report.getBlockers().size());
+            }
+        } catch (RuntimeException e) {
+            log.debug("Falha na amostra de bloqueios: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Faz uma amostra agora e a inclui na janela do ranking.
+     */
+    public synchronized LockContentionReportDTO sample() {
+        LocalDateTime now = LocalDateTime.now();
+        List<LockWaitDTO> waits = repository.findLockWaits();
+        List<LockHolderDTO> blockers = blockers(waits);
+
+        long partnerWaiters = 0;
+        long maxWaitMs = 0;
+        for (LockWaitDTO wait : waits) {
+            if (wait.getPartnerId() != null) {
+                observations.addLast(new Observation(now, wait.getPartnerId(), wait.getWaitMs()));
+            }
+            if (PARTNERS.equals(wait.getRelation())) {
+                partnerWaiters++;
+                maxWaitMs = Math.max(maxWaitMs, wait.getWaitMs());
+            }
+        }
+        LocalDateTime windowStart = now.minus(properties.getSampler().getWindow());
+        while (!observations.isEmpty()
+                && (observations.size() > MAX_OBSERVATIONS || observations.peekFirst().at().isBefore(windowStart))) {
+            observations.removeFirst();
+        }
+        waiting.set(waits.size());
+        partnersWaiting.set(partnerWaiters);
+        partnersMaxWaitMs.set(maxWaitMs);
+
+        return new LockContentionReportDTO(now, waits, blockers, properties.getSampler().getWindow().toString(),
+                topPartners());
+    }
+
+    /**
+     * Sessões no início das cadeias: as que bloqueiam outras sem estar esperando. Cada uma conta as sessões
+     * que esperam por ela, direta ou indiretamente.
+     */
+    private List<LockHolderDTO> blockers(List<LockWaitDTO> waits) {
+        Map<Integer, LockWaitDTO> waitsByPid = waits.stream()
+                .collect(Collectors.toMap(LockWaitDTO::getPid, wait -> wait, (a, b) -> a));
+        Map<Integer, Integer> blockedByRoot = new HashMap<>();
+        for (LockWaitDTO wait : waits) {
+            for (Integer root : roots(wait.getPid(), waitsByPid, new HashSet<>())) {
+                blockedByRoot.merge(root, 1, Integer::sum);
+            }
+        }
+        List<LockHolderDTO> holders = new ArrayList<>(repository.findSessions(blockedByRoot.keySet()));
+        holders.forEach(holder -> holder.setBlockedSessions(blockedByRoot.getOrDefault(holder.getPid(), 0)));
+        holders.sort(Comparator.comparingInt(LockHolderDTO::getBlockedSessions).reversed());
+        return holders;
+    }
+
+    private static Set<Integer> roots(int pid, Map<Integer, LockWaitDTO> waitsByPid, Set<Integer> visited) {
+        Set<Integer> roots = new LinkedHashSet<>();
+        if (!visited.add(pid)) {
+            return roots; // ciclo: deadlock, que o próprio Postgres desfaz
+        }
+        for (Integer blocker : waitsByPid.get(pid).getBlockedBy()) {
+            if (waitsByPid.containsKey(blocker)) {
+                roots.addAll(roots(blocker, waitsByPid, visited));
+            } else {
+                roots.add(blocker);
+            }
+        }
+        return roots;
+    }
+
+    private List<PartnerContentionDTO> topPartners() {
+        Map<Long, PartnerContentionDTO> byPartner = new HashMap<>();
+        for (Observation observation : observations) {
+            PartnerContentionDTO contention = byPartner.computeIfAbsent(observation.partnerId(),
+                    id -> new PartnerContentionDTO(id, 0, 0, null));
+            contention.setWaiters(contention.getWaiters() + 1);
+            contention.setMaxWaitMs(Math.max(contention.getMaxWaitMs(), observation.waitMs()));
+            contention.setLastSeen(observation.at());
+        }
+        return byPartner.values().stream()
+                .sorted(Comparator.comparingInt(PartnerContentionDTO::getWaiters)
+                        .thenComparingLong(PartnerContentionDTO::getMaxWaitMs).reversed())
+                .limit(properties.getSampler().getTop())
+                .collect(Collectors.toList());
+    }
+
+    private record Observation(LocalDateTime at, long partnerId, long waitMs) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.locks.LockProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Aplica {@code lock_timeout} e {@code statement_timeout} configurados para uma operação
+ * ({@code app.locks.timeouts}) à transação atual, com {@code SET LOCAL}: valem até o commit ou rollback e a conexão
+ * volta ao pool sem eles. Uma transação que passa do limite esperando o bloqueio de um parceiro falha logo
+ * (PessimisticLockingFailureException, respondida com 409) em vez de prender uma conexão do Hikari.
+ */
+@Component
+public class OperationTimeouts {
+
+    public static final String CREATE_ORDER = "create-order";
+    public static final String UPDATE_ORDER_STATUS = "update-order-status";
+    public static final String CANCEL_ORDER = "cancel-order";
+    public static final String UPDATE_PARTNER = "update-partner";
+
+    private static final String DEFAULT = "default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LockProperties properties;
+
+    public OperationTimeouts(DataSource dataSource, LockProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.properties = properties;
+    }
+
+    /**
+     * Um único comando para os dois limites; nenhum se a operação (e {@code default}) não definir limites.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(String operation) {
+        Map<String, LockProperties.Timeouts> timeouts = properties.getTimeouts();
+        LockProperties.Timeouts specific = timeouts.get(operation);
+        LockProperties.Timeouts defaults = timeouts.get(DEFAULT);
+        Duration lockTimeout = pick(specific, defaults, LockProperties.Timeouts::getLockTimeout);
+        Duration statementTimeout = pick(specific, defaults, LockProperties.Timeouts::getStatementTimeout);
+
+        StringJoiner settings = new StringJoiner(", ", "SELECT ", "");
+        List<Object> args = new ArrayList<>();
+        if (lockTimeout != null) {
+            settings.add("set_config('lock_timeout', ?, true)");
+            args.add(lockTimeout.toMillis() + "ms");
+        }
+        if (statementTimeout != null) {
+            settings.add("set_config('statement_timeout', ?, true)");
+            args.add(statementTimeout.toMillis() + "ms");
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.query(settings.toString(), rs -> { }, args.toArray());
+        }
+    }
+
+    private static Duration pick(LockProperties.Timeouts specific, LockProperties.Timeouts defaults,
+                                 Function<LockProperties.Timeouts, Duration> getter) {
+        Duration value = specific != null ? getter.apply(specific) : null;
+        return value != null || defaults == null ? value : getter.apply(defaults);
+    }
+}
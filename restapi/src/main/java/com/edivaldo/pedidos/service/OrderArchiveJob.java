@@ -0,0 +1,94 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.archive.ArchiveProperties;
+import com.edivaldo.pedidos.repository.OrderArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Move pedidos ENTREGUE/CANCELADO antigos de orders/order_items para orders_archive, em lotes.
+ * <p>
+ * Cada lote é um único comando (e transação) com {@code SKIP LOCKED}: réplicas do restapi podem rodar o job
+ * ao mesmo tempo e nenhuma transação de pedido fica esperando por ele. Métricas:
+ * <ul>
+ *   <li>{@code app.archive.orders}: pedidos arquivados (a taxa é a vazão do arquivamento);</li>
+ *   <li>{@code app.archive.batch}: duração de cada lote;</li>
+ *   <li>{@code app.archive.table.rows} e {@code app.archive.table.bytes} ({@code table=orders|orders_archive}):
+ *   tamanho das tabelas, atualizado a cada execução, para acompanhar a tendência da tabela quente.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OrderArchiveJob {
+
+    private static final List<String> TABLES = List.of("orders", "orders_archive");
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ArchiveProperties properties;
+    private final Counter archivedOrders;
+    private final Timer batchTimer;
+    private final Map<String, AtomicLong> tableRows = new HashMap<>();
+    private final Map<String, AtomicLong> tableBytes = new HashMap<>();
+
+    public OrderArchiveJob(OrderArchiveRepository orderArchiveRepository, ArchiveProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.properties = properties;
+        this.archivedOrders = Counter.builder("app.archive.orders")
+                .description("Pedidos movidos para orders_archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("app.archive.batch")
+                .description("Duração de cada lote de arquivamento")
+                .register(meterRegistry);
+        for (String table : TABLES) {
+            tableRows.put(table, new AtomicLong());
+            tableBytes.put(table, new AtomicLong());
+            Gauge.builder("app.archive.table.rows", tableRows.get(table), AtomicLong::get)
+                    .description("Linhas estimadas da tabela").tag("table", table).register(meterRegistry);
+            Gauge.builder("app.archive.table.bytes", tableBytes.get(table), AtomicLong::get)
+                    .description("Tamanho da tabela com índices e TOAST").tag("table", table).baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:300000}", initialDelayString = "${app.archive.interval-ms:300000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        long start = System.nanoTime();
+        long total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int moved = batchTimer.record(() -> orderArchiveRepository.archiveBatch(cutoff, properties.getBatchSize()));
+            archivedOrders.increment(moved);
+            total += moved;
+            if (moved < properties.getBatchSize()) {
+                break; // acabaram os candidatos (ou os restantes estão bloqueados por outra réplica)
+            }
+        }
+        refreshTableSizes();
+        if (total > 0) {
+            log.info("{} pedidos arquivados (anteriores a {}) em {} ms", total, cutoff, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void refreshTableSizes() {
+        orderArchiveRepository.tableSizes().forEach((table, size) -> {
+            if (tableRows.containsKey(table)) {
+                tableRows.get(table).set(size[0]);
+                tableBytes.get(table).set(size[1]);
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.repository.OrderArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Leituras dos pedidos arquivados, usadas pelo OrderService como complemento das tabelas quentes.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveService {
+
+    /** Só pedidos nesses status são arquivados; consultas por outros status nem tocam o arquivo. */
+    public static final Set<OrderStatus> ARCHIVED_STATUSES = EnumSet.of(OrderStatus.ENTREGUE, OrderStatus.CANCELADO);
+
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    public Optional<OrderResponseDTO> findOrder(Long orderId) {
+        return orderArchiveRepository.findById(orderId);
+    }
+
+    /**
+     * Pedidos arquivados que atendem aos critérios, na mesma precedência de filtros do OrderService.
+     */
+    public void streamOrders(Long partnerId, LocalDateTime startDate, LocalDateTime endDate, OrderStatus status,
+                             Consumer<? super OrderResponseDTO> sink) {
+        if (partnerId != null) {
+            orderArchiveRepository.streamByPartnerId(partnerId, sink);
+        } else if (startDate != null && endDate != null) {
+            orderArchiveRepository.streamByCreatedAtBetween(startDate, endDate, sink);
+        } else if (status != null) {
+            if (ARCHIVED_STATUSES.contains(status)) {
+                orderArchiveRepository.streamByStatus(status, sink);
+            }
+        } else {
+            orderArchiveRepository.streamAll(sink);
+        }
+    }
+
+    /**
+     * Propaga a troca de nome do parceiro para os documentos arquivados dele.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void partnerRenamed(Long partnerId, String name) {
+        orderArchiveRepository.renamePartner(partnerId, name);
+    }
+}
@@ -1,5 +1,11 @@
 package com.edivaldo.pedidos.service;
 
+import com.edivaldo.pedidos.config.logging.LogContext;
+import com.edivaldo.pedidos.config.sharding.ShardRouter;
+import com.edivaldo.pedidos.diagnostics.DtoMappingEvent;
+import com.edivaldo.pedidos.diagnostics.LockWaitEvent;
+import com.edivaldo.pedidos.diagnostics.OrderCreationEvent;
+import com.edivaldo.pedidos.diagnostics.StatusTransitionEvent;
 import com.edivaldo.pedidos.dto.OrderItemDTO;
 import com.edivaldo.pedidos.dto.OrderRequestDTO;
 import com.edivaldo.pedidos.dto.OrderResponseDTO;
@@ -9,8 +15,11 @@ import com.edivaldo.pedidos.exception.ResourceNotFoundException;
 import com.edivaldo.pedidos.model.Order;
 import com.edivaldo.pedidos.model.OrderItem;
 import com.edivaldo.pedidos.model.Partner;
+import com.edivaldo.pedidos.repository.CreditReconciliationRepository;
 import com.edivaldo.pedidos.repository.OrderRepository;
 import com.edivaldo.pedidos.repository.PartnerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,20 +28,44 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Serviço para gerenciar operações relacionadas a pedidos.
+ * <p>
+ * Criação, mudanças de status, bloqueios de linha e conversão para DTO emitem eventos do JDK Flight Recorder
+ * (pacote diagnostics), gravados só enquanto há uma gravação ativa (ver JfrEndpoint).
+ * <p>
+ * Com o particionamento habilitado (ver ShardRouter), as operações de um parceiro ou de um pedido rodam no shard
+ * dele; as consultas por período, por status e a listagem geral consultam todos os shards em paralelo e
+ * intercalam os resultados por data de criação e ID.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    /** Ordem das listagens que juntam vários shards. */
+    private static final Comparator<OrderResponseDTO> BY_CREATION = Comparator
+            .comparing(OrderResponseDTO::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(OrderResponseDTO::getId);
+
     private final OrderRepository orderRepository;
     private final PartnerRepository partnerRepository;
     private final NotificationService notificationService;
+    private final OrderViewService orderViewService;
+    private final OrderArchiveService orderArchiveService;
+    private final CreditHoldService creditHoldService;
+    private final OperationTimeouts operationTimeouts;
+    private final ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Converte uma entidade Order para um DTO de resposta.
@@ -40,10 +73,12 @@ public class OrderService {
      * @return O OrderResponseDTO correspondente.
      */
     private OrderResponseDTO toResponseDTO(Order order) {
+        DtoMappingEvent event = new DtoMappingEvent(order.getId());
+        event.begin();
         List<OrderItemDTO> itemDTOs = order.getItems().stream()
                 .map(item -> new OrderItemDTO(item.getProduct(), item.getQuantity(), item.getUnitPrice()))
                 .collect(Collectors.toList());
-        return new OrderResponseDTO(
+        OrderResponseDTO dto = new OrderResponseDTO(
                 order.getId(),
                 order.getPartner().getId(),
                 order.getPartner().getName(),
@@ -53,20 +88,36 @@ public class OrderService {
                 order.getCreatedAt(),
                 order.getUpdatedAt()
         );
+        event.mapped(itemDTOs.size());
+        event.commit();
+        return dto;
     }
 
     /**
      * Cria um novo pedido.
      * O pedido é inicialmente criado com status PENDENTE. A verificação e débito de crédito
-     * ocorrerão somente na transição para o status APROVADO.
+     * ocorrerão somente na transição para o status APROVADO, a não ser que as retenções de crédito estejam
+     * habilitadas: nesse caso o valor é debitado já aqui e volta ao parceiro se o pedido não for aprovado
+     * dentro de {@code app.credit-holds.ttl} (ver CreditHoldService).
      * @param orderRequestDTO Os dados do pedido a serem criados.
      * @return O OrderResponseDTO do pedido criado.
      * @throws ResourceNotFoundException se o parceiro não for encontrado.
+     * @throws CreditLimitExceededException se as retenções estiverem habilitadas e o crédito não cobrir o pedido.
      */
     @Transactional
     public OrderResponseDTO createOrder(OrderRequestDTO orderRequestDTO) {
-        // Busca o parceiro SEM bloqueio aqui, pois o pedido é PENDENTE inicialmente
-        Partner partner = partnerRepository.findById(orderRequestDTO.getPartnerId())
+        try (LogContext.Scope ignored = LogContext.partnerId(orderRequestDTO.getPartnerId())) {
+            return placeOrder(orderRequestDTO);
+        }
+    }
+
+    private OrderResponseDTO placeOrder(OrderRequestDTO orderRequestDTO) {
+        shardRouter.bindPartner(orderRequestDTO.getPartnerId());
+        OrderCreationEvent event = new OrderCreationEvent(orderRequestDTO.getPartnerId());
+        event.begin();
+        operationTimeouts.apply(OperationTimeouts.CREATE_ORDER);
+        // O findById bloqueia o parceiro (PESSIMISTIC_WRITE); é o que protege a reserva de crédito abaixo
+        Partner partner = lockPartner(orderRequestDTO.getPartnerId())
                 .orElseThrow(() -> new ResourceNotFoundException("Parceiro não encontrado com ID: " + orderRequestDTO.getPartnerId()));
 
         Order order = new Order();
@@ -88,24 +139,45 @@ public class OrderService {
         BigDecimal totalOrderValue = order.calculateTotalValue();
         order.setTotalValue(totalOrderValue);
 
-        Order savedOrder = orderRepository.save(order);
-        log.info("Pedido ID {} criado para o parceiro ID {}", savedOrder.getId(), partner.getId());
-        notificationService.notifyOrderStatusChange(savedOrder.getId(), null, savedOrder.getStatus()); // Notifica a criação
+        if (creditHoldService.isEnabled()) {
+            if (partner.getCurrentCredit().compareTo(totalOrderValue) < 0) {
+                throw new CreditLimitExceededException("Parceiro ID " + partner.getId() + " não tem crédito suficiente para reservar este pedido. Crédito disponível: " + partner.getCurrentCredit() + ", Valor do pedido: " + totalOrderValue);
+            }
+            // Reserva o crédito; o partner já está bloqueado pelo findById
+            partner.setCurrentCredit(partner.getCurrentCredit().subtract(totalOrderValue));
+            partnerRepository.save(partner);
+        }
 
-        return toResponseDTO(savedOrder);
+        Order savedOrder = orderRepository.save(order);
+        try (LogContext.Scope ignored = LogContext.orderId(savedOrder.getId())) {
+            if (creditHoldService.isEnabled()) {
+                creditHoldService.placeHold(savedOrder.getId(), partner.getId(), totalOrderValue);
+            }
+            orderViewService.project(savedOrder.getId());
+            log.debug("Pedido ID {} criado para o parceiro ID {}", savedOrder.getId(), partner.getId());
+            notificationService.notifyOrderStatusChange(savedOrder.getId(), null, savedOrder.getStatus()); // Notifica a criação
+
+            OrderResponseDTO response = toResponseDTO(savedOrder);
+            event.created(savedOrder.getId(), order.getItems().size(), totalOrderValue);
+            event.commit(); // criações recusadas não geram evento
+            return response;
+        }
     }
 
     /**
-     * Busca um pedido pelo ID.
+     * Busca um pedido pelo ID, pelo documento em order_views quando disponível; pedidos que não estão mais
+     * nas tabelas quentes são procurados em orders_archive.
      * @param id O ID do pedido.
      * @return O OrderResponseDTO do pedido encontrado.
      * @throws ResourceNotFoundException se o pedido não for encontrado.
      */
     @Transactional(readOnly = true)
     public OrderResponseDTO getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        shardRouter.bindOrder(id);
+        return orderViewService.findOrder(id)
+                .or(() -> orderRepository.findById(id).map(this::toResponseDTO))
+                .or(() -> orderArchiveService.findOrder(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
-        return toResponseDTO(order);
     }
 
     /**
@@ -115,8 +187,9 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByPartnerId(Long partnerId) {
+        shardRouter.bindPartner(partnerId);
         List<Order> orders = orderRepository.findByPartnerId(partnerId);
-        return orders.stream().map(this::toResponseDTO).collect(Collectors.toList());
+        return withArchived(orders, partnerId, null, null, null);
     }
 
     /**
@@ -127,8 +200,12 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByCreationPeriod(LocalDateTime startDate, LocalDateTime endDate) {
+        if (shardRouter.isEnabled()) {
+            return shardRouter.scatterGather(() -> withArchived(orderRepository.findByCreatedAtBetween(startDate, endDate),
+                    null, startDate, endDate, null), BY_CREATION);
+        }
         List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
-        return orders.stream().map(this::toResponseDTO).collect(Collectors.toList());
+        return withArchived(orders, null, startDate, endDate, null);
     }
 
     /**
@@ -138,8 +215,63 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByStatus(OrderStatus status) {
+        if (shardRouter.isEnabled()) {
+            return shardRouter.scatterGather(() -> withArchived(orderRepository.findByStatus(status), null, null, null, status),
+                    BY_CREATION);
+        }
         List<Order> orders = orderRepository.findByStatus(status);
-        return orders.stream().map(this::toResponseDTO).collect(Collectors.toList());
+        return withArchived(orders, null, null, null, status);
+    }
+
+    /**
+     * Percorre os pedidos que atendem aos critérios, na mesma precedência da consulta em lista
+     * (parceiro, período, status, todos), entregando cada um ao {@code sink} à medida que é lido do cursor.
+     * Com o modelo de leitura habilitado os documentos vêm prontos de order_views; senão, das tabelas
+     * normalizadas, desanexando cada pedido depois de convertido para que a memória não cresça com o resultado.
+     * Os pedidos arquivados vêm antes, já que são os mais antigos.
+     * Com o particionamento, sem parceiro todos os shards são lidos em paralelo, cada um na sua transação, e os
+     * cursores são intercalados por data de criação e ID. Dentro de um shard os pedidos saem em ordem de ID, que
+     * segue a de criação; um pedido antigo ainda nas tabelas quentes pode sair depois de arquivados mais novos.
+     * @param sink Recebe os pedidos em ordem de ID dentro de cada tabela; exceções lançadas por ele interrompem a leitura.
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(Long partnerId, LocalDateTime startDate, LocalDateTime endDate, OrderStatus status,
+                             Consumer<? super OrderResponseDTO> sink) {
+        if (partnerId != null) {
+            shardRouter.bindPartner(partnerId);
+        } else if (shardRouter.isEnabled()) {
+            shardRouter.<OrderResponseDTO>scatterStream(shard -> streamShardOrders(null, startDate, endDate, status, shard),
+                    BY_CREATION, sink);
+            return;
+        }
+        streamShardOrders(partnerId, startDate, endDate, status, sink);
+    }
+
+    private void streamShardOrders(Long partnerId, LocalDateTime startDate, LocalDateTime endDate, OrderStatus status,
+                                   Consumer<? super OrderResponseDTO> sink) {
+        orderArchiveService.streamOrders(partnerId, startDate, endDate, status, sink);
+        if (orderViewService.isReadEnabled()) {
+            orderViewService.streamOrders(partnerId, startDate, endDate, status, sink);
+            return;
+        }
+        try (Stream<Order> orders = openOrderStream(partnerId, startDate, endDate, status)) {
+            orders.forEach(order -> {
+                OrderResponseDTO dto = toResponseDTO(order);
+                entityManager.detach(order); // itens saem junto (cascade ALL)
+                sink.accept(dto);
+            });
+        }
+    }
+
+    private Stream<Order> openOrderStream(Long partnerId, LocalDateTime startDate, LocalDateTime endDate, OrderStatus status) {
+        if (partnerId != null) {
+            return orderRepository.streamByPartnerId(partnerId);
+        } else if (startDate != null && endDate != null) {
+            return orderRepository.streamByCreatedAtBetween(startDate, endDate);
+        } else if (status != null) {
+            return orderRepository.streamByStatus(status);
+        }
+        return orderRepository.streamAll();
     }
 
     /**
@@ -151,17 +283,35 @@ public class OrderService {
      * @return O OrderResponseDTO do pedido atualizado.
      * @throws ResourceNotFoundException se o pedido ou parceiro não forem encontrados.
      * @throws CreditLimitExceededException se o limite de crédito for excedido ao aprovar.
-     * @throws IllegalArgumentException se a transição de status for inválida.
+     * @throws IllegalArgumentException se a transição de status for inválida (inclusive cancelar um pedido ENTREGUE).
+     * @throws org.springframework.dao.PessimisticLockingFailureException se o bloqueio do pedido ou do parceiro
+     * não sair dentro do {@code lock_timeout} da operação (ver OperationTimeouts).
      */
     @Transactional
     public OrderResponseDTO updateOrderStatus(Long id, OrderStatus newStatus) {
-        // Primeiro, busca o pedido para obter informações básicas.
-        // Nota: A entidade 'order' aqui não está bloqueada em si,
-        // mas precisamos do 'partner.id' dela.
-        Order order = orderRepository.findById(id)
+        StatusTransitionEvent event = new StatusTransitionEvent("updateOrderStatus", id, newStatus);
+        event.begin();
+        try {
+            return changeStatus(id, newStatus, event);
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private OrderResponseDTO changeStatus(Long id, OrderStatus newStatus, StatusTransitionEvent event) {
+        shardRouter.bindOrder(id); // o parceiro do pedido está no mesmo shard
+        operationTimeouts.apply(OperationTimeouts.UPDATE_ORDER_STATUS);
+        // Primeiro, busca e bloqueia o pedido. Sem o bloqueio, duas transações concorrentes leriam o mesmo
+        // status (ex.: PENDENTE) antes de esperar pelo bloqueio do parceiro, e ambas debitariam o crédito.
+        // A ordem é sempre pedido -> parceiro.
+        Order order = lockOrder(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
 
         OrderStatus oldStatus = order.getStatus();
+        event.loaded(order.getPartner().getId(), oldStatus);
 
         // Se o status não mudou, apenas retorna o pedido atual.
         if (oldStatus == newStatus) {
@@ -174,34 +324,37 @@ public class OrderService {
         // que agora está anotado com @Lock(LockModeType.PESSIMISTIC_WRITE).
         // Isso força o banco de dados a bloquear a linha do Partner, impedindo que outras
         // transações a modifiquem até que esta transação seja concluída.
-        Partner partner = partnerRepository.findById(order.getPartner().getId())
+        Partner partner = lockPartner(order.getPartner().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Parceiro não encontrado para o pedido ID: " + id));
         // Agora, 'partner' é a entidade bloqueada, e podemos fazer a verificação e o débito/crédito.
 
         BigDecimal orderValue = order.getTotalValue();
+        // Retenção de crédito do pedido PENDENTE, consumida em qualquer saída desse status
+        Optional<BigDecimal> hold = oldStatus == OrderStatus.PENDENTE ? creditHoldService.consume(id) : Optional.empty();
 
         switch (newStatus) {
             case APROVADO:
-                if (oldStatus == OrderStatus.PENDENTE) {
+                if (oldStatus == OrderStatus.PENDENTE && hold.isPresent()) {
+                    // O crédito já foi debitado na criação; a retenção vira débito definitivo
+                    log.debug("Retenção de {} do pedido ID {} convertida em débito do parceiro ID {}", hold.get(), id, partner.getId());
+                } else if (oldStatus == OrderStatus.PENDENTE) {
                     if (partner.getCurrentCredit().compareTo(orderValue) < 0) {
                         throw new CreditLimitExceededException("Parceiro ID " + partner.getId() + " não tem crédito suficiente para aprovar este pedido. Crédito disponível: " + partner.getCurrentCredit() + ", Valor do pedido: " + orderValue);
                     }
                     // Debita o crédito. Como o partner está bloqueado, esta operação é segura.
                     partner.setCurrentCredit(partner.getCurrentCredit().subtract(orderValue));
                     partnerRepository.save(partner); // O save liberará o bloqueio ao final da transação
-                    log.info("Crédito de {} debitado do parceiro ID {} para o pedido ID {}", orderValue, partner.getId(), id);
+                    log.debug("Crédito de {} debitado do parceiro ID {} para o pedido ID {}", orderValue, partner.getId(), id);
                 } else {
                     throw new IllegalArgumentException("Não é possível aprovar um pedido com status " + oldStatus);
                 }
                 break;
             case CANCELADO:
-                if (oldStatus == OrderStatus.APROVADO || oldStatus == OrderStatus.EM_PROCESSAMENTO) {
-                    // Estorna o crédito. Como o partner está bloqueado, esta operação é segura.
-                    partner.setCurrentCredit(partner.getCurrentCredit().add(orderValue));
-                    partnerRepository.save(partner); // O save liberará o bloqueio ao final da transação
-                    log.info("Crédito de {} estornado para o parceiro ID {} devido ao cancelamento do pedido ID {}", orderValue, partner.getId(), id);
+                if (oldStatus == OrderStatus.ENTREGUE) {
+                    throw new IllegalArgumentException("Não é possível cancelar um pedido com status " + oldStatus);
                 }
-                // Pedidos PENDENTES podem ser cancelados sem estorno de crédito
+                refundIfCommitted(partner, oldStatus, orderValue, id);
+                // Pedidos PENDENTES podem ser cancelados sem estorno de crédito (só a retenção, se houver)
                 break;
             case EM_PROCESSAMENTO:
                 if (oldStatus != OrderStatus.APROVADO) {
@@ -222,12 +375,16 @@ public class OrderService {
                 // Outros status podem ser atualizados diretamente ou com regras específicas
                 break;
         }
+        if (newStatus != OrderStatus.APROVADO) {
+            releaseHold(partner, hold, id);
+        }
 
         order.setStatus(newStatus);
         order.setUpdatedAt(LocalDateTime.now());
         Order updatedOrder = orderRepository.save(order); // Salva a mudança de status do pedido
+        orderViewService.project(id);
 
-        log.info("Status do pedido ID {} alterado de {} para {}", id, oldStatus, newStatus);
+        log.debug("Status do pedido ID {} alterado de {} para {}", id, oldStatus, newStatus);
         notificationService.notifyOrderStatusChange(id, oldStatus, newStatus);
 
         return toResponseDTO(updatedOrder);
@@ -235,7 +392,8 @@ public class OrderService {
 
     /**
      * Cancela um pedido.
-     * Estorna o crédito do parceiro se o pedido já estava APROVADO ou EM_PROCESSAMENTO.
+     * Estorna o crédito do parceiro se o pedido já estava APROVADO, EM_PROCESSAMENTO ou ENVIADO, ou devolve a
+     * retenção de crédito de um pedido PENDENTE.
      * @param id O ID do pedido a ser cancelado.
      * @return O OrderResponseDTO do pedido cancelado.
      * @throws ResourceNotFoundException se o pedido não for encontrado.
@@ -243,10 +401,27 @@ public class OrderService {
      */
     @Transactional
     public OrderResponseDTO cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
+        StatusTransitionEvent event = new StatusTransitionEvent("cancelOrder", id, OrderStatus.CANCELADO);
+        event.begin();
+        try {
+            return cancel(id, event);
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private OrderResponseDTO cancel(Long id, StatusTransitionEvent event) {
+        shardRouter.bindOrder(id);
+        operationTimeouts.apply(OperationTimeouts.CANCEL_ORDER);
+        // Bloqueia o pedido antes do parceiro, como no updateOrderStatus
+        Order order = lockOrder(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado com ID: " + id));
 
         OrderStatus oldStatus = order.getStatus();
+        event.loaded(order.getPartner().getId(), oldStatus);
 
         if (oldStatus == OrderStatus.CANCELADO || oldStatus == OrderStatus.ENTREGUE) {
             throw new IllegalArgumentException("Não é possível cancelar um pedido com status " + oldStatus);
@@ -254,31 +429,93 @@ public class OrderService {
 
         // --- Ponto Crítico: Bloqueio Pessimista do Parceiro para operações de crédito ---
         // Assim como no updateOrderStatus, buscamos o Partner com bloqueio para garantir a atomicidade do estorno.
-        Partner partner = partnerRepository.findById(order.getPartner().getId())
+        Partner partner = lockPartner(order.getPartner().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Parceiro não encontrado para o pedido ID: " + id));
 
         BigDecimal orderValue = order.getTotalValue();
 
-        // Estorna o crédito se o pedido já havia sido aprovado ou estava em processamento
-        if (oldStatus == OrderStatus.APROVADO || oldStatus == OrderStatus.EM_PROCESSAMENTO) {
-            partner.setCurrentCredit(partner.getCurrentCredit().add(orderValue));
-            partnerRepository.save(partner); // O save liberará o bloqueio ao final da transação
-            log.info("Crédito de {} estornado para o parceiro ID {} devido ao cancelamento do pedido ID {}", orderValue, partner.getId(), id);
+        // Estorna o crédito se o pedido já havia sido aprovado (APROVADO, EM_PROCESSAMENTO ou ENVIADO)
+        refundIfCommitted(partner, oldStatus, orderValue, id);
+        if (oldStatus == OrderStatus.PENDENTE) {
+            releaseHold(partner, creditHoldService.consume(id), id);
         }
 
         order.setStatus(OrderStatus.CANCELADO);
         order.setUpdatedAt(LocalDateTime.now());
         Order cancelledOrder = orderRepository.save(order);
+        orderViewService.project(id);
 
-        log.info("Pedido ID {} cancelado. Status anterior: {}", id, oldStatus);
+        log.debug("Pedido ID {} cancelado. Status anterior: {}", id, oldStatus);
         notificationService.notifyOrderStatusChange(id, oldStatus, OrderStatus.CANCELADO);
 
         return toResponseDTO(cancelledOrder);
     }
 
+    /**
+     * {@code findByIdForUpdate} medido como espera de bloqueio (LockWaitEvent).
+     */
+    private Optional<Order> lockOrder(Long id) {
+        LockWaitEvent event = new LockWaitEvent(LockWaitEvent.ORDERS, id);
+        event.begin();
+        try {
+            return orderRepository.findByIdForUpdate(id);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * {@code findById} do parceiro (PESSIMISTIC_WRITE) medido como espera de bloqueio (LockWaitEvent).
+     */
+    private Optional<Partner> lockPartner(Long partnerId) {
+        LockWaitEvent event = new LockWaitEvent(LockWaitEvent.PARTNERS, partnerId);
+        event.begin();
+        try {
+            return partnerRepository.findById(partnerId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Estorna ao parceiro (já bloqueado) o valor de um pedido cancelado cujo status anterior tinha o crédito
+     * debitado. A regra é a mesma da reconciliação ({@link CreditReconciliationRepository#COMMITTED_STATUSES});
+     * ENTREGUE, o único desses que não volta, é recusado antes.
+     */
+    private void refundIfCommitted(Partner partner, OrderStatus oldStatus, BigDecimal orderValue, Long orderId) {
+        if (CreditReconciliationRepository.COMMITTED_STATUSES.contains(oldStatus)) {
+            partner.setCurrentCredit(partner.getCurrentCredit().add(orderValue));
+            partnerRepository.save(partner); // O save liberará o bloqueio ao final da transação
+            log.debug("Crédito de {} estornado para o parceiro ID {} devido ao cancelamento do pedido ID {}", orderValue, partner.getId(), orderId);
+        }
+    }
+
+    /**
+     * Devolve ao parceiro (já bloqueado) o valor de uma retenção consumida sem aprovação do pedido.
+     */
+    private void releaseHold(Partner partner, Optional<BigDecimal> hold, Long orderId) {
+        hold.ifPresent(amount -> {
+            partner.setCurrentCredit(partner.getCurrentCredit().add(amount));
+            partnerRepository.save(partner);
+            log.debug("Retenção de {} do pedido ID {} devolvida ao parceiro ID {}", amount, orderId, partner.getId());
+        });
+    }
+
     public List<OrderResponseDTO> getOrders() {
+        if (shardRouter.isEnabled()) {
+            return shardRouter.scatterGather(() -> withArchived(orderRepository.findAll(), null, null, null, null), BY_CREATION);
+        }
         List<Order> all = orderRepository.findAll();
-        List<OrderResponseDTO> collect = all.stream().map(this::toResponseDTO).collect(Collectors.toList());
-        return collect;
+        return withArchived(all, null, null, null, null);
+    }
+
+    /**
+     * Converte os pedidos das tabelas quentes e acrescenta os arquivados que atendem aos mesmos critérios.
+     */
+    private List<OrderResponseDTO> withArchived(List<Order> orders, Long partnerId, LocalDateTime startDate,
+                                                LocalDateTime endDate, OrderStatus status) {
+        List<OrderResponseDTO> result = orders.stream().map(this::toResponseDTO).collect(Collectors.toList());
+        orderArchiveService.streamOrders(partnerId, startDate, endDate, status, result::add);
+        return result;
     }
 }
@@ -0,0 +1,145 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.views.OrderViewProperties;
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.dto.OrderViewRebuildDTO;
+import com.edivaldo.pedidos.dto.OrderViewReportDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.repository.OrderViewRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Mantém e consulta o modelo de leitura dos pedidos (order_views).
+ * <p>
+ * As escritas de pedidos e parceiros chamam {@link #project(Long)} e {@link #partnerRenamed(Long, String)}
+ * dentro da própria transação: o documento é confirmado ou desfeito junto com a alteração, sem janela de
+ * leitura desatualizada e sem outbox. As leituras usam o documento com uma busca por índice, sem juntar
+ * orders, order_items e partners; com {@code app.order-views.read-enabled=false}, ou se o documento não
+ * existir, a leitura volta às tabelas normalizadas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderViewService {
+
+    private final OrderViewRepository orderViewRepository;
+    private final OrderViewProperties properties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public boolean isReadEnabled() {
+        return properties.isReadEnabled();
+    }
+
+    /**
+     * Regrava o documento do pedido a partir do estado atual da transação.
+     * As alterações pendentes no contexto JPA são enviadas ao banco antes, para que o documento as inclua.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void project(Long orderId) {
+        entityManager.flush();
+        orderViewRepository.upsertRange(orderId, orderId);
+    }
+
+    /**
+     * Propaga a troca de nome do parceiro para os documentos dos pedidos dele.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void partnerRenamed(Long partnerId, String name) {
+        int updated = orderViewRepository.renamePartner(partnerId, name);
+        log.debug("Nome do parceiro ID {} atualizado em {} documentos de pedido", partnerId, updated);
+    }
+
+    public Optional<OrderResponseDTO> findOrder(Long orderId) {
+        if (!isReadEnabled()) {
+            return Optional.empty();
+        }
+        return orderViewRepository.findById(orderId);
+    }
+
+    /**
+     * Lista os documentos na mesma precedência de filtros do OrderService (parceiro, período, status, todos),
+     * em ordem de ID. Deve rodar dentro de uma transação para o driver usar cursor.
+     */
+    public void streamOrders(Long partnerId, LocalDateTime startDate, LocalDateTime endDate, OrderStatus status,
+                             Consumer<? super OrderResponseDTO> sink) {
+        if (partnerId != null) {
+            orderViewRepository.streamByPartnerId(partnerId, sink);
+        } else if (startDate != null && endDate != null) {
+            orderViewRepository.streamByCreatedAtBetween(startDate, endDate, sink);
+        } else if (status != null) {
+            orderViewRepository.streamByStatus(status, sink);
+        } else {
+            orderViewRepository.streamAll(sink);
+        }
+    }
+
+    /**
+     * Regrava todos os documentos a partir das tabelas normalizadas, em faixas de {@code batch-size} IDs.
+     * Cada faixa é um único INSERT ... SELECT em sua própria transação; documentos já corretos não são tocados.
+     */
+    public OrderViewRebuildDTO rebuild() {
+        long start = System.nanoTime();
+        long[] bounds = orderViewRepository.idBounds();
+        long rewritten = 0;
+        int batches = 0;
+        if (bounds != null) {
+            for (long from = bounds[0]; from <= bounds[1]; from += properties.getBatchSize()) {
+                rewritten += orderViewRepository.upsertRange(from, from + properties.getBatchSize() - 1);
+                batches++;
+            }
+        }
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Rebuild de order_views: {} documentos regravados em {} faixas ({} ms)", rewritten, batches, durationMs);
+        return new OrderViewRebuildDTO(rewritten, batches, durationMs);
+    }
+
+    /**
+     * Compara order_views com as tabelas normalizadas, faixa a faixa, sem alterar nada.
+     */
+    public OrderViewReportDTO check() {
+        long start = System.nanoTime();
+        long[] bounds = orderViewRepository.idBounds();
+        long checked = 0;
+        long missing = 0;
+        long stale = 0;
+        long orphaned = 0;
+        List<Long> sample = new ArrayList<>();
+        if (bounds != null) {
+            for (long from = bounds[0]; from <= bounds[1]; from += properties.getBatchSize()) {
+                long to = from + properties.getBatchSize() - 1;
+                checked += orderViewRepository.countOrders(from, to);
+                for (OrderViewRepository.Divergence divergence : orderViewRepository.findDivergences(from, to)) {
+                    switch (divergence.getProblem()) {
+                        case MISSING -> missing++;
+                        case STALE -> stale++;
+                        case ORPHANED -> orphaned++;
+                    }
+                    if (sample.size() < properties.getSampleSize()) {
+                        sample.add(divergence.getOrderId());
+                    }
+                }
+            }
+        }
+        OrderViewReportDTO report = new OrderViewReportDTO(checked, missing, stale, orphaned, sample,
+                (System.nanoTime() - start) / 1_000_000);
+        if (!report.isConsistent()) {
+            log.warn("order_views divergente: {} sem documento, {} desatualizados, {} órfãos (ex.: {})",
+                    missing, stale, orphaned, sample);
+        }
+        return report;
+    }
+}
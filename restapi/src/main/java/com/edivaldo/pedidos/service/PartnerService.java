@@ -1,22 +1,38 @@
 package com.edivaldo.pedidos.service;
 
+import com.edivaldo.pedidos.config.sharding.ShardRouter;
 import com.edivaldo.pedidos.dto.PartnerDTO;
 import com.edivaldo.pedidos.exception.ResourceNotFoundException;
 import com.edivaldo.pedidos.model.Partner;
 import com.edivaldo.pedidos.repository.PartnerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PartnerService {
 
+    private static final Comparator<PartnerDTO> BY_ID = Comparator.comparing(PartnerDTO::getId);
+
     private final PartnerRepository partnerRepository;
+    private final OrderViewService orderViewService;
+    private final OrderArchiveService orderArchiveService;
+    private final OperationTimeouts operationTimeouts;
+    private final ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
 
     private PartnerDTO toDTO(Partner partner) {
@@ -38,40 +54,83 @@ public class PartnerService {
         if (partner.getCurrentCredit() == null) {
             partner.setCurrentCredit(partner.getCreditLimit());
         }
+        if (shardRouter.isEnabled()) {
+            // O ID decide o shard: é reservado antes e o parceiro é gravado já no shard dele
+            long id = shardRouter.allocatePartnerId();
+            shardRouter.bindPartner(id);
+            partnerRepository.insertWithId(id, partner.getName(), partner.getCreditLimit(), partner.getCurrentCredit());
+            return toDTO(partnerRepository.findUnlockedById(id).orElseThrow());
+        }
         Partner savedPartner = partnerRepository.save(partner);
 
         //List<Partner> all = partnerRepository.findAll();//teste
         return toDTO(savedPartner);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public PartnerDTO getPartnerById(Long id) {
-        Partner partner = partnerRepository.findById(id)
+        shardRouter.bindPartner(id);
+        Partner partner = partnerRepository.findUnlockedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Parceiro não encontrado com ID: " + id));
         return toDTO(partner);
     }
     @Transactional(readOnly = true)
     public List<PartnerDTO> getAllPartners() {
+        if (shardRouter.isEnabled()) {
+            return shardRouter.scatterGather(() -> partnerRepository.findAll().stream().map(this::toDTO).toList(), BY_ID);
+        }
         return partnerRepository.findAll().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Entrega os parceiros ao {@code sink} à medida que são lidos do cursor, em ordem de ID,
+     * sem manter a lista inteira em memória. Com o particionamento, os shards são lidos em paralelo e os cursores
+     * intercalados por ID (os IDs de parceiro saem de uma única sequência, então a ordem é a mesma sem particionar).
+     */
+    @Transactional(readOnly = true)
+    public void streamPartners(Consumer<? super PartnerDTO> sink) {
+        if (shardRouter.isEnabled()) {
+            shardRouter.<PartnerDTO>scatterStream(this::streamShardPartners, BY_ID, sink);
+            return;
+        }
+        streamShardPartners(sink);
+    }
+
+    private void streamShardPartners(Consumer<? super PartnerDTO> sink) {
+        try (Stream<Partner> partners = partnerRepository.streamAll()) {
+            partners.forEach(partner -> {
+                PartnerDTO dto = toDTO(partner);
+                entityManager.detach(partner);
+                sink.accept(dto);
+            });
+        }
+    }
+
     @Transactional
     public PartnerDTO updatePartner(Long id, PartnerDTO partnerDTO) {
+        shardRouter.bindPartner(id);
+        operationTimeouts.apply(OperationTimeouts.UPDATE_PARTNER);
         Partner existingPartner = partnerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Parceiro não encontrado com ID: " + id));
 
+        boolean renamed = !Objects.equals(existingPartner.getName(), partnerDTO.getName());
         existingPartner.setName(partnerDTO.getName());
         existingPartner.setCreditLimit(partnerDTO.getCreditLimit());
         existingPartner.setCurrentCredit(partnerDTO.getCurrentCredit());
 
         Partner updatedPartner = partnerRepository.save(existingPartner);
+        if (renamed) {
+            orderViewService.partnerRenamed(id, updatedPartner.getName()); // o nome vai desnormalizado nos documentos dos pedidos
+            orderArchiveService.partnerRenamed(id, updatedPartner.getName());
+        }
         return toDTO(updatedPartner);
     }
 
     @Transactional
     public void deletePartner(Long id) {
+        shardRouter.bindPartner(id);
         if (!partnerRepository.existsById(id)) {
             throw new ResourceNotFoundException("Parceiro não encontrado com ID: " + id);
         }
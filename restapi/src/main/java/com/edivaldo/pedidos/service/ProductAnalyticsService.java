@@ -0,0 +1,42 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.analytics.AnalyticsProperties;
+import com.edivaldo.pedidos.dto.ProductSalesDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.enums.ProductSalesMetric;
+import com.edivaldo.pedidos.enums.RollupGranularity;
+import com.edivaldo.pedidos.repository.ProductSalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Consultas de vendas por produto, servidas só a partir de product_sales_rollup.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductAnalyticsService {
+
+    private final ProductSalesRollupRepository rollupRepository;
+    private final AnalyticsProperties properties;
+
+    /**
+     * Ranking dos produtos por bucket (hora ou dia) no período [startDate, endDate).
+     * Sem período: últimas 24 horas para HOUR e últimos 7 dias para DAY. O limite é restrito a
+     * {@code app.analytics.max-limit}.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> topProducts(RollupGranularity granularity, LocalDateTime startDate, LocalDateTime endDate,
+                                             Long partnerId, OrderStatus status, ProductSalesMetric metric, int limit) {
+        LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+        LocalDateTime from = startDate != null ? startDate
+                : granularity == RollupGranularity.HOUR ? to.minusHours(24).truncatedTo(ChronoUnit.HOURS)
+                : to.minusDays(7).truncatedTo(ChronoUnit.DAYS);
+        int boundedLimit = Math.max(1, Math.min(limit, properties.getMaxLimit()));
+        return rollupRepository.topProducts(granularity, from, to, partnerId, status, metric, boundedLimit);
+    }
+}
@@ -0,0 +1,51 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.analytics.AnalyticsProperties;
+import com.edivaldo.pedidos.repository.ProductSalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mantém product_sales_rollup de forma incremental.
+ * <p>
+ * A cada execução busca, pelo índice em orders.updated_at, os pedidos alterados desde a marca d'água (menos a
+ * janela de sobreposição), recalcula as horas de criação afetadas de cada parceiro e os dias que as contêm, e
+ * avança a marca d'água para o maior updated_at lido. Tudo numa transação: o rollup e a marca d'água avançam
+ * juntos ou não avançam.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.analytics.rollup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSalesRollupJob {
+
+    private final ProductSalesRollupRepository rollupRepository;
+    private final AnalyticsProperties properties;
+
+    @Scheduled(fixedDelayString = "${app.analytics.rollup.interval-ms:60000}",
+            initialDelayString = "${app.analytics.rollup.interval-ms:60000}")
+    @Transactional
+    public void refresh() {
+        if (!rollupRepository.tryLock()) {
+            log.debug("Rollup de vendas por produto em execução em outra instância");
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDateTime watermark = rollupRepository.watermark();
+        int pairs = rollupRepository.collectAffected(watermark.minus(properties.getRollup().getOverlap()));
+        if (pairs == 0) {
+            return;
+        }
+        int[] rows = rollupRepository.recomputeAffected();
+        LocalDateTime highWater = rollupRepository.maxAffectedUpdatedAt();
+        rollupRepository.advanceWatermark(highWater);
+        log.debug("Rollup de vendas por produto: {} pares (hora, parceiro), {} linhas por hora, {} por dia, marca d'água {} ({} ms)",
+                pairs, rows[0], rows[1], highWater, (System.nanoTime() - start) / 1_000_000);
+    }
+}
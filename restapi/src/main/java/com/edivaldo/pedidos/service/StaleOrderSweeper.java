@@ -0,0 +1,128 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.sweeper.StaleOrderProperties;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.repository.StaleOrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cancela pedidos PENDENTE criados há mais de {@code app.stale-orders.max-age}, em lotes de um único comando
+ * (ver {@link StaleOrderRepository}), e envia a mesma notificação do cancelamento manual para cada um, depois do
+ * commit do lote. Pode rodar nas duas réplicas ao mesmo tempo.
+ * <p>
+ * Controle de carga: antes de cada lote o job verifica quantas sessões estão ativas no banco e, acima de
+ * {@code max-active-sessions}, deixa o resto para a próxima execução. O tamanho do lote é ajustado pela duração
+ * do anterior (metade quando passa de {@code target-batch-duration}, crescimento gradual quando fica abaixo), e
+ * entre lotes o job espera proporcionalmente ao tempo gasto ({@code duty-cycle}). Métricas:
+ * <ul>
+ *   <li>{@code app.stale-orders.cancelled}: pedidos cancelados;</li>
+ *   <li>{@code app.stale-orders.batch}: duração de cada lote;</li>
+ *   <li>{@code app.stale-orders.batch.size}: tamanho do lote atual;</li>
+ *   <li>{@code app.stale-orders.throttled}: execuções interrompidas por carga no banco.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.stale-orders", name = "enabled", havingValue = "true")
+@Slf4j
+public class StaleOrderSweeper {
+
+    private final StaleOrderRepository repository;
+    private final NotificationService notificationService;
+    private final StaleOrderProperties properties;
+    private final Counter cancelledOrders;
+    private final Counter throttledRuns;
+    private final Timer batchTimer;
+    private final AtomicInteger batchSize;
+
+    public StaleOrderSweeper(StaleOrderRepository repository, NotificationService notificationService,
+                             StaleOrderProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.notificationService = notificationService;
+        this.properties = properties;
+        this.batchSize = new AtomicInteger(properties.getBatchSize());
+        this.cancelledOrders = Counter.builder("app.stale-orders.cancelled")
+                .description("Pedidos PENDENTE cancelados por abandono")
+                .register(meterRegistry);
+        this.throttledRuns = Counter.builder("app.stale-orders.throttled")
+                .description("Execuções interrompidas por carga no banco")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("app.stale-orders.batch")
+                .description("Duração de cada lote de cancelamento")
+                .register(meterRegistry);
+        Gauge.builder("app.stale-orders.batch.size", batchSize, AtomicInteger::get)
+                .description("Tamanho do lote de cancelamento, ajustado pela duração dos lotes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.stale-orders.interval-ms:60000}", initialDelayString = "${app.stale-orders.interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getMaxAge());
+        long total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int activeSessions = repository.activeSessions();
+            if (activeSessions > properties.getMaxActiveSessions()) {
+                throttledRuns.increment();
+                log.debug("Varredura de pedidos abandonados adiada: {} sessões ativas no banco", activeSessions);
+                break;
+            }
+            int limit = batchSize.get();
+            long start = System.nanoTime();
+            List<Long> cancelled = repository.cancelBatch(cutoff, LocalDateTime.now(), limit);
+            long elapsedNanos = System.nanoTime() - start;
+            batchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            cancelledOrders.increment(cancelled.size());
+            total += cancelled.size();
+            // O lote já foi confirmado: a notificação nunca fala de um cancelamento desfeito
+            cancelled.forEach(id -> notificationService.notifyOrderStatusChange(id, OrderStatus.PENDENTE, OrderStatus.CANCELADO));
+            adjustBatchSize(elapsedNanos);
+            if (cancelled.size() < limit || !pause(elapsedNanos)) {
+                break; // acabaram os candidatos (ou os restantes estão bloqueados por outra réplica)
+            }
+        }
+        if (total > 0) {
+            log.info("{} pedidos PENDENTE criados antes de {} cancelados por abandono", total, cutoff);
+        }
+    }
+
+    private void adjustBatchSize(long elapsedNanos) {
+        int max = Math.max(1, properties.getBatchSize());
+        int min = Math.max(1, Math.min(properties.getMinBatchSize(), max));
+        int current = batchSize.get();
+        if (elapsedNanos > properties.getTargetBatchDuration().toNanos()) {
+            batchSize.set(Math.max(min, current / 2));
+        } else {
+            batchSize.set(Math.min(max, current + Math.max(1, max / 10)));
+        }
+    }
+
+    /**
+     * Espera o suficiente para que os lotes ocupem só {@code duty-cycle} do tempo.
+     * @return {@code false} se a thread foi interrompida.
+     */
+    private boolean pause(long elapsedNanos) {
+        double dutyCycle = properties.getDutyCycle();
+        if (dutyCycle >= 1 || dutyCycle <= 0) {
+            return true;
+        }
+        long pauseMs = (long) (TimeUnit.NANOSECONDS.toMillis(elapsedNanos) * (1 - dutyCycle) / dutyCycle);
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
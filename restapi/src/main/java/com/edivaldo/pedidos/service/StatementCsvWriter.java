@@ -0,0 +1,106 @@
+package com.edivaldo.pedidos.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escreve linhas CSV num arquivo por meio de um FileChannel e de um buffer de tamanho fixo, reaproveitado
+ * entre os arquivos de uma mesma tarefa: a memória da escrita não depende da quantidade de linhas.
+ * Não é thread-safe; cada tarefa da geração tem o seu.
+ */
+class StatementCsvWriter implements Closeable {
+
+    private final ByteBuffer buffer;
+    private final StringBuilder line = new StringBuilder(256);
+    private FileChannel channel;
+    private long bytesWritten;
+
+    StatementCsvWriter(int bufferSize) {
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Fecha o arquivo atual, se houver, e passa a escrever em {@code file} (criado ou truncado).
+     */
+    void open(Path file) throws IOException {
+        close();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    void row(Object... values) throws IOException {
+        line.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendField(values[i]);
+        }
+        line.append('\n');
+        put(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                flush();
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void appendField(Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flush();
+        }
+        if (bytes.length > buffer.capacity()) {
+            write(ByteBuffer.wrap(bytes)); // linha maior que o buffer inteiro: escreve direto
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            bytesWritten += channel.write(source);
+        }
+    }
+}
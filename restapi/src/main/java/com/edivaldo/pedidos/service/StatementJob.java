@@ -0,0 +1,274 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.statements.StatementProperties;
+import com.edivaldo.pedidos.dto.PartnerDTO;
+import com.edivaldo.pedidos.dto.StatementProgressDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.repository.CreditReconciliationRepository;
+import com.edivaldo.pedidos.repository.StatementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gera os extratos mensais dos parceiros: um CSV por parceiro com os pedidos criados no período e um
+ * {@code summary.csv} com os totais por status e o crédito de cada um.
+ * <p>
+ * A lista de parceiros é dividida em faixas por um {@link RecursiveAction} num ForkJoinPool próprio com
+ * {@code app.statements.parallelism} threads. Cada tarefa folha percorre os pedidos de um parceiro por vez
+ * com cursor (transação somente leitura, atendida pela réplica quando habilitada) e escreve com um buffer fixo
+ * num FileChannel, de modo que a memória por thread não depende do volume do parceiro.
+ * <p>
+ * Não há razão de crédito no esquema: o extrato traz o crédito comprometido pelos pedidos do período
+ * (status que debitaram o limite, os mesmos da reconciliação: {@link CreditReconciliationRepository#COMMITTED_STATUSES})
+ * e o saldo atual do parceiro.
+ */
+@Service
+@Slf4j
+public class StatementJob {
+
+    private final StatementRepository statementRepository;
+    private final StatementProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    public StatementJob(StatementRepository statementRepository, StatementProperties properties,
+                        PlatformTransactionManager transactionManager) {
+        this.statementRepository = statementRepository;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${app.statements.cron:-}")
+    public void generatePreviousMonth() {
+        start(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Inicia a geração do período em segundo plano e retorna logo.
+     * @throws IllegalStateException se já houver uma geração em andamento.
+     */
+    public StatementProgressDTO start(YearMonth period) {
+        Run previous = current.get();
+        Run run = new Run(period, Paths.get(properties.getOutputDir(), period.toString()));
+        if ((previous != null && previous.state == State.RUNNING) || !current.compareAndSet(previous, run)) {
+            throw new IllegalStateException("Geração de extratos já em andamento");
+        }
+        Thread coordinator = new Thread(() -> execute(run), "statement-job-" + period);
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return run.progress();
+    }
+
+    /**
+     * Progresso da geração atual ou da última concluída; {@code null} se nenhuma foi iniciada.
+     */
+    public StatementProgressDTO progress() {
+        Run run = current.get();
+        return run != null ? run.progress() : null;
+    }
+
+    private void execute(Run run) {
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism(), workerFactory(), null, false);
+        try {
+            Files.createDirectories(run.dir);
+            List<PartnerDTO> partners = statementRepository.findPartners();
+            run.partnersTotal = partners.size();
+            log.info("Gerando extratos de {} para {} parceiros em {}", run.period, partners.size(), run.dir);
+
+            Object[][] summaries = new Object[partners.size()][];
+            pool.invoke(new PartnerRangeTask(run, partners, summaries, 0, partners.size()));
+            writeSummary(run, summaries);
+
+            run.finish(State.COMPLETED, null);
+            StatementProgressDTO progress = run.progress();
+            log.info("Extratos de {} gerados: {} parceiros, {} pedidos em {} ms ({} pedidos/s)", run.period,
+                    progress.getPartnersDone(), progress.getOrdersWritten(), progress.getElapsedMs(),
+                    Math.round(progress.getOrdersPerSecond()));
+        } catch (RuntimeException | IOException e) {
+            run.finish(State.FAILED, e.toString());
+            log.error("Falha na geração dos extratos de {}", run.period, e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ForkJoinPool.ForkJoinWorkerThreadFactory workerFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("statement-" + counter.incrementAndGet());
+            return thread;
+        };
+    }
+
+    private void writeSummary(Run run, Object[][] summaries) throws IOException {
+        try (StatementCsvWriter writer = new StatementCsvWriter((int) properties.getBufferSize().toBytes())) {
+            writer.open(run.dir.resolve("summary.csv"));
+            List<Object> header = new ArrayList<>(List.of("parceiro_id", "parceiro", "limite_credito", "credito_atual",
+                    "credito_comprometido", "pedidos", "valor_total"));
+            for (OrderStatus status : OrderStatus.values()) {
+                header.add("pedidos_" + status.name().toLowerCase());
+                header.add("valor_" + status.name().toLowerCase());
+            }
+            writer.row(header.toArray());
+            for (Object[] summary : summaries) {
+                writer.row(summary);
+            }
+            writer.close();
+            run.bytes.add(writer.bytesWritten());
+        }
+    }
+
+    /**
+     * Escreve o extrato de um parceiro e devolve a linha dele no summary.csv.
+     */
+    private Object[] writeStatement(Run run, PartnerDTO partner, StatementCsvWriter writer) throws IOException {
+        Map<OrderStatus, long[]> counts = new EnumMap<>(OrderStatus.class);
+        Map<OrderStatus, BigDecimal> values = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, new long[1]);
+            values.put(status, BigDecimal.ZERO);
+        }
+
+        writer.open(run.dir.resolve("partner-" + partner.getId() + ".csv"));
+        writer.row("pedido_id", "criado_em", "atualizado_em", "status", "itens", "valor_total");
+        readOnlyTransaction.executeWithoutResult(tx ->
+                statementRepository.streamOrders(partner.getId(), run.from, run.to, rs -> {
+                    OrderStatus status = OrderStatus.valueOf(rs.getString("status"));
+                    BigDecimal total = rs.getBigDecimal("total_value");
+                    try {
+                        writer.row(rs.getLong("id"), rs.getObject("created_at", LocalDateTime.class),
+                                rs.getObject("updated_at", LocalDateTime.class), status, rs.getInt("items"), total);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    counts.get(status)[0]++;
+                    values.merge(status, total, BigDecimal::add);
+                }));
+
+        long orders = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        BigDecimal committed = BigDecimal.ZERO;
+        List<Object> summary = new ArrayList<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            orders += counts.get(status)[0];
+            totalValue = totalValue.add(values.get(status));
+            if (CreditReconciliationRepository.COMMITTED_STATUSES.contains(status)) {
+                committed = committed.add(values.get(status));
+            }
+            summary.add(counts.get(status)[0]);
+            summary.add(values.get(status));
+        }
+        run.orders.add(orders);
+        summary.addAll(0, List.of(partner.getId(), partner.getName(), partner.getCreditLimit(), partner.getCurrentCredit(),
+                committed, orders, totalValue));
+        return summary.toArray();
+    }
+
+    /**
+     * Divide a faixa [from, to) da lista de parceiros ao meio até {@code partners-per-task} parceiros.
+     */
+    private class PartnerRangeTask extends RecursiveAction {
+
+        private final Run run;
+        private final List<PartnerDTO> partners;
+        private final Object[][] summaries;
+        private final int from;
+        private final int to;
+
+        PartnerRangeTask(Run run, List<PartnerDTO> partners, Object[][] summaries, int from, int to) {
+            this.run = run;
+            this.partners = partners;
+            this.summaries = summaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > Math.max(1, properties.getPartnersPerTask())) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PartnerRangeTask(run, partners, summaries, from, middle),
+                        new PartnerRangeTask(run, partners, summaries, middle, to));
+                return;
+            }
+            try (StatementCsvWriter writer = new StatementCsvWriter((int) properties.getBufferSize().toBytes())) {
+                for (int i = from; i < to; i++) {
+                    summaries[i] = writeStatement(run, partners.get(i), writer);
+                    run.partnersDone.increment();
+                }
+                writer.close();
+                run.bytes.add(writer.bytesWritten());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private static final class Run {
+
+        final YearMonth period;
+        final Path dir;
+        final LocalDateTime from;
+        final LocalDateTime to;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final LongAdder partnersDone = new LongAdder();
+        final LongAdder orders = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        volatile int partnersTotal;
+        volatile State state = State.RUNNING;
+        volatile String error;
+        volatile long endNanos;
+
+        Run(YearMonth period, Path dir) {
+            this.period = period;
+            this.dir = dir;
+            this.from = period.atDay(1).atStartOfDay();
+            this.to = period.plusMonths(1).atDay(1).atStartOfDay();
+        }
+
+        void finish(State finalState, String failure) {
+            endNanos = System.nanoTime();
+            error = failure;
+            state = finalState;
+        }
+
+        StatementProgressDTO progress() {
+            State snapshot = state;
+            long elapsedNanos = (snapshot == State.RUNNING ? System.nanoTime() : endNanos) - startNanos;
+            double seconds = Math.max(elapsedNanos, 1) / 1e9;
+            long done = partnersDone.sum();
+            long written = orders.sum();
+            return new StatementProgressDTO(period.toString(), snapshot.name(), dir.toString(), partnersTotal, (int) done,
+                    written, bytes.sum(), startedAt, elapsedNanos / 1_000_000, written / seconds, done / seconds, error);
+        }
+    }
+}
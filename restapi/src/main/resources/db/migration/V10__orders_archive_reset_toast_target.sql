@@ -0,0 +1,5 @@
+-- toast_tuple_target não reduz o limiar (~2KB por linha) a partir do qual o TOAST comprime: só define até onde
+-- a linha é reduzida depois que esse limiar é passado. Medido no Postgres 13: um documento de 10 itens ocupa
+-- ~1,1KB e fica sem compressão com ou sem o ajuste do V6; só pedidos com ~20 itens ou mais passam do limiar. O
+-- arquivo guarda os documentos como estão, e o ajuste sem efeito sai. fillfactor = 100 continua (só há INSERT).
+ALTER TABLE orders_archive RESET (toast_tuple_target);
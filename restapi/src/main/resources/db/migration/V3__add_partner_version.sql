@@ -0,0 +1,6 @@
+-- Coluna de versão do lock otimista de Partner (@Version), antes criada apenas pelo ddl-auto: update.
+-- Com o perfil prod (ddl-auto: none) o esquema passa a vir só do Flyway.
+ALTER TABLE partners ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE partners SET version = 0 WHERE version IS NULL;
+ALTER TABLE partners ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE partners ALTER COLUMN version SET NOT NULL;
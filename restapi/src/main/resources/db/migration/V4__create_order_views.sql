@@ -0,0 +1,37 @@
+-- Modelo de leitura dos pedidos: o OrderResponseDTO pronto, em JSONB, mantido na mesma transação das escritas
+-- (OrderViewService). As colunas fora do documento existem só para os filtros das consultas.
+CREATE TABLE order_views (
+    order_id BIGINT PRIMARY KEY,
+    partner_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    document JSONB NOT NULL,
+    CONSTRAINT fk_order_view_order
+        FOREIGN KEY(order_id)
+        REFERENCES orders(id)
+        ON DELETE CASCADE
+);
+
+-- As consultas devolvem em ordem de pedido dentro de cada filtro
+CREATE INDEX idx_order_views_partner_id ON order_views (partner_id, order_id);
+CREATE INDEX idx_order_views_status ON order_views (status, order_id);
+CREATE INDEX idx_order_views_created_at ON order_views (created_at);
+
+-- Carga inicial; mesmo documento gerado por OrderViewRepository (rebuild e verificação de consistência)
+INSERT INTO order_views (order_id, partner_id, status, created_at, document)
+SELECT o.id, o.partner_id, o.status, o.created_at,
+       jsonb_build_object(
+           'id', o.id,
+           'partnerId', o.partner_id,
+           'partnerName', p.name,
+           'items', COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                                         'product', i.product,
+                                         'quantity', i.quantity,
+                                         'unitPrice', i.unit_price) ORDER BY i.id)
+                              FROM order_items i WHERE i.order_id = o.id), '[]'::jsonb),
+           'totalValue', o.total_value,
+           'status', o.status,
+           'createdAt', o.created_at,
+           'updatedAt', o.updated_at)
+FROM orders o
+JOIN partners p ON p.id = o.partner_id;
@@ -0,0 +1,28 @@
+-- Vendas por produto agregadas por hora e por dia (bucket = created_at truncado), parceiro e status do pedido.
+-- Mantida de forma incremental pelo ProductSalesRollupJob; as consultas de /api/analytics/products leem só daqui.
+CREATE TABLE product_sales_rollup (
+    granularity VARCHAR(4) NOT NULL, -- HOUR ou DAY
+    bucket_start TIMESTAMP NOT NULL,
+    partner_id BIGINT NOT NULL,
+    product VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    quantity BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    order_count INTEGER NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, partner_id, product, status)
+);
+
+-- Consultas filtradas por parceiro
+CREATE INDEX idx_product_sales_rollup_partner ON product_sales_rollup (granularity, partner_id, bucket_start);
+
+-- Marca d'água (maior orders.updated_at já agregado) de cada job incremental
+CREATE TABLE rollup_watermarks (
+    name VARCHAR(100) PRIMARY KEY,
+    high_water TIMESTAMP NOT NULL
+);
+
+INSERT INTO rollup_watermarks (name, high_water) VALUES ('product_sales', TIMESTAMP '1970-01-01 00:00:00');
+
+-- O job busca só os pedidos alterados desde a marca d'água e recalcula as horas afetadas de cada parceiro
+CREATE INDEX idx_orders_updated_at ON orders (updated_at);
+CREATE INDEX idx_orders_partner_id_created_at ON orders (partner_id, created_at);
@@ -0,0 +1,20 @@
+-- Pedidos em status final (ENTREGUE, CANCELADO) mais antigos que app.archive.retention saem de orders/order_items
+-- e ficam aqui, um documento JSONB por pedido (mesmo formato de order_views), gravado pelo OrderArchiveJob.
+CREATE TABLE orders_archive (
+    order_id BIGINT PRIMARY KEY,
+    partner_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT now(),
+    document JSONB NOT NULL
+);
+
+-- Comprime (TOAST/pglz) documentos a partir de ~256 bytes, em vez do padrão de ~2KB, e a tabela só recebe INSERT
+ALTER TABLE orders_archive SET (toast_tuple_target = 256, fillfactor = 100);
+
+CREATE INDEX idx_orders_archive_partner_id ON orders_archive (partner_id, created_at);
+CREATE INDEX idx_orders_archive_status ON orders_archive (status, order_id);
+CREATE INDEX idx_orders_archive_created_at ON orders_archive (created_at);
+
+-- Índice parcial com só os candidatos ao arquivamento: pequeno, e o job não percorre idx_orders_status
+CREATE INDEX idx_orders_archivable ON orders (updated_at) WHERE status IN ('ENTREGUE', 'CANCELADO');
@@ -0,0 +1,11 @@
+-- Reconciliação de crédito (CreditReconciliationService): soma total_value por parceiro e status numa faixa de
+-- parceiros. Com total_value no índice a soma sai de um index-only scan, sem visitar o heap de orders.
+CREATE INDEX idx_orders_partner_status_value ON orders (partner_id, status) INCLUDE (total_value);
+
+-- O arquivo também entra na soma (pedidos ENTREGUE continuam comprometendo o crédito). O valor sai do documento
+-- para uma coluna própria, para não descomprimir o JSONB de cada pedido arquivado.
+ALTER TABLE orders_archive ADD COLUMN total_value DECIMAL(10, 2);
+UPDATE orders_archive SET total_value = (document->>'totalValue')::numeric;
+ALTER TABLE orders_archive ALTER COLUMN total_value SET NOT NULL;
+
+CREATE INDEX idx_orders_archive_partner_status_value ON orders_archive (partner_id, status) INCLUDE (total_value);
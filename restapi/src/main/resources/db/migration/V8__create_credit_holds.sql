@@ -0,0 +1,16 @@
+-- Retenções de crédito (CreditHoldService): o valor de um pedido PENDENTE sai do crédito do parceiro na criação
+-- e volta quando a retenção expira sem que o pedido tenha sido aprovado. Uma linha por pedido; a aprovação ou o
+-- cancelamento apagam a linha na mesma transação da mudança de status.
+CREATE TABLE credit_holds (
+    order_id BIGINT PRIMARY KEY REFERENCES orders (id),
+    partner_id BIGINT NOT NULL REFERENCES partners (id),
+    amount DECIMAL(10, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Varredura de retenções órfãs (expiradas há mais que a tolerância, sem instância que as tenha na roda)
+CREATE INDEX idx_credit_holds_expires_at ON credit_holds (expires_at);
+
+-- Reconciliação de crédito: soma das retenções por faixa de parceiro num index-only scan
+CREATE INDEX idx_credit_holds_partner_amount ON credit_holds (partner_id) INCLUDE (amount);
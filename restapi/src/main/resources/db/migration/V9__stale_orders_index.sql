@@ -0,0 +1,3 @@
+-- Varredura de pedidos PENDENTE abandonados (StaleOrderSweeper): índice parcial só com os pendentes, em ordem de
+-- criação. Fica do tamanho do backlog de pendentes e a varredura não percorre idx_orders_status.
+CREATE INDEX idx_orders_pending_created_at ON orders (created_at) WHERE status = 'PENDENTE';
@@ -0,0 +1,110 @@
+package com.edivaldo.pedidos.config;
+
+import com.edivaldo.pedidos.dto.OrderItemDTO;
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara JSON, CBOR (STRINGREF) e Smile (nomes e valores compartilhados) para uma resposta
+ * de GET /api/orders com 10 mil pedidos: tamanho do payload (puro e com gzip) e CPU de serialização.
+ * O teste de ida e volta roda no build padrão; a medição, com mvn -f restapi/pom.xml test -Pbenchmark.
+ */
+class BinaryFormatsBenchmarkTest {
+
+    private static final int ORDERS = 10_000;
+    private static final TypeReference<List<OrderResponseDTO>> ORDER_LIST = new TypeReference<>() { };
+
+    private static Map<String, ObjectMapper> mappers() {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        mappers.put("cbor", BinaryFormatsConfig.cborMapper(Jackson2ObjectMapperBuilder.json()));
+        mappers.put("smile", BinaryFormatsConfig.smileMapper(Jackson2ObjectMapperBuilder.json()));
+        return mappers;
+    }
+
+    private static List<OrderResponseDTO> orders() {
+        List<OrderResponseDTO> orders = new ArrayList<>(ORDERS);
+        LocalDateTime base = LocalDateTime.of(2024, 5, 1, 8, 0);
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < ORDERS; i++) {
+            long partnerId = 1 + i % 50;
+            List<OrderItemDTO> items = List.of(
+                    new OrderItemDTO("produto-" + (i % 200), 1 + i % 10, BigDecimal.valueOf(10 + i % 90, 0)),
+                    new OrderItemDTO("produto-" + ((i + 7) % 200), 2, new BigDecimal("4.50")));
+            orders.add(new OrderResponseDTO((long) i + 1, partnerId, "Parceiro Comercial " + partnerId, items,
+                    new BigDecimal("123.45"), statuses[i % statuses.length],
+                    base.plusMinutes(i), base.plusMinutes(i + 30)));
+        }
+        return orders;
+    }
+
+    @Test
+    void roundTrip_ShouldPreserveOrders_AndBinaryFormatsShouldBeSmaller() throws IOException {
+        List<OrderResponseDTO> orders = orders().subList(0, 500);
+        int jsonSize = 0;
+        for (Map.Entry<String, ObjectMapper> entry : mappers().entrySet()) {
+            byte[] payload = entry.getValue().writeValueAsBytes(orders);
+            List<OrderResponseDTO> decoded = entry.getValue().readValue(payload, ORDER_LIST);
+            assertEquals(orders, decoded, entry.getKey());
+            if (entry.getKey().equals("json")) {
+                jsonSize = payload.length;
+            } else {
+                assertTrue(payload.length < jsonSize, entry.getKey() + " deveria ser menor que JSON");
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void payloadSizeAndSerializationCpu() throws IOException {
+        List<OrderResponseDTO> orders = orders();
+        System.out.printf("%-6s %12s %12s %14s %14s%n", "", "bytes", "gzip", "serializar ms", "desserializar ms");
+        for (Map.Entry<String, ObjectMapper> entry : mappers().entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] payload = null;
+            for (int i = 0; i < 20; i++) { // aquecimento do JIT
+                payload = mapper.writeValueAsBytes(orders);
+                mapper.readValue(payload, ORDER_LIST);
+            }
+            int iterations = 30;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                payload = mapper.writeValueAsBytes(orders);
+            }
+            double writeMs = (System.nanoTime() - start) / 1e6 / iterations;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                mapper.readValue(payload, ORDER_LIST);
+            }
+            double readMs = (System.nanoTime() - start) / 1e6 / iterations;
+            System.out.printf("%-6s %,12d %,12d %14.2f %14.2f%n", entry.getKey(), payload.length, gzipSize(payload), writeMs, readMs);
+        }
+    }
+
+    private static int gzipSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.edivaldo.pedidos.config.aot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários de BuildTimeFlags e BuildTimeFlagsGuard.
+ */
+class BuildTimeFlagsTest {
+
+    @Test
+    void flags_ShouldCoverEveryConditionalOnPropertyOfTheApplication() throws Exception {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((reader, factory) -> true);
+        List<AnnotatedElement> elements = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents("com.edivaldo.pedidos")) {
+            Class<?> type = ClassUtils.forName(candidate.getBeanClassName(), getClass().getClassLoader());
+            elements.add(type);
+            elements.addAll(List.of(type.getDeclaredMethods()));
+        }
+
+        int conditions = 0;
+        for (AnnotatedElement element : elements) {
+            ConditionalOnProperty condition = element.getAnnotation(ConditionalOnProperty.class);
+            if (condition == null) {
+                continue;
+            }
+            conditions++;
+            for (String name : condition.name()) {
+                String key = condition.prefix().isEmpty() ? name : condition.prefix() + "." + name;
+                assertTrue(BuildTimeFlags.FLAGS.containsKey(key), key + " (" + element + ") falta em BuildTimeFlags.FLAGS");
+                // Sem a propriedade, a condição casa se matchIfMissing; o valor assumido tem de concordar com ela
+                boolean missingMatches = Boolean.parseBoolean(condition.havingValue()) == BuildTimeFlags.FLAGS.get(key);
+                assertEquals(condition.matchIfMissing(), missingMatches, key + " (" + element + ")");
+            }
+        }
+        assertTrue(conditions >= BuildTimeFlags.FLAGS.size());
+    }
+
+    @Test
+    void resolve_ShouldUseTheMissingValueAndIgnoreCase() {
+        MockEnvironment environment = new MockEnvironment().withProperty("app.sharding.enabled", "TRUE");
+
+        assertEquals("true", BuildTimeFlags.resolve(environment).get("app.sharding.enabled"));
+        assertEquals("true", BuildTimeFlags.resolve(environment).get("app.archive.enabled"));
+        assertEquals("false", BuildTimeFlags.resolve(environment).get("app.stale-orders.enabled"));
+    }
+
+    @Test
+    void check_ShouldFail_WhenRuntimeValueDiffersFromTheAotBuild() {
+        Properties buildTime = new Properties();
+        buildTime.setProperty("app.sharding.enabled", "false");
+        buildTime.setProperty("app.archive.enabled", "true");
+        BuildTimeFlagsGuard guard = new BuildTimeFlagsGuard(new MockEnvironment()
+                .withProperty("app.sharding.enabled", "true"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> guard.check(buildTime));
+        assertTrue(error.getMessage().contains("app.sharding.enabled (build: false, execução: true)"), error.getMessage());
+        assertFalse(error.getMessage().contains("app.archive.enabled"));
+    }
+
+    @Test
+    void check_ShouldPass_WhenRuntimeMatchesTheAotBuild() {
+        Properties buildTime = new Properties();
+        buildTime.setProperty("app.sharding.enabled", "false");
+        buildTime.setProperty("app.locks.sampler.enabled", "true");
+
+        assertDoesNotThrow(() -> new BuildTimeFlagsGuard(new MockEnvironment()
+                .withProperty("app.locks.sampler.enabled", "True")).check(buildTime));
+    }
+}
@@ -0,0 +1,44 @@
+package com.edivaldo.pedidos.config.cache;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o cálculo da taxa de acerto do cache de segundo nível.
+ */
+class HibernateCacheMetricsTest {
+
+    @Test
+    void hitRatio_ShouldDivideHitsByRequests() {
+        Statistics statistics = mock(Statistics.class);
+        CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+        when(statistics.getDomainDataRegionStatistics(CacheRegions.ORDER_ITEMS)).thenReturn(region);
+        when(region.getHitCount()).thenReturn(90L);
+        when(region.getMissCount()).thenReturn(10L);
+
+        assertEquals(0.9, HibernateCacheMetrics.hitRatio(statistics, CacheRegions.ORDER_ITEMS), 1e-9);
+    }
+
+    @Test
+    void hitRatio_ShouldBeNaN_WithoutRequests() {
+        Statistics statistics = mock(Statistics.class);
+        when(statistics.getDomainDataRegionStatistics(CacheRegions.ORDER_ITEMS)).thenReturn(mock(CacheRegionStatistics.class));
+
+        assertTrue(Double.isNaN(HibernateCacheMetrics.hitRatio(statistics, CacheRegions.ORDER_ITEMS)));
+    }
+
+    @Test
+    void hitRatio_ShouldBeNaN_WhenRegionDoesNotExist() {
+        Statistics statistics = mock(Statistics.class);
+        when(statistics.getDomainDataRegionStatistics(CacheRegions.ORDER_ITEMS))
+                .thenThrow(new IllegalArgumentException("Unknown cache region"));
+
+        assertTrue(Double.isNaN(HibernateCacheMetrics.hitRatio(statistics, CacheRegions.ORDER_ITEMS)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.edivaldo.pedidos.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testes unitários para a escolha de DataSource do ReplicaRoutingDataSource.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource.Replica replica0;
+    private ReplicaRoutingDataSource.Replica replica1;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        replica0 = new ReplicaRoutingDataSource.Replica("replica-0", mock(DataSource.class));
+        replica1 = new ReplicaRoutingDataSource.Replica("replica-1", mock(DataSource.class));
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(replica0, replica1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void determineCurrentLookupKey_ShouldUsePrimary_WhenTransactionIsNotReadOnly() {
+        replica0.update(true, Duration.ZERO);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_ShouldUseHealthyReplica_WhenTransactionIsReadOnly() {
+        replica0.update(false, null);
+        replica1.update(true, Duration.ofMillis(100));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Réplica 0 está fora do pool, então todas as leituras vão para a réplica 1
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_ShouldFallbackToPrimary_WhenNoReplicaIsHealthy() {
+        replica0.update(false, Duration.ofMinutes(1));
+        replica1.update(false, null);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+}
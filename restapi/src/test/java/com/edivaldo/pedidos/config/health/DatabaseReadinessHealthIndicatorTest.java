@@ -0,0 +1,95 @@
+package com.edivaldo.pedidos.config.health;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o DatabaseReadinessHealthIndicator (verificação em segundo plano e resposta em cache).
+ */
+@ExtendWith(MockitoExtension.class)
+class DatabaseReadinessHealthIndicatorTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    private HealthProbeProperties properties;
+    private DatabaseReadinessHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HealthProbeProperties();
+        properties.setCheckInterval(Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (indicator != null) {
+            indicator.destroy();
+        }
+    }
+
+    private void awaitStatus(Status expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!expected.equals(indicator.health().getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, indicator.health().getStatus());
+    }
+
+    @Test
+    void health_ShouldBeUp_WhenConnectionIsValid() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        indicator = new DatabaseReadinessHealthIndicator(dataSource, properties);
+        indicator.afterPropertiesSet();
+
+        awaitStatus(Status.UP);
+        assertTrue(indicator.isUp());
+    }
+
+    @Test
+    void health_ShouldBeDown_WhenConnectionFails() throws Exception {
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+        indicator = new DatabaseReadinessHealthIndicator(dataSource, properties);
+        indicator.afterPropertiesSet();
+
+        awaitStatus(Status.DOWN);
+    }
+
+    @Test
+    void health_ShouldReturnImmediately_AndTurnDown_WhenCheckIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            release.await(); // banco sem responder
+            return connection;
+        });
+        properties.setStaleAfter(Duration.ofMillis(100));
+        indicator = new DatabaseReadinessHealthIndicator(dataSource, properties);
+        indicator.afterPropertiesSet();
+
+        long start = System.nanoTime();
+        indicator.health();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+        awaitStatus(Status.DOWN);
+        release.countDown();
+    }
+}
@@ -0,0 +1,154 @@
+package com.edivaldo.pedidos.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.util.Duration;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede o custo, na thread da requisição, de três formas de log, escrevendo em arquivo (syscalls reais,
+ * como o stdout de um container):
+ * <ul>
+ *   <li>5 x System.out.println por chamada (o antigo IsAlive);</li>
+ *   <li>logback síncrono com JSON (LogstashEncoder);</li>
+ *   <li>logback assíncrono com ring buffer e descarte quando cheio (configuração do logback-spring.xml).</li>
+ * </ul>
+ * Executar com: mvn -f restapi/pom.xml test -Pbenchmark
+ */
+@Tag("benchmark")
+class LoggingThroughputBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int EVENTS_PER_THREAD = 50_000;
+
+    private Path output;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        output = Files.createTempFile("log-benchmark", ".log");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Test
+    void systemOutPrintln() throws Exception {
+        try (PrintStream out = new PrintStream(new FileOutputStream(output.toFile()), true)) {
+            run("System.out.println x5", () -> {
+                for (int i = 0; i < 5; i++) {
+                    out.println("UP - Host: bench --- ON in port: 8080");
+                }
+            });
+        }
+    }
+
+    @Test
+    void synchronousJson() throws Exception {
+        LoggerContext context = new LoggerContext();
+        OutputStreamAppender<ILoggingEvent> file = fileAppender(context);
+        Logger logger = logger(context, file);
+        run("logback JSON síncrono", () -> logger.info("Pedido ID {} criado para o parceiro ID {}", 42L, 7L));
+        context.stop();
+    }
+
+    @Test
+    void asynchronousJson() throws Exception {
+        LoggerContext context = new LoggerContext();
+        LoggingEventAsyncDisruptorAppender async = new LoggingEventAsyncDisruptorAppender();
+        async.setContext(context);
+        async.setRingBufferSize(8192);
+        async.setAppendTimeout(Duration.buildByMilliseconds(0));
+        async.addAppender(fileAppender(context));
+        async.start();
+        Logger logger = logger(context, async);
+        run("logback JSON assíncrono", () -> logger.info("Pedido ID {} criado para o parceiro ID {}", 42L, 7L));
+        context.stop(); // esvazia o ring buffer antes de contar as linhas gravadas
+
+        long written;
+        try (var lines = Files.lines(output)) {
+            written = lines.count();
+        }
+        long emitted = (long) THREADS * EVENTS_PER_THREAD;
+        System.out.printf("  gravados: %d de %d (descartados: %d)%n", written, emitted, emitted - written);
+    }
+
+    private OutputStreamAppender<ILoggingEvent> fileAppender(LoggerContext context) throws IOException {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.setIncludeCallerData(false);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new FileOutputStream(output.toFile()));
+        appender.start();
+        return appender;
+    }
+
+    private Logger logger(LoggerContext context, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger("benchmark");
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private void run(String name, Runnable logCall) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        AtomicLong callerNanos = new AtomicLong();
+        for (int t = 0; t < THREADS; t++) {
+            String requestId = Integer.toHexString(t);
+            executor.execute(() -> {
+                MDC.put(LogContext.REQUEST_ID, requestId);
+                try {
+                    start.await();
+                    long begin = System.nanoTime();
+                    for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                        logCall.run();
+                    }
+                    callerNanos.addAndGet(System.nanoTime() - begin);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    MDC.clear();
+                    done.countDown();
+                }
+            });
+        }
+        long wallStart = System.nanoTime();
+        start.countDown();
+        done.await();
+        long wallNanos = System.nanoTime() - wallStart;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        long calls = (long) THREADS * EVENTS_PER_THREAD;
+        System.out.printf("%-24s %,12.0f chamadas/s   %,8.0f ns por chamada na thread da requisição%n",
+                name, calls / (wallNanos / 1e9), (double) callerNanos.get() / calls);
+    }
+}
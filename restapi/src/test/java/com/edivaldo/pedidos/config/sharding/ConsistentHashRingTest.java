@@ -0,0 +1,58 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários da distribuição de parceiros pelo anel e das faixas de IDs de pedido por shard.
+ */
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void shardFor_ShouldSpreadKeysEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(3, 128);
+        int[] counts = new int[3];
+        for (long partnerId = 1; partnerId <= KEYS; partnerId++) {
+            counts[ring.shardFor(partnerId)]++;
+        }
+        for (int count : counts) {
+            assertEquals(KEYS / 3.0, count, KEYS / 3.0 * 0.2, "distribuição desigual entre os shards");
+        }
+    }
+
+    @Test
+    void shardFor_ShouldOnlyMoveKeysToTheNewShard_WhenAShardIsAdded() {
+        ConsistentHashRing before = new ConsistentHashRing(2, 128);
+        ConsistentHashRing after = new ConsistentHashRing(3, 128);
+        int moved = 0;
+        for (long partnerId = 1; partnerId <= KEYS; partnerId++) {
+            int shard = after.shardFor(partnerId);
+            if (shard != before.shardFor(partnerId)) {
+                assertEquals(2, shard, "parceiro " + partnerId + " trocou entre shards antigos");
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 6 && moved < KEYS / 2, "movidos: " + moved);
+    }
+
+    @Test
+    void shardFor_ShouldAlwaysReturnShardZero_WithASingleShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(1, 128);
+        assertEquals(0, ring.shardFor(42));
+    }
+
+    @Test
+    void orderIdLayout_ShouldEncodeTheShardInTheId() {
+        assertEquals(1, OrderIdLayout.firstId(0));
+        assertEquals(0, OrderIdLayout.shardOf(1));
+        assertEquals(0, OrderIdLayout.shardOf(OrderIdLayout.lastId(0)));
+        assertEquals(1, OrderIdLayout.shardOf(OrderIdLayout.firstId(1)));
+        assertEquals(OrderIdLayout.lastId(0) + 1, OrderIdLayout.firstId(1));
+        // IDs continuam exatos como número em JSON (2^53)
+        assertTrue(OrderIdLayout.lastId(OrderIdLayout.MAX_SHARDS - 1) < 1L << 53);
+        assertThrows(IllegalArgumentException.class, () -> OrderIdLayout.shardOf(0));
+    }
+}
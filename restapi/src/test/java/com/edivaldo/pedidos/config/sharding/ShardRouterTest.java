@@ -0,0 +1,180 @@
+package com.edivaldo.pedidos.config.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários da escolha de shard do ShardRouter e da leitura intercalada de todos os shards.
+ */
+class ShardRouterTest {
+
+    private ShardRoutingDataSource routing;
+    private ShardRouter router;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        routing = new ShardRoutingDataSource(List.of(mock(DataSource.class), mock(DataSource.class)), 128);
+        ObjectProvider<ShardRoutingDataSource> routingProvider = mock(ObjectProvider.class);
+        when(routingProvider.getIfAvailable()).thenReturn(routing);
+        ObjectProvider<ShardingProperties> propertiesProvider = mock(ObjectProvider.class);
+        when(propertiesProvider.getIfAvailable(any())).thenReturn(new ShardingProperties());
+        router = new ShardRouter(routingProvider, propertiesProvider, mock(PlatformTransactionManager.class),
+                mock(DataSource.class));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ShardContext.set(null);
+        router.destroy();
+    }
+
+    @Test
+    void bindPartner_ShouldRouteTheTransactionToThePartnersShard_UntilItCompletes() {
+        long partnerId = partnerOnShard(1);
+
+        router.bindPartner(partnerId);
+
+        assertEquals(1, routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(0, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void bindOrder_ShouldUseTheShardEncodedInTheId() {
+        router.bindOrder(OrderIdLayout.firstId(1) + 10);
+        assertEquals(1, ShardContext.current());
+    }
+
+    @Test
+    void bindOrder_ShouldFallBackToShardZero_ForIdsOutsideAnyShard() {
+        router.bindOrder(OrderIdLayout.firstId(7));
+        assertEquals(0, ShardContext.current());
+    }
+
+    @Test
+    void bindPartner_ShouldReject_WhenTheTransactionIsAlreadyOnAnotherShard() {
+        router.bindPartner(partnerOnShard(0));
+        assertThrows(IllegalStateException.class, () -> router.bindPartner(partnerOnShard(1)));
+    }
+
+    @Test
+    void bindPartner_ShouldReject_OutsideATransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThrows(IllegalStateException.class, () -> router.bindPartner(1L));
+    }
+
+    @Test
+    void scatterStream_ShouldReadShardsInParallel_AndInterleaveTheCursorsInOrder() {
+        List<List<Integer>> rows = List.of(List.of(1, 4, 9), List.of(2, 3, 10, 11));
+        CountDownLatch bothReading = new CountDownLatch(2);
+        List<Integer> result = new ArrayList<>();
+
+        router.<Integer>scatterStream(shard -> {
+            bothReading.countDown();
+            awaitUninterruptibly(bothReading, "os shards não foram lidos em paralelo");
+            rows.get(ShardContext.current()).forEach(shard);
+        }, Comparator.naturalOrder(), result::add);
+
+        assertEquals(List.of(1, 2, 3, 4, 9, 10, 11), result);
+    }
+
+    @Test
+    void scatterStream_ShouldKeepEachCursorBounded_WhileTheSinkIsSlow() {
+        int rowsPerShard = ShardRouter.CURSOR_BUFFER * 4;
+        int[] maxAhead = {0};
+        int[] delivered = {0};
+        int[] read = new int[2];
+
+        router.<Integer>scatterStream(shard -> {
+            int current = ShardContext.current();
+            for (int i = 0; i < rowsPerShard; i++) {
+                synchronized (read) {
+                    read[current]++;
+                }
+                shard.accept(i * 2 + current);
+            }
+        }, Comparator.naturalOrder(), item -> {
+            delivered[0]++;
+            synchronized (read) {
+                maxAhead[0] = Math.max(maxAhead[0], read[0] + read[1] - delivered[0]);
+            }
+        });
+
+        assertEquals(rowsPerShard * 2, delivered[0]);
+        assertTrue(maxAhead[0] <= 2 * (ShardRouter.CURSOR_BUFFER + 2), "leitura à frente do cliente: " + maxAhead[0]);
+    }
+
+    @Test
+    void scatterStream_ShouldFail_WhenAnyShardFails_AndStopTheOthers() {
+        CountDownLatch otherStopped = new CountDownLatch(1);
+        Consumer<Consumer<Integer>> query = shard -> {
+            if (ShardContext.current() == 1) {
+                throw new IllegalArgumentException("shard 1 fora do ar");
+            }
+            try {
+                for (int i = 0; ; i++) {
+                    shard.accept(i); // sem fim: só para quando a leitura é cancelada
+                }
+            } finally {
+                otherStopped.countDown();
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class,
+                () -> router.scatterStream(query, Comparator.<Integer>naturalOrder(), item -> { }));
+        awaitUninterruptibly(otherStopped, "a leitura do shard 0 não foi cancelada");
+
+        // As threads devolvidas atendem a próxima consulta
+        assertEquals(List.of(1, 1, 2, 2), router.scatterGather(() -> List.of(2, 1), Comparator.<Integer>naturalOrder()));
+    }
+
+    @Test
+    void scatterGather_ShouldSortEachPartBeforeInterleaving() {
+        List<List<Integer>> parts = List.of(List.of(9, 1, 4, 4), List.of(11, 2, 10, 3));
+
+        List<Integer> result = router.scatterGather(() -> parts.get(ShardContext.current()), Comparator.naturalOrder());
+
+        assertEquals(List.of(1, 2, 3, 4, 4, 9, 10, 11), result);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch, String message) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS), message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long partnerOnShard(int shard) {
+        return LongStream.rangeClosed(1, 1000)
+                .filter(partnerId -> routing.shardForPartner(partnerId) == shard)
+                .findFirst()
+                .orElseThrow();
+    }
+}
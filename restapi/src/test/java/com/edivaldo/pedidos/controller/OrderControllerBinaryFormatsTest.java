@@ -0,0 +1,87 @@
+package com.edivaldo.pedidos.controller;
+
+import com.edivaldo.pedidos.config.BinaryFormatsConfig;
+import com.edivaldo.pedidos.dto.OrderItemDTO;
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que os endpoints de entidade única (fora do StreamingResponseWriter) respondem CBOR e Smile com os
+ * mappers do BinaryFormatsConfig, e não com os conversores padrão do Spring Boot.
+ */
+@WebMvcTest(OrderController.class)
+@Import({BinaryFormatsConfig.class, StreamingResponseWriter.class})
+class OrderControllerBinaryFormatsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.of(2026, 10, 18, 12, 30);
+        List<OrderItemDTO> items = List.of(
+                new OrderItemDTO("PROD-001", 1, new BigDecimal("50.00")),
+                new OrderItemDTO("PROD-001", 2, new BigDecimal("50.00")));
+        when(orderService.getOrderById(1L)).thenReturn(new OrderResponseDTO(1L, 1L, "Parceiro Teste", items,
+                new BigDecimal("100.00"), OrderStatus.PENDENTE, now, now));
+    }
+
+    private byte[] getOrder(MediaType accept) throws Exception {
+        return mockMvc.perform(get("/api/orders/1").accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Test
+    void getOrderById_ShouldWriteCborWithStringRefsAndNumericDates() throws Exception {
+        byte[] body = getOrder(MediaType.APPLICATION_CBOR);
+
+        // Tag 256 (stringref-namespace) abre o documento quando STRINGREF está ligado
+        assertEquals((byte) 0xD9, body[0]);
+        assertEquals((byte) 0x01, body[1]);
+        assertEquals((byte) 0x00, body[2]);
+        JsonNode order = new CBORMapper().readTree(body);
+        assertEquals("Parceiro Teste", order.get("partnerName").asText());
+        assertEquals("PROD-001", order.get("items").get(1).get("product").asText());
+        assertTrue(order.get("createdAt").isArray(), "datas devem sair como números, não como string ISO");
+    }
+
+    @Test
+    void getOrderById_ShouldWriteSmileWithSharedValuesAndNumericDates() throws Exception {
+        byte[] body = getOrder(MediaType.valueOf(BinaryFormatsConfig.APPLICATION_SMILE_VALUE));
+
+        // Cabeçalho ":)\n" + byte de flags: bit 0 = nomes compartilhados, bit 1 = valores compartilhados
+        assertEquals(':', body[0]);
+        assertEquals(')', body[1]);
+        assertEquals(0x03, body[3] & 0x03);
+        JsonNode order = new SmileMapper().readTree(body);
+        assertEquals("PROD-001", order.get("items").get(1).get("product").asText());
+        assertTrue(order.get("createdAt").isArray(), "datas devem sair como números, não como string ISO");
+    }
+}
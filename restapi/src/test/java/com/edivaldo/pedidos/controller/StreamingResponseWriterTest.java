@@ -0,0 +1,79 @@
+package com.edivaldo.pedidos.controller;
+
+import com.edivaldo.pedidos.config.BinaryFormatsConfig;
+import com.edivaldo.pedidos.dto.PartnerDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o StreamingResponseWriter.
+ */
+class StreamingResponseWriterTest {
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final StreamingResponseWriter writer = new StreamingResponseWriter(json, builders());
+
+    private static ObjectProvider<Jackson2ObjectMapperBuilder> builders() {
+        // Protótipo, como o jacksonObjectMapperBuilder do Spring Boot: cada getObject() devolve um builder novo
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("jacksonObjectMapperBuilder", BeanDefinitionBuilder
+                .genericBeanDefinition(Jackson2ObjectMapperBuilder.class, Jackson2ObjectMapperBuilder::json)
+                .setScope(BeanDefinition.SCOPE_PROTOTYPE)
+                .getBeanDefinition());
+        return beanFactory.getBeanProvider(Jackson2ObjectMapperBuilder.class);
+    }
+
+    private static List<PartnerDTO> partners(int count) {
+        List<PartnerDTO> partners = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            partners.add(new PartnerDTO(i, "Parceiro " + i, new BigDecimal("1000.00"), new BigDecimal("500.00")));
+        }
+        return partners;
+    }
+
+    private static byte[] render(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void stream_ShouldWriteSameJsonAsList() throws IOException {
+        List<PartnerDTO> partners = partners(StreamingResponseWriter.FLUSH_EVERY * 2 + 3);
+
+        ResponseEntity<StreamingResponseBody> response = writer.stream(null, sink -> partners.forEach(sink));
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(json.writeValueAsBytes(partners), render(response));
+    }
+
+    @Test
+    void stream_ShouldWriteEmptyArray_WhenSourceIsEmpty() throws IOException {
+        assertEquals("[]", new String(render(writer.stream("*/*", sink -> { }))));
+    }
+
+    @Test
+    void negotiate_ShouldFollowAcceptHeader() {
+        assertEquals(MediaType.APPLICATION_JSON, writer.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_CBOR, writer.negotiate("application/cbor"));
+        assertEquals(MediaType.valueOf(BinaryFormatsConfig.APPLICATION_SMILE_VALUE),
+                writer.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_JSON, writer.negotiate("application/cbor;q=0, application/json"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.edivaldo.pedidos.diagnostics;
+
+import com.edivaldo.pedidos.enums.OrderStatus;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do JfrAnalyzer sobre uma gravação JFR real com eventos emitidos pelo próprio teste.
+ */
+class JfrAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void analyze_ShouldBreakTransitionsIntoLockWaitMappingAndRest() throws Exception {
+        Path file = tempDir.resolve("pedidos.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(OrderCreationEvent.class);
+            recording.enable(StatusTransitionEvent.class);
+            recording.enable(LockWaitEvent.class);
+            recording.enable(DtoMappingEvent.class);
+            recording.start();
+
+            OrderCreationEvent creation = new OrderCreationEvent(1L);
+            creation.begin();
+            creation.created(10L, 2, new BigDecimal("100.00"));
+            creation.commit();
+
+            StatusTransitionEvent approval = new StatusTransitionEvent("updateOrderStatus", 10L, OrderStatus.APROVADO);
+            approval.begin();
+            approval.loaded(1L, OrderStatus.PENDENTE);
+            LockWaitEvent lockWait = new LockWaitEvent(LockWaitEvent.PARTNERS, 1L);
+            lockWait.begin();
+            sleep(20);
+            lockWait.commit();
+            DtoMappingEvent mapping = new DtoMappingEvent(10L);
+            mapping.begin();
+            sleep(5);
+            mapping.mapped(2);
+            mapping.commit();
+            sleep(5);
+            approval.commit();
+
+            StatusTransitionEvent refused = new StatusTransitionEvent("updateOrderStatus", 11L, OrderStatus.APROVADO);
+            refused.begin();
+            refused.loaded(1L, OrderStatus.PENDENTE);
+            refused.failed(new IllegalStateException());
+            refused.commit();
+
+            // Espera fora de qualquer operação: não entra na decomposição
+            LockWaitEvent outside = new LockWaitEvent(LockWaitEvent.ORDERS, 12L);
+            outside.begin();
+            sleep(1);
+            outside.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        JfrAnalyzer.Report report = JfrAnalyzer.analyze(file);
+
+        assertEquals(1, report.operations().get("criação").count());
+        JfrAnalyzer.Breakdown approvals = report.operations().get("PENDENTE -> APROVADO");
+        assertEquals(2, approvals.count());
+        assertEquals(1, approvals.failures());
+        assertTrue(approvals.meanLockWaitNanos() * 2 >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(approvals.meanDtoMappingNanos() * 2 >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(approvals.meanOtherNanos() * 2 >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(approvals.max() >= TimeUnit.MILLISECONDS.toNanos(30));
+        assertEquals(1, report.lockWaits().get(LockWaitEvent.PARTNERS).count());
+        assertEquals(1, report.lockWaits().get(LockWaitEvent.ORDERS).count());
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+}
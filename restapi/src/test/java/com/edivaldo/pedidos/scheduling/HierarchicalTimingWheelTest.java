@@ -0,0 +1,84 @@
+package com.edivaldo.pedidos.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a HierarchicalTimingWheel.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void advance_ShouldExpireItemsOnTheirTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, START);
+        wheel.schedule("a", START + 25);
+        wheel.schedule("b", START + 40);
+
+        assertTrue(wheel.advance(START + 29).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(START + 30)); // prazo arredondado para o tick seguinte
+        assertTrue(wheel.advance(START + 39).isEmpty());
+        assertEquals(List.of("b"), wheel.advance(START + 45));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldCascadeItemsFromUpperLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 4, START);
+        // Com 4 posições: nível 0 cobre 4 ticks, nível 1 cobre 16, nível 2 cobre 64
+        long[] deadlines = {3, 5, 15, 17, 63, 200};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, START + deadline);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = START; now <= START + 200; now++) {
+            for (Long deadline : wheel.advance(now)) {
+                assertEquals(START + deadline, now, "item expirou fora do seu tick");
+                expired.add(deadline);
+            }
+        }
+
+        assertEquals(List.of(3L, 5L, 15L, 17L, 63L, 200L), expired);
+    }
+
+    @Test
+    void advance_ShouldCatchUpAfterLongPause() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1000, 512, START);
+        for (int i = 1; i <= 1000; i++) {
+            wheel.schedule(i, START + i * 60_000L);
+        }
+
+        List<Integer> expired = wheel.advance(START + 500 * 60_000L);
+
+        assertEquals(500, expired.size());
+        assertEquals(1, expired.get(0));
+        assertEquals(500, expired.get(499));
+        assertEquals(500, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldExpireOverdueItemsImmediately() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, START);
+        wheel.schedule("atrasado", START - 5_000);
+
+        assertEquals(List.of("atrasado"), wheel.advance(START));
+    }
+
+    @Test
+    void cancel_ShouldSkipItem() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, START);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule("a", START + 500);
+        wheel.schedule("b", START + 500);
+
+        timeout.cancel();
+
+        assertEquals(List.of("b"), wheel.advance(START + 500));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,287 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.dto.CreditReconciliationReportDTO;
+import com.edivaldo.pedidos.dto.OrderItemDTO;
+import com.edivaldo.pedidos.dto.OrderRequestDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.exception.CreditLimitExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de estresse das regras de crédito: centenas de threads chamam createOrder, updateOrderStatus e
+ * cancelOrder em ordem aleatória sobre poucos parceiros (muita disputa pelo bloqueio de cada um) num Postgres
+ * real (embedded-postgres, sem Docker), com as migrações do Flyway.
+ * <p>
+ * Invariantes:
+ * <ul>
+ *   <li>nenhum parceiro fica com {@code current_credit} negativo, verificado durante toda a execução;</li>
+ *   <li>ao final, a reconciliação de crédito não encontra divergência entre o crédito e os pedidos.</li>
+ * </ul>
+ * Relata vazão, latência por operação (p50/p95/p99) e o tempo de espera por bloqueio, amostrado de
+ * pg_stat_activity a cada 10 ms. Erros esperados (crédito insuficiente, transição inválida, conflito de
+ * concorrência) são contados; qualquer outro falha o teste.
+ * <p>
+ * Executar com: mvn -f restapi/pom.xml test -Pstress [-Dstress.seconds=30] [-Dstress.threads=200] [-Dstress.seed=...]
+ * <p>
+ * O projeto está em Java 17: as threads são de plataforma, limitadas na prática pelo pool de conexões (as demais
+ * esperam conexão, como as threads do Tomcat sob carga).
+ */
+@Tag("stress")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "app.health.probe-server.enabled=false",
+        "app.archive.enabled=false",
+        "app.analytics.rollup.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=64",
+        "spring.datasource.hikari.minimum-idle=64",
+        "notification.service.mock.enabled=false",
+        "logging.level.com.edivaldo.pedidos=WARN"
+})
+class CreditInvariantStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 200);
+    private static final long SECONDS = Long.getLong("stress.seconds", 30);
+    private static final long SEED = Long.getLong("stress.seed", System.nanoTime());
+    private static final int PARTNERS = 10;
+    private static final BigDecimal CREDIT_LIMIT = new BigDecimal("20000.00");
+    private static final int INITIAL_ORDERS = 1_000;
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CreditReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final List<Long> orderIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> partnerIds = new ArrayList<>();
+    private final AtomicLong negativeCreditSamples = new AtomicLong();
+    private final AtomicReference<Throwable> unexpected = new AtomicReference<>();
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void creditStaysConsistent_UnderConcurrentTransitions() throws Exception {
+        System.out.printf("stress: seed=%d threads=%d duração=%ds%n", SEED, THREADS, SECONDS);
+        // Os dados iniciais do V2 não batem com os pedidos; a primeira reconciliação os corrige
+        reconciliationService.reconcile(true);
+        assertTrue(reconciliationService.reconcile(false).isConsistent(), "base inicial divergente");
+        seed();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        JdbcTemplate monitor = new JdbcTemplate(POSTGRES.getPostgresDatabase()); // fora do pool da aplicação
+        DistributionSummary lockWait = DistributionSummary.builder("stress.lock.wait").baseUnit("ms")
+                .publishPercentiles(0.5, 0.95, 0.99).register(registry);
+        DistributionSummary lockWaiters = DistributionSummary.builder("stress.lock.waiters")
+                .publishPercentiles(0.5, 0.99).register(registry);
+        sampler.scheduleAtFixedRate(() -> sample(monitor, lockWait, lockWaiters), 0, 10, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(SEED + t);
+            workers.execute(() -> {
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline && unexpected.get() == null) {
+                        step(random);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long wallStart = System.nanoTime();
+        start.countDown();
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(SECONDS + 120, TimeUnit.SECONDS), "workers não terminaram");
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+        sampler.shutdownNow();
+        sampler.awaitTermination(5, TimeUnit.SECONDS);
+
+        CreditReconciliationReportDTO report = reconciliationService.reconcile(false);
+        report(wallSeconds, lockWait, lockWaiters, report);
+
+        if (unexpected.get() != null) {
+            fail("erro inesperado (seed=" + SEED + ")", unexpected.get());
+        }
+        Integer negative = jdbcTemplate.queryForObject("SELECT count(*) FROM partners WHERE current_credit < 0", Integer.class);
+        assertEquals(0, negative, "parceiros com crédito negativo ao final");
+        assertEquals(0, negativeCreditSamples.get(), "crédito negativo observado durante a execução");
+        assertTrue(report.isConsistent(), "crédito divergente dos pedidos: " + report.getSample());
+    }
+
+    private void seed() {
+        for (int i = 0; i < PARTNERS; i++) {
+            partnerIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO partners (name, credit_limit, current_credit) VALUES (?, ?, ?) RETURNING id",
+                    Long.class, "Stress " + i + " " + SEED, CREDIT_LIMIT, CREDIT_LIMIT));
+        }
+        Random random = new Random(SEED);
+        for (int i = 0; i < INITIAL_ORDERS; i++) {
+            orderIds.add(orderService.createOrder(randomOrder(random)).getId());
+        }
+    }
+
+    private void step(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 15) {
+            run("create", () -> orderIds.add(orderService.createOrder(randomOrder(random)).getId()));
+            return;
+        }
+        Long orderId = orderIds.get(random.nextInt(orderIds.size()));
+        if (roll < 50) {
+            run("approve", () -> orderService.updateOrderStatus(orderId, OrderStatus.APROVADO));
+        } else if (roll < 62) {
+            run("cancel", () -> orderService.updateOrderStatus(orderId, OrderStatus.CANCELADO));
+        } else if (roll < 74) {
+            run("cancelOrder", () -> orderService.cancelOrder(orderId));
+        } else {
+            OrderStatus next = switch (random.nextInt(3)) {
+                case 0 -> OrderStatus.EM_PROCESSAMENTO;
+                case 1 -> OrderStatus.ENVIADO;
+                default -> OrderStatus.ENTREGUE;
+            };
+            run("advance", () -> orderService.updateOrderStatus(orderId, next));
+        }
+    }
+
+    private OrderRequestDTO randomOrder(Random random) {
+        Long partnerId = partnerIds.get(random.nextInt(partnerIds.size()));
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (int i = 0, n = 1 + random.nextInt(3); i < n; i++) {
+            items.add(new OrderItemDTO("Produto " + random.nextInt(50), 1 + random.nextInt(5),
+                    BigDecimal.valueOf(10 + random.nextInt(190)).setScale(2)));
+        }
+        return new OrderRequestDTO(partnerId, items);
+    }
+
+    private void run(String operation, Runnable call) {
+        String outcome;
+        long begin = System.nanoTime();
+        try {
+            call.run();
+            outcome = "ok";
+        } catch (CreditLimitExceededException e) {
+            outcome = "credit";
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+        } catch (ConcurrencyFailureException e) {
+            outcome = "conflict"; // deadlock ou falha de serialização desfeitos pelo banco; o cliente repete
+        } catch (RuntimeException e) {
+            outcome = "error";
+            unexpected.compareAndSet(null, e);
+        }
+        long elapsed = System.nanoTime() - begin;
+        Timer.builder("stress.operation").tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99).register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        outcomes.computeIfAbsent(operation + "." + outcome, key -> new LongAdder()).increment();
+    }
+
+    private void sample(JdbcTemplate monitor, DistributionSummary lockWait, DistributionSummary lockWaiters) {
+        try {
+            List<Double> waits = monitor.queryForList("""
+                    SELECT extract(epoch FROM clock_timestamp() - state_change) * 1000
+                    FROM pg_stat_activity
+                    WHERE wait_event_type = 'Lock' AND state = 'active'
+                    """, Double.class);
+            waits.forEach(lockWait::record);
+            lockWaiters.record(waits.size());
+            if (!partnerIds.isEmpty()) {
+                Integer negative = monitor.queryForObject("SELECT count(*) FROM partners WHERE current_credit < 0", Integer.class);
+                if (negative != null && negative > 0) {
+                    negativeCreditSamples.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            // amostragem é só observação; não interrompe o teste
+        }
+    }
+
+    private void report(double wallSeconds, DistributionSummary lockWait, DistributionSummary lockWaiters,
+                        CreditReconciliationReportDTO reconciliation) {
+        long total = outcomes.values().stream().mapToLong(LongAdder::sum).sum();
+        System.out.printf("%n%,d operações em %.1fs: %,.0f ops/s%n", total, wallSeconds, total / wallSeconds);
+        outcomes.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(e -> System.out.printf("  %-22s %,10d%n", e.getKey(), e.getValue().sum()));
+        System.out.println("latência por operação (ms):");
+        registry.find("stress.operation").timers().forEach(timer -> System.out.printf("  %-12s n=%,8d %s%n",
+                timer.getId().getTag("operation"), timer.count(), percentiles(timer.takeSnapshot().percentileValues(), true)));
+        System.out.printf("espera por bloqueio (ms, amostrada): n=%,d %s máx=%.1f%n", lockWait.count(),
+                percentiles(lockWait.takeSnapshot().percentileValues(), false), lockWait.max());
+        System.out.printf("sessões esperando bloqueio por amostra: %s máx=%.0f%n",
+                percentiles(lockWaiters.takeSnapshot().percentileValues(), false), lockWaiters.max());
+        System.out.printf("reconciliação: %d parceiros, %d divergentes (soma %s)%n",
+                reconciliation.getCheckedPartners(), reconciliation.getDriftedPartners(), reconciliation.getAbsoluteDrift());
+    }
+
+    private static String percentiles(ValueAtPercentile[] values, boolean nanos) {
+        StringBuilder out = new StringBuilder();
+        for (ValueAtPercentile value : values) {
+            double v = nanos ? value.value(TimeUnit.MILLISECONDS) : value.value();
+            out.append(String.format("p%.0f=%.1f ", value.percentile() * 100, v));
+        }
+        return out.toString().trim();
+    }
+}
@@ -0,0 +1,93 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.reconciliation.ReconciliationProperties;
+import com.edivaldo.pedidos.dto.CreditDriftDTO;
+import com.edivaldo.pedidos.dto.CreditReconciliationReportDTO;
+import com.edivaldo.pedidos.repository.CreditReconciliationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o CreditReconciliationService.
+ */
+@ExtendWith(MockitoExtension.class)
+class CreditReconciliationServiceTest {
+
+    @Mock
+    private CreditReconciliationRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CreditReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setChunkSize(1000);
+        properties.setParallelism(2);
+        service = new CreditReconciliationService(repository, properties, transactionManager);
+    }
+
+    @Test
+    void reconcile_ShouldCheckEveryChunk_WithoutRepairing() {
+        CreditDriftDTO drift = new CreditDriftDTO(1500L, "Parceiro", new BigDecimal("1000.00"),
+                new BigDecimal("800.00"), new BigDecimal("700.00"));
+        when(repository.partnerIdBounds()).thenReturn(new long[]{1, 2500});
+        when(repository.countPartners(anyLong(), anyLong())).thenReturn(1000L, 1000L, 500L);
+        when(repository.findDrift(anyLong(), anyLong())).thenReturn(List.of());
+        when(repository.findDrift(1001, 2000)).thenReturn(List.of(drift));
+
+        CreditReconciliationReportDTO report = service.reconcile(false);
+
+        assertEquals(3, report.getChunks());
+        assertEquals(2500, report.getCheckedPartners());
+        assertEquals(1, report.getDriftedPartners());
+        assertEquals(new BigDecimal("100.00"), report.getAbsoluteDrift());
+        assertFalse(report.isConsistent());
+        verify(repository).findDrift(2001, 2500);
+        verify(repository, never()).lockPartners(anyList());
+        verify(repository, never()).repair(anyList());
+    }
+
+    @Test
+    void reconcile_ShouldRepairOnlyLockedPartners() {
+        List<CreditDriftDTO> drifts = List.of(
+                new CreditDriftDTO(1L, "A", BigDecimal.TEN, BigDecimal.ONE, BigDecimal.TEN),
+                new CreditDriftDTO(2L, "B", BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.TEN));
+        when(repository.partnerIdBounds()).thenReturn(new long[]{1, 2});
+        when(repository.countPartners(1, 2)).thenReturn(2L);
+        when(repository.findDrift(1, 2)).thenReturn(drifts);
+        when(repository.lockPartners(List.of(1L, 2L))).thenReturn(List.of(1L));
+        when(repository.repair(List.of(1L))).thenReturn(1);
+
+        CreditReconciliationReportDTO report = service.reconcile(true);
+
+        assertEquals(2, report.getDriftedPartners());
+        assertEquals(1, report.getRepairedPartners());
+        assertEquals(1, report.getSkippedPartners());
+        assertEquals(2, report.getSample().size());
+    }
+
+    @Test
+    void reconcile_ShouldReturnEmptyReport_WhenThereAreNoPartners() {
+        when(repository.partnerIdBounds()).thenReturn(null);
+
+        CreditReconciliationReportDTO report = service.reconcile(true);
+
+        assertTrue(report.isConsistent());
+        assertEquals(0, report.getChunks());
+    }
+}
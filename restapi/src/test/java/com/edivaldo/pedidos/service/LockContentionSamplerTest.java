@@ -0,0 +1,88 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.locks.LockProperties;
+import com.edivaldo.pedidos.dto.LockContentionReportDTO;
+import com.edivaldo.pedidos.dto.LockHolderDTO;
+import com.edivaldo.pedidos.dto.LockWaitDTO;
+import com.edivaldo.pedidos.repository.LockContentionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o LockContentionSampler.
+ */
+@ExtendWith(MockitoExtension.class)
+class LockContentionSamplerTest {
+
+    @Mock
+    private LockContentionRepository repository;
+
+    private LockProperties properties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LockProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private LockContentionSampler sampler() {
+        return new LockContentionSampler(repository, properties, meterRegistry);
+    }
+
+    @Test
+    void sample_ShouldReportChainRootsAndMostContendedPartners() {
+        // 100 segura o parceiro 7; 101 espera por 100; 102 e 103 esperam por 101. 200 segura o parceiro 8; 201 espera.
+        when(repository.findLockWaits()).thenReturn(List.of(
+                new LockWaitDTO(101, "partners", 7L, 900, List.of(100), "transactionid", "select"),
+                new LockWaitDTO(102, "partners", 7L, 800, List.of(101), "tuple", "select"),
+                new LockWaitDTO(103, "partners", 7L, 700, List.of(101), "tuple", "select"),
+                new LockWaitDTO(201, "partners", 8L, 2500, List.of(200), "transactionid", "select")));
+        when(repository.findSessions(Set.of(100, 200))).thenReturn(List.of(
+                new LockHolderDTO(200, "idle in transaction", 3000, "restapi", "update", 0),
+                new LockHolderDTO(100, "active", 1000, "restapi", "update", 0)));
+
+        LockContentionReportDTO report = sampler().sample();
+
+        verify(repository).findSessions(Set.of(100, 200));
+        assertEquals(100, report.getBlockers().get(0).getPid());
+        assertEquals(3, report.getBlockers().get(0).getBlockedSessions());
+        assertEquals(1, report.getBlockers().get(1).getBlockedSessions());
+        assertEquals(7L, report.getTopPartners().get(0).getPartnerId());
+        assertEquals(3, report.getTopPartners().get(0).getWaiters());
+        assertEquals(8L, report.getTopPartners().get(1).getPartnerId());
+        assertEquals(4, meterRegistry.get("app.locks.partners.waiting").gauge().value());
+        assertEquals(2.5, meterRegistry.get("app.locks.partners.max-wait").gauge().value());
+    }
+
+    @Test
+    void sample_ShouldAccumulatePartnerWaitsAcrossSamples() {
+        properties.getSampler().setTop(1);
+        when(repository.findLockWaits())
+                .thenReturn(List.of(new LockWaitDTO(101, "partners", 7L, 100, List.of(100), "transactionid", "select")))
+                .thenReturn(List.of(new LockWaitDTO(201, "partners", 8L, 100, List.of(200), "transactionid", "select"),
+                        new LockWaitDTO(202, "partners", 8L, 50, List.of(201), "tuple", "select")));
+        when(repository.findSessions(Set.of(100))).thenReturn(List.of());
+        when(repository.findSessions(Set.of(200))).thenReturn(List.of());
+
+        LockContentionSampler sampler = sampler();
+        sampler.sample();
+        LockContentionReportDTO report = sampler.sample();
+
+        assertEquals(1, report.getTopPartners().size());
+        assertEquals(8L, report.getTopPartners().get(0).getPartnerId());
+        assertEquals(2, report.getTopPartners().get(0).getWaiters());
+    }
+}
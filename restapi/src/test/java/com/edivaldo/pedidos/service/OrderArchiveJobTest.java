@@ -0,0 +1,74 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.archive.ArchiveProperties;
+import com.edivaldo.pedidos.repository.OrderArchiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o OrderArchiveJob.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderArchiveJobTest {
+
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+
+    private ArchiveProperties properties;
+    private MeterRegistry meterRegistry;
+    private OrderArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ArchiveProperties();
+        properties.setBatchSize(10);
+        properties.setMaxBatchesPerRun(5);
+        meterRegistry = new SimpleMeterRegistry();
+        job = new OrderArchiveJob(orderArchiveRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void archive_ShouldStop_WhenBatchIsNotFull() {
+        when(orderArchiveRepository.archiveBatch(any(), eq(10))).thenReturn(10, 10, 3);
+
+        job.archive();
+
+        verify(orderArchiveRepository, times(3)).archiveBatch(any(), eq(10));
+        assertEquals(23, meterRegistry.get("app.archive.orders").counter().count());
+        assertEquals(3, meterRegistry.get("app.archive.batch").timer().count());
+    }
+
+    @Test
+    void archive_ShouldRespectMaxBatchesPerRun() {
+        when(orderArchiveRepository.archiveBatch(any(), eq(10))).thenReturn(10);
+
+        job.archive();
+
+        verify(orderArchiveRepository, times(5)).archiveBatch(any(), eq(10));
+    }
+
+    @Test
+    void archive_ShouldPublishTableSizes() {
+        when(orderArchiveRepository.archiveBatch(any(), anyInt())).thenReturn(0);
+        when(orderArchiveRepository.tableSizes()).thenReturn(Map.of(
+                "orders", new long[]{1_000, 8_192_000},
+                "orders_archive", new long[]{50_000, 40_960_000}));
+
+        job.archive();
+
+        assertEquals(1_000, meterRegistry.get("app.archive.table.rows").tag("table", "orders").gauge().value());
+        assertEquals(40_960_000, meterRegistry.get("app.archive.table.bytes").tag("table", "orders_archive").gauge().value());
+    }
+}
@@ -1,5 +1,7 @@
 package com.edivaldo.pedidos.service;
 
+import com.edivaldo.pedidos.config.logging.LogContext;
+import com.edivaldo.pedidos.config.sharding.ShardRouter;
 import com.edivaldo.pedidos.dto.OrderItemDTO;
 import com.edivaldo.pedidos.dto.OrderRequestDTO;
 import com.edivaldo.pedidos.dto.OrderResponseDTO;
@@ -16,9 +18,11 @@ import com.edivaldo.pedidos.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,6 +33,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -48,6 +54,21 @@ class OrderServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private OrderViewService orderViewService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private CreditHoldService creditHoldService;
+
+    @Mock
+    private OperationTimeouts operationTimeouts;
+
+    @Mock
+    private ShardRouter shardRouter;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -114,6 +135,29 @@ class OrderServiceTest {
         verify(partnerRepository, times(1)).findById(anyLong()); // Garante que a busca pelo parceiro ocorreu
     }
 
+    @Test
+    void createOrder_ShouldNotLeaveLogContextOnTheThread() {
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        OrderRequestDTO requestDTO = new OrderRequestDTO(testPartner.getId(),
+                Collections.singletonList(new OrderItemDTO("Product A", 2, new BigDecimal("50.00"))));
+
+        try {
+            // Fora de uma requisição HTTP (job agendado, teste) nada limpa o MDC depois
+            orderService.createOrder(requestDTO);
+            assertNull(MDC.get(LogContext.ORDER_ID));
+            assertNull(MDC.get(LogContext.PARTNER_ID));
+
+            // Dentro de uma requisição, o valor que o filtro colocou volta a valer
+            MDC.put(LogContext.PARTNER_ID, "from-filter");
+            orderService.createOrder(requestDTO);
+            assertEquals("from-filter", MDC.get(LogContext.PARTNER_ID));
+            assertNull(MDC.get(LogContext.ORDER_ID));
+        } finally {
+            MDC.clear();
+        }
+    }
+
     @Test
     void getOrderById_ShouldReturnOrder_WhenOrderExists() {
         // Mock do repositório de pedidos para retornar o pedido de teste
@@ -140,6 +184,16 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findById(99L);
     }
 
+    @Test
+    void getOrderById_ShouldReturnArchivedOrder_WhenOrderIsNoLongerLive() {
+        OrderResponseDTO archived = new OrderResponseDTO(99L, testPartner.getId(), testPartner.getName(), List.of(),
+                BigDecimal.TEN, OrderStatus.ENTREGUE, LocalDateTime.now(), LocalDateTime.now());
+        when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+        when(orderArchiveService.findOrder(99L)).thenReturn(Optional.of(archived));
+
+        assertEquals(archived, orderService.getOrderById(99L));
+    }
+
     @Test
     void getOrdersByPartnerId_ShouldReturnListOfOrders_WhenOrdersExistForPartner() {
         // Cria outro pedido para o mesmo parceiro
@@ -202,8 +256,8 @@ class OrderServiceTest {
         testPartner.setCurrentCredit(new BigDecimal("200.00")); // Crédito suficiente
         testOrder.setPartner(testPartner); // Garante que o pedido está associado ao parceiro
 
-        // Mocks para OrderRepository.findById e PartnerRepository.findById (agora com bloqueio)
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        // Mocks para OrderRepository.findByIdForUpdate e PartnerRepository.findById (ambos com bloqueio)
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner)); // Simula o bloqueio
 
         // Mocks para saves
@@ -217,7 +271,7 @@ class OrderServiceTest {
         assertNotNull(responseDTO);
         assertEquals(OrderStatus.APROVADO, responseDTO.getStatus());
         assertEquals(new BigDecimal("100.00"), testPartner.getCurrentCredit()); // 200 - 100 = 100
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         verify(partnerRepository, times(1)).findById(testPartner.getId()); // Chamada do método bloqueador
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(partnerRepository, times(1)).save(any(Partner.class));
@@ -232,8 +286,8 @@ class OrderServiceTest {
         testPartner.setCurrentCredit(new BigDecimal("50.00")); // Crédito insuficiente
         testOrder.setPartner(testPartner);
 
-        // Mocks para OrderRepository.findById e PartnerRepository.findById (agora com bloqueio)
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        // Mocks para OrderRepository.findByIdForUpdate e PartnerRepository.findById (ambos com bloqueio)
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner)); // Simula o bloqueio
 
         // Verifica se a exceção de limite de crédito é lançada
@@ -241,7 +295,7 @@ class OrderServiceTest {
                 () -> orderService.updateOrderStatus(testOrder.getId(), OrderStatus.APROVADO));
 
         // Verifica que os saves e a notificação não foram chamados devido à exceção
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         verify(partnerRepository, times(1)).findById(testPartner.getId()); // Chamada do método bloqueador
         verify(orderRepository, never()).save(any(Order.class));
         verify(partnerRepository, never()).save(any(Partner.class));
@@ -256,8 +310,8 @@ class OrderServiceTest {
         testPartner.setCurrentCredit(new BigDecimal("900.00")); // Crédito após débito inicial
         testOrder.setPartner(testPartner);
 
-        // Mocks para OrderRepository.findById e PartnerRepository.findById (agora com bloqueio)
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        // Mocks para OrderRepository.findByIdForUpdate e PartnerRepository.findById (ambos com bloqueio)
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner)); // Simula o bloqueio
 
         // Mocks para saves
@@ -271,7 +325,7 @@ class OrderServiceTest {
         assertNotNull(responseDTO);
         assertEquals(OrderStatus.CANCELADO, responseDTO.getStatus());
         assertEquals(new BigDecimal("1000.00"), testPartner.getCurrentCredit()); // 900 + 100 = 1000
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         verify(partnerRepository, times(1)).findById(testPartner.getId()); // Chamada do método bloqueador
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(partnerRepository, times(1)).save(any(Partner.class));
@@ -284,14 +338,14 @@ class OrderServiceTest {
         testOrder.setStatus(OrderStatus.EM_PROCESSAMENTO);
         testOrder.setPartner(testPartner); // Necessário para a busca do parceiro no service
 
-        // Mocks para OrderRepository.findById e PartnerRepository.findById (agora com bloqueio)
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        // Mocks para OrderRepository.findByIdForUpdate e PartnerRepository.findById (ambos com bloqueio)
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner)); // Simula o bloqueio
 
         assertThrows(IllegalArgumentException.class,
                 () -> orderService.updateOrderStatus(testOrder.getId(), OrderStatus.APROVADO));
 
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         // REMOVIDO: verify(partnerRepository, times(1)).findById(testPartner.getId());
         // A chamada a partnerRepository.findById não ocorre porque a exceção é lançada antes.
         verify(partnerRepository, never()).save(any(Partner.class));
@@ -307,8 +361,8 @@ class OrderServiceTest {
         testPartner.setCurrentCredit(new BigDecimal("900.00")); // Crédito após débito inicial
         testOrder.setPartner(testPartner);
 
-        // Mocks para OrderRepository.findById e PartnerRepository.findById (agora com bloqueio)
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        // Mocks para OrderRepository.findByIdForUpdate e PartnerRepository.findById (ambos com bloqueio)
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner)); // Simula o bloqueio
 
         // Mocks para saves
@@ -322,7 +376,7 @@ class OrderServiceTest {
         assertNotNull(responseDTO);
         assertEquals(OrderStatus.CANCELADO, responseDTO.getStatus());
         assertEquals(new BigDecimal("1000.00"), testPartner.getCurrentCredit()); // 900 + 100 = 1000
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         verify(partnerRepository, times(1)).findById(testPartner.getId()); // Chamada do método bloqueador
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(partnerRepository, times(1)).save(any(Partner.class));
@@ -337,8 +391,8 @@ class OrderServiceTest {
         testPartner.setCurrentCredit(new BigDecimal("1000.00")); // Crédito não foi debitado
         testOrder.setPartner(testPartner);
 
-        // Mocks para OrderRepository.findById e PartnerRepository.findById (agora com bloqueio)
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        // Mocks para OrderRepository.findByIdForUpdate e PartnerRepository.findById (ambos com bloqueio)
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner)); // Simula o bloqueio
 
         // Mocks para saves
@@ -351,13 +405,63 @@ class OrderServiceTest {
         assertNotNull(responseDTO);
         assertEquals(OrderStatus.CANCELADO, responseDTO.getStatus());
         assertEquals(new BigDecimal("1000.00"), testPartner.getCurrentCredit()); // Permanece 1000
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         verify(partnerRepository, times(1)).findById(testPartner.getId()); // Chamada do método bloqueador
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(partnerRepository, never()).save(any(Partner.class)); // partnerRepository.save não deve ser chamado
         verify(notificationService, times(1)).notifyOrderStatusChange(testOrder.getId(), OrderStatus.PENDENTE, OrderStatus.CANCELADO);
     }
 
+    @Test
+    void createOrder_ShouldHoldCredit_WhenCreditHoldsAreEnabled() {
+        when(creditHoldService.isEnabled()).thenReturn(true);
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        OrderRequestDTO requestDTO = new OrderRequestDTO(testPartner.getId(),
+                Collections.singletonList(new OrderItemDTO("Product A", 2, new BigDecimal("50.00"))));
+        orderService.createOrder(requestDTO);
+
+        // O crédito sai na criação e a retenção fica registrada para o pedido
+        assertEquals(0, new BigDecimal("900.00").compareTo(testPartner.getCurrentCredit()));
+        verify(partnerRepository, times(1)).save(testPartner);
+        verify(creditHoldService, times(1)).placeHold(eq(testOrder.getId()), eq(testPartner.getId()),
+                argThat(amount -> amount.compareTo(new BigDecimal("100.00")) == 0));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldNotDebitAgain_WhenApprovingOrderWithHold() {
+        testOrder.setStatus(OrderStatus.PENDENTE);
+        testPartner.setCurrentCredit(new BigDecimal("900.00")); // 100 já retidos na criação
+
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(creditHoldService.consume(testOrder.getId())).thenReturn(Optional.of(new BigDecimal("100.00")));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        OrderResponseDTO responseDTO = orderService.updateOrderStatus(testOrder.getId(), OrderStatus.APROVADO);
+
+        assertEquals(OrderStatus.APROVADO, responseDTO.getStatus());
+        assertEquals(new BigDecimal("900.00"), testPartner.getCurrentCredit());
+        verify(partnerRepository, never()).save(any(Partner.class));
+    }
+
+    @Test
+    void cancelOrder_ShouldReleaseHold_WhenPendingOrderHasHold() {
+        testOrder.setStatus(OrderStatus.PENDENTE);
+        testPartner.setCurrentCredit(new BigDecimal("900.00")); // 100 retidos na criação
+
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(creditHoldService.consume(testOrder.getId())).thenReturn(Optional.of(new BigDecimal("100.00")));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        orderService.cancelOrder(testOrder.getId());
+
+        assertEquals(new BigDecimal("1000.00"), testPartner.getCurrentCredit());
+        verify(partnerRepository, times(1)).save(testPartner);
+    }
+
     @Test
     void cancelOrder_ShouldThrowIllegalArgumentException_WhenAlreadyDelivered() {
         // Tenta cancelar um pedido que já está ENTREGUE
@@ -365,17 +469,81 @@ class OrderServiceTest {
         testOrder.setPartner(testPartner);
 
         // Mocks para OrderRepository.findById
-        when(orderRepository.findById(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
         // NÃO MOCKAMOS partnerRepository.findById AQUI, pois ele não é chamado neste fluxo
 
         assertThrows(IllegalArgumentException.class,
                 () -> orderService.cancelOrder(testOrder.getId()));
 
-        verify(orderRepository, times(1)).findById(testOrder.getId());
+        verify(orderRepository, times(1)).findByIdForUpdate(testOrder.getId());
         // Verificamos que partnerRepository.findById NUNCA é chamado.
         verify(partnerRepository, never()).findById(anyLong()); // Adicionado para clareza
         verify(orderRepository, never()).save(any(Order.class));
         verify(partnerRepository, never()).save(any(Partner.class));
         verify(notificationService, never()).notifyOrderStatusChange(anyLong(), any(), any());
     }
+
+    @Test
+    void updateOrderStatus_ShouldCancelOrderAndCreditBack_WhenShipped() {
+        // ENVIADO conta como crédito debitado na reconciliação: o cancelamento precisa estornar
+        testOrder.setStatus(OrderStatus.ENVIADO);
+        testPartner.setCurrentCredit(new BigDecimal("900.00"));
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        OrderResponseDTO responseDTO = orderService.updateOrderStatus(testOrder.getId(), OrderStatus.CANCELADO);
+
+        assertEquals(OrderStatus.CANCELADO, responseDTO.getStatus());
+        assertEquals(new BigDecimal("1000.00"), testPartner.getCurrentCredit());
+        verify(partnerRepository, times(1)).save(testPartner);
+    }
+
+    @Test
+    void cancelOrder_ShouldCancelOrderAndCreditBack_WhenShipped() {
+        testOrder.setStatus(OrderStatus.ENVIADO);
+        testPartner.setCurrentCredit(new BigDecimal("900.00"));
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        OrderResponseDTO responseDTO = orderService.cancelOrder(testOrder.getId());
+
+        assertEquals(OrderStatus.CANCELADO, responseDTO.getStatus());
+        assertEquals(new BigDecimal("1000.00"), testPartner.getCurrentCredit());
+        verify(partnerRepository, times(1)).save(testPartner);
+    }
+
+    @Test
+    void updateOrderStatus_ShouldThrowIllegalArgumentException_WhenCancellingDeliveredOrder() {
+        testOrder.setStatus(OrderStatus.ENTREGUE);
+        testPartner.setCurrentCredit(new BigDecimal("900.00"));
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.updateOrderStatus(testOrder.getId(), OrderStatus.CANCELADO));
+
+        assertEquals(new BigDecimal("900.00"), testPartner.getCurrentCredit());
+        verify(partnerRepository, never()).save(any(Partner.class));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldBindShardAndApplyOperationTimeouts_BeforeLockingTheOrder() {
+        testOrder.setStatus(OrderStatus.APROVADO);
+        when(orderRepository.findByIdForUpdate(testOrder.getId())).thenReturn(Optional.of(testOrder));
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        orderService.updateOrderStatus(testOrder.getId(), OrderStatus.EM_PROCESSAMENTO);
+
+        // O shard precisa estar fixado antes do primeiro comando SQL, e o lock_timeout valer já para o
+        // SELECT ... FOR UPDATE do pedido
+        InOrder inOrder = inOrder(shardRouter, operationTimeouts, orderRepository, partnerRepository);
+        inOrder.verify(shardRouter).bindOrder(testOrder.getId());
+        inOrder.verify(operationTimeouts).apply(OperationTimeouts.UPDATE_ORDER_STATUS);
+        inOrder.verify(orderRepository).findByIdForUpdate(testOrder.getId());
+        inOrder.verify(partnerRepository).findById(testPartner.getId());
+    }
 }
@@ -0,0 +1,90 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.views.OrderViewProperties;
+import com.edivaldo.pedidos.dto.OrderViewRebuildDTO;
+import com.edivaldo.pedidos.dto.OrderViewReportDTO;
+import com.edivaldo.pedidos.repository.OrderViewRepository;
+import com.edivaldo.pedidos.repository.OrderViewRepository.Divergence;
+import com.edivaldo.pedidos.repository.OrderViewRepository.Problem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o OrderViewService.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderViewServiceTest {
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    private OrderViewProperties properties;
+    private OrderViewService orderViewService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OrderViewProperties();
+        properties.setBatchSize(100);
+        properties.setSampleSize(2);
+        orderViewService = new OrderViewService(orderViewRepository, properties);
+    }
+
+    @Test
+    void rebuild_ShouldCoverIdRangeInBatches() {
+        when(orderViewRepository.idBounds()).thenReturn(new long[]{1, 250});
+        when(orderViewRepository.upsertRange(anyLong(), anyLong())).thenReturn(3);
+
+        OrderViewRebuildDTO result = orderViewService.rebuild();
+
+        assertEquals(3, result.getBatches());
+        assertEquals(9, result.getRewritten());
+        verify(orderViewRepository).upsertRange(1, 100);
+        verify(orderViewRepository).upsertRange(101, 200);
+        verify(orderViewRepository).upsertRange(201, 300);
+    }
+
+    @Test
+    void rebuild_ShouldDoNothing_WhenTablesAreEmpty() {
+        when(orderViewRepository.idBounds()).thenReturn(null);
+
+        assertEquals(0, orderViewService.rebuild().getBatches());
+        verify(orderViewRepository, never()).upsertRange(anyLong(), anyLong());
+    }
+
+    @Test
+    void check_ShouldCountDivergencesByProblem_AndLimitSample() {
+        when(orderViewRepository.idBounds()).thenReturn(new long[]{1, 150});
+        when(orderViewRepository.countOrders(1, 100)).thenReturn(100L);
+        when(orderViewRepository.countOrders(101, 200)).thenReturn(50L);
+        when(orderViewRepository.findDivergences(1, 100)).thenReturn(List.of(
+                new Divergence(7, Problem.MISSING), new Divergence(9, Problem.STALE)));
+        when(orderViewRepository.findDivergences(101, 200)).thenReturn(List.of(new Divergence(120, Problem.STALE)));
+
+        OrderViewReportDTO report = orderViewService.check();
+
+        assertFalse(report.isConsistent());
+        assertEquals(150, report.getCheckedOrders());
+        assertEquals(1, report.getMissing());
+        assertEquals(2, report.getStale());
+        assertEquals(0, report.getOrphaned());
+        assertEquals(List.of(7L, 9L), report.getSampleOrderIds());
+    }
+
+    @Test
+    void findOrder_ShouldSkipView_WhenReadsAreDisabled() {
+        properties.setReadEnabled(false);
+
+        assertEquals(Optional.empty(), orderViewService.findOrder(1L));
+        verifyNoInteractions(orderViewRepository);
+    }
+}
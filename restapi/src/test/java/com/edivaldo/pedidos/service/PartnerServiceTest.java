@@ -1,5 +1,6 @@
 package com.edivaldo.pedidos.service;
 
+import com.edivaldo.pedidos.config.sharding.ShardRouter;
 import com.edivaldo.pedidos.dto.PartnerDTO;
 import com.edivaldo.pedidos.exception.ResourceNotFoundException;
 import com.edivaldo.pedidos.model.Partner;
@@ -7,6 +8,7 @@ import com.edivaldo.pedidos.repository.PartnerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -29,6 +31,18 @@ class PartnerServiceTest {
     @Mock
     private PartnerRepository partnerRepository;
 
+    @Mock
+    private OrderViewService orderViewService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private OperationTimeouts operationTimeouts;
+
+    @Mock
+    private ShardRouter shardRouter;
+
     @InjectMocks
     private PartnerService partnerService;
 
@@ -59,21 +73,39 @@ class PartnerServiceTest {
         verify(partnerRepository, times(1)).save(any(Partner.class));
     }
 
+    @Test
+    void createPartner_ShouldInsertWithAllocatedId_WhenShardingIsEnabled() {
+        when(shardRouter.isEnabled()).thenReturn(true);
+        when(shardRouter.allocatePartnerId()).thenReturn(testPartner.getId());
+        when(partnerRepository.findUnlockedById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+
+        PartnerDTO createdPartner = partnerService.createPartner(new PartnerDTO(null, "Test Partner", new BigDecimal("1000.00"), null));
+
+        assertEquals(testPartner.getId(), createdPartner.getId());
+        // O ID decide o shard: a transação é fixada nele antes do INSERT
+        InOrder inOrder = inOrder(shardRouter, partnerRepository);
+        inOrder.verify(shardRouter).bindPartner(testPartner.getId());
+        inOrder.verify(partnerRepository).insertWithId(testPartner.getId(), "Test Partner",
+                new BigDecimal("1000.00"), new BigDecimal("1000.00"));
+        verify(partnerRepository, never()).save(any(Partner.class));
+    }
+
     @Test
     void getPartnerById_ShouldReturnPartner_WhenPartnerExists() {
-        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(partnerRepository.findUnlockedById(testPartner.getId())).thenReturn(Optional.of(testPartner));
         PartnerDTO foundPartner = partnerService.getPartnerById(testPartner.getId());
         assertNotNull(foundPartner);
         assertEquals(testPartner.getId(), foundPartner.getId());
         assertEquals(testPartner.getName(), foundPartner.getName());
-        verify(partnerRepository, times(1)).findById(testPartner.getId());
+        verify(partnerRepository, times(1)).findUnlockedById(testPartner.getId());
+        verify(partnerRepository, never()).findById(anyLong()); // A consulta não deve bloquear a linha do parceiro
     }
 
     @Test
     void getPartnerById_ShouldThrowResourceNotFoundException_WhenPartnerDoesNotExist() {
-        when(partnerRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(partnerRepository.findUnlockedById(anyLong())).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> partnerService.getPartnerById(99L));
-        verify(partnerRepository, times(1)).findById(99L);
+        verify(partnerRepository, times(1)).findUnlockedById(99L);
     }
 
     @Test
@@ -102,6 +134,18 @@ class PartnerServiceTest {
         assertEquals(new BigDecimal("1200.00"), updatedPartner.getCurrentCredit());
         verify(partnerRepository, times(1)).findById(testPartner.getId());
         verify(partnerRepository, times(1)).save(testPartner);
+        verify(orderViewService, times(1)).partnerRenamed(testPartner.getId(), "Updated Partner");
+        verify(orderArchiveService, times(1)).partnerRenamed(testPartner.getId(), "Updated Partner");
+    }
+
+    @Test
+    void updatePartner_ShouldNotTouchOrderViews_WhenNameIsUnchanged() {
+        when(partnerRepository.findById(testPartner.getId())).thenReturn(Optional.of(testPartner));
+        when(partnerRepository.save(any(Partner.class))).thenReturn(testPartner);
+        PartnerDTO updatedPartnerDTO = new PartnerDTO(testPartner.getId(), "Test Partner", new BigDecimal("1500.00"), new BigDecimal("1200.00"));
+        partnerService.updatePartner(testPartner.getId(), updatedPartnerDTO);
+        verify(orderViewService, never()).partnerRenamed(anyLong(), any());
+        verify(orderArchiveService, never()).partnerRenamed(anyLong(), any());
     }
 
     @Test
@@ -0,0 +1,73 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.analytics.AnalyticsProperties;
+import com.edivaldo.pedidos.repository.ProductSalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o ProductSalesRollupJob.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSalesRollupJobTest {
+
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    @Mock
+    private ProductSalesRollupRepository rollupRepository;
+
+    private ProductSalesRollupJob job;
+
+    @BeforeEach
+    void setUp() {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.getRollup().setOverlap(Duration.ofMinutes(5));
+        job = new ProductSalesRollupJob(rollupRepository, properties);
+    }
+
+    @Test
+    void refresh_ShouldRecomputeAffectedBuckets_AndAdvanceWatermark() {
+        LocalDateTime highWater = WATERMARK.plusMinutes(3);
+        when(rollupRepository.tryLock()).thenReturn(true);
+        when(rollupRepository.watermark()).thenReturn(WATERMARK);
+        when(rollupRepository.collectAffected(WATERMARK.minusMinutes(5))).thenReturn(2);
+        when(rollupRepository.recomputeAffected()).thenReturn(new int[]{4, 3});
+        when(rollupRepository.maxAffectedUpdatedAt()).thenReturn(highWater);
+
+        job.refresh();
+
+        verify(rollupRepository).recomputeAffected();
+        verify(rollupRepository).advanceWatermark(highWater);
+    }
+
+    @Test
+    void refresh_ShouldKeepWatermark_WhenNothingChanged() {
+        when(rollupRepository.tryLock()).thenReturn(true);
+        when(rollupRepository.watermark()).thenReturn(WATERMARK);
+        when(rollupRepository.collectAffected(any())).thenReturn(0);
+
+        job.refresh();
+
+        verify(rollupRepository, never()).recomputeAffected();
+        verify(rollupRepository, never()).advanceWatermark(any());
+    }
+
+    @Test
+    void refresh_ShouldSkip_WhenAnotherInstanceHoldsTheLock() {
+        when(rollupRepository.tryLock()).thenReturn(false);
+
+        job.refresh();
+
+        verify(rollupRepository, never()).watermark();
+        verify(rollupRepository, never()).collectAffected(any());
+    }
+}
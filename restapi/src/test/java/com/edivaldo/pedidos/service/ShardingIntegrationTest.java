@@ -0,0 +1,174 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.sharding.OrderIdLayout;
+import com.edivaldo.pedidos.config.sharding.ShardRouter;
+import com.edivaldo.pedidos.dto.OrderItemDTO;
+import com.edivaldo.pedidos.dto.OrderRequestDTO;
+import com.edivaldo.pedidos.dto.OrderResponseDTO;
+import com.edivaldo.pedidos.dto.PartnerDTO;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Particionamento com dois Postgres reais (embedded-postgres, sem Docker): o banco de spring.datasource é o
+ * shard 0 e o segundo entra por app.sharding.nodes. Verifica que parceiros e pedidos são gravados só no shard
+ * do parceiro, que o ID do pedido leva ao shard certo e que as consultas espalhadas juntam os dois bancos na
+ * ordem de criação. Os pedidos são lidos pelas entidades (sem order_views), passando pelo cache de segundo nível
+ * dos itens, que é compartilhado entre os shards: cada pedido tem itens diferentes, conferidos em cada leitura.
+ * <p>
+ * Executar com: mvn -f restapi/pom.xml test -Psharding
+ */
+@Tag("sharding")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "app.health.probe-server.enabled=false",
+        "app.archive.enabled=false",
+        "app.analytics.rollup.enabled=false",
+        "app.locks.sampler.enabled=false",
+        "app.sharding.enabled=true",
+        "app.sharding.prune-misplaced-rows=true",
+        "app.order-views.read-enabled=false",
+        "notification.service.mock.enabled=false",
+        "logging.level.com.edivaldo.pedidos=WARN"
+})
+class ShardingIntegrationTest {
+
+    private static final int PARTNERS = 20;
+
+    private static final EmbeddedPostgres SHARD_0 = startPostgres();
+    private static final EmbeddedPostgres SHARD_1 = startPostgres();
+
+    @Autowired
+    private PartnerService partnerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> SHARD_0.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("app.sharding.nodes[0].url", () -> SHARD_1.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        SHARD_0.close();
+        SHARD_1.close();
+    }
+
+    @Test
+    void partnersAndOrders_ShouldLiveOnlyOnThePartnersShard() {
+        List<JdbcTemplate> shards = List.of(new JdbcTemplate(SHARD_0.getPostgresDatabase()),
+                new JdbcTemplate(SHARD_1.getPostgresDatabase()));
+        List<Long> orderIds = new ArrayList<>();
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        for (int i = 0; i < PARTNERS; i++) {
+            PartnerDTO partner = partnerService.createPartner(
+                    new PartnerDTO(null, "Parceiro shard " + i, new BigDecimal("5000.00"), null));
+            int shard = shardRouter.shardForPartner(partner.getId());
+            assertEquals(1, count(shards.get(shard), "SELECT count(*) FROM partners WHERE id = ?", partner.getId()));
+            assertEquals(0, count(shards.get(1 - shard), "SELECT count(*) FROM partners WHERE id = ?", partner.getId()));
+            assertEquals(partner.getName(), partnerService.getPartnerById(partner.getId()).getName());
+
+            List<OrderItemDTO> items = List.of(
+                    new OrderItemDTO("Produto " + i + "-a", i + 1, new BigDecimal((i + 1) + ".50")),
+                    new OrderItemDTO("Produto " + i + "-b", 1, new BigDecimal("10.00")));
+            OrderResponseDTO order = orderService.createOrder(new OrderRequestDTO(partner.getId(), items));
+            itemsByOrder.put(order.getId(), items);
+            assertEquals(shard, OrderIdLayout.shardOf(order.getId()), "ID do pedido fora da faixa do shard");
+            assertEquals(1, count(shards.get(shard), "SELECT count(*) FROM orders WHERE id = ?", order.getId()));
+            orderIds.add(order.getId());
+        }
+        assertTrue(orderIds.stream().anyMatch(id -> OrderIdLayout.shardOf(id) == 0), "nenhum pedido no shard 0");
+        assertTrue(orderIds.stream().anyMatch(id -> OrderIdLayout.shardOf(id) == 1), "nenhum pedido no shard 1");
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            assertEquals(0, count(shards.get(shard), "SELECT count(*) FROM order_items WHERE id NOT BETWEEN ? AND ?",
+                    OrderIdLayout.firstId(shard), OrderIdLayout.lastId(shard)), "ID de item fora da faixa do shard " + shard);
+        }
+        for (int read = 0; read < 2; read++) { // a segunda leitura vem do cache de segundo nível
+            for (Long id : orderIds) {
+                OrderResponseDTO order = orderService.getOrderById(id);
+                assertEquals(id, order.getId());
+                assertEquals(sortedItems(itemsByOrder.get(id)), sortedItems(order.getItems()), "itens do pedido " + id);
+            }
+        }
+        orderService.updateOrderStatus(orderIds.get(0), OrderStatus.APROVADO);
+        assertEquals(OrderStatus.APROVADO, orderService.getOrderById(orderIds.get(0)).getStatus());
+
+        Comparator<OrderResponseDTO> byCreation = Comparator.comparing(OrderResponseDTO::getCreatedAt)
+                .thenComparing(OrderResponseDTO::getId);
+        List<OrderResponseDTO> pending = orderService.getOrdersByStatus(OrderStatus.PENDENTE);
+        long expectedPending = shards.stream()
+                .mapToLong(jdbc -> count(jdbc, "SELECT count(*) FROM orders WHERE status = ?", OrderStatus.PENDENTE.name()))
+                .sum();
+        assertEquals(expectedPending, pending.size());
+        assertTrue(pending.stream().map(OrderResponseDTO::getId).toList().containsAll(orderIds.subList(1, orderIds.size())));
+        assertEquals(pending.stream().sorted(byCreation).toList(), pending, "resultado fora de ordem");
+
+        long expectedAll = shards.stream().mapToLong(jdbc -> count(jdbc, "SELECT count(*) FROM orders")).sum();
+        List<OrderResponseDTO> all = orderService.getOrders();
+        assertEquals(expectedAll, all.size());
+        all.stream().filter(order -> itemsByOrder.containsKey(order.getId())).forEach(order ->
+                assertEquals(sortedItems(itemsByOrder.get(order.getId())), sortedItems(order.getItems()),
+                        "itens do pedido " + order.getId()));
+        List<PartnerDTO> partners = partnerService.getAllPartners();
+        assertEquals(shards.stream().mapToLong(jdbc -> count(jdbc, "SELECT count(*) FROM partners")).sum(),
+                partners.size());
+
+        // As listagens em stream (GET /api/orders e /api/partners) leem os shards em paralelo e intercalam os cursores
+        List<OrderResponseDTO> streamedPending = new ArrayList<>();
+        orderService.streamOrders(null, null, null, OrderStatus.PENDENTE, streamedPending::add);
+        assertEquals(pending.stream().map(OrderResponseDTO::getId).toList(),
+                streamedPending.stream().map(OrderResponseDTO::getId).toList());
+        List<OrderResponseDTO> streamedAll = new ArrayList<>();
+        orderService.streamOrders(null, null, null, null, streamedAll::add);
+        assertEquals(expectedAll, streamedAll.size());
+        assertEquals(streamedAll.stream().sorted(byCreation).toList(), streamedAll, "stream fora de ordem");
+        List<PartnerDTO> streamedPartners = new ArrayList<>();
+        partnerService.streamPartners(streamedPartners::add);
+        assertEquals(partners.stream().map(PartnerDTO::getId).toList(),
+                streamedPartners.stream().map(PartnerDTO::getId).toList());
+    }
+
+    private static List<OrderItemDTO> sortedItems(List<OrderItemDTO> items) {
+        return items.stream().sorted(Comparator.comparing(OrderItemDTO::getProduct)).toList();
+    }
+
+    private static long count(JdbcTemplate jdbc, String sql, Object... args) {
+        return jdbc.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,90 @@
+package com.edivaldo.pedidos.service;
+
+import com.edivaldo.pedidos.config.sweeper.StaleOrderProperties;
+import com.edivaldo.pedidos.enums.OrderStatus;
+import com.edivaldo.pedidos.repository.StaleOrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o StaleOrderSweeper.
+ */
+@ExtendWith(MockitoExtension.class)
+class StaleOrderSweeperTest {
+
+    @Mock
+    private StaleOrderRepository repository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private StaleOrderProperties properties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StaleOrderProperties();
+        properties.setBatchSize(2);
+        properties.setMinBatchSize(1);
+        properties.setDutyCycle(1); // sem pausa entre lotes
+        properties.setTargetBatchDuration(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private StaleOrderSweeper sweeper() {
+        return new StaleOrderSweeper(repository, notificationService, properties, meterRegistry);
+    }
+
+    @Test
+    void sweep_ShouldNotifyEachCancelledOrder_AndStopWhenBatchIsNotFull() {
+        when(repository.cancelBatch(any(), any(), eq(2))).thenReturn(List.of(1L, 2L)).thenReturn(List.of(3L));
+
+        sweeper().sweep();
+
+        verify(repository, times(2)).cancelBatch(any(), any(), eq(2));
+        verify(notificationService).notifyOrderStatusChange(3L, OrderStatus.PENDENTE, OrderStatus.CANCELADO);
+        verify(notificationService, times(3)).notifyOrderStatusChange(anyLong(), eq(OrderStatus.PENDENTE), eq(OrderStatus.CANCELADO));
+        assertEquals(3, meterRegistry.get("app.stale-orders.cancelled").counter().count());
+    }
+
+    @Test
+    void sweep_ShouldBackOff_WhenDatabaseIsBusy() {
+        properties.setMaxActiveSessions(5);
+        when(repository.activeSessions()).thenReturn(6);
+
+        sweeper().sweep();
+
+        verify(repository, never()).cancelBatch(any(), any(), anyInt());
+        assertEquals(1, meterRegistry.get("app.stale-orders.throttled").counter().count());
+    }
+
+    @Test
+    void sweep_ShouldShrinkBatch_WhenBatchesAreSlow() {
+        properties.setBatchSize(8);
+        properties.setMaxBatchesPerRun(3);
+        properties.setTargetBatchDuration(Duration.ZERO); // todo lote conta como lento
+        when(repository.cancelBatch(any(), any(), anyInt()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<Integer>getArgument(2), 1L));
+
+        sweeper().sweep();
+
+        verify(repository).cancelBatch(any(), any(), eq(8));
+        verify(repository).cancelBatch(any(), any(), eq(4));
+        verify(repository).cancelBatch(any(), any(), eq(2));
+        assertEquals(1, meterRegistry.get("app.stale-orders.batch.size").gauge().value());
+    }
+}
@@ -0,0 +1,57 @@
+package com.edivaldo.pedidos.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o StatementCsvWriter.
+ */
+class StatementCsvWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void row_ShouldQuoteFieldsWithSeparators() throws IOException {
+        Path file = dir.resolve("partner-1.csv");
+        try (StatementCsvWriter writer = new StatementCsvWriter(64)) {
+            writer.open(file);
+            writer.row(1L, "Parceiro, \"Matriz\"", null, new BigDecimal("10.50"));
+        }
+
+        assertEquals(List.of("1,\"Parceiro, \"\"Matriz\"\"\",,10.50"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void row_ShouldFlushWhenBufferIsFull_AndAcrossFiles() throws IOException {
+        Path first = dir.resolve("a.csv");
+        Path second = dir.resolve("b.csv");
+        String longValue = "x".repeat(100); // maior que o buffer inteiro
+
+        try (StatementCsvWriter writer = new StatementCsvWriter(32)) {
+            writer.open(first);
+            for (int i = 0; i < 50; i++) {
+                writer.row(i, "pedido");
+            }
+            writer.open(second);
+            writer.row(longValue);
+            writer.close();
+
+            assertEquals(Files.size(first) + Files.size(second), writer.bytesWritten());
+        }
+
+        List<String> lines = Files.readAllLines(first, StandardCharsets.UTF_8);
+        assertEquals(50, lines.size());
+        assertEquals("49,pedido", lines.get(49));
+        assertEquals(List.of(longValue), Files.readAllLines(second, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+#!/usr/bin/env sh
+# Mede quanto tempo uma réplica nova do restapi leva para (1) aparecer como UP no Eureka e
+# (2) receber a primeira requisição roteada pelo gateway.
+# Uso (com a stack no ar):
+#   ./testes/discovery-time.sh [arquivos do compose...]
+#   ./testes/discovery-time.sh -f docker-compose.yml -f docker-compose.fast-discovery.yml
+set -eu
+
+COMPOSE_ARGS="${*:--f docker-compose.yml}"
+GATEWAY_URL="${GATEWAY_URL:-http://localhost}"
+REGISTRY_URL="${REGISTRY_URL:-http://localhost:8761}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-300}"
+
+now_ms() { date +%s%3N; }
+
+before=$(docker compose $COMPOSE_ARGS ps -q restapi | sort)
+replicas=$(printf '%s\n' "$before" | grep -c . || true)
+
+start=$(now_ms)
+docker compose $COMPOSE_ARGS up -d --no-deps --no-recreate --scale restapi=$((replicas + 1)) restapi >/dev/null 2>&1
+after=$(docker compose $COMPOSE_ARGS ps -q restapi | sort)
+new_id=$(printf '%s\n' "$after" | grep -vxF "$before" | head -n 1)
+if [ -z "$new_id" ]; then
+  echo "Nenhuma réplica nova foi criada" >&2
+  exit 1
+fi
+hostname=$(docker inspect -f '{{.Config.Hostname}}' "$new_id")
+echo "Réplica nova: $hostname (total: $((replicas + 1)))"
+
+registered=""
+while :; do
+  elapsed=$(( $(now_ms) - start ))
+  if [ "$elapsed" -gt $((TIMEOUT_SECONDS * 1000)) ]; then
+    echo "Tempo esgotado após ${TIMEOUT_SECONDS}s sem rotear para $hostname" >&2
+    exit 1
+  fi
+  if [ -z "$registered" ] && curl -s -H 'Accept: application/json' "$REGISTRY_URL/eureka/apps/RESTAPI" \
+      | tr -d ' \n' | grep -q "\"hostName\":\"$hostname\"[^}]*\"status\":\"UP\""; then
+    registered=$elapsed
+    echo "UP no Eureka após ${registered} ms"
+  fi
+  if curl -s "$GATEWAY_URL/restapi/isAlive" | grep -q "$hostname"; then
+    echo "Primeira requisição roteada após ${elapsed} ms"
+    exit 0
+  fi
+  sleep 0.2
+done
@@ -0,0 +1,90 @@
+#!/usr/bin/env sh
+# Smoke test do gateway nativo: sobe dois backends stub (localhost:9091 e 9092, perfil "stub"),
+# inicia o executável nativo e verifica roteamento, tempo de inicialização e memória residente (RSS).
+# Uso:
+#   ./testes/native-smoke.sh                      # compila com -Pnative se o executável não existir
+#   MAX_STARTUP_MS=500 MAX_RSS_MB=120 ./testes/native-smoke.sh
+set -eu
+
+BINARY="${BINARY:-gateway/target/gateway}"
+PORT="${PORT:-18081}"
+MAX_STARTUP_MS="${MAX_STARTUP_MS:-1000}"
+MAX_RSS_MB="${MAX_RSS_MB:-150}"
+REQUESTS="${REQUESTS:-200}"
+
+if [ ! -x "$BINARY" ]; then
+  mvn -f gateway/pom.xml -Pnative native:compile -DskipTests
+fi
+
+work=$(mktemp -d)
+pids=""
+cleanup() {
+  for pid in $pids; do kill "$pid" 2>/dev/null || true; done
+  rm -rf "$work"
+}
+trap cleanup EXIT INT TERM
+
+# Backends stub: servem um arquivo "isAlive" que identifica a porta
+for stub_port in 9091 9092; do
+  mkdir -p "$work/$stub_port"
+  printf 'UP - stub --- ON in port: %s' "$stub_port" > "$work/$stub_port/isAlive"
+  python3 -m http.server "$stub_port" --bind 127.0.0.1 --directory "$work/$stub_port" >/dev/null 2>&1 &
+  pids="$pids $!"
+done
+
+now_ms() { date +%s%3N; }
+
+start=$(now_ms)
+# Eureka desligado em tempo de execução (o AOT fixou os beans no build)
+"$BINARY" --spring.profiles.active=stub --server.port="$PORT" \
+  --eureka.client.register-with-eureka=false --eureka.client.fetch-registry=false > "$work/gateway.log" 2>&1 &
+gateway_pid=$!
+pids="$pids $gateway_pid"
+
+until curl -sf "http://localhost:$PORT/restapi/isAlive" >/dev/null 2>&1; do
+  if ! kill -0 "$gateway_pid" 2>/dev/null; then
+    echo "FALHA: gateway encerrou" >&2
+    cat "$work/gateway.log" >&2
+    exit 1
+  fi
+  if [ $(( $(now_ms) - start )) -gt 30000 ]; then
+    echo "FALHA: gateway não roteou em 30s" >&2
+    exit 1
+  fi
+  sleep 0.01
+done
+startup_ms=$(( $(now_ms) - start ))
+
+# Roteamento: todas as respostas devem vir dos stubs (o balanceador por latência pode favorecer um deles)
+i=0
+: > "$work/responses"
+while [ "$i" -lt "$REQUESTS" ]; do
+  curl -sf "http://localhost:$PORT/restapi/isAlive" >> "$work/responses"
+  echo >> "$work/responses"
+  i=$((i + 1))
+done
+hits_9091=$(grep -c 'port: 9091' "$work/responses" || true)
+hits_9092=$(grep -c 'port: 9092' "$work/responses" || true)
+
+rss_mb=$(( $(ps -o rss= -p "$gateway_pid" | tr -d ' ') / 1024 ))
+
+echo "Inicialização até a 1ª requisição roteada: ${startup_ms} ms (limite ${MAX_STARTUP_MS} ms)"
+grep -o 'Started GatewayApplication in [0-9.]* seconds' "$work/gateway.log" || true
+echo "Respostas: 9091=${hits_9091} 9092=${hits_9092} de ${REQUESTS}"
+echo "RSS após ${REQUESTS} requisições: ${rss_mb} MB (limite ${MAX_RSS_MB} MB)"
+
+status=0
+if [ $((hits_9091 + hits_9092)) -ne "$REQUESTS" ]; then
+  echo "FALHA: nem todas as requisições foram roteadas para os stubs" >&2
+  status=1
+fi
+if [ "$startup_ms" -gt "$MAX_STARTUP_MS" ]; then
+  echo "FALHA: inicialização acima do limite" >&2
+  status=1
+fi
+if [ "$rss_mb" -gt "$MAX_RSS_MB" ]; then
+  echo "FALHA: RSS acima do limite" >&2
+  status=1
+fi
+[ "$status" -eq 0 ] && echo "OK"
+exit "$status"
@@ -0,0 +1,74 @@
+// order-cache.js
+// GET /api/orders/{id} com o cache de segundo nível aquecido (itens de pedido vindos do cache).
+// Para medir o caminho JPA, e não o documento de order_views, suba o restapi com
+// APP_ORDERVIEWS_READENABLED=false. Compare com uma execução com
+// SPRING_JPA_PROPERTIES_HIBERNATE_CACHE_USE_SECOND_LEVEL_CACHE=false.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://host.docker.internal/restapi/api';
+const ORDERS = parseInt(__ENV.ORDERS || '2000');
+const ITEMS_PER_ORDER = 4;
+
+const getOrderDuration = new Trend('get_order_duration', true);
+
+export const options = {
+  setupTimeout: '5m',
+  scenarios: {
+    warm_cache_reads: {
+      executor: 'constant-vus',
+      vus: 50,
+      duration: '1m',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    get_order_duration: ['p(95)<50'],
+  },
+};
+
+export function setup() {
+  const headers = { 'Content-Type': 'application/json' };
+  const partnerRes = http.post(`${BASE_URL}/partners`, JSON.stringify({
+    name: `Partner_Cache_${Date.now()}`,
+    creditLimit: 1000000.00,
+    currentCredit: 1000000.00,
+  }), { headers });
+  if (partnerRes.status !== 201) {
+    throw new Error(`SETUP FAILED: parceiro não criado. Status: ${partnerRes.status}, Body: ${partnerRes.body}`);
+  }
+  const partnerId = partnerRes.json().id;
+
+  const ids = [];
+  for (let i = 0; i < ORDERS; i++) {
+    const items = [];
+    for (let j = 0; j < ITEMS_PER_ORDER; j++) {
+      items.push({ product: `Produto ${(i + j) % 100}`, quantity: 1 + j, unitPrice: 10.00 });
+    }
+    const res = http.post(`${BASE_URL}/orders`, JSON.stringify({ partnerId: partnerId, items: items }), { headers });
+    if (res.status === 201) {
+      ids.push(res.json().id);
+    }
+  }
+  if (ids.length === 0) {
+    throw new Error('SETUP FAILED: nenhum pedido criado.');
+  }
+
+  // Aquece o cache: a primeira leitura de cada pedido carrega os itens do banco e os guarda no cache
+  for (const id of ids) {
+    http.get(`${BASE_URL}/orders/${id}`, { tags: { name: 'WarmUp' } });
+  }
+  console.log(`SETUP: ${ids.length} pedidos com ${ITEMS_PER_ORDER} itens criados e lidos uma vez`);
+  return { ids: ids };
+}
+
+export default function (data) {
+  const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+  const res = http.get(`${BASE_URL}/orders/${id}`, { tags: { name: 'GetOrder' } });
+  getOrderDuration.add(res.timings.duration);
+  check(res, {
+    'status 200': (r) => r.status === 200,
+    'itens presentes': (r) => r.status === 200 && r.json().items.length === ITEMS_PER_ORDER,
+  });
+}
@@ -0,0 +1,73 @@
+// reactive-readers.js
+// 1000 leitores simultâneos fazendo buscas por período em GET /api/orders: primeiro no restapi (servlet/JPA),
+// depois no restapi-query (WebFlux/R2DBC), com o mesmo contrato e os mesmos dados. Compare, por api,
+// http_req_duration, http_reqs (vazão) e http_req_failed no resumo final.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const GATEWAY = __ENV.GATEWAY_URL || 'http://host.docker.internal';
+const VUS = parseInt(__ENV.VUS || '1000');
+const ORDERS = parseInt(__ENV.ORDERS || '500');
+
+const ordersPerResponse = new Trend('orders_per_response');
+
+export const options = {
+  setupTimeout: '5m',
+  scenarios: {
+    servlet: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: '1m',
+      env: { API: 'restapi' },
+      tags: { api: 'servlet' },
+    },
+    reactive: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: '1m',
+      startTime: '1m15s', // depois do servlet terminar e drenar
+      env: { API: 'restapi-query' },
+      tags: { api: 'reactive' },
+    },
+  },
+  thresholds: {
+    // Sem meta fixa: os limiares só fazem o k6 mostrar as métricas separadas por api no resumo
+    'http_req_duration{api:servlet}': ['p(95)<60000'],
+    'http_req_duration{api:reactive}': ['p(95)<60000'],
+    'http_req_failed{api:servlet}': ['rate<1'],
+    'http_req_failed{api:reactive}': ['rate<1'],
+  },
+};
+
+export function setup() {
+  const headers = { 'Content-Type': 'application/json' };
+  const startDate = new Date(Date.now() - 60 * 1000).toISOString().substring(0, 19);
+  const partnerRes = http.post(`${GATEWAY}/restapi/api/partners`, JSON.stringify({
+    name: `Partner_Readers_${Date.now()}`,
+    creditLimit: 1000000.00,
+    currentCredit: 1000000.00,
+  }), { headers });
+  if (partnerRes.status !== 201) {
+    throw new Error(`SETUP FAILED: parceiro não criado. Status: ${partnerRes.status}, Body: ${partnerRes.body}`);
+  }
+  const partnerId = partnerRes.json().id;
+  for (let i = 0; i < ORDERS; i++) {
+    http.post(`${GATEWAY}/restapi/api/orders`, JSON.stringify({
+      partnerId: partnerId,
+      items: [{ product: `Produto ${i % 50}`, quantity: 1, unitPrice: 10.00 }],
+    }), { headers });
+  }
+  const endDate = new Date(Date.now() + 60 * 1000).toISOString().substring(0, 19);
+  console.log(`SETUP: ${ORDERS} pedidos criados entre ${startDate} e ${endDate}`);
+  return { startDate: startDate, endDate: endDate };
+}
+
+export default function (data) {
+  const url = `${GATEWAY}/${__ENV.API}/api/orders?startDate=${data.startDate}&endDate=${data.endDate}`;
+  const res = http.get(url, { headers: { Accept: 'application/json' }, timeout: '120s', tags: { name: 'SearchByPeriod' } });
+  const ok = check(res, { 'status 200': (r) => r.status === 200 });
+  if (ok) {
+    ordersPerResponse.add(res.json().length);
+  }
+}
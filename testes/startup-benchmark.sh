@@ -0,0 +1,49 @@
+#!/usr/bin/env sh
+# Compara o tempo de inicialização do restapi com a imagem padrão (Dockerfile da raiz) e com a
+# imagem otimizada (restapi/Dockerfile: perfil prod, AOT e AppCDS).
+# Para cada imagem, sobe o container RUNS vezes contra o Postgres do compose e mede:
+#   - "started": tempo informado pelo Spring Boot ("Started RestapiApplication in X seconds")
+#   - "ready":   tempo de parede até o primeiro 200 em /isAlive
+# Uso: ./testes/startup-benchmark.sh   (RUNS=5 por padrão)
+set -eu
+
+RUNS="${RUNS:-5}"
+PORT="${PORT:-18080}"
+
+docker compose up -d postgres >/dev/null
+network=$(docker inspect -f '{{range $name, $_ := .NetworkSettings.Networks}}{{$name}}{{end}}' pedido-postgres)
+
+docker build -q --build-arg MODULE_NAME=restapi -t sgp-restapi:baseline . >/dev/null
+docker build -q -f restapi/Dockerfile -t sgp-restapi:fast . >/dev/null
+
+now_ms() { date +%s%3N; }
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'; }
+
+measure() {
+  image=$1
+  started_file=$(mktemp)
+  ready_file=$(mktemp)
+  i=1
+  while [ "$i" -le "$RUNS" ]; do
+    start=$(now_ms)
+    id=$(docker run -d --network "$network" -p "$PORT:8080" \
+      -e SPRING_DATASOURCE_URL=jdbc:postgresql://postgres:5432/sgpdb \
+      -e SPRING_DATASOURCE_USERNAME=user -e SPRING_DATASOURCE_PASSWORD=password \
+      -e EUREKA_CLIENT_ENABLED=false "$image")
+    until curl -sf "http://localhost:$PORT/isAlive" >/dev/null 2>&1; do
+      sleep 0.05
+    done
+    echo $(( $(now_ms) - start )) >> "$ready_file"
+    docker logs "$id" 2>&1 | sed -n 's/.*Started RestapiApplication in \([0-9.]*\) seconds.*/\1/p' \
+      | awk '{ printf "%d\n", $1 * 1000 }' >> "$started_file"
+    docker rm -f "$id" >/dev/null
+    i=$((i + 1))
+  done
+  printf '%-22s started: %6s ms   ready: %6s ms   (mediana de %s execuções)\n' \
+    "$image" "$(median < "$started_file")" "$(median < "$ready_file")" "$RUNS"
+  rm -f "$started_file" "$ready_file"
+}
+
+measure sgp-restapi:baseline
+measure sgp-restapi:fast